@@ -0,0 +1,69 @@
+package org.osm2world.map_data.creation;
+
+import static org.osm2world.map_data.creation.OSMToMapDataConverterTest.createForestMultipolygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.osm2world.conversion.O2WConfig;
+import org.osm2world.map_data.data.MapData;
+import org.osm2world.math.geo.MapProjection;
+import org.osm2world.math.geo.MetricMapProjection;
+import org.osm2world.osm.data.OSMData;
+
+import de.topobyte.osm4j.core.model.iface.OsmNode;
+import de.topobyte.osm4j.core.model.iface.OsmRelation;
+import de.topobyte.osm4j.core.model.iface.OsmWay;
+import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
+
+/**
+ * converts several large multipolygon relations to {@link MapData}.
+ * Each relation is a forest with a grid of clearings, and each clearing contains an island of trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultipolygonBenchmark {
+
+	/** the number of rings in each relation is 2 * clearingsPerRow² + 1 */
+	@Param({"5", "20", "50"})
+	public int clearingsPerRow;
+
+	@Param({"1", "4"})
+	public int mapDataThreads;
+
+	private static final int RELATION_COUNT = 4;
+
+	private OSMData osmData;
+	private MapProjection mapProjection;
+	private O2WConfig config;
+
+	@Setup
+	public void setup() {
+
+		List<OsmNode> nodes = new ArrayList<>();
+		List<OsmWay> ways = new ArrayList<>();
+		List<OsmRelation> relations = new ArrayList<>();
+
+		for (int i = 0; i < RELATION_COUNT; i++) {
+			createForestMultipolygon(1 + i, 0.0, i * 0.03, 0.02, clearingsPerRow, nodes, ways, relations);
+		}
+
+		osmData = new OSMData(List.of(), nodes, ways, relations);
+		mapProjection = new MetricMapProjection(osmData.getCenter());
+		config = new O2WConfig(Map.of("mapDataThreads", mapDataThreads));
+
+	}
+
+	@Benchmark
+	public MapData createMapData() throws EntityNotFoundException {
+		return new OSMToMapDataConverter(mapProjection).createMapData(osmData, config);
+	}
+
+}
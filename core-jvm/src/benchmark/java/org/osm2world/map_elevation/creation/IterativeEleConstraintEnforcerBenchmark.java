@@ -0,0 +1,86 @@
+package org.osm2world.map_elevation.creation;
+
+import static org.osm2world.map_elevation.creation.EleConstraintEnforcer.ConstraintType.*;
+import static org.osm2world.map_elevation.data.GroundState.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.map_elevation.data.GroundState;
+import org.osm2world.math.VectorXZ;
+
+/**
+ * solves many independent bridges over roads with an {@link IterativeEleConstraintEnforcer}.
+ * Each bridge has incline and smoothness constraints along its length, and a minimum clearance above the road.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IterativeEleConstraintEnforcerBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int bridgeCount;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private static final int CONNECTORS_PER_BRIDGE = 20;
+
+	private IterativeEleConstraintEnforcer enforcer;
+
+	/** the solver modifies the connectors' elevations, so a new problem is set up for each invocation */
+	@Setup(Level.Invocation)
+	public void setup() {
+
+		enforcer = new IterativeEleConstraintEnforcer(IterativeEleConstraintEnforcer.DEFAULT_MAX_ITERATIONS,
+				IterativeEleConstraintEnforcer.DEFAULT_TIME_LIMIT, threads);
+
+		for (int b = 0; b < bridgeCount; b++) {
+
+			double z = 100 * b;
+			Object bridge = new Object();
+
+			List<EleConnector> bridgeConnectors = new ArrayList<>();
+			for (int i = 0; i < CONNECTORS_PER_BRIDGE; i++) {
+				boolean end = i == 0 || i == CONNECTORS_PER_BRIDGE - 1;
+				bridgeConnectors.add(connector(5 * i, z, end ? null : bridge, end ? ON : ABOVE, b % 7));
+			}
+
+			EleConnector road1 = connector(5 * CONNECTORS_PER_BRIDGE / 2.0, z - 10, null, ON, b % 5);
+			EleConnector road2 = connector(5 * CONNECTORS_PER_BRIDGE / 2.0, z + 10, null, ON, b % 5);
+
+			enforcer.addConnectors(bridgeConnectors);
+			enforcer.addConnectors(List.of(road1, road2));
+
+			enforcer.requireVerticalDistance(MIN, 6, bridgeConnectors.get(CONNECTORS_PER_BRIDGE / 2), road1, road2);
+			enforcer.requireIncline(MAX, 0.1, bridgeConnectors);
+			enforcer.requireIncline(MIN, -0.1, bridgeConnectors);
+
+			for (int i = 0; i + 2 < CONNECTORS_PER_BRIDGE; i++) {
+				enforcer.requireSmoothness(bridgeConnectors.get(i), bridgeConnectors.get(i + 1),
+						bridgeConnectors.get(i + 2));
+			}
+
+		}
+
+	}
+
+	@Benchmark
+	public IterativeEleConstraintEnforcer enforceConstraints() {
+		enforcer.enforceConstraints();
+		return enforcer;
+	}
+
+	private static EleConnector connector(double x, double z, Object reference, GroundState groundState, double ele) {
+		var c = new EleConnector(new VectorXZ(x, z), reference, groundState);
+		c.setPosXYZ(c.pos.xyz(ele));
+		return c;
+	}
+
+}
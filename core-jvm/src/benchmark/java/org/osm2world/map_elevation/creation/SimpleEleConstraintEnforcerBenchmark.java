@@ -0,0 +1,62 @@
+package org.osm2world.map_elevation.creation;
+
+import static org.osm2world.map_elevation.data.GroundState.ON;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.math.VectorXZ;
+
+/**
+ * adds a grid of connectors to a {@link SimpleEleConstraintEnforcer}, with several connectors at each grid point.
+ * This resembles the terrain grid and the objects connected to it on a large tile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimpleEleConstraintEnforcerBenchmark {
+
+	@Param({"50", "100", "200"})
+	public int gridSize;
+
+	private static final int CONNECTORS_PER_POINT = 4;
+
+	/** the connectors for each grid point */
+	private List<List<EleConnector>> connectorsPerPoint;
+
+	@Setup
+	public void setup() {
+
+		connectorsPerPoint = new ArrayList<>();
+
+		for (int x = 0; x < gridSize; x++) {
+			for (int z = 0; z < gridSize; z++) {
+				List<EleConnector> connectorsAtPoint = new ArrayList<>();
+				for (int i = 0; i < CONNECTORS_PER_POINT; i++) {
+					var c = new EleConnector(new VectorXZ(x, z), null, ON);
+					c.setPosXYZ(c.pos.xyz(i));
+					connectorsAtPoint.add(c);
+				}
+				connectorsPerPoint.add(connectorsAtPoint);
+			}
+		}
+
+	}
+
+	@Benchmark
+	public SimpleEleConstraintEnforcer enforceConstraints() {
+		var enforcer = new SimpleEleConstraintEnforcer();
+		for (List<EleConnector> connectorsAtPoint : connectorsPerPoint) {
+			enforcer.addConnectors(connectorsAtPoint);
+		}
+		enforcer.enforceConstraints();
+		return enforcer;
+	}
+
+}
@@ -0,0 +1,46 @@
+package org.osm2world.map_elevation.data;
+
+import static org.osm2world.map_elevation.data.GroundState.ON;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.osm2world.math.VectorXZ;
+
+/**
+ * creates an {@link EleConnectorGroup} for a grid of positions and looks up the connector for each of them,
+ * like an area with many fill points does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EleConnectorGroupBenchmark {
+
+	@Param({"10", "100", "300"})
+	public int gridSize;
+
+	private List<VectorXZ> positions;
+
+	@Setup
+	public void setup() {
+		positions = new ArrayList<>();
+		for (int x = 0; x < gridSize; x++) {
+			for (int z = 0; z < gridSize; z++) {
+				positions.add(new VectorXZ(x, z));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<EleConnector> getConnectors() {
+		var group = new EleConnectorGroup();
+		group.addConnectorsFor(positions, null, ON);
+		return group.getConnectors(positions);
+	}
+
+}
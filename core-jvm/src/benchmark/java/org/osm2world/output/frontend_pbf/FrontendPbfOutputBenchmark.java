@@ -0,0 +1,67 @@
+package org.osm2world.output.frontend_pbf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.osm2world.math.VectorXYZ;
+import org.osm2world.output.frontend_pbf.FrontendPbfOutput.SimpleBlock;
+import org.osm2world.output.frontend_pbf.FrontendPbfOutput.VectorBlock;
+
+/**
+ * fills the deduplication blocks of {@link FrontendPbfOutput}.
+ * Each element is added twice, as shared vertices and repeated strings would be on a large tile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrontendPbfOutputBenchmark {
+
+	@Param({"1000", "10000", "250000"})
+	public int elementCount;
+
+	private List<VectorXYZ> vectors;
+	private List<String> strings;
+
+	@Setup
+	public void setup() {
+
+		vectors = new ArrayList<>();
+		strings = new ArrayList<>();
+
+		int size = (int) Math.ceil(Math.sqrt(elementCount));
+
+		for (int i = 0; i < elementCount; i++) {
+			vectors.add(new VectorXYZ((i / size) * 0.1, i % 7, -(i % size) * 0.1));
+			strings.add("element" + i);
+		}
+
+	}
+
+	@Benchmark
+	public VectorBlock<VectorXYZ> vectorBlock() {
+		var block = new VectorBlock<VectorXYZ>();
+		for (int repetition = 0; repetition < 2; repetition++) {
+			for (VectorXYZ v : vectors) {
+				block.toIndex(v);
+			}
+		}
+		return block;
+	}
+
+	@Benchmark
+	public SimpleBlock<String> simpleBlock() {
+		var block = new SimpleBlock<String>();
+		for (int repetition = 0; repetition < 2; repetition++) {
+			for (String s : strings) {
+				block.toIndex(s);
+			}
+		}
+		return block;
+	}
+
+}
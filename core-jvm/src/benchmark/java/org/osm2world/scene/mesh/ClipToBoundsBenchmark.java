@@ -0,0 +1,82 @@
+package org.osm2world.scene.mesh;
+
+import static org.osm2world.scene.material.Material.Interpolation.FLAT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.osm2world.math.VectorXYZ;
+import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
+import org.osm2world.math.shapes.TriangleXYZ;
+import org.osm2world.scene.color.Color;
+import org.osm2world.scene.material.Material;
+
+/**
+ * clips meshes scattered around a tile to the tile's bounds with {@link MeshStore.ClipToBounds}.
+ * Most meshes are entirely inside or outside the bounds, some cross them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClipToBoundsBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int meshCount;
+
+	@Param({"false", "true"})
+	public boolean splitTriangles;
+
+	/** number of grid cells along each side of a mesh, each of which has two triangles */
+	private static final int MESH_GRID_SIZE = 10;
+
+	private MeshStore meshStore;
+	private List<MeshStore.MeshProcessingStep> steps;
+
+	@Setup
+	public void setup() {
+
+		var random = new Random(42);
+		var metadata = new MeshStore.MeshMetadata(null, null);
+		var material = new Material(FLAT, Color.WHITE);
+
+		List<MeshStore.MeshWithMetadata> meshes = new ArrayList<>();
+
+		for (int i = 0; i < meshCount; i++) {
+
+			double minX = random.nextDouble(-1500, 1500);
+			double minZ = random.nextDouble(-1500, 1500);
+
+			var builder = new TriangleGeometry.Builder(0, null, FLAT);
+			for (int x = 0; x < MESH_GRID_SIZE; x++) {
+				for (int z = 0; z < MESH_GRID_SIZE; z++) {
+					var v00 = new VectorXYZ(minX + x, 0, minZ + z);
+					var v10 = new VectorXYZ(minX + x + 1, 0, minZ + z);
+					var v01 = new VectorXYZ(minX + x, 0, minZ + z + 1);
+					var v11 = new VectorXYZ(minX + x + 1, 0, minZ + z + 1);
+					builder.addTriangles(List.of(new TriangleXYZ(v00, v10, v01), new TriangleXYZ(v10, v11, v01)));
+				}
+			}
+
+			meshes.add(new MeshStore.MeshWithMetadata(new Mesh(builder.build(), material), metadata));
+
+		}
+
+		meshStore = new MeshStore(meshes);
+
+		var bounds = new AxisAlignedRectangleXZ(-1000, -1000, 1000, 1000);
+		steps = List.of(new MeshStore.ClipToBounds(bounds, splitTriangles));
+
+	}
+
+	@Benchmark
+	public MeshStore clipToBounds() {
+		return meshStore.process(steps);
+	}
+
+}
@@ -0,0 +1,301 @@
+package org.osm2world.osm.creation;
+
+import static java.util.Locale.ROOT;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.Nullable;
+
+import com.clarisma.common.store.StoreException;
+import com.geodesk.feature.FeatureLibrary;
+
+/**
+ * shared {@link FeatureLibrary} instances for GeoDesk databases (.gol files).
+ * All readers accessing a file use one library, which supports concurrent queries.
+ * Libraries are reference-counted. To avoid reopening a file for each of several consecutive reads
+ * (e.g. the tiles of a tileset), a library remains open until it has not been used for {@link #IDLE_TIMEOUT_SECONDS}
+ * or until {@link #closeAll()} is called.
+ *
+ * Also collects statistics about the reads performed through the pool.
+ */
+public final class GeodeskLibraryPool {
+
+	/** time after which a library which is not being used is closed */
+	public static final long IDLE_TIMEOUT_SECONDS = 60;
+
+	/** pooled libraries by canonical file, guarded by the class lock */
+	private static final Map<File, PooledLibrary> libraries = new HashMap<>();
+
+	/** closes idle libraries, created on first use. Guarded by the class lock, like {@link #idleCheckScheduled} */
+	private static @Nullable ScheduledExecutorService idleCloser = null;
+	private static boolean idleCheckScheduled = false;
+
+	/* statistics, guarded by the class lock */
+	private static long reads = 0;
+	private static long totalReadNanos = 0;
+	private static long maxReadNanos = 0;
+	private static long busyNanos = 0;
+	private static int activeReads = 0;
+	private static int peakActiveReads = 0;
+	private static long busyStart = 0;
+
+	private GeodeskLibraryPool() {}
+
+	private static class PooledLibrary {
+
+		final File file;
+
+		/** the library, null until it has been opened. Guarded by this object's lock. */
+		private @Nullable FeatureLibrary library = null;
+
+		/* guarded by the class lock */
+		int referenceCount = 0;
+		long lastReleaseNanos = 0;
+
+		PooledLibrary(File file) {
+			this.file = file;
+		}
+
+		/**
+		 * returns the library, opening it if necessary.
+		 * Only blocks other threads which need the same file.
+		 */
+		synchronized FeatureLibrary open() throws IOException {
+			if (library == null) {
+				if (!file.exists()) {
+					throw new FileNotFoundException("Geodesk file does not exist: " + file);
+				}
+				try {
+					library = new FeatureLibrary(file.getPath());
+				} catch (StoreException e) {
+					throw new IOException(e);
+				}
+			}
+			return library;
+		}
+
+		synchronized void close() {
+			if (library != null) {
+				library.close();
+				library = null;
+			}
+		}
+
+	}
+
+	/**
+	 * a handle for using a pooled library. Must be closed after use, ideally with try-with-resources.
+	 * Each handle counts as one read for the purpose of the {@link ReadStatistics}.
+	 */
+	public static final class Handle implements AutoCloseable {
+
+		private final PooledLibrary pooledLibrary;
+		private final FeatureLibrary library;
+		private final long startNanos;
+		private boolean closed = false;
+
+		private Handle(PooledLibrary pooledLibrary, FeatureLibrary library, long startNanos) {
+			this.pooledLibrary = pooledLibrary;
+			this.library = library;
+			this.startNanos = startNanos;
+		}
+
+		public FeatureLibrary library() {
+			if (closed) throw new IllegalStateException("handle has already been closed");
+			return library;
+		}
+
+		@Override
+		public void close() {
+			synchronized (GeodeskLibraryPool.class) {
+				if (!closed) {
+					closed = true;
+					release(pooledLibrary, System.nanoTime() - startNanos);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * statistics about reads through the pool
+	 *
+	 * @param reads                number of completed reads
+	 * @param totalReadNanos       sum of the durations of all reads
+	 * @param maxReadNanos         duration of the slowest read
+	 * @param busyNanos            wall-clock time during which at least one read was running
+	 * @param peakConcurrentReads  the highest number of reads which were running at the same time
+	 */
+	public record ReadStatistics(long reads, long totalReadNanos, long maxReadNanos, long busyNanos,
+			int peakConcurrentReads) {
+
+		/** average latency of a read in milliseconds */
+		public double averageLatencyMillis() {
+			return reads == 0 ? 0 : totalReadNanos / 1e6 / reads;
+		}
+
+		/**
+		 * number of reads per second of wall-clock time spent reading.
+		 * Exceeds 1000 / {@link #averageLatencyMillis()} if reads ran concurrently.
+		 */
+		public double throughputPerSecond() {
+			return busyNanos == 0 ? 0 : reads / (busyNanos / 1e9);
+		}
+
+		@Override
+		public String toString() {
+			return String.format(ROOT, "%d reads, avg latency %.1f ms, max latency %.1f ms, "
+					+ "throughput %.2f reads/s, peak concurrency %d",
+					reads, averageLatencyMillis(), maxReadNanos / 1e6, throughputPerSecond(), peakConcurrentReads);
+		}
+
+	}
+
+	/**
+	 * returns a handle for the library of a file, opening the library if it isn't already open.
+	 * Opening happens outside the pool's lock, so it does not block readers of other files.
+	 */
+	public static Handle acquire(File file) throws IOException {
+
+		File key = file.getCanonicalFile();
+		long startNanos = System.nanoTime();
+
+		PooledLibrary pooledLibrary;
+
+		synchronized (GeodeskLibraryPool.class) {
+
+			pooledLibrary = libraries.computeIfAbsent(key, PooledLibrary::new);
+			pooledLibrary.referenceCount++;
+
+			if (activeReads == 0) {
+				busyStart = startNanos;
+			}
+			activeReads++;
+			peakActiveReads = Math.max(peakActiveReads, activeReads);
+
+		}
+
+		try {
+			return new Handle(pooledLibrary, pooledLibrary.open(), startNanos);
+		} catch (IOException | RuntimeException e) {
+			synchronized (GeodeskLibraryPool.class) {
+				pooledLibrary.referenceCount--;
+				if (pooledLibrary.referenceCount == 0) {
+					libraries.remove(key, pooledLibrary);
+				}
+				endRead();
+			}
+			throw e;
+		}
+
+	}
+
+	private static synchronized void release(PooledLibrary pooledLibrary, long readNanos) {
+
+		pooledLibrary.referenceCount--;
+
+		if (pooledLibrary.referenceCount == 0) {
+			pooledLibrary.lastReleaseNanos = System.nanoTime();
+			scheduleIdleCheck();
+		}
+
+		reads++;
+		totalReadNanos += readNanos;
+		maxReadNanos = Math.max(maxReadNanos, readNanos);
+
+		endRead();
+
+	}
+
+	/** updates the statistics when a read ends. Must be called with the class lock held. */
+	private static void endRead() {
+		activeReads--;
+		if (activeReads == 0) {
+			busyNanos += System.nanoTime() - busyStart;
+		}
+	}
+
+	/**
+	 * makes sure that idle libraries will be closed after {@link #IDLE_TIMEOUT_SECONDS}.
+	 * Must be called with the class lock held.
+	 */
+	private static void scheduleIdleCheck() {
+
+		if (idleCheckScheduled) return;
+
+		if (idleCloser == null) {
+			idleCloser = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "geodesk-idle-closer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		idleCloser.schedule(GeodeskLibraryPool::closeIdleLibraries, IDLE_TIMEOUT_SECONDS, SECONDS);
+		idleCheckScheduled = true;
+
+	}
+
+	private static synchronized void closeIdleLibraries() {
+
+		idleCheckScheduled = false;
+
+		closeLibrariesIdleFor(SECONDS.toNanos(IDLE_TIMEOUT_SECONDS));
+
+		if (libraries.values().stream().anyMatch(it -> it.referenceCount == 0)) {
+			scheduleIdleCheck();
+		}
+
+	}
+
+	/**
+	 * closes all libraries which are not currently in use and have been idle for at least the given time.
+	 * Must be called with the class lock held.
+	 */
+	private static void closeLibrariesIdleFor(long minIdleNanos) {
+		long now = System.nanoTime();
+		for (var iterator = libraries.values().iterator(); iterator.hasNext(); ) {
+			PooledLibrary pooledLibrary = iterator.next();
+			if (pooledLibrary.referenceCount == 0 && now - pooledLibrary.lastReleaseNanos >= minIdleNanos) {
+				iterator.remove();
+				pooledLibrary.close();
+			}
+		}
+	}
+
+	/**
+	 * closes all libraries which are not currently in use, without waiting for the idle timeout.
+	 * Libraries which are still in use remain open until they become idle.
+	 */
+	public static synchronized void closeAll() {
+		closeLibrariesIdleFor(0);
+	}
+
+	/** returns the number of libraries which are currently open */
+	public static synchronized int openLibraries() {
+		return libraries.size();
+	}
+
+	/** returns statistics about all reads since the start or the last call to {@link #resetStatistics()} */
+	public static synchronized ReadStatistics getStatistics() {
+		long currentBusyNanos = busyNanos + (activeReads > 0 ? System.nanoTime() - busyStart : 0);
+		return new ReadStatistics(reads, totalReadNanos, maxReadNanos, currentBusyNanos, peakActiveReads);
+	}
+
+	public static synchronized void resetStatistics() {
+		reads = 0;
+		totalReadNanos = 0;
+		maxReadNanos = 0;
+		busyNanos = 0;
+		peakActiveReads = activeReads;
+		busyStart = System.nanoTime();
+	}
+
+}
@@ -38,12 +38,6 @@ public record GeodeskReader(File file) implements OSMDataReader {
 
 	private static final long ANONYMOUS_NODE_ID_OFFSET = 100_000_000_000L;
 
-	/**
-	 * object used to prevent concurrent access to a Geodesk database.
-	 * This simple solution also prevents concurrent access to different databases, but that's likely a rare situation.
-	 */
-	private static final Object synchronizationObject = new Object();
-
 	@Override
 	public OSMData getData(LatLonBounds bounds) throws IOException {
 
@@ -51,21 +45,17 @@ public record GeodeskReader(File file) implements OSMDataReader {
 			throw new FileNotFoundException("Geodesk file does not exist: " + file);
 		}
 
-		synchronized (synchronizationObject) {
-
-			try (FeatureLibrary library = new FeatureLibrary(file.getPath())) {
+		try (GeodeskLibraryPool.Handle handle = GeodeskLibraryPool.acquire(file)) {
 
-				Box bbox = Box.ofWSEN(bounds.minlon, bounds.minlat, bounds.maxlon, bounds.maxlat);
-				Features features = library.in(bbox);
+			Box bbox = Box.ofWSEN(bounds.minlon, bounds.minlat, bounds.maxlon, bounds.maxlat);
+			Features features = handle.library().in(bbox);
 
-				InMemoryMapDataSet data = geodeskToOsm4j(features, bounds);
+			InMemoryMapDataSet data = geodeskToOsm4j(features, bounds);
 
-				return new OSMData(data);
-
-			} catch (StoreException e) {
-				throw new IOException(e);
-			}
+			return new OSMData(data);
 
+		} catch (StoreException e) {
+			throw new IOException(e);
 		}
 
 	}
@@ -1,16 +1,10 @@
 package org.osm2world.osm.creation;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
-import org.imintel.mbtiles4j.MBTilesReadException;
-import org.imintel.mbtiles4j.MBTilesReader;
-import org.imintel.mbtiles4j.Tile;
 import org.osm2world.math.geo.LatLonBounds;
 import org.osm2world.math.geo.TileNumber;
 import org.osm2world.osm.data.OSMData;
@@ -22,56 +16,21 @@ import de.topobyte.osm4j.pbf.seq.PbfIterator;
 
 /**
  * {@link OSMDataReader} fetching a single tile from a MBTiles sqlite database which contains .osm.pbf data.
+ * Connections to the database are managed by the shared {@link MbtilesReaderPool}.
  *
  * @param file  the MBTiles file this reader is obtaining data from
  */
 public record MbtilesReader(File file) implements OSMDataReader {
 
-	/**
-	 * map of existing readers.
-	 * Necessary to avoid more than one reader (and thus connection) to be created by separate threads.
-	 * Access through {@link #getReader(File)}!
-	 * //TODO move into a separate MbtilesReaderPool class so I can enforce access restrictions?
-	 */
-	private static final Map<File, MBTilesReader> readerMap = new HashMap<>();
-	//TODO reference counter, closing it
-
-	private static synchronized MBTilesReader getReader(File mbtilesFile)
-			throws MBTilesReadException, FileNotFoundException {
-
-		if (!readerMap.containsKey(mbtilesFile)) {
-			if (!mbtilesFile.exists()) {
-				throw new FileNotFoundException("MBTiles file does not exist: " + mbtilesFile);
-			}
-			readerMap.put(mbtilesFile, new MBTilesReader(mbtilesFile));
-		}
-
-		return readerMap.get(mbtilesFile);
-
-	}
-
 	@Override
 	public OSMData getData(TileNumber tile) throws IOException {
 
-		try {
-
-			MBTilesReader r = getReader(file);
-
-			// get the tile; note that mbtiles is using TMS tile coords, which have a flipped y-axis
-			Tile t = r.getTile(tile.zoom, tile.x, tile.flippedY());
-
-			try (InputStream is = t.getData()) {
-
-				OsmIterator iterator = new PbfIterator(is, true);
-
-				InMemoryMapDataSet data = MapDataSetLoader.read(iterator, true, true, true);
-				return new OSMData(data);
+		byte[] tileData = MbtilesReaderPool.getSharedInstance().getTileData(file, tile);
 
-			}
+		OsmIterator iterator = new PbfIterator(new ByteArrayInputStream(tileData), true);
 
-		} catch (MBTilesReadException e) {
-			throw new IOException(e);
-		}
+		InMemoryMapDataSet data = MapDataSetLoader.read(iterator, true, true, true);
+		return new OSMData(data);
 
 	}
 
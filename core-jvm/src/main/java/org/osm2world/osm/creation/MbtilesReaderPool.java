@@ -0,0 +1,378 @@
+package org.osm2world.osm.creation;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.annotation.Nullable;
+
+import org.imintel.mbtiles4j.MBTilesReadException;
+import org.imintel.mbtiles4j.MBTilesReader;
+import org.imintel.mbtiles4j.Tile;
+import org.osm2world.math.geo.TileNumber;
+
+/**
+ * a pool of {@link MBTilesReader}s for MBTiles sqlite databases, used by {@link MbtilesReader}.
+ * Each {@link MBTilesReader} holds its own database connection and is only used by one thread at a time,
+ * so multiple threads can read tiles from the same file concurrently.
+ *
+ * Connections are reference-counted. Once no reads are in progress for a file,
+ * its connections are closed after a short linger time unless they are used again in the meantime.
+ *
+ * Optionally, the pool reads the neighbouring tiles in the background after a tile has been read.
+ * This is useful if the caller is going to request tiles in the order of their tile numbers.
+ * Prefetching is disabled by default, and the number of pending prefetches is limited.
+ */
+public class MbtilesReaderPool {
+
+	public static final int DEFAULT_MAX_CONNECTIONS = Math.max(2, Runtime.getRuntime().availableProcessors());
+	public static final Duration DEFAULT_LINGER_TIME = Duration.ofSeconds(10);
+	public static final int DEFAULT_TILE_CACHE_SIZE = 32;
+
+	private static final MbtilesReaderPool SHARED_INSTANCE =
+			new MbtilesReaderPool(DEFAULT_MAX_CONNECTIONS, DEFAULT_LINGER_TIME, DEFAULT_TILE_CACHE_SIZE);
+
+	/** thread used for prefetching tiles and closing unused connections */
+	private static final ScheduledExecutorService backgroundExecutor =
+			Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "MbtilesReaderPool");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** maximum number of open connections per file */
+	private final int maxConnections;
+
+	/** time before the connections for a file are closed after the last read has been completed */
+	private final Duration lingerTime;
+
+	/** maximum number of tiles in {@link #tileCache} */
+	private final int tileCacheSize;
+
+	/** distance (in tiles) up to which neighbouring tiles are prefetched, 0 if prefetching is disabled */
+	private final int prefetchDistance;
+
+	/**
+	 * maximum number of prefetches which may be pending at the same time.
+	 * Limited to half the cache size so prefetched tiles don't push requested tiles out of the cache.
+	 */
+	private final int maxPendingPrefetches;
+
+	private final Map<File, FileConnections> connections = new HashMap<>();
+
+	/**
+	 * the raw data of recently read or prefetched tiles. Least recently used tiles are removed first.
+	 * Guarded by this pool's lock.
+	 */
+	private final Map<TileKey, byte[]> tileCache;
+
+	/** tiles for which a prefetch has been scheduled, guarded by this pool's lock */
+	private final Set<TileKey> pendingPrefetches = new HashSet<>();
+
+	private record TileKey(File file, TileNumber tile) {}
+
+	/** the connections for one file, guarded by the pool's lock */
+	private static class FileConnections {
+
+		final Deque<MBTilesReader> idleReaders = new ArrayDeque<>();
+
+		/** number of open readers, including those which are currently in use */
+		int openReaders = 0;
+
+		/** number of threads using or waiting for a reader */
+		int activeLeases = 0;
+
+		/** if true, the connections are closed as soon as they are no longer used, without waiting */
+		boolean closeWhenUnused = false;
+
+		@Nullable ScheduledFuture<?> scheduledClose = null;
+
+	}
+
+	/** exclusive use of one reader, must be closed after use */
+	private class Lease implements AutoCloseable {
+
+		final File file;
+		final FileConnections fileConnections;
+		final MBTilesReader reader;
+
+		Lease(File file, FileConnections fileConnections, MBTilesReader reader) {
+			this.file = file;
+			this.fileConnections = fileConnections;
+			this.reader = reader;
+		}
+
+		@Override
+		public void close() {
+			release(this);
+		}
+
+	}
+
+	/**
+	 * @param maxConnections    maximum number of connections which are opened for each file
+	 * @param lingerTime        time before the connections for a file are closed once they are no longer used
+	 * @param tileCacheSize     number of tiles which are kept in memory, 0 disables caching and prefetching
+	 * @param prefetchDistance  distance (in tiles) up to which the neighbours of a requested tile
+	 *                          are read in the background, 0 disables prefetching
+	 */
+	public MbtilesReaderPool(int maxConnections, Duration lingerTime, int tileCacheSize, int prefetchDistance) {
+
+		if (maxConnections < 1) throw new IllegalArgumentException("invalid connection limit: " + maxConnections);
+		if (lingerTime.isNegative()) throw new IllegalArgumentException("invalid linger time: " + lingerTime);
+		if (tileCacheSize < 0) throw new IllegalArgumentException("invalid cache size: " + tileCacheSize);
+		if (prefetchDistance < 0) throw new IllegalArgumentException("invalid prefetch distance: " + prefetchDistance);
+
+		this.maxConnections = maxConnections;
+		this.lingerTime = lingerTime;
+		this.tileCacheSize = tileCacheSize;
+		this.prefetchDistance = prefetchDistance;
+		this.maxPendingPrefetches = tileCacheSize / 2;
+
+		this.tileCache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TileKey, byte[]> eldest) {
+				return size() > MbtilesReaderPool.this.tileCacheSize;
+			}
+		};
+
+	}
+
+	/**
+	 * creates a pool which does not prefetch tiles
+	 *
+	 * @see #MbtilesReaderPool(int, Duration, int, int)
+	 */
+	public MbtilesReaderPool(int maxConnections, Duration lingerTime, int tileCacheSize) {
+		this(maxConnections, lingerTime, tileCacheSize, 0);
+	}
+
+	/**
+	 * returns the pool which is used by all {@link MbtilesReader}s. It does not prefetch tiles.
+	 */
+	public static MbtilesReaderPool getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * returns the raw (usually .osm.pbf) data of a tile.
+	 * Afterward, the neighbouring tiles are prefetched in the background if prefetching is enabled.
+	 *
+	 * @throws FileNotFoundException  if the file or the tile does not exist
+	 */
+	public byte[] getTileData(File file, TileNumber tile) throws IOException {
+
+		File canonicalFile = file.getCanonicalFile();
+		var key = new TileKey(canonicalFile, tile);
+
+		byte[] data;
+
+		synchronized (this) {
+			data = tileCache.get(key);
+		}
+
+		if (data == null) {
+			data = readTile(canonicalFile, tile);
+			synchronized (this) {
+				tileCache.put(key, data);
+			}
+		}
+
+		prefetchNeighbors(canonicalFile, tile);
+
+		return data;
+
+	}
+
+	/** returns the number of open connections, including those which are currently in use */
+	public synchronized int openConnections() {
+		return connections.values().stream().mapToInt(it -> it.openReaders).sum();
+	}
+
+	/**
+	 * closes all connections and clears the tile cache.
+	 * Connections which are currently in use are closed as soon as they are no longer needed.
+	 * The pool can still be used afterward, connections will be opened again as needed.
+	 */
+	public synchronized void closeAll() {
+
+		tileCache.clear();
+
+		for (Map.Entry<File, FileConnections> entry : List.copyOf(connections.entrySet())) {
+			FileConnections fileConnections = entry.getValue();
+			if (fileConnections.activeLeases == 0) {
+				closeConnections(entry.getKey(), fileConnections);
+			} else {
+				fileConnections.closeWhenUnused = true;
+			}
+		}
+
+	}
+
+	private byte[] readTile(File file, TileNumber tile) throws IOException {
+
+		try (Lease lease = acquire(file)) {
+
+			// mbtiles is using TMS tile coords, which have a flipped y-axis
+			Tile t = lease.reader.getTile(tile.zoom, tile.x, tile.flippedY());
+			InputStream tileData = (t != null) ? t.getData() : null;
+
+			if (tileData == null) {
+				throw new FileNotFoundException("Tile " + tile + " does not exist in " + file);
+			}
+
+			try (InputStream is = tileData) {
+				return is.readAllBytes();
+			}
+
+		} catch (MBTilesReadException e) {
+			throw new IOException(e);
+		}
+
+	}
+
+	private void prefetchNeighbors(File file, TileNumber tile) {
+
+		if (prefetchDistance == 0 || maxPendingPrefetches == 0) return;
+
+		int maxTileIndex = (1 << tile.zoom) - 1;
+		int d = prefetchDistance;
+
+		for (int x = Math.max(0, tile.x - d); x <= Math.min(maxTileIndex, tile.x + d); x++) {
+			for (int y = Math.max(0, tile.y - d); y <= Math.min(maxTileIndex, tile.y + d); y++) {
+
+				var key = new TileKey(file, new TileNumber(tile.zoom, x, y));
+
+				synchronized (this) {
+					if (pendingPrefetches.size() >= maxPendingPrefetches) return;
+					if (tileCache.containsKey(key) || !pendingPrefetches.add(key)) continue;
+				}
+
+				backgroundExecutor.execute(() -> {
+					try {
+						byte[] data = readTile(key.file(), key.tile());
+						synchronized (this) {
+							tileCache.put(key, data);
+						}
+					} catch (IOException | RuntimeException ignored) {
+						// errors will be reported if the tile is actually requested
+					} finally {
+						synchronized (this) {
+							pendingPrefetches.remove(key);
+						}
+					}
+				});
+
+			}
+		}
+
+	}
+
+	/**
+	 * returns a lease for an idle reader, or for a newly opened one if none is idle.
+	 * New connections are opened outside the pool's lock, so they don't block reads from other files.
+	 */
+	private Lease acquire(File file) throws IOException, MBTilesReadException {
+
+		if (!file.exists()) {
+			throw new FileNotFoundException("MBTiles file does not exist: " + file);
+		}
+
+		FileConnections fileConnections;
+
+		synchronized (this) {
+
+			fileConnections = connections.computeIfAbsent(file, f -> new FileConnections());
+
+			if (fileConnections.scheduledClose != null) {
+				fileConnections.scheduledClose.cancel(false);
+				fileConnections.scheduledClose = null;
+			}
+
+			fileConnections.activeLeases++;
+
+			try {
+
+				while (fileConnections.idleReaders.isEmpty() && fileConnections.openReaders >= maxConnections) {
+					wait();
+				}
+
+				MBTilesReader reader = fileConnections.idleReaders.pollFirst();
+
+				if (reader != null) {
+					return new Lease(file, fileConnections, reader);
+				}
+
+				// reserve a slot for the connection which is going to be opened
+				fileConnections.openReaders++;
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fileConnections.activeLeases--;
+				closeIfUnused(file, fileConnections);
+				throw new InterruptedIOException("Interrupted while waiting for a connection to " + file);
+			}
+
+		}
+
+		try {
+			return new Lease(file, fileConnections, new MBTilesReader(file));
+		} catch (MBTilesReadException | RuntimeException e) {
+			synchronized (this) {
+				fileConnections.openReaders--;
+				fileConnections.activeLeases--;
+				notifyAll();
+				closeIfUnused(file, fileConnections);
+			}
+			throw e;
+		}
+
+	}
+
+	private synchronized void release(Lease lease) {
+
+		lease.fileConnections.idleReaders.push(lease.reader);
+		lease.fileConnections.activeLeases--;
+
+		notifyAll();
+
+		closeIfUnused(lease.file, lease.fileConnections);
+
+	}
+
+	/** closes the connections for a file if it has no active leases, possibly after waiting for the linger time */
+	private void closeIfUnused(File file, FileConnections fileConnections) {
+
+		if (fileConnections.activeLeases > 0) return;
+
+		if (fileConnections.closeWhenUnused || lingerTime.isZero()) {
+			closeConnections(file, fileConnections);
+		} else {
+			fileConnections.scheduledClose = backgroundExecutor.schedule(() -> {
+				synchronized (this) {
+					if (fileConnections.activeLeases == 0 && connections.get(file) == fileConnections) {
+						closeConnections(file, fileConnections);
+					}
+				}
+			}, lingerTime.toMillis(), MILLISECONDS);
+		}
+
+	}
+
+	private void closeConnections(File file, FileConnections fileConnections) {
+		connections.remove(file, fileConnections);
+		fileConnections.idleReaders.forEach(MBTilesReader::close);
+		fileConnections.idleReaders.clear();
+		fileConnections.openReaders = 0;
+	}
+
+}
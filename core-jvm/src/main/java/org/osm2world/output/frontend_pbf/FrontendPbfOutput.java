@@ -2,7 +2,6 @@ package org.osm2world.output.frontend_pbf;
 
 import static java.lang.Math.round;
 import static java.util.Arrays.asList;
-import static java.util.Collections.binarySearch;
 import static java.util.Collections.emptyList;
 import static org.osm2world.math.VectorXYZ.NULL_VECTOR;
 import static org.osm2world.output.common.ExtrudeOption.END_CAP;
@@ -62,7 +61,6 @@ import org.osm2world.world.modules.BarrierModule.HandRail;
 import org.osm2world.world.modules.PowerModule.WindTurbine;
 import org.osm2world.world.modules.StreetFurnitureModule.*;
 
-import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
@@ -122,11 +120,12 @@ public class FrontendPbfOutput extends MeshOutput {
 
 	/**
 	 * simple implementation of {@link Block}.
-	 * Works for any content type, but slow for large numbers of elements.
+	 * Works for any content type with consistent {@link Object#equals(Object)} and {@link Object#hashCode()}.
 	 */
 	static class SimpleBlock<T> implements Block<T> {
 
 		List<T> elements = new ArrayList<>();
+		private final Map<T, Integer> indexMap = new HashMap<>();
 
 		@Override
 		public List<T> getElements() {
@@ -137,11 +136,12 @@ public class FrontendPbfOutput extends MeshOutput {
 		@Override
 		public int toIndex(T element) {
 
-			int index = elements.indexOf(element);
+			Integer index = indexMap.get(element);
 
-			if (index < 0) {
+			if (index == null) {
 				elements.add(element);
 				index = elements.size() - 1;
+				indexMap.put(element, index);
 			}
 
 			return index;
@@ -152,32 +152,31 @@ public class FrontendPbfOutput extends MeshOutput {
 
 	/**
 	 * implementation of {@link Block} that's optimized for {@link Vector3D} instances.
+	 * Vectors are identified by their coordinates rounded to the output precision,
+	 * so vectors which would be identical in the output are only stored once.
+	 * Uses an open addressing hash table on these integer coordinates.
 	 */
 	static class VectorBlock<T extends Vector3D> implements Block<T> {
 
-		private static class Entry<T extends Vector3D> implements Comparable<Entry<T>> {
+		private static final int INITIAL_CAPACITY = 64;
 
-			private final T element;
-			private final int index;
+		private final double precisionFactor;
 
-			public Entry(T element, int index) {
-				this.element = element;
-				this.index = index;
-			}
+		List<T> elements = new ArrayList<>();
 
-			@Override
-			public int compareTo(Entry<T> o) {
-				return ComparisonChain.start()
-						.compare(this.element.getX(), o.element.getX())
-						.compare(this.element.getY(), o.element.getY())
-						.compare(this.element.getZ(), o.element.getZ())
-						.result();
-			}
+		/** the rounded x, y and z coordinates of each element, indexed by 3 * element index */
+		private long[] roundedCoords = new long[3 * INITIAL_CAPACITY];
+
+		/** the element index in each slot of the hash table, -1 for empty slots. Size is a power of 2. */
+		private int[] slots = emptySlots(2 * INITIAL_CAPACITY);
 
+		public VectorBlock(double precisionFactor) {
+			this.precisionFactor = precisionFactor;
 		}
 
-		List<T> elements = new ArrayList<>();
-		List<Entry<T>> sortedEntrys = new ArrayList<>();
+		public VectorBlock() {
+			this(COORD_PRECISION_FACTOR);
+		}
 
 		@Override
 		public List<T> getElements() {
@@ -188,30 +187,80 @@ public class FrontendPbfOutput extends MeshOutput {
 		@Override
 		public int toIndex(T element) {
 
-			int index = binarySearch(sortedEntrys, new Entry<>(element, -1));
+			long x = round(element.getX() * precisionFactor);
+			long y = round(element.getY() * precisionFactor);
+			long z = round(element.getZ() * precisionFactor);
 
-			if (index >= 0) {
-				return sortedEntrys.get(index).index;
-			} else {
+			int mask = slots.length - 1;
 
-				elements.add(element);
+			for (int slot = hash(x, y, z) & mask; ; slot = (slot + 1) & mask) {
+
+				int index = slots[slot];
+
+				if (index < 0) {
+
+					index = elements.size();
+					elements.add(element);
+
+					if (roundedCoords.length < 3 * (index + 1)) {
+						roundedCoords = Arrays.copyOf(roundedCoords, 2 * roundedCoords.length);
+					}
+
+					roundedCoords[3 * index] = x;
+					roundedCoords[3 * index + 1] = y;
+					roundedCoords[3 * index + 2] = z;
 
-				Entry<T> entry = new Entry<>(element, elements.size() - 1);
-				sortedEntrys.add(-(index + 1), entry);
+					slots[slot] = index;
 
-				return entry.index;
+					if (2 * elements.size() > slots.length) {
+						rehash(2 * slots.length);
+					}
+
+					return index;
+
+				} else if (roundedCoords[3 * index] == x
+						&& roundedCoords[3 * index + 1] == y
+						&& roundedCoords[3 * index + 2] == z) {
+					return index;
+				}
+
+			}
+
+		}
+
+		private void rehash(int newSlotCount) {
 
+			slots = emptySlots(newSlotCount);
+			int mask = newSlotCount - 1;
+
+			for (int index = 0; index < elements.size(); index++) {
+				int slot = hash(roundedCoords[3 * index], roundedCoords[3 * index + 1], roundedCoords[3 * index + 2]);
+				for (slot &= mask; slots[slot] >= 0; slot = (slot + 1) & mask);
+				slots[slot] = index;
 			}
 
 		}
 
+		private static int[] emptySlots(int slotCount) {
+			int[] result = new int[slotCount];
+			Arrays.fill(result, -1);
+			return result;
+		}
+
+		private static int hash(long x, long y, long z) {
+			long h = x * 0x9E3779B97F4A7C15L;
+			h = (h ^ y) * 0x9E3779B97F4A7C15L;
+			h = (h ^ z) * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+
 	}
 
 	/** prefix for the URL of texture files */
 	private static final String TEXTURE_BASE_URL = "textures/";
 
 	/** factor applied to coordinate values before rounding to integers */
-	private final int COORD_PRECISION_FACTOR = 1000;
+	private static final int COORD_PRECISION_FACTOR = 1000;
 
 	private final @Nullable File outputFile;
 	private final OutputStream outputStream;
@@ -705,9 +754,10 @@ public class FrontendPbfOutput extends MeshOutput {
 		}
 
 		@Nullable TextureAtlasGroup textureAtlasGroup = switch (USE_TEXTURE_ATLAS) {
-			case ALWAYS -> generateTextureAtlasGroup(List.of(this.meshStore, instanceMeshStore), t -> false);
+			case ALWAYS -> generateTextureAtlasGroup(List.of(this.meshStore, instanceMeshStore), t -> false,
+					TextureAtlasRegistry.getSharedInstance());
 			case RUNTIME_ONLY -> generateTextureAtlasGroup(List.of(this.meshStore, instanceMeshStore),
-					t -> !(t instanceof RuntimeTexture));
+					t -> !(t instanceof RuntimeTexture), TextureAtlasRegistry.getSharedInstance());
 			case NEVER -> null;
 		};
 
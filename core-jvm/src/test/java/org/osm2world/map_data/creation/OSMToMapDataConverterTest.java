@@ -7,11 +7,15 @@ import static org.osm2world.util.test.TestFileUtil.getTestFile;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.osm2world.conversion.O2WConfig;
 import org.osm2world.map_data.data.MapArea;
 import org.osm2world.map_data.data.MapData;
 import org.osm2world.map_data.data.MapNode;
@@ -22,6 +26,10 @@ import org.osm2world.math.geo.MetricMapProjection;
 import org.osm2world.osm.creation.OSMFileReader;
 import org.osm2world.osm.data.OSMData;
 
+import com.slimjars.dist.gnu.trove.list.array.TLongArrayList;
+
+import de.topobyte.osm4j.core.model.iface.*;
+import de.topobyte.osm4j.core.model.impl.*;
 import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
 
 public class OSMToMapDataConverterTest {
@@ -244,4 +252,190 @@ public class OSMToMapDataConverterTest {
 
 	}
 
+	/**
+	 * creates a multipolygon resembling a forest with a grid of clearings, each of which contains an island of trees.
+	 * The outer ring is split into ways which are listed in random order and direction.
+	 */
+	static void createForestMultipolygon(long relationId, double minLat, double minLon, double size,
+			int clearingsPerRow, List<OsmNode> nodes, List<OsmWay> ways, List<OsmRelation> relations) {
+
+		List<OsmRelationMember> members = new ArrayList<>();
+
+		/* outer ring */
+
+		int nodesPerSide = 10;
+
+		List<Long> outerNodeIds = new ArrayList<>();
+
+		for (int side = 0; side < 4; side++) {
+			for (int i = 0; i < nodesPerSide; i++) {
+				double t = size * i / nodesPerSide;
+				double[] latLon = switch (side) {
+					case 0 -> new double[] {minLat, minLon + t};
+					case 1 -> new double[] {minLat + t, minLon + size};
+					case 2 -> new double[] {minLat + size, minLon + size - t};
+					default -> new double[] {minLat + size - t, minLon};
+				};
+				long nodeId = relationId * 100000 + nodes.size();
+				nodes.add(new Node(nodeId, latLon[1], latLon[0], List.of()));
+				outerNodeIds.add(nodeId);
+			}
+		}
+
+		List<OsmWay> outerWays = new ArrayList<>();
+
+		for (int i = 0; i < outerNodeIds.size(); i += 2) {
+			TLongArrayList wayNodeIds = new TLongArrayList();
+			for (int j = i; j <= i + 2; j++) {
+				wayNodeIds.add(outerNodeIds.get(j % outerNodeIds.size()));
+			}
+			if (i % 4 == 2) {
+				wayNodeIds.reverse();
+			}
+			outerWays.add(new Way(relationId * 100000 + ways.size() + outerWays.size(), wayNodeIds, List.of()));
+		}
+
+		Collections.shuffle(outerWays, new Random(relationId));
+
+		for (OsmWay way : outerWays) {
+			ways.add(way);
+			members.add(new RelationMember(way.getId(), EntityType.Way, "outer"));
+		}
+
+		/* clearings and islands */
+
+		double cellSize = size / (clearingsPerRow + 1);
+
+		for (int x = 0; x < clearingsPerRow; x++) {
+			for (int z = 0; z < clearingsPerRow; z++) {
+				for (String role : List.of("inner", "outer")) {
+
+					double offset = role.equals("inner") ? 0.2 * cellSize : 0.4 * cellSize;
+					double squareSize = role.equals("inner") ? 0.6 * cellSize : 0.2 * cellSize;
+
+					double lat = minLat + (z + 1) * cellSize - 0.5 * cellSize + offset;
+					double lon = minLon + (x + 1) * cellSize - 0.5 * cellSize + offset;
+
+					TLongArrayList wayNodeIds = new TLongArrayList();
+
+					for (double[] corner : new double[][] {{0, 0}, {0, 1}, {1, 1}, {1, 0}}) {
+						long nodeId = relationId * 100000 + nodes.size();
+						nodes.add(new Node(nodeId, lon + corner[0] * squareSize, lat + corner[1] * squareSize, List.of()));
+						wayNodeIds.add(nodeId);
+					}
+
+					wayNodeIds.add(wayNodeIds.get(0));
+
+					OsmWay way = new Way(relationId * 100000 + ways.size(), wayNodeIds, List.of());
+					ways.add(way);
+					members.add(new RelationMember(way.getId(), EntityType.Way, role));
+
+				}
+			}
+		}
+
+		relations.add(new Relation(relationId, members,
+				List.of(new Tag("type", "multipolygon"), new Tag("landuse", "forest"))));
+
+	}
+
+	/**
+	 * builds several multipolygons, one of which has enough rings to be nested with a spatial index,
+	 * with and without multithreading
+	 */
+	@Test
+	public void testMultipolygonsWithManyRings() throws EntityNotFoundException {
+
+		List<OsmNode> nodes = new ArrayList<>();
+		List<OsmWay> ways = new ArrayList<>();
+		List<OsmRelation> relations = new ArrayList<>();
+
+		createForestMultipolygon(1, 0.0, 0.0, 0.02, 5, nodes, ways, relations);
+
+		for (int i = 0; i < 16; i++) {
+			createForestMultipolygon(2 + i, 0.03, i * 0.002, 0.001, 2, nodes, ways, relations);
+		}
+
+		OSMData osmData = new OSMData(List.of(), nodes, ways, relations);
+		MapProjection mapProjection = new MetricMapProjection(osmData.getCenter());
+
+		List<List<MapArea>> results = new ArrayList<>();
+
+		for (O2WConfig config : List.of(new O2WConfig(), new O2WConfig(Map.of("mapDataThreads", 4)))) {
+
+			MapData mapData = new OSMToMapDataConverter(mapProjection).createMapData(osmData, config);
+			List<MapArea> areas = new ArrayList<>(mapData.getMapAreas());
+
+			assertEquals(26 + 16 * 5, areas.size());
+			assertEquals(17, mapData.getMapRelations().size());
+
+			List<MapArea> forestAreas = areas.stream().filter(a -> a.getId() == 1).toList();
+			assertEquals(26, forestAreas.size());
+			assertEquals(25, forestAreas.get(0).getHoles().size());
+			assertEquals(41, forestAreas.get(0).getOuterPolygon().size());
+
+			for (MapArea island : forestAreas.subList(1, forestAreas.size())) {
+				assertEquals(0, island.getHoles().size());
+				assertEquals(5, island.getOuterPolygon().size());
+			}
+
+			results.add(areas);
+
+		}
+
+		for (int i = 0; i < results.get(0).size(); i++) {
+			MapArea a = results.get(0).get(i);
+			MapArea b = results.get(1).get(i);
+			assertEquals(a.getId(), b.getId());
+			assertEquals(a.getHoles().size(), b.getHoles().size());
+			assertEquals(a.getPolygon().getArea(), b.getPolygon().getArea(), 1e-6);
+		}
+
+	}
+
+	/**
+	 * checks that only unused untagged nodes are left out if {@link O2WConfig#keepUnusedNodes()} is disabled
+	 */
+	@Test
+	public void testKeepUnusedNodes() throws EntityNotFoundException {
+
+		List<OsmNode> nodes = new ArrayList<>();
+		List<OsmWay> ways = new ArrayList<>();
+		List<OsmRelation> relations = new ArrayList<>();
+
+		createForestMultipolygon(1, 0.0, 0.0, 0.002, 1, nodes, ways, relations);
+
+		int multipolygonNodeCount = nodes.size();
+
+		nodes.add(new Node(1, 0.0005, 0.003, List.of(new Tag("natural", "tree"))));
+		nodes.add(new Node(2, 0.0010, 0.003, List.of()));
+		nodes.add(new Node(3, 0.0005, 0.004, List.of()));
+		nodes.add(new Node(4, 0.0010, 0.004, List.of()));
+		nodes.add(new Node(5, 0.0005, 0.005, List.of()));
+		nodes.add(new Node(6, 0.0010, 0.005, List.of()));
+
+		ways.add(new Way(1, new TLongArrayList(new long[] {1, 3}), List.of(new Tag("highway", "path"))));
+		ways.add(new Way(2, new TLongArrayList(new long[] {4, 5}), List.of()));
+
+		OSMData osmData = new OSMData(List.of(), nodes, ways, relations);
+		MapProjection mapProjection = new MetricMapProjection(osmData.getCenter());
+
+		MapData fullData = new OSMToMapDataConverter(mapProjection).createMapData(osmData, null);
+		assertEquals(nodes.size(), fullData.getMapNodes().size());
+
+		MapData leanData = new OSMToMapDataConverter(mapProjection).createMapData(osmData,
+				new O2WConfig(Map.of("keepUnusedNodes", false)));
+
+		assertEquals(multipolygonNodeCount + 2, leanData.getMapNodes().size());
+		assertNotNull(leanData.getMapNode(1));
+		assertNotNull(leanData.getMapNode(3));
+		for (long id : List.of(2L, 4L, 5L, 6L)) {
+			assertNull(leanData.getMapNode(id));
+		}
+
+		assertEquals(fullData.getMapWays().size(), leanData.getMapWays().size());
+		assertEquals(fullData.getMapAreas().size(), leanData.getMapAreas().size());
+
+	}
+
 }
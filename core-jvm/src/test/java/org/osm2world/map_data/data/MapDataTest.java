@@ -0,0 +1,61 @@
+package org.osm2world.map_data.data;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.osm2world.map_data.creation.MapDataBuilder;
+
+public class MapDataTest {
+
+	@Test
+	public void testGetElementById() {
+
+		var builder = new MapDataBuilder();
+
+		List<MapNode> nodes = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			nodes.add(builder.createNode(i, i % 10));
+		}
+
+		MapWay way = builder.createWay(nodes.subList(10, 20), TagSet.of("highway", "path"));
+		MapRelation relation = builder.createRelation(List.of(Map.entry("", way)), TagSet.of("type", "route"));
+
+		MapData mapData = builder.build();
+
+		for (MapNode node : nodes) {
+			assertSame(node, mapData.getMapNode(node.getId()));
+		}
+
+		assertSame(way, mapData.getMapWay(way.getId()));
+		assertSame(relation, mapData.getMapRelation(relation.getId()));
+
+		assertSame(nodes.get(42), mapData.getElement("n" + nodes.get(42).getId()));
+		assertSame(way, mapData.getElement("w" + way.getId()));
+		assertSame(relation, mapData.getElement("r" + relation.getId()));
+
+		assertNull(mapData.getMapNode(-1));
+		assertNull(mapData.getMapWay(way.getId() + 1));
+		assertNull(mapData.getMapRelation(relation.getId() + 1));
+		assertNull(mapData.getElement("foo"));
+
+	}
+
+	@Test
+	public void testElementsCreatedAfterBuild() {
+
+		var builder = new MapDataBuilder();
+		builder.createNode(0, 0);
+
+		MapData mapData = builder.build();
+		MapNode laterNode = builder.createNode(1, 1);
+
+		assertEquals(1, mapData.getMapNodes().size());
+		assertNull(mapData.getMapNode(laterNode.getId()));
+
+	}
+
+}
@@ -0,0 +1,58 @@
+package org.osm2world.map_data.data;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.map_data.creation.MapDataBuilder;
+
+public class TagIndexTest {
+
+	@Test
+	public void testTagIndex() {
+
+		var builder = new MapDataBuilder();
+
+		List<MapNode> nodes = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			TagSet tags = switch (i % 4) {
+				case 0 -> TagSet.of("natural", "tree");
+				case 1 -> TagSet.of("amenity", "bench", "natural", "tree");
+				case 2 -> TagSet.of("amenity", "bench");
+				default -> TagSet.of();
+			};
+			nodes.add(builder.createNode(i, 0, tags));
+		}
+
+		MapWay way = builder.createWay(nodes.subList(0, 5), TagSet.of("highway", "path"));
+		MapNode areaNode = builder.createNode(0, 10);
+		MapArea area = builder.createWayArea(List.of(areaNode, builder.createNode(10, 10),
+				builder.createNode(10, 20), areaNode), TagSet.of("natural", "water"));
+
+		MapData mapData = builder.build();
+		TagIndex index = mapData.getTagIndex();
+
+		assertSame(index, mapData.getTagIndex());
+		assertEquals(3, index.getKeyCount());
+
+		List<MapNode> treeNodes = index.getNodes(List.of("natural"));
+		assertEquals(50, treeNodes.size());
+		assertTrue(treeNodes.stream().allMatch(n -> n.getTags().containsKey("natural")));
+
+		List<MapNode> taggedNodes = index.getNodes(List.of("natural", "amenity"));
+		assertEquals(75, taggedNodes.size());
+		assertEquals(mapData.getMapNodes().stream().filter(n -> !n.getTags().isEmpty()).toList(), taggedNodes);
+
+		assertEquals(List.of(way), index.getWays(List.of("highway")));
+		assertEquals(way.getWaySegments(), index.getWaySegments(List.of("highway")));
+		assertEquals(List.of(area), index.getAreas(List.of("natural")));
+
+		assertTrue(index.getAreas(List.of("highway")).isEmpty());
+		assertTrue(index.getNodes(List.of("building")).isEmpty());
+		assertTrue(index.getNodes(List.of()).isEmpty());
+
+	}
+
+}
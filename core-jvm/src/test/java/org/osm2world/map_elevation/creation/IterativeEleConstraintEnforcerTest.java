@@ -0,0 +1,157 @@
+package org.osm2world.map_elevation.creation;
+
+import static org.junit.Assert.*;
+import static org.osm2world.map_elevation.creation.EleConstraintEnforcer.ConstraintType.*;
+import static org.osm2world.map_elevation.data.GroundState.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.map_elevation.data.GroundState;
+import org.osm2world.math.VectorXZ;
+
+public class IterativeEleConstraintEnforcerTest {
+
+	private static EleConnector connector(double x, double z, Object reference, GroundState groundState, double ele) {
+		var c = new EleConnector(new VectorXZ(x, z), reference, groundState);
+		c.setPosXYZ(c.pos.xyz(ele));
+		return c;
+	}
+
+	private static double ele(EleConnector c) {
+		return c.getPosXYZ().y;
+	}
+
+	@Test
+	public void testBridgeOverRoad() {
+
+		Object road = new Object();
+		EleConnector r1 = connector(0, -10, road, ON, 0);
+		EleConnector r2 = connector(0, 10, road, ON, 0);
+
+		Object bridge = new Object();
+		EleConnector b0 = connector(-20, 0, null, ON, 0);
+		EleConnector b1 = connector(0, 0, bridge, ABOVE, 0);
+		EleConnector b2 = connector(20, 0, null, ON, 0);
+
+		var enforcer = new IterativeEleConstraintEnforcer();
+		enforcer.addConnectors(List.of(r1, r2, b0, b1, b2));
+		enforcer.requireVerticalDistance(MIN, 6, b1, r1, r2);
+		enforcer.enforceConstraints();
+
+		assertTrue(ele(b1) - ele(r1) >= 6 - 0.01);
+		assertTrue(ele(b1) - ele(r2) >= 6 - 0.01);
+		assertEquals(0, ele(b0), 1e-6);
+		assertEquals(0, ele(b2), 1e-6);
+		assertEquals(0, ele(r1), 0.01);
+		assertEquals(0, ele(r2), 0.01);
+
+	}
+
+	@Test
+	public void testIncline() {
+
+		List<EleConnector> cs = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			cs.add(connector(10 * i, 0, null, ON, i == 5 ? 20 : 0));
+		}
+
+		var enforcer = new IterativeEleConstraintEnforcer();
+		enforcer.addConnectors(cs);
+		enforcer.requireIncline(MAX, 0.1, cs);
+		enforcer.requireIncline(MIN, -0.1, cs);
+		enforcer.enforceConstraints();
+
+		for (int i = 0; i + 1 < cs.size(); i++) {
+			assertEquals(0, ele(cs.get(i + 1)) - ele(cs.get(i)), 1 + 0.05);
+		}
+
+	}
+
+	@Test
+	public void testSmoothness() {
+
+		Object bridge = new Object();
+		EleConnector c1 = connector(0, 0, null, ON, 0);
+		EleConnector c2 = connector(10, 0, bridge, ABOVE, 10);
+		EleConnector c3 = connector(20, 0, null, ON, 10);
+
+		var enforcer = new IterativeEleConstraintEnforcer();
+		enforcer.addConnectors(List.of(c1, c2, c3));
+		enforcer.requireSmoothness(c1, c2, c3);
+		enforcer.enforceConstraints();
+
+		assertEquals(5, ele(c2), 1);
+
+	}
+
+	@Test
+	public void testSameEle() {
+
+		EleConnector c1 = connector(0, 0, null, ON, 1);
+		EleConnector c2 = connector(0, 0, null, ON, 3);
+		EleConnector c3 = connector(5, 0, null, ON, 5);
+
+		var enforcer = new IterativeEleConstraintEnforcer();
+		enforcer.addConnectors(List.of(c1, c2, c3));
+		enforcer.requireSameEle(c2, c3);
+		enforcer.enforceConstraints();
+
+		assertEquals(3, ele(c1), 1e-6);
+		assertEquals(3, ele(c2), 1e-6);
+		assertEquals(3, ele(c3), 1e-6);
+
+	}
+
+	@Test
+	public void testAttachedOnly() {
+
+		EleConnector c1 = connector(0, 0, null, ATTACHED, 12);
+		EleConnector c2 = connector(5, 0, null, ATTACHED, 14);
+		EleConnector c3 = connector(10, 0, null, ATTACHED, 20);
+		EleConnector c4 = connector(10, 0, new Object(), ABOVE, 20);
+
+		var enforcer = new IterativeEleConstraintEnforcer();
+		enforcer.addConnectors(List.of(c1, c2, c3, c4));
+		enforcer.requireSameEle(c1, c2);
+		enforcer.requireVerticalDistance(MIN, 3, c4, c3);
+		enforcer.enforceConstraints();
+
+		assertEquals(13, ele(c1), 1e-6);
+		assertEquals(13, ele(c2), 1e-6);
+		assertEquals(20, ele(c3), 1);
+		assertTrue(ele(c4) - ele(c3) >= 3 - 0.01);
+
+	}
+
+	/**
+	 * many independent groups of constraints, solved on multiple threads with a small iteration budget.
+	 * The hard constraints still need to be satisfied.
+	 */
+	@Test
+	public void testManyComponents() {
+
+		var enforcer = new IterativeEleConstraintEnforcer(20, 10, 4);
+
+		List<EleConnector[]> bridges = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			Object bridge = new Object();
+			EleConnector road = connector(100 * i, 0, null, ON, i % 7);
+			EleConnector upper = connector(100 * i, 0, bridge, ABOVE, i % 7);
+			enforcer.addConnectors(List.of(road, upper));
+			enforcer.requireVerticalDistance(MIN, 7, upper, road);
+			bridges.add(new EleConnector[] {road, upper});
+		}
+
+		enforcer.enforceConstraints();
+
+		for (EleConnector[] b : bridges) {
+			assertTrue(ele(b[1]) - ele(b[0]) >= 7 - 0.01);
+		}
+
+	}
+
+}
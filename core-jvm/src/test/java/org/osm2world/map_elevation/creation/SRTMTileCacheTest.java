@@ -0,0 +1,90 @@
+package org.osm2world.map_elevation.creation;
+
+import static java.util.Collections.nCopies;
+import static org.junit.Assert.*;
+import static org.osm2world.util.test.TestFileUtil.getTestFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class SRTMTileCacheTest {
+
+	@Test
+	public void testTileReused() throws IOException {
+
+		File srtmDir = getTestFile("srtm");
+		var cache = new SRTMTileCache(4);
+
+		SRTMTile tile = cache.getTile(srtmDir, 33, 4);
+		assertNotNull(tile);
+		assertSame(tile, cache.getTile(srtmDir, 33, 4));
+
+		SRTMTile zippedTile = cache.getTile(srtmDir, 34, 4);
+		assertNotNull(zippedTile);
+		assertNotSame(tile, zippedTile);
+
+		assertEquals(2, cache.size());
+
+	}
+
+	@Test
+	public void testMissingTile() throws IOException {
+
+		File srtmDir = getTestFile("srtm");
+		var cache = new SRTMTileCache(4);
+
+		assertNull(cache.getTile(srtmDir, -10, -10));
+		assertEquals(0, cache.size());
+
+	}
+
+	@Test
+	public void testEviction() throws IOException {
+
+		File srtmDir = getTestFile("srtm");
+		var cache = new SRTMTileCache(1);
+
+		SRTMTile tile = cache.getTile(srtmDir, 33, 4);
+		cache.getTile(srtmDir, 34, 4);
+		assertEquals(1, cache.size());
+
+		SRTMTile reloadedTile = cache.getTile(srtmDir, 33, 4);
+		assertNotSame(tile, reloadedTile);
+		assertEquals(tile.getData(100, 100), reloadedTile.getData(100, 100));
+
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+
+		File srtmDir = getTestFile("srtm");
+		var cache = new SRTMTileCache(4);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+
+			Callable<SRTMTile> task = () -> cache.getTile(srtmDir, 33, 4);
+			List<Future<SRTMTile>> futures = executor.invokeAll(nCopies(32, task));
+
+			SRTMTile tile = futures.get(0).get();
+			assertNotNull(tile);
+
+			for (Future<SRTMTile> future : futures) {
+				assertSame(tile, future.get());
+			}
+
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+}
@@ -0,0 +1,67 @@
+package org.osm2world.map_elevation.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.osm2world.map_elevation.data.GroundState.ABOVE;
+import static org.osm2world.map_elevation.data.GroundState.ON;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.map_elevation.data.GroundState;
+import org.osm2world.math.VectorXZ;
+
+public class SimpleEleConstraintEnforcerTest {
+
+	private static EleConnector connector(double x, double z, Object reference, GroundState groundState, double ele) {
+		var c = new EleConnector(new VectorXZ(x, z), reference, groundState);
+		c.setPosXYZ(c.pos.xyz(ele));
+		return c;
+	}
+
+	@Test
+	public void testConnectedConnectors() {
+
+		EleConnector c1 = connector(0, 0, null, ON, 1);
+		EleConnector c2 = connector(-0.0, 0, null, ON, 3);
+		EleConnector c3 = connector(5, 5, null, ON, 10);
+
+		Object bridge = new Object();
+		EleConnector b1 = connector(5, 5, bridge, ABOVE, 20);
+		EleConnector b2 = connector(5, 5, bridge, ABOVE, 30);
+
+		var enforcer = new SimpleEleConstraintEnforcer();
+		enforcer.addConnectors(List.of(c1, c3));
+		enforcer.addConnectors(List.of(c2, b1, b2));
+		enforcer.enforceConstraints();
+
+		assertEquals(2, c1.getPosXYZ().y, 1e-6);
+		assertEquals(2, c2.getPosXYZ().y, 1e-6);
+		assertEquals(10, c3.getPosXYZ().y, 1e-6);
+		assertEquals(25 + 5, b1.getPosXYZ().y, 1e-6);
+		assertEquals(25 + 5, b2.getPosXYZ().y, 1e-6);
+
+	}
+
+	@Test
+	public void testRequireSameEle() {
+
+		EleConnector c1 = connector(0, 0, null, ON, 0);
+		EleConnector c2 = connector(1, 0, null, ON, 3);
+		EleConnector c3 = connector(2, 0, null, ON, 6);
+		EleConnector c4 = connector(3, 0, null, ON, 100);
+
+		var enforcer = new SimpleEleConstraintEnforcer();
+		enforcer.addConnectors(List.of(c1, c2, c3, c4));
+		enforcer.requireSameEle(c1, c2);
+		enforcer.requireSameEle(List.of(c3, c2));
+		enforcer.enforceConstraints();
+
+		assertEquals(3, c1.getPosXYZ().y, 1e-6);
+		assertEquals(3, c2.getPosXYZ().y, 1e-6);
+		assertEquals(3, c3.getPosXYZ().y, 1e-6);
+		assertEquals(100, c4.getPosXYZ().y, 1e-6);
+
+	}
+
+}
@@ -0,0 +1,60 @@
+package org.osm2world.map_elevation.data;
+
+import static org.junit.Assert.*;
+import static org.osm2world.map_elevation.data.GroundState.ON;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.osm2world.math.VectorXZ;
+
+public class EleConnectorGroupTest {
+
+	@Test
+	public void testGetConnector() {
+
+		List<VectorXZ> positions = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			positions.add(new VectorXZ(i, -i));
+		}
+
+		var group = new EleConnectorGroup();
+		group.addConnectorsFor(positions, null, ON);
+
+		for (VectorXZ pos : positions) {
+			assertEquals(pos, group.getConnector(pos).pos);
+		}
+
+		assertNull(group.getConnector(new VectorXZ(0.5, 0)));
+
+		/* negative zero is equal to zero */
+
+		assertSame(group.getConnector(new VectorXZ(0, 0)), group.getConnector(new VectorXZ(-0.0, -0.0)));
+
+	}
+
+	@Test
+	public void testFirstConnectorAtPosition() {
+
+		var group = new EleConnectorGroup();
+
+		for (int i = 0; i < 50; i++) {
+			group.add(new EleConnector(new VectorXZ(i, 0), null, ON));
+		}
+
+		EleConnector first = group.getConnector(new VectorXZ(10, 0));
+
+		/* add connectors after the first lookup */
+
+		var duplicate = new EleConnector(new VectorXZ(10, 0), null, ON);
+		var added = new EleConnector(new VectorXZ(100, 0), null, ON);
+		group.add(duplicate);
+		group.add(added);
+
+		assertSame(first, group.getConnector(new VectorXZ(10, 0)));
+		assertSame(added, group.getConnector(new VectorXZ(100, 0)));
+
+	}
+
+}
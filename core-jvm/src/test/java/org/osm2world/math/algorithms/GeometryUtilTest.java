@@ -9,7 +9,9 @@ import static org.osm2world.math.algorithms.GeometryUtil.*;
 import static org.osm2world.test.TestUtil.anyVectorXZ;
 import static org.osm2world.test.TestUtil.assertAlmostEquals;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 import org.osm2world.math.Vector3D;
@@ -251,6 +253,101 @@ public class GeometryUtilTest {
 
 	}
 
+	/**
+	 * checks that {@link GeometryUtil#distributePointsOn(long, PolygonWithHolesXZ, AxisAlignedRectangleXZ, double,
+	 * double)} returns the same points as the previous implementation, which tested each box and point against the
+	 * polygon itself. This ensures that the random sequence, and therefore the placement of trees, is unchanged.
+	 */
+	@Test
+	public void testDistributePointsOn() {
+
+		PolygonWithHolesXZ polygon = new PolygonWithHolesXZ(new SimplePolygonXZ(asList(
+				new VectorXZ(0, 0),
+				new VectorXZ(100, 0),
+				new VectorXZ(120, 60),
+				new VectorXZ(60, 100),
+				new VectorXZ(0, 80),
+				new VectorXZ(0, 0)
+		)), asList(
+				new SimplePolygonXZ(asList(
+						new VectorXZ(20, 20),
+						new VectorXZ(40, 20),
+						new VectorXZ(40, 40),
+						new VectorXZ(20, 40),
+						new VectorXZ(20, 20)
+				)),
+				new SimplePolygonXZ(asList(
+						new VectorXZ(60, 50),
+						new VectorXZ(90, 40),
+						new VectorXZ(80, 70),
+						new VectorXZ(60, 50)
+				))));
+
+		List<AxisAlignedRectangleXZ> boundaries = asList(null,
+				new AxisAlignedRectangleXZ(30, 10, 70, 60),
+				new AxisAlignedRectangleXZ(-50, 70, 10, 200),
+				new AxisAlignedRectangleXZ(200, 200, 300, 300));
+
+		for (long seed = 0; seed < 5; seed++) {
+			for (double density : new double[] {0.01, 0.1, 0.7}) {
+				for (AxisAlignedRectangleXZ boundary : boundaries) {
+					assertEquals(distributePointsOnWithPolygonTests(seed, polygon, boundary, density),
+							distributePointsOn(seed, polygon, boundary, density, 0));
+				}
+			}
+		}
+
+	}
+
+	/** the previous implementation of distributePointsOn, used as a reference */
+	private static List<VectorXZ> distributePointsOnWithPolygonTests(long seed, PolygonWithHolesXZ polygon,
+			AxisAlignedRectangleXZ boundary, double density) {
+
+		List<VectorXZ> result = new ArrayList<>();
+
+		Random rand = new Random(seed);
+
+		AxisAlignedRectangleXZ outerBox = polygon.boundingBox();
+
+		double boxSize = sqrt(100 / density);
+
+		for (int boxZ = 0; boxZ <= (int)(outerBox.sizeZ() / boxSize); ++boxZ) {
+			for (int boxX = 0; boxX <= (int)(outerBox.sizeX() / boxSize); ++boxX) {
+
+				AxisAlignedRectangleXZ box = new AxisAlignedRectangleXZ(
+						outerBox.minX + boxSize * boxX,
+						outerBox.minZ + boxSize * boxZ,
+						outerBox.minX + boxSize * (boxX + 1),
+						outerBox.minZ + boxSize * (boxZ + 1));
+
+				if (boundary != null && !boundary.overlaps(box)) {
+					continue;
+				}
+
+				if (!polygon.contains(box.polygonXZ()) && !polygon.intersects(box.polygonXZ())) {
+					continue;
+				}
+
+				for (int i = 0; i < 100; ++i) {
+
+					double x = box.minX + boxSize * rand.nextDouble();
+					double z = box.minZ + boxSize * rand.nextDouble();
+
+					VectorXZ v = new VectorXZ(x, z);
+
+					if (polygon.contains(v)) {
+						result.add(v);
+					}
+
+				}
+
+			}
+		}
+
+		return result;
+
+	}
+
 	/**
 	 * regression test, merely checks for absence of exceptions
 	 * triggered by floating point inaccuracies
@@ -12,7 +12,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.junit.Ignore;
 import org.junit.Test;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.algorithms.LineSegmentIntersectionFinder.Intersection;
@@ -124,7 +123,6 @@ public class LineSegmentIntersectionFinderTest {
 
 	}
 
-	@Ignore //known bug
 	@Test
 	public void testFindAllIntersections_3horiz1vert() {
 
@@ -139,7 +137,6 @@ public class LineSegmentIntersectionFinderTest {
 
 	}
 
-	@Ignore //known bug
 	@Test
 	public void testFindAllIntersections_crosshairRectangle() {
 
@@ -156,7 +153,6 @@ public class LineSegmentIntersectionFinderTest {
 
 	}
 
-	@Ignore //known limitation of the implementation
 	@Test
 	public void testFindAllIntersections_tripleIntersection() {
 
@@ -170,4 +166,33 @@ public class LineSegmentIntersectionFinderTest {
 
 	}
 
+	@Test
+	public void testFindAllIntersections_collinearOverlap() {
+
+		List<LineSegmentXZ> testData = asList(
+				new LineSegmentXZ(new VectorXZ(0, 0), new VectorXZ(10, 0)),
+				new LineSegmentXZ(new VectorXZ(5, 0), new VectorXZ(15, 0)),
+				new LineSegmentXZ(new VectorXZ(0, 0), new VectorXZ(2, 0))
+		);
+
+		Set<VectorXZ> result = new HashSet<>();
+		findAllIntersections(testData).forEach(it -> result.add(it.pos()));
+
+		assertAlmostEquals(newHashSet(new VectorXZ(2, 0), new VectorXZ(5, 0), new VectorXZ(10, 0)), result);
+
+	}
+
+	@Test
+	public void testFindAllIntersections_collinearNoOverlap() {
+
+		List<LineSegmentXZ> testData = asList(
+				new LineSegmentXZ(new VectorXZ(0, 0), new VectorXZ(5, 0)),
+				new LineSegmentXZ(new VectorXZ(5, 0), new VectorXZ(10, 0)),
+				new LineSegmentXZ(new VectorXZ(11, 0), new VectorXZ(12, 0))
+		);
+
+		assertEquals(emptyList(), findAllIntersections(testData));
+
+	}
+
 }
@@ -0,0 +1,85 @@
+package org.osm2world.math.datastructures;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.osm2world.math.VectorXZ;
+import org.osm2world.math.datastructures.PolygonCoverageGrid.Coverage;
+import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
+import org.osm2world.math.shapes.PolygonShapeXZ;
+import org.osm2world.math.shapes.PolygonWithHolesXZ;
+import org.osm2world.math.shapes.SimplePolygonXZ;
+
+public class PolygonCoverageGridTest {
+
+	/** creates an irregular, star-shaped polygon around a center */
+	private static SimplePolygonXZ createStar(Random random, VectorXZ center, double radius, int vertexCount) {
+		List<VectorXZ> vertices = new ArrayList<>();
+		for (int i = 0; i < vertexCount; i++) {
+			double angle = 2 * Math.PI * i / vertexCount;
+			double r = radius * (0.3 + 0.7 * random.nextDouble());
+			vertices.add(center.add(new VectorXZ(r * Math.sin(angle), r * Math.cos(angle))));
+		}
+		vertices.add(vertices.get(0));
+		return new SimplePolygonXZ(vertices);
+	}
+
+	@Test
+	public void testSquare() {
+
+		var square = new SimplePolygonXZ(List.of(new VectorXZ(2, 2), new VectorXZ(6, 2),
+				new VectorXZ(6, 6), new VectorXZ(2, 6), new VectorXZ(2, 2)));
+
+		var grid = new PolygonCoverageGrid(List.of(square), new AxisAlignedRectangleXZ(0, 0, 10, 10), 1);
+
+		assertEquals(Coverage.FULL, grid.getCoverage(new VectorXZ(4.5, 4.5)));
+		assertEquals(Coverage.PARTIAL, grid.getCoverage(new VectorXZ(2.5, 4.5)));
+		assertEquals(Coverage.NONE, grid.getCoverage(new VectorXZ(8.5, 8.5)));
+		assertEquals(Coverage.PARTIAL, grid.getCoverage(new VectorXZ(-5, -5)));
+
+		assertTrue(grid.contains(new VectorXZ(4.5, 4.5)));
+		assertTrue(grid.contains(new VectorXZ(2.1, 5.9)));
+		assertFalse(grid.contains(new VectorXZ(1.9, 4)));
+		assertFalse(grid.contains(new VectorXZ(8, 8)));
+		assertFalse(grid.contains(new VectorXZ(-5, 4)));
+
+	}
+
+	@Test
+	public void testMatchesPolygonContains() {
+
+		Random random = new Random(42);
+
+		for (int run = 0; run < 10; run++) {
+
+			List<PolygonShapeXZ> polygons = new ArrayList<>();
+
+			for (int p = 0; p < 1 + run % 4; p++) {
+				VectorXZ center = new VectorXZ(100 * random.nextDouble(), 100 * random.nextDouble());
+				SimplePolygonXZ outer = createStar(random, center, 40, 50);
+				List<SimplePolygonXZ> holes = new ArrayList<>();
+				for (int h = 0; h < run % 3; h++) {
+					VectorXZ holeCenter = center.add(new VectorXZ(8 * h - 4, 3 - 3 * h));
+					holes.add(createStar(random, holeCenter, 3, 8));
+				}
+				polygons.add(new PolygonWithHolesXZ(outer, holes));
+			}
+
+			double cellSize = 1 + 9 * random.nextDouble();
+			var grid = new PolygonCoverageGrid(polygons, new AxisAlignedRectangleXZ(0, 0, 100, 100), cellSize);
+
+			for (int i = 0; i < 5000; i++) {
+				VectorXZ v = new VectorXZ(160 * random.nextDouble() - 30, 160 * random.nextDouble() - 30);
+				boolean expected = polygons.stream().anyMatch(polygon -> polygon.contains(v));
+				assertEquals("point " + v, expected, grid.contains(v));
+			}
+
+		}
+
+	}
+
+}
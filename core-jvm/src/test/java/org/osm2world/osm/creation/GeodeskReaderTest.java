@@ -1,6 +1,6 @@
 package org.osm2world.osm.creation;
 
-import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.*;
 import static org.osm2world.util.test.TestFileUtil.getTestFile;
 
 import java.io.File;
@@ -53,6 +53,33 @@ public class GeodeskReaderTest {
 		reader.getData(globalBounds);
 	}
 
+	@Test
+	public void testLibraryPool() throws IOException {
+
+		File testFile = getTestFile("simpleTest01.gol");
+
+		GeodeskLibraryPool.closeAll();
+
+		try (var handleA = GeodeskLibraryPool.acquire(testFile);
+			 var handleB = GeodeskLibraryPool.acquire(testFile)) {
+			assertSame(handleA.library(), handleB.library());
+		}
+
+		// the library remains open for subsequent reads until it is closed explicitly or times out
+		assertEquals(1, GeodeskLibraryPool.openLibraries());
+		try (var handle = GeodeskLibraryPool.acquire(testFile)) {
+			assertEquals(1, GeodeskLibraryPool.openLibraries());
+		}
+
+		GeodeskLibraryPool.closeAll();
+		assertEquals(0, GeodeskLibraryPool.openLibraries());
+
+		long readsBefore = GeodeskLibraryPool.getStatistics().reads();
+		new GeodeskReader(testFile).getData(globalBounds);
+		assertTrue(GeodeskLibraryPool.getStatistics().reads() > readsBefore);
+
+	}
+
 	@Test
 	public void testParallelAccess() {
 
@@ -0,0 +1,86 @@
+package org.osm2world.osm.creation;
+
+import static java.util.Collections.nCopies;
+import static org.junit.Assert.*;
+import static org.osm2world.util.test.TestFileUtil.getTestFile;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.osm2world.math.geo.TileNumber;
+import org.osm2world.osm.data.OSMData;
+
+public class MbtilesReaderPoolTest {
+
+	private static final TileNumber TILE = new TileNumber(13, 4402, 2828);
+
+	@Test
+	public void testReader() throws IOException {
+
+		var reader = new MbtilesReader(getTestFile("simpleTest01.mbtiles"));
+
+		OSMData data = reader.getData(TILE);
+
+		assertFalse(data.getNodes().isEmpty());
+		assertFalse(data.getWays().isEmpty());
+
+	}
+
+	@Test
+	public void testConnectionsClosed() throws IOException {
+
+		File testFile = getTestFile("simpleTest01.mbtiles");
+		var pool = new MbtilesReaderPool(2, Duration.ZERO, 0);
+
+		byte[] data = pool.getTileData(testFile, TILE);
+		assertTrue(data.length > 0);
+
+		assertEquals(0, pool.openConnections());
+
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void testMissingTile() throws IOException {
+		var pool = new MbtilesReaderPool(2, Duration.ZERO, 0);
+		pool.getTileData(getTestFile("simpleTest01.mbtiles"), new TileNumber(13, 0, 0));
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+
+		File testFile = getTestFile("simpleTest01.mbtiles");
+		var pool = new MbtilesReaderPool(2, Duration.ofSeconds(10), 0);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+
+			Callable<byte[]> task = () -> pool.getTileData(testFile, TILE);
+			List<Future<byte[]>> futures = executor.invokeAll(nCopies(32, task));
+
+			byte[] expectedData = futures.get(0).get();
+
+			for (Future<byte[]> future : futures) {
+				assertArrayEquals(expectedData, future.get());
+			}
+
+			assertTrue(pool.openConnections() <= 2);
+
+		} finally {
+			executor.shutdown();
+			pool.closeAll();
+		}
+
+		assertEquals(0, pool.openConnections());
+
+	}
+
+}
@@ -0,0 +1,108 @@
+package org.osm2world.output.common;
+
+import static java.util.Collections.nCopies;
+import static org.junit.Assert.*;
+import static org.osm2world.util.test.TestFileUtil.createTempDirectory;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+import org.osm2world.output.common.TextureStore.EncodedTexture;
+import org.osm2world.scene.material.BlankTexture;
+import org.osm2world.scene.material.ImageFileTexture;
+import org.osm2world.scene.material.TextureData;
+import org.osm2world.scene.material.TextureData.Wrap;
+import org.osm2world.scene.material.TextureDataDimensions;
+
+public class TextureStoreTest {
+
+	@Test
+	public void testEncode() throws IOException {
+
+		var store = new TextureStore(TextureStore.DEFAULT_MAX_CACHED_BYTES);
+
+		EncodedTexture encoded = store.encode(BlankTexture.INSTANCE, 0.75f);
+
+		assertTrue(encoded.data().length > 0);
+		assertSame(encoded, store.encode(BlankTexture.INSTANCE, 0.75f));
+		assertEquals(encoded.data().length, store.cachedBytes());
+
+		store.clear();
+		EncodedTexture encodedAgain = store.encode(BlankTexture.INSTANCE, 0.75f);
+		assertNotSame(encoded, encodedAgain);
+		assertEquals(encoded.fileName(), encodedAgain.fileName());
+
+	}
+
+	@Test
+	public void testEditedFile() throws IOException {
+
+		var store = new TextureStore(TextureStore.DEFAULT_MAX_CACHED_BYTES);
+
+		File file = new File(createTempDirectory(), "texture.png");
+		ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", file);
+
+		TextureData texture = ImageFileTexture.create(file, new TextureDataDimensions(1.0, 1.0), Wrap.CLAMP, null);
+
+		EncodedTexture encoded = store.encode(texture, 0.75f);
+		assertSame(encoded, store.encode(texture, 0.75f));
+
+		ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB), "png", file);
+		assertTrue(file.setLastModified(file.lastModified() + 10_000));
+
+		EncodedTexture encodedAgain = store.encode(texture, 0.75f);
+		assertNotEquals(encoded.hash(), encodedAgain.hash());
+
+	}
+
+	@Test
+	public void testCacheSizeLimit() throws IOException {
+
+		var store = new TextureStore(0);
+
+		store.encode(BlankTexture.INSTANCE, 0.75f);
+
+		assertEquals(0, store.cachedBytes());
+
+	}
+
+	@Test
+	public void testConcurrentStore() throws Exception {
+
+		File directory = createTempDirectory();
+		var store = new TextureStore(TextureStore.DEFAULT_MAX_CACHED_BYTES);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+
+			Callable<File> task = () -> store.store(BlankTexture.INSTANCE, 0.75f, directory);
+			List<Future<File>> futures = executor.invokeAll(nCopies(32, task));
+
+			File expectedFile = futures.get(0).get();
+
+			for (Future<File> future : futures) {
+				assertEquals(expectedFile, future.get());
+			}
+
+			assertEquals(1, directory.listFiles().length);
+			assertArrayEquals(store.encode(BlankTexture.INSTANCE, 0.75f).data(),
+					Files.readAllBytes(expectedFile.toPath()));
+
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+}
@@ -18,6 +18,7 @@ import org.osm2world.map_data.creation.MapDataBuilder;
 import org.osm2world.map_data.data.MapData;
 import org.osm2world.map_data.data.MapNode;
 import org.osm2world.map_data.data.TagSet;
+import org.osm2world.math.VectorXYZ;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
 import org.osm2world.output.common.compression.Compression;
@@ -61,6 +62,41 @@ public class FrontendPbfOutputTest {
 		testBlock(new VectorBlock<>());
 	}
 
+	@Test
+	public void testVectorBlock_precision() {
+
+		Block<VectorXYZ> block = new VectorBlock<>(1000);
+
+		Assert.assertEquals(0, block.toIndex(new VectorXYZ(1, 2, 3)));
+		Assert.assertEquals(0, block.toIndex(new VectorXYZ(1.0001, 2, 2.9999)));
+		Assert.assertEquals(1, block.toIndex(new VectorXYZ(1.001, 2, 3)));
+		Assert.assertEquals(2, block.toIndex(new VectorXYZ(0, 0, 0)));
+		Assert.assertEquals(2, block.toIndex(new VectorXYZ(-0.0, 0, -0.0)));
+
+		Assert.assertEquals(3, block.getElements().size());
+
+	}
+
+	/** adds enough vectors for the hash table to grow several times */
+	@Test
+	public void testVectorBlock_growth() {
+
+		Block<VectorXZ> block = new VectorBlock<>();
+
+		int size = 50;
+
+		for (int repetition = 0; repetition < 2; repetition++) {
+			for (int x = 0; x < size; x++) {
+				for (int z = 0; z < size; z++) {
+					Assert.assertEquals(x * size + z, block.toIndex(new VectorXZ(x * 0.1, -z * 0.1)));
+				}
+			}
+		}
+
+		Assert.assertEquals(size * size, block.getElements().size());
+
+	}
+
 	@Test
 	public void testWritePbfFile_empty() throws IOException {
 
@@ -1,6 +1,6 @@
 package org.osm2world.output.gltf;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 import static org.osm2world.output.gltf.GltfModel.readComponent;
 import static org.osm2world.output.gltf.GltfModel.sliceBuffer;
 import static org.osm2world.util.test.TestFileUtil.getTestFile;
@@ -108,6 +108,25 @@ public class GltfModelTest {
 
 	}
 
+	@Test
+	public void testModelCache() throws IOException {
+
+		File gltfFile = getTestFile("gltf" + File.separator + "Triangle" + File.separator + "Triangle.gltf");
+		File glbFile = getTestFile("gltf" + File.separator + "Triangle" + File.separator + "Triangle.glb");
+
+		var cache = new GltfModelCache(1);
+
+		GltfModel model = cache.get(gltfFile);
+		assertSame(model, cache.get(gltfFile));
+		assertSame(model, cache.get(gltfFile.toURI(), null, null));
+
+		assertNotSame(model, cache.get(glbFile));
+		assertEquals(1, cache.size());
+
+		assertNotSame(model, cache.get(gltfFile));
+
+	}
+
 	private static GltfModel loadGltfTestModel(String assetName, String extension) throws IOException {
 
 		String fileName = "gltf" + File.separator + assetName + File.separator + assetName + extension;
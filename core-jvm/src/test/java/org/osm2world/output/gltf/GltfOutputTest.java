@@ -1,21 +1,30 @@
 package org.osm2world.output.gltf;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.osm2world.math.VectorXYZ.NULL_VECTOR;
 import static org.osm2world.scene.material.DefaultMaterials.STEEL;
 import static org.osm2world.util.test.TestFileUtil.createTempFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
+import org.osm2world.conversion.O2WConfig;
 import org.osm2world.map_data.creation.MapDataBuilder;
 import org.osm2world.map_data.data.MapNode;
 import org.osm2world.scene.Scene;
 import org.osm2world.scene.material.Material;
 import org.osm2world.scene.mesh.ExtrusionGeometry;
 import org.osm2world.scene.mesh.Mesh;
+import org.osm2world.scene.model.InstanceParameters;
+import org.osm2world.scene.model.ModelInstance;
 import org.osm2world.util.platform.json.JsonImplementationJvm;
 import org.osm2world.util.test.TestWorldModule;
+import org.osm2world.world.modules.BarrierModule.CylinderBollard;
 
 public class GltfOutputTest {
 
@@ -53,7 +62,38 @@ public class GltfOutputTest {
 		createTemporaryTestGltf(".glb.zip");
 	}
 
+	@Test
+	public void testIndexedGltf() throws IOException {
+		createTemporaryTestGltf(".gltf", new O2WConfig(Map.of("gltfIndexedGeometry", true)));
+	}
+
+	@Test
+	public void testIndexedGlb() throws IOException {
+		createTemporaryTestGltf(".glb", new O2WConfig(Map.of("gltfIndexedGeometry", true)));
+	}
+
+	@Test
+	public void testInstancedGltf() throws IOException {
+
+		File withInstancing = createTemporaryInstancingTestGltf(".gltf",
+				new O2WConfig(Map.of("gltfInstancing", true)));
+		assertTrue(Files.readString(withInstancing.toPath()).contains("EXT_mesh_gpu_instancing"));
+
+		File withoutInstancing = createTemporaryInstancingTestGltf(".gltf", new O2WConfig());
+		assertFalse(Files.readString(withoutInstancing.toPath()).contains("EXT_mesh_gpu_instancing"));
+
+	}
+
+	@Test
+	public void testInstancedGlb() throws IOException {
+		createTemporaryInstancingTestGltf(".glb", new O2WConfig(Map.of("gltfInstancing", true)));
+	}
+
 	private static void createTemporaryTestGltf(String fileExtension) throws IOException {
+		createTemporaryTestGltf(fileExtension, new O2WConfig());
+	}
+
+	private static void createTemporaryTestGltf(String fileExtension, O2WConfig config) throws IOException {
 
 		File tempFile = createTempFile(fileExtension);
 
@@ -69,8 +109,38 @@ public class GltfOutputTest {
 		Scene scene = new Scene(null, dataBuilder.build());
 
 		var target = new GltfOutput(tempFile);
+		target.setConfiguration(config);
+		target.outputScene(scene);
+
+	}
+
+	private static File createTemporaryInstancingTestGltf(String fileExtension, O2WConfig config)
+			throws IOException {
+
+		File tempFile = createTempFile(fileExtension);
+
+		var model = new CylinderBollard(STEEL.defaultAppearance(), 1.0, 0.2);
+
+		MapDataBuilder dataBuilder = new MapDataBuilder();
+		MapNode node = dataBuilder.createNode(0, 0);
+		node.addRepresentation(new TestWorldModule.TestNodeWorldObject(node) {
+			@Override
+			public List<ModelInstance> getSubModels() {
+				return List.of(
+						new ModelInstance(model, new InstanceParameters(NULL_VECTOR, 0)),
+						new ModelInstance(model, new InstanceParameters(NULL_VECTOR.add(5, 0, 0), 0)),
+						new ModelInstance(model, new InstanceParameters(NULL_VECTOR.add(0, 0, 5), 1.5)));
+			}
+		});
+
+		Scene scene = new Scene(null, dataBuilder.build());
+
+		var target = new GltfOutput(tempFile);
+		target.setConfiguration(config);
 		target.outputScene(scene);
 
+		return tempFile;
+
 	}
 
 }
@@ -0,0 +1,48 @@
+package org.osm2world.output.gltf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class VertexDeduplicatorTest {
+
+	@Test
+	public void testDuplicateVertices() {
+
+		var deduplicator = new VertexDeduplicator(3, 2);
+
+		assertEquals(0, deduplicator.add(new float[] {0, 0, 0}));
+		assertEquals(1, deduplicator.add(new float[] {1, 0, 0}));
+		assertEquals(0, deduplicator.add(new float[] {0, 0, 0}));
+		assertEquals(2, deduplicator.add(new float[] {0, 0, 1}));
+		assertEquals(1, deduplicator.add(new float[] {1, 0, 0}));
+
+		assertEquals(3, deduplicator.getVertexCount());
+		assertEquals(5, deduplicator.getIndexCount());
+
+		assertArrayEquals(new int[] {0, 1, 0, 2, 1}, Arrays.copyOf(deduplicator.getIndices(), 5));
+		assertArrayEquals(new float[] {0, 0, 0, 1, 0, 0, 0, 0, 1},
+				Arrays.copyOf(deduplicator.getVertexData(), 9), 0);
+
+	}
+
+	@Test
+	public void testManyVertices() {
+
+		var deduplicator = new VertexDeduplicator(2, 1);
+
+		for (int repetition = 0; repetition < 3; repetition++) {
+			for (int i = 0; i < 10000; i++) {
+				assertEquals(i, deduplicator.add(new float[] {i % 100, i / 100}));
+			}
+		}
+
+		assertEquals(10000, deduplicator.getVertexCount());
+		assertEquals(30000, deduplicator.getIndexCount());
+
+	}
+
+}
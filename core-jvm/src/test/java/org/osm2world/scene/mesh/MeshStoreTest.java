@@ -1,15 +1,20 @@
 package org.osm2world.scene.mesh;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.osm2world.scene.material.Material.Interpolation.FLAT;
 import static org.osm2world.scene.mesh.MeshStore.ClipToBounds.clipToBounds;
 import static org.osm2world.scene.mesh.MeshStore.ClipToBounds.getSegmentsCCW;
 import static org.osm2world.test.TestUtil.assertAlmostEquals;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
+import org.osm2world.conversion.ConversionLog;
 import org.osm2world.math.VectorXYZ;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
@@ -17,6 +22,8 @@ import org.osm2world.math.shapes.TriangleXYZ;
 import org.osm2world.math.shapes.TriangleXZ;
 import org.osm2world.scene.color.Color;
 import org.osm2world.scene.material.Material;
+import org.osm2world.scene.mesh.MeshStore.MergeMeshes.MergeOption;
+import org.osm2world.scene.mesh.MeshStore.MeshProcessingStep;
 
 public class MeshStoreTest {
 
@@ -40,6 +47,49 @@ public class MeshStoreTest {
 
 	}
 
+	@Test
+	public void testClipToBoundsStep() {
+
+		var metadata = new MeshStore.MeshMetadata(null, null);
+		var material = new Material(FLAT, Color.WHITE);
+
+		/* a grid of triangles covering (0, 0) to (20, 20) */
+
+		var gridBuilder = new TriangleGeometry.Builder(0, null, FLAT);
+		for (int x = 0; x < 20; x++) {
+			for (int z = 0; z < 20; z++) {
+				gridBuilder.addTriangles(List.of(
+						new TriangleXYZ(new VectorXYZ(x, 0, z), new VectorXYZ(x + 1, 0, z), new VectorXYZ(x, 0, z + 1)),
+						new TriangleXYZ(new VectorXYZ(x + 1, 0, z), new VectorXYZ(x + 1, 0, z + 1), new VectorXYZ(x, 0, z + 1))));
+			}
+		}
+		var gridMesh = new MeshStore.MeshWithMetadata(new Mesh(gridBuilder.build(), material), metadata);
+
+		var insideBuilder = new TriangleGeometry.Builder(0, null, FLAT);
+		insideBuilder.addTriangles(List.of(
+				new TriangleXYZ(new VectorXYZ(6, 0, 6), new VectorXYZ(7, 0, 6), new VectorXYZ(6, 0, 7))));
+		var insideMesh = new MeshStore.MeshWithMetadata(new Mesh(insideBuilder.build(), material), metadata);
+
+		var outsideBuilder = new TriangleGeometry.Builder(0, null, FLAT);
+		outsideBuilder.addTriangles(List.of(
+				new TriangleXYZ(new VectorXYZ(30, 0, 6), new VectorXYZ(31, 0, 6), new VectorXYZ(30, 0, 7))));
+		var outsideMesh = new MeshStore.MeshWithMetadata(new Mesh(outsideBuilder.build(), material), metadata);
+
+		MeshStore input = new MeshStore(List.of(gridMesh, insideMesh, outsideMesh));
+
+		var bounds = new AxisAlignedRectangleXZ(5.5, 5.5, 15.5, 15.5);
+		MeshStore result = input.process(List.of(new MeshStore.ClipToBounds(bounds, true)));
+
+		assertEquals(2, result.meshes().size());
+
+		double gridArea = result.meshes().get(0).geometry.asTriangles().triangles.stream()
+				.mapToDouble(TriangleXYZ::getArea).sum();
+		assertEquals(100, gridArea, 1e-6);
+
+		assertSame(insideMesh.mesh(), result.meshes().get(1));
+
+	}
+
 	@Test
 	public void testEmulateDoubleSidedMaterials() {
 
@@ -62,4 +112,56 @@ public class MeshStoreTest {
 
 	}
 
+	@Test
+	public void testProcessInParallel() {
+
+		var metadata = new MeshStore.MeshMetadata(null, null);
+		var material = new Material(FLAT, Color.WHITE).makeDoubleSided();
+
+		MeshStore input = new MeshStore();
+
+		for (int i = 0; i < 100; i++) {
+			var builder = new TriangleGeometry.Builder(0, null, FLAT);
+			builder.addTriangles(List.of(
+					new TriangleXYZ(new VectorXYZ(2 * i, 0, 0), new VectorXYZ(2 * i + 1, 0, 0), new VectorXYZ(2 * i, 0, 1))));
+			input.addMesh(new Mesh(builder.build(), material), metadata);
+		}
+
+		List<MeshProcessingStep> steps = List.of(
+				new MeshStore.ClipToBounds(new AxisAlignedRectangleXZ(-1, -1, 99.5, 2), true),
+				new MeshStore.EmulateDoubleSidedMaterials(),
+				new MeshStore.MergeMeshes(EnumSet.noneOf(MergeOption.class)),
+				new MeshStore.ConvertToTriangles(0.1));
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+
+			ConversionLog.clear();
+
+			MeshStore sequentialResult = input.process(steps);
+			MeshStore parallelResult = input.process(steps, executor);
+
+			assertEquals(1, sequentialResult.meshes().size());
+			assertEquals(1, parallelResult.meshes().size());
+
+			List<TriangleXYZ> sequentialTriangles = sequentialResult.meshes().get(0).geometry.asTriangles().triangles;
+			List<TriangleXYZ> parallelTriangles = parallelResult.meshes().get(0).geometry.asTriangles().triangles;
+
+			assertEquals(2 * 50, parallelTriangles.size());
+
+			for (int i = 0; i < sequentialTriangles.size(); i++) {
+				assertEquals(sequentialTriangles.get(i).vertices(), parallelTriangles.get(i).vertices());
+			}
+
+			assertTrue(ConversionLog.getTimes().containsKey("MeshStore.EmulateDoubleSidedMaterials"));
+			assertTrue(ConversionLog.getTimes().containsKey("MeshStore.MergeMeshes"));
+
+		} finally {
+			executor.shutdown();
+			ConversionLog.clear();
+		}
+
+	}
+
 }
\ No newline at end of file
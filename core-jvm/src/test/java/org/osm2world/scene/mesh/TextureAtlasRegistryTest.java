@@ -0,0 +1,83 @@
+package org.osm2world.scene.mesh;
+
+import static org.junit.Assert.*;
+import static org.osm2world.scene.color.Color.BLACK;
+import static org.osm2world.scene.texcoord.NamedTexCoordFunction.GLOBAL_X_Z;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.osm2world.scene.material.TextTexture;
+import org.osm2world.scene.material.TextureData.Wrap;
+import org.osm2world.scene.material.TextureDataDimensions;
+import org.osm2world.scene.material.TextureLayer;
+import org.osm2world.scene.mesh.MeshStore.ReplaceTexturesWithAtlas.TextureAtlasGroup;
+
+import com.google.common.collect.Lists;
+
+public class TextureAtlasRegistryTest {
+
+	private static List<TextureLayer> createTextureLayers(int count) {
+		List<TextureLayer> result = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			result.add(new TextureLayer(new TextTexture("text " + i, null, TextTexture.FontStyle.PLAIN,
+					new TextureDataDimensions(1.0, 1.0), 50.0, 50.0, BLACK, 50.0, Wrap.CLAMP, GLOBAL_X_Z),
+					null, null, null, false));
+		}
+		return result;
+	}
+
+	@Test
+	public void testSameLayers() {
+
+		List<TextureLayer> layers = createTextureLayers(10);
+
+		var registry = new TextureAtlasRegistry(TextureAtlasRegistry.DEFAULT_MAX_GROUPS);
+
+		TextureAtlasGroup group = registry.getAtlasGroup(new LinkedHashSet<>(layers));
+		assertSame(group, registry.getAtlasGroup(new LinkedHashSet<>(Lists.reverse(layers))));
+		assertEquals(1, registry.size());
+
+		for (TextureLayer layer : layers) {
+			assertTrue(group.canReplaceLayer(layer));
+		}
+
+		TextureAtlasGroup otherGroup = registry.getAtlasGroup(Set.copyOf(layers.subList(0, 5)));
+		assertNotSame(group, otherGroup);
+		assertEquals(2, registry.size());
+
+	}
+
+	@Test
+	public void testLayerOrder() {
+
+		List<TextureLayer> layers = createTextureLayers(10);
+
+		var group = new TextureAtlasGroup(new LinkedHashSet<>(layers));
+		var reversedGroup = new TextureAtlasGroup(new LinkedHashSet<>(Lists.reverse(layers)));
+
+		assertEquals(group.baseColorAtlas, reversedGroup.baseColorAtlas);
+
+	}
+
+	@Test
+	public void testSizeLimit() {
+
+		List<TextureLayer> layers = createTextureLayers(3);
+
+		var registry = new TextureAtlasRegistry(2);
+
+		TextureAtlasGroup group0 = registry.getAtlasGroup(Set.of(layers.get(0)));
+		registry.getAtlasGroup(Set.of(layers.get(1)));
+		assertSame(group0, registry.getAtlasGroup(Set.of(layers.get(0))));
+		registry.getAtlasGroup(Set.of(layers.get(2)));
+
+		assertEquals(2, registry.size());
+		assertSame(group0, registry.getAtlasGroup(Set.of(layers.get(0))));
+
+	}
+
+}
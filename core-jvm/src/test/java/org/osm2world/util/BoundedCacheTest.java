@@ -0,0 +1,131 @@
+package org.osm2world.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+	@Test
+	public void testGet() {
+
+		var cache = new BoundedCache<Integer, String>(10);
+
+		assertEquals("1", cache.get(1, () -> "1"));
+		assertEquals("1", cache.get(1, () -> "other"));
+		assertEquals("2", cache.get(2, () -> "2"));
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.hitCount());
+		assertEquals(2, cache.missCount());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNull(cache.getIfPresent(1));
+
+	}
+
+	@Test
+	public void testSizeLimit() {
+
+		var cache = new BoundedCache<Integer, String>(2);
+
+		cache.get(1, () -> "1");
+		cache.get(2, () -> "2");
+		cache.get(1, () -> "1");
+		cache.get(3, () -> "3");
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.evictionCount());
+		assertEquals("1", cache.getIfPresent(1));
+		assertNull(cache.getIfPresent(2));
+		assertEquals("3", cache.getIfPresent(3));
+
+	}
+
+	@Test
+	public void testWeightLimit() {
+
+		var cache = new BoundedCache<Integer, String>(5, String::length);
+
+		cache.get(1, () -> "abc");
+		cache.get(2, () -> "de");
+		assertEquals(5, cache.totalWeight());
+
+		cache.get(3, () -> "f");
+		assertEquals(3, cache.totalWeight());
+		assertNull(cache.getIfPresent(1));
+
+	}
+
+	@Test
+	public void testNullNotCached() {
+
+		var cache = new BoundedCache<Integer, String>(10);
+
+		assertNull(cache.get(1, () -> null));
+		assertEquals(0, cache.size());
+		assertEquals("1", cache.get(1, () -> "1"));
+
+	}
+
+	@Test
+	public void testFailureNotCached() {
+
+		var cache = new BoundedCache<Integer, String>(10);
+
+		try {
+			cache.get(1, () -> { throw new IOException("test"); });
+			fail();
+		} catch (IOException e) {
+			assertEquals("test", e.getMessage());
+		}
+
+		assertEquals(0, cache.size());
+		assertEquals("1", cache.get(1, () -> "1"));
+
+	}
+
+	@Test
+	public void testConcurrentRequests() throws Exception {
+
+		var cache = new BoundedCache<Integer, String>(10);
+		var createCount = new AtomicInteger();
+		var latch = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+
+			Future<?>[] futures = new Future<?>[4];
+			for (int i = 0; i < futures.length; i++) {
+				futures[i] = executor.submit(() -> cache.get(1, () -> {
+					createCount.incrementAndGet();
+					latch.await();
+					return "1";
+				}));
+			}
+
+			Thread.sleep(100);
+			latch.countDown();
+
+			for (Future<?> future : futures) {
+				assertEquals("1", future.get());
+			}
+
+			assertEquals(1, createCount.get());
+
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+}
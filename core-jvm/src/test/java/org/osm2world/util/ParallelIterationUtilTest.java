@@ -0,0 +1,93 @@
+package org.osm2world.util;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osm2world.conversion.ConversionLog;
+
+public class ParallelIterationUtilTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		ConversionLog.clear();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+		ConversionLog.clear();
+	}
+
+	@Test
+	public void testAllElementsProcessed() {
+
+		List<Integer> input = IntStream.range(0, 1000).boxed().toList();
+		AtomicIntegerArray counts = new AtomicIntegerArray(input.size());
+
+		ParallelIterationUtil.forEach(input, executor, 7, counts::incrementAndGet);
+
+		for (int i = 0; i < input.size(); i++) {
+			assertEquals(1, counts.get(i));
+		}
+
+	}
+
+	@Test
+	public void testLogOrder() {
+
+		List<Integer> input = IntStream.range(0, 100).boxed().toList();
+
+		ParallelIterationUtil.forEach(input, executor, 3, i -> ConversionLog.warn("element " + i));
+
+		List<ConversionLog.Entry> log = ConversionLog.getLog();
+		assertEquals(input.size(), log.size());
+		for (int i = 0; i < input.size(); i++) {
+			assertEquals("element " + i, log.get(i).message());
+		}
+
+	}
+
+	@Test
+	public void testFirstExceptionRethrown() {
+
+		List<Integer> input = IntStream.range(0, 100).boxed().toList();
+
+		try {
+			ParallelIterationUtil.forEach(input, executor, 10, i -> {
+				if (i == 42 || i == 87) {
+					throw new IllegalStateException("failed at " + i);
+				}
+			});
+			fail("exception expected");
+		} catch (IllegalStateException e) {
+			assertEquals("failed at 42", e.getMessage());
+		}
+
+	}
+
+	@Test
+	public void testNullExecutor() {
+
+		List<Integer> input = IntStream.range(0, 100).boxed().toList();
+		AtomicIntegerArray counts = new AtomicIntegerArray(input.size());
+
+		ParallelIterationUtil.forEach(input, null, counts::incrementAndGet);
+
+		for (int i = 0; i < input.size(); i++) {
+			assertEquals(1, counts.get(i));
+		}
+
+	}
+
+}
@@ -0,0 +1,159 @@
+package org.osm2world.util.platform.image;
+
+import static java.util.Collections.nCopies;
+import static org.junit.Assert.*;
+import static org.osm2world.scene.color.Color.BLACK;
+import static org.osm2world.scene.texcoord.NamedTexCoordFunction.GLOBAL_X_Z;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.osm2world.scene.material.BlankTexture;
+import org.osm2world.scene.material.ImageFileTexture;
+import org.osm2world.scene.material.TextTexture;
+import org.osm2world.scene.material.TextureData;
+import org.osm2world.scene.material.TextureData.Wrap;
+import org.osm2world.scene.material.TextureDataDimensions;
+import org.osm2world.util.Resolution;
+
+public class CachingImageImplementationTest {
+
+	/** creates blank images of a fixed size and counts how often it had to do so */
+	private static class TestImplementation extends CachingImageImplementation {
+
+		final AtomicInteger createdImages = new AtomicInteger();
+
+		TestImplementation(long maxCachedBytes) {
+			super(maxCachedBytes);
+		}
+
+		@Override
+		protected BufferedImage createBufferedImage(TextureData texture, Resolution resolution) {
+			createdImages.incrementAndGet();
+			return new BufferedImage(resolution.width, resolution.height, BufferedImage.TYPE_INT_ARGB);
+		}
+
+		@Override
+		protected BufferedImage createBufferedImage(TextureData texture) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			return createBufferedImage(texture, new Resolution(64, 64));
+		}
+
+		@Override
+		public Float getAspectRatio(TextureData texture) {
+			return null;
+		}
+
+	}
+
+	private static TextureData createTexture(String text) {
+		return new TextTexture(text, null, TextTexture.FontStyle.PLAIN, new TextureDataDimensions(1.0, 1.0),
+				50.0, 50.0, BLACK, 50.0, Wrap.CLAMP, GLOBAL_X_Z);
+	}
+
+	@Test
+	public void testCache() {
+
+		var implementation = new TestImplementation(CachingImageImplementation.DEFAULT_MAX_CACHED_BYTES);
+
+		BufferedImage image = implementation.loadTextureImage(BlankTexture.INSTANCE);
+		assertSame(image, implementation.loadTextureImage(BlankTexture.INSTANCE));
+		assertSame(image, implementation.loadTextureImage(BlankTexture.INSTANCE, new Resolution(64, 64)));
+
+		BufferedImage scaledImage = implementation.loadTextureImage(BlankTexture.INSTANCE, new Resolution(32, 16));
+		assertEquals(32, scaledImage.getWidth());
+		assertSame(scaledImage, implementation.loadTextureImage(BlankTexture.INSTANCE, new Resolution(32, 16)));
+
+		assertEquals(2, implementation.createdImages.get());
+
+		ImageCacheStats stats = implementation.getCacheStats();
+		assertEquals(2, stats.cachedImages());
+		assertEquals(64 * 64 * 4 + 32 * 16 * 4, stats.cachedBytes());
+		assertEquals(2, stats.missCount());
+		assertEquals(2, stats.hitCount());
+		assertEquals(0, stats.evictionCount());
+
+	}
+
+	@Test
+	public void testSizeLimit() {
+
+		var implementation = new TestImplementation(3 * 64 * 64 * 4);
+
+		TextureData textureA = createTexture("a");
+		TextureData textureB = createTexture("b");
+
+		for (int i = 0; i < 10; i++) {
+			implementation.loadTextureImage(createTexture("text " + i));
+			implementation.loadTextureImage(textureA);
+			implementation.loadTextureImage(textureB);
+		}
+
+		ImageCacheStats stats = implementation.getCacheStats();
+		assertEquals(3, stats.cachedImages());
+		assertTrue(stats.cachedBytes() <= 3 * 64 * 64 * 4);
+		assertEquals(9, stats.evictionCount());
+
+		/* the frequently used images have not been evicted */
+		assertEquals(12, implementation.createdImages.get());
+
+	}
+
+	@Test
+	public void testEditedFile() throws IOException {
+
+		var implementation = new TestImplementation(CachingImageImplementation.DEFAULT_MAX_CACHED_BYTES);
+
+		File file = File.createTempFile("osm2world-test-", ".png");
+		file.deleteOnExit();
+
+		TextureData texture = ImageFileTexture.create(file, new TextureDataDimensions(1.0, 1.0), Wrap.CLAMP, null);
+
+		BufferedImage image = implementation.loadTextureImage(texture);
+		assertSame(image, implementation.loadTextureImage(texture));
+
+		assertTrue(file.setLastModified(file.lastModified() + 10_000));
+
+		assertNotSame(image, implementation.loadTextureImage(texture));
+		assertEquals(2, implementation.createdImages.get());
+
+	}
+
+	@Test
+	public void testConcurrentLoads() throws Exception {
+
+		var implementation = new TestImplementation(CachingImageImplementation.DEFAULT_MAX_CACHED_BYTES);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+
+			Callable<BufferedImage> task = () -> implementation.loadTextureImage(BlankTexture.INSTANCE);
+			List<Future<BufferedImage>> futures = executor.invokeAll(nCopies(32, task));
+
+			for (Future<BufferedImage> future : futures) {
+				assertSame(futures.get(0).get(), future.get());
+			}
+
+			assertEquals(1, implementation.createdImages.get());
+			assertEquals(31, implementation.getCacheStats().hitCount());
+
+		} finally {
+			executor.shutdown();
+		}
+
+	}
+
+}
@@ -0,0 +1,88 @@
+package org.osm2world.world.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.osm2world.scene.mesh.LevelOfDetail.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.junit.Test;
+import org.osm2world.map_data.data.MapElement;
+import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.scene.mesh.LevelOfDetail;
+
+public class CachingProceduralWorldObjectTest {
+
+	private static class TestObject extends CachingProceduralWorldObject {
+
+		private final @Nullable LevelOfDetail configuredLod;
+
+		/** the LOD passed to each build call, null for calls without LOD */
+		final List<LevelOfDetail> builds = new ArrayList<>();
+
+		TestObject(@Nullable LevelOfDetail configuredLod) {
+			this.configuredLod = configuredLod;
+		}
+
+		@Override
+		protected @Nullable LevelOfDetail getConfiguredLod() {
+			return configuredLod;
+		}
+
+		@Override
+		public void buildMeshesAndModels(Target target) {
+			builds.add(null);
+		}
+
+		@Override
+		protected void buildMeshesAndModels(Target target, LevelOfDetail lod) {
+			builds.add(lod);
+		}
+
+		@Override
+		public MapElement getPrimaryMapElement() {
+			return null;
+		}
+
+		@Override
+		public Iterable<EleConnector> getEleConnectors() {
+			return List.of();
+		}
+
+	}
+
+	@Test
+	public void testLodIndependent() {
+
+		var o = new TestObject(null);
+
+		var meshes = o.buildMeshes();
+		o.getSubModels();
+		assertSame(meshes, o.buildMeshes(LOD1));
+		o.getSubModels(LOD3);
+
+		assertEquals(1, o.builds.size());
+
+	}
+
+	@Test
+	public void testResultsPerLod() {
+
+		var o = new TestObject(LOD2);
+
+		var meshes = o.buildMeshes();
+		assertSame(meshes, o.buildMeshes(LOD2));
+
+		o.buildMeshes(LOD0);
+		o.getSubModels(LOD0);
+		o.buildMeshes(LOD4);
+		o.buildMeshes();
+
+		assertEquals(List.of(LOD2, LOD0, LOD4), o.builds);
+
+	}
+
+}
@@ -22,6 +22,8 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -165,7 +167,18 @@ class O2WConverterImpl {
 		updatePhase(perfListener, ProgressListener.Phase.REPRESENTATION);
 
 		WorldCreator moduleManager = new WorldCreator(config, createModuleList(config));
-		moduleManager.addRepresentationsTo(mapData);
+
+		if (config.worldModuleThreads() > 1) {
+			ExecutorService executor = Executors.newFixedThreadPool(config.worldModuleThreads());
+			try {
+				moduleManager.setExecutor(executor);
+				moduleManager.addRepresentationsTo(mapData);
+			} finally {
+				executor.shutdown();
+			}
+		} else {
+			moduleManager.addRepresentationsTo(mapData);
+		}
 
 		/* determine elevations */
 		updatePhase(perfListener, ProgressListener.Phase.ELEVATION);
@@ -440,6 +453,9 @@ class O2WConverterImpl {
 			timePerPhase = Map.of();
 		}
 
+		Map<String, Double> timePerTask = new LinkedHashMap<>(
+				Maps.transformValues(ConversionLog.getTimes(), it -> it.toNanos() / 1e9));
+
 		/* write a json file with performance stats */
 
 		try (FileWriter writer = new FileWriter(new File(logDir, fileNameBase + ".json"))) {
@@ -447,7 +463,8 @@ class O2WConverterImpl {
 			Map<String, Object> jsonRoot = Map.of(
 					"startTime", perfListener.startTime.toString(),
 					"totalTime", totalTime,
-					"timePerPhase", timePerPhase
+					"timePerPhase", timePerPhase,
+					"timePerTask", timePerTask
 			);
 
 			JsonUtil.toJson(jsonRoot, writer, true);
@@ -473,6 +490,8 @@ class O2WConverterImpl {
 					}
 				}
 
+				timePerTask.forEach((task, time) -> printStream.println(task + ": " + time));
+
 				printStream.println();
 
 				List<ConversionLog.Entry> entries = ConversionLog.getLog();
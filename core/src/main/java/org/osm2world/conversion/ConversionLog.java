@@ -2,6 +2,7 @@ package org.osm2world.conversion;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 
@@ -52,6 +53,7 @@ public class ConversionLog {
 	private static final ThreadLocal<EnumSet<LogLevel>> consoleLogLevels =
 			ThreadLocal.withInitial(() -> EnumSet.allOf(LogLevel.class));
 	private static final ThreadLocal<Integer> suppressedCopiesOfLastEntry = ThreadLocal.withInitial(() -> 0);
+	private static final ThreadLocal<Map<String, Duration>> times = ThreadLocal.withInitial(LinkedHashMap::new);
 
 	public static void setConsoleLogLevels(EnumSet<LogLevel> consoleLogLevels) {
 		ConversionLog.consoleLogLevels.set(consoleLogLevels);
@@ -65,6 +67,53 @@ public class ConversionLog {
 	public static void clear() {
 		log.get().clear();
 		suppressedCopiesOfLastEntry.set(0);
+		times.get().clear();
+	}
+
+	/**
+	 * records time spent on some task during the conversion.
+	 * Times logged repeatedly for the same task are added up.
+	 */
+	public static void logTime(String task, Duration duration) {
+		times.get().merge(task, duration, Duration::plus);
+	}
+
+	/** returns the total times recorded using {@link #logTime(String, Duration)}, in the order of the first entry */
+	public static Map<String, Duration> getTimes() {
+		return Collections.unmodifiableMap(times.get());
+	}
+
+	/**
+	 * runs an action while collecting the entries it logs separately from this thread's regular log.
+	 * This is used to run parts of a conversion on worker threads and hand their log entries back to the
+	 * thread which is responsible for the conversion. Collected entries are not printed to the console.
+	 * The thread's regular log and console settings are restored afterward.
+	 *
+	 * @return  the entries logged by the action, in the order they were logged
+	 */
+	public static List<Entry> collectEntries(Runnable action) {
+
+		List<Entry> previousLog = log.get();
+		EnumSet<LogLevel> previousConsoleLogLevels = consoleLogLevels.get();
+		int previousSuppressedCopies = suppressedCopiesOfLastEntry.get();
+
+		List<Entry> collectedLog = new ArrayList<>();
+
+		log.set(collectedLog);
+		consoleLogLevels.set(EnumSet.noneOf(LogLevel.class));
+		suppressedCopiesOfLastEntry.set(0);
+
+		try {
+			action.run();
+			flushSuppressedCopies();
+		} finally {
+			log.set(previousLog);
+			consoleLogLevels.set(previousConsoleLogLevels);
+			suppressedCopiesOfLastEntry.set(previousSuppressedCopies);
+		}
+
+		return collectedLog;
+
 	}
 
 	public static void log(Entry entry) {
@@ -36,7 +36,7 @@ public class O2WConfig {
 
 	private final Properties props;
 
-	private Style style;
+	private volatile Style style;
 
 	private O2WConfig(Properties props) {
 		this.props = props;
@@ -375,6 +375,9 @@ public class O2WConfig {
 			case "NoOpEleCalculator" -> NoOpEleCalculator::new;
 			case "EleTagEleCalculator" -> EleTagEleCalculator::new;
 			case "ConstraintEleCalculator" -> () -> new ConstraintEleCalculator(new SimpleEleConstraintEnforcer());
+			case "IterativeConstraintEleCalculator" -> () -> new ConstraintEleCalculator(
+					new IterativeEleConstraintEnforcer(eleConstraintMaxIterations(), eleConstraintTimeLimit(),
+							eleConstraintThreads()));
 			default -> BridgeTunnelEleCalculator::new;
 		};
 	}
@@ -392,6 +395,22 @@ public class O2WConfig {
 		return getBoolean("forceUnbufferedPNGRendering", false);
 	}
 
+	/**
+	 * Whether glTF output should use indexed geometry.
+	 * Vertices with identical attributes are then only written once, which reduces file size.
+	 */
+	public boolean gltfIndexedGeometry() {
+		return getBoolean("gltfIndexedGeometry", false);
+	}
+
+	/**
+	 * Whether glTF output should use the EXT_mesh_gpu_instancing extension for models with multiple instances.
+	 * The geometry of such models is then only written once.
+	 */
+	public boolean gltfInstancing() {
+		return getBoolean("gltfInstancing", false);
+	}
+
 	/**
 	 * whether underground {@link org.osm2world.world.data.WorldObject}s should be rendered
 	 */
@@ -410,6 +429,16 @@ public class O2WConfig {
 		return getBoolean("isAtSea", false);
 	}
 
+	/**
+	 * Whether OSM nodes without tags which are not used by any converted way, area or relation
+	 * are still added to the map data.
+	 * Disabling this reduces memory use for large datasets (e.g. with many untagged ways),
+	 * but these nodes will then no longer extend the data boundary.
+	 */
+	public boolean keepUnusedNodes() {
+		return getBoolean("keepUnusedNodes", true);
+	}
+
 	/**
 	 * Can be set to the value "shader" to enable shaders for OpenGL rendering.
 	 */
@@ -448,13 +477,20 @@ public class O2WConfig {
 	}
 
 	/**
-	 * Returns the map style which should be used to control the visual appearance of the scene
+	 * Returns the map style which should be used to control the visual appearance of the scene.
+	 * It is only loaded once, even if the config is used by multiple threads.
 	 */
 	public Style mapStyle() {
-		if (style == null) {
-			style = new PropertyStyle(this);
+		Style result = style;
+		if (result == null) {
+			synchronized (this) {
+				if (style == null) {
+					style = new PropertyStyle(this);
+				}
+				result = style;
+			}
 		}
-		return style;
+		return result;
 	}
 
 	/**
@@ -531,6 +567,64 @@ public class O2WConfig {
 		return getDouble("treesPerSquareMeter", 0.01f);
 	}
 
+	/**
+	 * The maximum number of iterations used by the iterative elevation constraint solver
+	 * for each group of connected constraints.
+	 */
+	public int eleConstraintMaxIterations() {
+		return getInt("eleConstraintMaxIterations", IterativeEleConstraintEnforcer.DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * The time in seconds after which the iterative elevation constraint solver stops,
+	 * even if the elevations have not converged yet.
+	 */
+	public double eleConstraintTimeLimit() {
+		return getDouble("eleConstraintTimeLimit", IterativeEleConstraintEnforcer.DEFAULT_TIME_LIMIT);
+	}
+
+	/**
+	 * The number of threads used by the iterative elevation constraint solver.
+	 * Independent groups of constraints are solved in parallel.
+	 * Values of 0 or less use one thread per available processor.
+	 */
+	public int eleConstraintThreads() {
+		int threads = getInt("eleConstraintThreads", 1);
+		return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * The number of threads used while creating the map data from OSM data,
+	 * e.g. for assembling the rings of different multipolygon relations.
+	 * Values of 0 or less use one thread per available processor.
+	 */
+	public int mapDataThreads() {
+		int threads = getInt("mapDataThreads", 1);
+		return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * The number of threads used to apply world modules to the map data.
+	 * With the default value of 1, all modules run on the thread performing the conversion.
+	 * Values of 0 or less use one thread per available processor.
+	 * Modules are always applied one after another,
+	 * only the map elements processed by a single module are distributed across threads.
+	 */
+	public int worldModuleThreads() {
+		int threads = getInt("worldModuleThreads", 1);
+		return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * The number of threads used by outputs to process the meshes of a scene,
+	 * e.g. for converting them to triangles or clipping them to the bounds of a tile.
+	 * Values of 0 or less use one thread per available processor.
+	 */
+	public int meshProcessingThreads() {
+		int threads = getInt("meshProcessingThreads", 1);
+		return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
 	/**
 	 * if this config references some files by path, e.g. textures,
 	 * resolve file paths relative to the location of the config file used to load this config (if any)
@@ -161,7 +161,7 @@ public class MapDataBuilder {
 
 	/** @see #build(AxisAlignedRectangleXZ) */
 	public MapData build() {
-		return new MapData(nodes, ways, areas, relations, null);
+		return build(null);
 	}
 
 	/**
@@ -169,7 +169,8 @@ public class MapDataBuilder {
 	 * @param boundary  a data boundary, equivalent to the &lt;bounds&gt; element of an .osm file
 	 */
 	public MapData build(@Nullable AxisAlignedRectangleXZ boundary) {
-		return new MapData(nodes, ways, areas, relations, boundary);
+		return new MapData(new ArrayList<>(nodes), new ArrayList<>(ways), new ArrayList<>(areas),
+				new ArrayList<>(relations), boundary);
 	}
 
 	/**
@@ -3,21 +3,27 @@ package org.osm2world.map_data.creation;
 import static de.topobyte.osm4j.core.model.util.OsmModelUtil.*;
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
-import static java.lang.Math.max;
+import static java.lang.Math.ceil;
 import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.singleton;
+import static java.util.Comparator.comparing;
 import static java.util.Comparator.comparingDouble;
 import static org.osm2world.map_data.creation.OSMToMapDataConverter.tagsOfEntity;
 import static org.osm2world.map_data.creation.OSMToMapDataConverter.wayNodes;
 import static org.osm2world.math.algorithms.GeometryUtil.getLineSegmentIntersection;
 import static org.osm2world.math.algorithms.GeometryUtil.isRightOf;
+import static org.osm2world.math.shapes.AxisAlignedRectangleXZ.bboxUnion;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -27,6 +33,7 @@ import org.osm2world.map_data.data.MapNode;
 import org.osm2world.map_data.data.TagSet;
 import org.osm2world.math.BoundedObject;
 import org.osm2world.math.VectorXZ;
+import org.osm2world.math.datastructures.IndexGrid;
 import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
 import org.osm2world.math.shapes.LineSegmentXZ;
 import org.osm2world.math.shapes.PolygonWithHolesXZ;
@@ -36,6 +43,8 @@ import org.osm2world.osm.ruleset.HardcodedRuleset;
 import org.osm2world.osm.ruleset.Ruleset;
 import org.osm2world.util.exception.InvalidGeometryException;
 
+import com.google.common.collect.Lists;
+
 import de.topobyte.osm4j.core.model.iface.*;
 import de.topobyte.osm4j.core.model.impl.Relation;
 import de.topobyte.osm4j.core.model.impl.Tag;
@@ -59,6 +68,30 @@ final class MultipolygonAreaBuilder {
 	/** prevents instantiation */
 	private MultipolygonAreaBuilder() { }
 
+	/**
+	 * the outer and inner rings of an area which has not been created yet.
+	 * Creating the {@link MapArea} modifies its nodes, see {@link #createArea()}.
+	 *
+	 * @param polygon  the area's polygon, null if it still needs to be calculated from the nodes
+	 */
+	record PreparedArea(long id, boolean basedOnRelation, TagSet tags, List<MapNode> outer,
+			List<List<MapNode>> holes, @Nullable PolygonWithHolesXZ polygon) {
+
+		/**
+		 * creates the area. Also adds the area to the adjacent nodes using
+		 * {@link MapNode#addAdjacentArea(MapArea, MapAreaSegment)}.
+		 * Must not be called on multiple threads at the same time if the areas share nodes.
+		 */
+		MapArea createArea() {
+			if (polygon == null) {
+				return new MapArea(id, basedOnRelation, tags, outer, holes);
+			} else {
+				return new MapArea(id, basedOnRelation, tags, outer, holes, polygon);
+			}
+		}
+
+	}
+
 	/**
 	 * Creates areas for a multipolygon relation.
 	 * Also adds this area to the adjacent nodes using
@@ -72,11 +105,23 @@ final class MultipolygonAreaBuilder {
 	 */
 	public static final Collection<MapArea> createAreasForMultipolygon(OsmRelation relation,
 			TLongObjectMap<MapNode> nodeIdMap, OsmEntityProvider db) throws EntityNotFoundException {
+		return prepareMultipolygon(relation, nodeIdMap, db).stream().map(PreparedArea::createArea).toList();
+	}
+
+	/**
+	 * Assembles and nests the rings of a multipolygon relation, but does not create the areas yet.
+	 * This only reads the map data, so multiple relations can be prepared in parallel.
+	 *
+	 * @return  the areas which can be created from the relation,
+	 *          see {@link #createAreasForMultipolygon(OsmRelation, TLongObjectMap, OsmEntityProvider)}
+	 */
+	static final List<PreparedArea> prepareMultipolygon(OsmRelation relation,
+			TLongObjectMap<MapNode> nodeIdMap, OsmEntityProvider db) throws EntityNotFoundException {
 
 		if (isSimpleMultipolygon(relation, db)) {
-			return createAreasForSimpleMultipolygon(relation, nodeIdMap, db);
+			return prepareSimpleMultipolygon(relation, nodeIdMap, db);
 		} else {
-			return createAreasForAdvancedMultipolygon(relation, nodeIdMap, db);
+			return prepareAdvancedMultipolygon(relation, nodeIdMap, db);
 		}
 
 	}
@@ -113,11 +158,11 @@ final class MultipolygonAreaBuilder {
 	/**
 	 * handles the common simple case with only one outer way.
 	 * Expected to be faster than the more general method
-	 * {@link #createAreasForAdvancedMultipolygon(OsmRelation, TLongObjectMap, OsmEntityProvider)}
+	 * {@link #prepareAdvancedMultipolygon(OsmRelation, TLongObjectMap, OsmEntityProvider)}
 	 *
 	 * @param relation  has to be a simple multipolygon relation
 	 */
-	private static final Collection<MapArea> createAreasForSimpleMultipolygon(OsmRelation relation,
+	private static final List<PreparedArea> prepareSimpleMultipolygon(OsmRelation relation,
 			TLongObjectMap<MapNode> nodeIdMap, OsmEntityProvider db) throws EntityNotFoundException {
 
 		try {
@@ -142,8 +187,8 @@ final class MultipolygonAreaBuilder {
 				}
 			}
 
-			return singleton(new MapArea(tagSource.getId(), tagSource instanceof OsmRelation,
-					tagsOfEntity(tagSource), outerNodes, holes));
+			return List.of(new PreparedArea(tagSource.getId(), tagSource instanceof OsmRelation,
+					tagsOfEntity(tagSource), outerNodes, holes, null));
 
 		} catch (EntityNotFoundException e) {
 			throw new EntityNotFoundException(e);
@@ -151,7 +196,7 @@ final class MultipolygonAreaBuilder {
 
 	}
 
-	private static final Collection<MapArea> createAreasForAdvancedMultipolygon(OsmRelation relation,
+	private static final List<PreparedArea> prepareAdvancedMultipolygon(OsmRelation relation,
 			TLongObjectMap<MapNode> nodeIdMap, OsmEntityProvider db) throws EntityNotFoundException {
 
 		List<NodeSequence> innersAndOuters = new ArrayList<NodeSequence>();
@@ -186,51 +231,73 @@ final class MultipolygonAreaBuilder {
 	}
 
 	/**
-	 * builds closed rings from any mixture of closed and unclosed segments
+	 * builds closed rings from any mixture of closed and unclosed segments.
+	 * Sequences are joined using an index of their end nodes.
+	 * If there are several candidates for continuing a ring, the one which comes first in the input is used.
 	 *
+	 * @param sequences  the node sequences, which may be modified and should be considered "spent" afterwards
 	 * @return  null if building closed rings isn't possible
 	 */
 	private static final List<Ring> buildRings(
 			List<NodeSequence> sequences) {
 
+		/* index the sequences by their first and last node */
+
+		Map<MapNode, List<Integer>> sequencesByEndNode = new HashMap<>();
+
+		for (int i = 0; i < sequences.size(); i++) {
+			NodeSequence sequence = sequences.get(i);
+			sequencesByEndNode.computeIfAbsent(sequence.getFirstNode(), k -> new ArrayList<>(2)).add(i);
+			if (!sequence.isClosed()) {
+				sequencesByEndNode.computeIfAbsent(sequence.getLastNode(), k -> new ArrayList<>(2)).add(i);
+			}
+		}
+
+		/* connect the sequences */
+
+		boolean[] used = new boolean[sequences.size()];
+		int nextStartIndex = sequences.size() - 1;
+
 		List<Ring> closedRings = new ArrayList<Ring>();
 
 		NodeSequence currentRing = null;
 
-		while (sequences.size() > 0) {
+		while (true) {
 
 			if (currentRing == null) {
 
 				// start a new ring with any remaining node sequence
 
-				currentRing = sequences.remove(sequences.size() - 1);
+				while (nextStartIndex >= 0 && used[nextStartIndex]) {
+					nextStartIndex--;
+				}
 
-			} else {
+				if (nextStartIndex < 0) break;
 
-				// try to continue the ring by appending a node sequence
+				currentRing = sequences.get(nextStartIndex);
+				used[nextStartIndex] = true;
 
-				NodeSequence assignedSequence = null;
+			} else {
 
-				for (NodeSequence sequence : sequences) {
+				// try to continue the ring by appending a node sequence
 
-					if (currentRing.tryAdd(sequence)) {
-						assignedSequence = sequence;
-						break;
-					}
+				int assignedIndex = min(
+						firstUnusedSequence(sequencesByEndNode.get(currentRing.getFirstNode()), used),
+						firstUnusedSequence(sequencesByEndNode.get(currentRing.getLastNode()), used));
 
-				}
-
-				if (assignedSequence != null) {
-					sequences.remove(assignedSequence);
-				} else {
+				if (assignedIndex == Integer.MAX_VALUE) {
 					return null;
 				}
 
+				boolean added = currentRing.tryAdd(sequences.get(assignedIndex));
+				assert added;
+				used[assignedIndex] = true;
+
 			}
 
 			// check whether the ring under construction is closed
 
-			if (currentRing != null && currentRing.isClosed()) {
+			if (currentRing.isClosed()) {
 				try {
 					closedRings.add(new Ring(currentRing));
 					currentRing = null;
@@ -243,75 +310,109 @@ final class MultipolygonAreaBuilder {
 
 		}
 
-		if (currentRing != null) {
-			// the last ring could not be closed
-			return null;
-		}
-
 		return closedRings;
 
 	}
 
 	/**
-	 * @param rings  rings to build polygons from; will be empty afterwards
+	 * returns the lowest index of a sequence which has not been used yet, or {@link Integer#MAX_VALUE} if none exists.
+	 * Removes used sequences from the list.
+	 */
+	private static int firstUnusedSequence(@Nullable List<Integer> sequenceIndices, boolean[] used) {
+		if (sequenceIndices == null) {
+			return Integer.MAX_VALUE;
+		} else {
+			sequenceIndices.removeIf(i -> used[i]);
+			return sequenceIndices.isEmpty() ? Integer.MAX_VALUE : sequenceIndices.get(0);
+		}
+	}
+
+	/** minimum number of rings for which a spatial index is used to find the rings containing each ring */
+	private static final int MIN_RINGS_FOR_INDEX = 40;
+
+	/**
+	 * nests the rings by containment and turns them into polygons.
+	 * Rings at even depths (0, 2, ...) become outer rings, their direct children become holes.
+	 *
+	 * @param rings  rings to build polygons from
 	 */
-	private static final List<MapArea> buildPolygonsFromRings(
+	private static final List<PreparedArea> buildPolygonsFromRings(
 			OsmRelation relation, List<Ring> rings) {
 
-		List<MapArea> finishedPolygons = new ArrayList<>(rings.size() / 2);
+		/* sort the rings by area, so that every ring comes after all rings which contain it */
 
-		/* build polygon */
+		List<Ring> sortedRings = new ArrayList<>(rings);
+		sortedRings.sort(comparingDouble((Ring r) -> r.getPolygon().getArea()).reversed());
 
-		while (!rings.isEmpty()) {
+		Map<Ring, Integer> sortedIndexMap = new HashMap<>(sortedRings.size());
+		for (int i = 0; i < sortedRings.size(); i++) {
+			sortedIndexMap.put(sortedRings.get(i), i);
+		}
 
-			/* find an outer ring */
+		/* find the smallest ring containing each ring */
 
-			Ring outerRing = null;
+		Map<Ring, Ring> parentMap = new HashMap<>();
+		Map<Ring, Integer> depthMap = new HashMap<>();
 
-			for (Ring candidate : rings) {
+		IndexGrid<Ring> index = null;
 
-				boolean containedInOtherRings = false;
+		if (rings.size() >= MIN_RINGS_FOR_INDEX) {
+			int cellCount = (int) ceil(sqrt(rings.size()));
+			index = new IndexGrid<>(bboxUnion(rings), cellCount, cellCount);
+		}
 
-				for (Ring otherRing : rings) {
-					if (otherRing != candidate
-							&& otherRing.containsRing(candidate)) {
-						containedInOtherRings = true;
-						break;
-					}
-				}
+		for (int i = 0; i < sortedRings.size(); i++) {
+
+			Ring ring = sortedRings.get(i);
+
+			List<Ring> candidates;
+
+			if (index != null) {
+				candidates = new ArrayList<>();
+				index.probe(ring).forEach(candidates::add);
+				candidates.sort(comparing(sortedIndexMap::get));
+			} else {
+				candidates = sortedRings.subList(0, i);
+			}
 
-				if (!containedInOtherRings) {
-					outerRing = candidate;
+			Ring parent = null;
+
+			for (Ring candidate : Lists.reverse(candidates)) {
+				if (candidate.containsRing(ring)) {
+					parent = candidate;
 					break;
 				}
+			}
 
+			if (parent != null) {
+				parentMap.put(ring, parent);
 			}
 
-			/* find inner rings of that ring */
+			depthMap.put(ring, parent == null ? 0 : depthMap.get(parent) + 1);
 
-			Collection<Ring> innerRings = new ArrayList<Ring>();
+			if (index != null) {
+				index.insert(ring);
+			}
 
-			for (Ring ring : rings) {
-				if (ring != outerRing && outerRing.containsRing(ring)) {
+		}
 
-					boolean containedInOtherRings = false;
+		/* create a polygon for each outer ring, preserving the order of the rings */
 
-					for (Ring otherRing : rings) {
-						if (otherRing != ring && otherRing != outerRing
-								&& otherRing.containsRing(ring)) {
-							containedInOtherRings = true;
-							break;
-						}
-					}
-
-					if (!containedInOtherRings) {
-						innerRings.add(ring);
-					}
+		Map<Ring, List<Ring>> innerRingMap = new HashMap<>();
 
-				}
+		for (Ring ring : rings) {
+			if (depthMap.get(ring) % 2 == 1) {
+				innerRingMap.computeIfAbsent(parentMap.get(ring), k -> new ArrayList<>()).add(ring);
 			}
+		}
 
-			/* create a new area and remove the used rings */
+		List<PreparedArea> finishedPolygons = new ArrayList<>();
+
+		for (Ring outerRing : rings) {
+
+			if (depthMap.get(outerRing) % 2 == 1) continue;
+
+			List<Ring> innerRings = innerRingMap.getOrDefault(outerRing, emptyList());
 
 			List<List<MapNode>> holes = new ArrayList<List<MapNode>>(innerRings.size());
 			List<SimplePolygonXZ> holesXZ = new ArrayList<SimplePolygonXZ>(innerRings.size());
@@ -321,13 +422,8 @@ final class MultipolygonAreaBuilder {
 				holesXZ.add(innerRing.getPolygon());
 			}
 
-			MapArea area = new MapArea(relation.getId(), true, tagsOfEntity(relation),
-					outerRing.getNodeLoop(), holes, new PolygonWithHolesXZ(outerRing.getPolygon(), holesXZ));
-
-			finishedPolygons.add(area);
-
-			rings.remove(outerRing);
-			rings.removeAll(innerRings);
+			finishedPolygons.add(new PreparedArea(relation.getId(), true, tagsOfEntity(relation),
+					outerRing.getNodeLoop(), holes, new PolygonWithHolesXZ(outerRing.getPolygon(), holesXZ)));
 
 		}
 
@@ -608,7 +704,8 @@ final class MultipolygonAreaBuilder {
 				List<? extends OsmRelationMember> members = new ArrayList<>();
 				OsmRelation relation = new Relation(highestRelationId + 1, members, tags);
 
-				return buildPolygonsFromRings(relation, closedRings);
+				return buildPolygonsFromRings(relation, closedRings).stream()
+						.map(PreparedArea::createArea).toList();
 
 			}
 
@@ -748,6 +845,10 @@ final class MultipolygonAreaBuilder {
 
 		private final NodeSequence closedNodeSequence;
 		private final SimplePolygonXZ polygon;
+		private final AxisAlignedRectangleXZ boundingBox;
+
+		/** the polygon's vertices, created when needed by {@link #containsRing(Ring)} */
+		private @Nullable Set<VectorXZ> vertexSet = null;
 
 		public Ring(NodeSequence closedNodeSequence) {
 
@@ -756,22 +857,13 @@ final class MultipolygonAreaBuilder {
 			this.closedNodeSequence = closedNodeSequence;
 
 			polygon = MapArea.polygonFromMapNodeLoop(closedNodeSequence);
+			boundingBox = polygon.boundingBox();
 
 		}
 
 		@Override
 		public AxisAlignedRectangleXZ boundingBox() {
-
-			double minX = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
-			double maxX = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
-
-			for (MapNode n : closedNodeSequence) {
-				minX = min(minX, n.getPos().x); minZ = min(minZ, n.getPos().z);
-				maxX = max(maxX, n.getPos().x); maxZ = max(maxZ, n.getPos().z);
-			}
-
-			return new AxisAlignedRectangleXZ(minX, minZ, maxX, maxZ);
-
+			return boundingBox;
 		}
 
 		private List<MapNode> getNodeLoop() {
@@ -782,8 +874,27 @@ final class MultipolygonAreaBuilder {
 			return polygon;
 		}
 
+		/**
+		 * checks whether this ring contains another ring.
+		 * Equivalent to {@link SimplePolygonXZ#contains(org.osm2world.math.shapes.PolygonShapeXZ)},
+		 * but avoids most of the work for rings which are far apart or share many vertices.
+		 */
 		public boolean containsRing(Ring other) {
-			return this.getPolygon().contains(other.getPolygon());
+
+			if (!this.boundingBox.contains(other.boundingBox)) return false;
+
+			if (vertexSet == null) {
+				vertexSet = new HashSet<>(polygon.vertices());
+			}
+
+			for (VectorXZ v : other.getPolygon().vertices()) {
+				if (!vertexSet.contains(v) && !polygon.contains(v)) {
+					return false;
+				}
+			}
+
+			return true;
+
 		}
 
 	}
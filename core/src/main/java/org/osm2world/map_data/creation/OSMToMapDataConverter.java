@@ -9,12 +9,17 @@ import static org.osm2world.math.shapes.AxisAlignedRectangleXZ.bbox;
 import static org.osm2world.util.FaultTolerantIterationUtil.forEach;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 import javax.annotation.Nullable;
 
 import org.osm2world.conversion.ConversionLog;
 import org.osm2world.conversion.O2WConfig;
+import org.osm2world.map_data.creation.MultipolygonAreaBuilder.PreparedArea;
 import org.osm2world.map_data.data.*;
 import org.osm2world.map_data.data.overlaps.*;
 import org.osm2world.math.VectorXZ;
@@ -29,12 +34,15 @@ import org.osm2world.osm.data.OSMData;
 import org.osm2world.osm.ruleset.HardcodedRuleset;
 import org.osm2world.osm.ruleset.Ruleset;
 import org.osm2world.util.FaultTolerantIterationUtil;
+import org.osm2world.util.ParallelIterationUtil;
 import org.osm2world.util.exception.InvalidGeometryException;
 
 import de.topobyte.osm4j.core.model.iface.*;
 import de.topobyte.osm4j.core.resolve.EntityNotFoundException;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 
 /**
  * converts {@link OSMData} into the internal map data representation
@@ -60,8 +68,20 @@ public class OSMToMapDataConverter {
 		List<MapRelation> mapRelations = new ArrayList<>();
 
 		boolean isAtSea = config != null && config.isAtSea();
+		boolean keepUnusedNodes = config == null || config.keepUnusedNodes();
 
-		createMapElements(osmData, isAtSea, mapNodes, mapWays, mapAreas, mapRelations);
+		if (config != null && config.mapDataThreads() > 1) {
+			ExecutorService executor = Executors.newFixedThreadPool(config.mapDataThreads());
+			try {
+				createMapElements(osmData, isAtSea, keepUnusedNodes, executor,
+						mapNodes, mapWays, mapAreas, mapRelations);
+			} finally {
+				executor.shutdown();
+			}
+		} else {
+			createMapElements(osmData, isAtSea, keepUnusedNodes, null,
+					mapNodes, mapWays, mapAreas, mapRelations);
+		}
 
 		AxisAlignedRectangleXZ fileBoundary = calculateFileBoundary(osmData.getUnionOfExplicitBounds());
 
@@ -162,20 +182,27 @@ public class OSMToMapDataConverter {
 	 *
 	 * @param isAtSea  true if the {@link OSMData} is sea on all sides (it may contain islands as long as they are
 	 *                 entirely within the bounds); false if it's on land or unknown/mixed
+	 * @param keepUnusedNodes  see {@link O2WConfig#keepUnusedNodes()}
+	 * @param executor  used to assemble the rings of different multipolygons in parallel, can be null
 	 */
-	private void createMapElements(final OSMData osmData, boolean isAtSea,
-			final List<MapNode> mapNodes, final List<MapWay> mapWays,
+	private void createMapElements(final OSMData osmData, boolean isAtSea, boolean keepUnusedNodes,
+			@Nullable Executor executor, final List<MapNode> mapNodes, final List<MapWay> mapWays,
 			final List<MapArea> mapAreas, List<MapRelation> mapRelations) throws EntityNotFoundException {
 
-		/* create MapNode for each OSM node */
+		/* create MapNode for each OSM node (unless it's an untagged node which won't be used) */
 
-		final TLongObjectMap<MapNode> nodeIdMap = new TLongObjectHashMap<>();
+		final @Nullable TLongSet usedNodeIds = keepUnusedNodes ? null : collectUsedNodeIds(osmData);
+
+		final TLongObjectMap<MapNode> nodeIdMap = new TLongObjectHashMap<>(
+				usedNodeIds != null ? usedNodeIds.size() : osmData.getNodes().size());
 
 		for (OsmNode node : osmData.getNodes()) {
-			VectorXZ nodePos = mapProjection.toXZ(node.getLatitude(), node.getLongitude());
-			MapNode mapNode = new MapNode(node.getId(), tagsOfEntity(node), nodePos);
-			mapNodes.add(mapNode);
-			nodeIdMap.put(node.getId(), mapNode);
+			if (usedNodeIds == null || node.getNumberOfTags() > 0 || usedNodeIds.contains(node.getId())) {
+				VectorXZ nodePos = mapProjection.toXZ(node.getLatitude(), node.getLongitude());
+				MapNode mapNode = new MapNode(node.getId(), tagsOfEntity(node), nodePos);
+				mapNodes.add(mapNode);
+				nodeIdMap.put(node.getId(), mapNode);
+			}
 		}
 
 		/* create areas ... */
@@ -184,39 +211,57 @@ public class OSMToMapDataConverter {
 
 		/* ... based on multipolygons */
 
-		forEach(osmData.getRelations(), (OsmRelation relation) -> {
-
-			TagSet tags = TagSet.of(getTagsAsMap(relation));
+		List<OsmRelation> multipolygons = new ArrayList<>();
 
-			if (!tags.contains(MULTIPOLYON_TAG)) {
-				return;
+		for (OsmRelation relation : osmData.getRelations()) {
+			if (TagSet.of(getTagsAsMap(relation)).contains(MULTIPOLYON_TAG)) {
+				multipolygons.add(relation);
 			}
+		}
+
+		// assembling the rings only reads the data and can be done in parallel for independent relations
 
+		@SuppressWarnings("unchecked") //cannot create generic array
+		List<PreparedArea>[] preparedAreas = new List[multipolygons.size()];
+
+		ParallelIterationUtil.forEach(IntStream.range(0, multipolygons.size()).boxed().toList(), executor, 8, i -> {
+			OsmRelation relation = multipolygons.get(i);
 			try {
+				preparedAreas[i] = MultipolygonAreaBuilder.prepareMultipolygon(relation, nodeIdMap, osmData);
+			} catch (EntityNotFoundException e) {
+				// skip this area
+			} catch (Exception | AssertionError e) {
+				FaultTolerantIterationUtil.DEFAULT_EXCEPTION_HANDLER.accept(e, relation);
+			}
+		});
 
-				Collection<MapArea> areas = MultipolygonAreaBuilder
-						.createAreasForMultipolygon(relation, nodeIdMap, osmData);
+		// creating the areas modifies the nodes and therefore happens sequentially
 
-				if (areas.size() > 1) {
-					// create a relation object to link the areas created from multiple outer rings
-					mapRelations.add(new MapMultipolygonRelation(relation.getId(), tags, areas));
-				}
+		forEach(IntStream.range(0, multipolygons.size()).boxed().toList(), (Integer i) -> {
 
-				for (MapArea area : areas) {
+			if (preparedAreas[i] == null) return;
 
-					mapAreas.add(area);
+			OsmRelation relation = multipolygons.get(i);
 
-					if (!area.isBasedOnRelation()) {
-						areaMap.put(area.getId(), area);
-					}
+			List<MapArea> areas = preparedAreas[i].stream().map(PreparedArea::createArea).toList();
+
+			if (areas.size() > 1) {
+				// create a relation object to link the areas created from multiple outer rings
+				TagSet tags = TagSet.of(getTagsAsMap(relation));
+				mapRelations.add(new MapMultipolygonRelation(relation.getId(), tags, areas));
+			}
 
+			for (MapArea area : areas) {
+
+				mapAreas.add(area);
+
+				if (!area.isBasedOnRelation()) {
+					areaMap.put(area.getId(), area);
 				}
 
-			} catch (EntityNotFoundException e) {
-				// skip this area
 			}
 
-		});
+		}, (e, i) -> FaultTolerantIterationUtil.DEFAULT_EXCEPTION_HANDLER.accept(e, multipolygons.get(i)));
 
 		/* ... based on coastline ways */
 
@@ -384,6 +429,46 @@ public class OSMToMapDataConverter {
 
 	}
 
+	/**
+	 * returns the ids of the nodes which may be needed by the ways, areas and relations
+	 * created by {@link #createMapElements(OSMData, boolean, boolean, Executor, List, List, List, List)}.
+	 * These are the nodes of tagged ways, the nodes of ways in multipolygons, and the node members of tagged relations.
+	 * Tagged nodes are always needed and not included.
+	 */
+	private static TLongSet collectUsedNodeIds(OSMData osmData) {
+
+		TLongSet result = new TLongHashSet();
+
+		for (OsmWay way : osmData.getWays()) {
+			if (way.getNumberOfTags() > 0) {
+				result.addAll(nodesAsList(way).toArray());
+			}
+		}
+
+		for (OsmRelation relation : osmData.getRelations()) {
+
+			if (relation.getNumberOfTags() == 0) continue;
+
+			boolean isMultipolygon = TagSet.of(getTagsAsMap(relation)).contains(MULTIPOLYON_TAG);
+
+			for (OsmRelationMember member : membersAsList(relation)) {
+				if (member.getType() == EntityType.Node) {
+					result.add(member.getId());
+				} else if (member.getType() == EntityType.Way && isMultipolygon) {
+					try {
+						result.addAll(nodesAsList(osmData.getWay(member.getId())).toArray());
+					} catch (EntityNotFoundException e) {
+						// the multipolygon is incomplete, which will be reported when creating it
+					}
+				}
+			}
+
+		}
+
+		return result;
+
+	}
+
 	public static TagSet tagsOfEntity(OsmEntity entity) {
 
 		if (entity.getNumberOfTags() == 0) return TagSet.of();
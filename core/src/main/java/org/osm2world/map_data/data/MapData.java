@@ -5,6 +5,7 @@ import static org.osm2world.map_data.data.overlaps.MapElementId.TYPED_ID_PATTERN
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 import javax.annotation.Nullable;
 
@@ -15,6 +16,9 @@ import org.osm2world.world.data.WorldObject;
 
 import com.google.common.collect.Iterables;
 
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
 /**
  * OSM2World's abstraction of OSM data, consists of {@link MapElement}s.
  *
@@ -35,6 +39,17 @@ public class MapData {
 	AxisAlignedRectangleXZ fileBoundary;
 	AxisAlignedRectangleXZ dataBoundary;
 
+	/*
+	 * indices for looking up elements by id, built on first use.
+	 * Concurrent first calls may each build an index, but only complete indices are ever published.
+	 */
+	private volatile @Nullable TLongObjectMap<MapNode> nodeIndex = null;
+	private volatile @Nullable TLongObjectMap<MapWay> wayIndex = null;
+	private volatile @Nullable TLongObjectMap<MapRelation> relationIndex = null;
+
+	/** index of elements by tag keys, built on first use like the id indices */
+	private volatile @Nullable TagIndex tagIndex = null;
+
 	public MapData(List<MapNode> mapNodes, List<MapWay> mapWays, List<MapArea> mapAreas,
 			List<MapRelation> mapRelations, AxisAlignedRectangleXZ fileBoundary) {
 
@@ -127,30 +142,51 @@ public class MapData {
 	}
 
 	public @Nullable MapRelation getMapRelation(long id) {
-		for (MapRelation relation : mapRelations) {
-			if (relation.getId() == id) {
-				return relation;
-			}
+		TLongObjectMap<MapRelation> index = relationIndex;
+		if (index == null) {
+			relationIndex = index = buildIdIndex(mapRelations, MapRelation::getId);
 		}
-		return null;
+		return index.get(id);
 	}
 
 	public @Nullable MapWay getMapWay(long id) {
-		for (MapWay way : mapWays) {
-			if (way.getId() == id) {
-				return way;
-			}
+		TLongObjectMap<MapWay> index = wayIndex;
+		if (index == null) {
+			wayIndex = index = buildIdIndex(mapWays, MapWay::getId);
 		}
-		return null;
+		return index.get(id);
 	}
 
 	public @Nullable MapNode getMapNode(long id) {
-		for (MapNode node : mapNodes) {
-			if (node.getId() == id) {
-				return node;
-			}
+		TLongObjectMap<MapNode> index = nodeIndex;
+		if (index == null) {
+			nodeIndex = index = buildIdIndex(mapNodes, MapNode::getId);
 		}
-		return null;
+		return index.get(id);
+	}
+
+	/**
+	 * returns an index of this data set's elements by the keys of their tags.
+	 * Because the index is built on first use, elements must not be added after that.
+	 */
+	public TagIndex getTagIndex() {
+		TagIndex index = tagIndex;
+		if (index == null) {
+			tagIndex = index = new TagIndex(this);
+		}
+		return index;
+	}
+
+	/**
+	 * creates a map from ids to elements.
+	 * If several elements share an id, the first one is used, matching the behavior of a linear search.
+	 */
+	private static <E> TLongObjectMap<E> buildIdIndex(List<E> elements, ToLongFunction<E> getId) {
+		TLongObjectMap<E> index = new TLongObjectHashMap<>(elements.size());
+		for (E element : elements) {
+			index.putIfAbsent(getId.applyAsLong(element), element);
+		}
+		return index;
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package org.osm2world.map_data.data;
 
+import static java.util.Collections.emptyList;
 import static java.util.Comparator.comparingDouble;
 
 import java.util.ArrayList;
@@ -24,15 +25,20 @@ public class MapNode extends MapRelationElement implements MapElement {
 	private final TagSet tags;
 	private final VectorXZ pos;
 
-	private List<NodeWorldObject> representations = new ArrayList<NodeWorldObject>(1);
+	/*
+	 * The following lists are only allocated when the first element is added.
+	 * Most nodes are used by few or none of them, and nodes are by far the most numerous elements.
+	 */
+
+	private List<NodeWorldObject> representations = emptyList();
 
-	private List<MapWaySegment> connectedWaySegments = new ArrayList<MapWaySegment>();
-	private List<MapSegment> connectedSegments = new ArrayList<MapSegment>();
+	private List<MapWaySegment> connectedWaySegments = emptyList();
+	private List<MapSegment> connectedSegments = emptyList();
 
-	private List<MapWaySegment> inboundLines = new ArrayList<MapWaySegment>(); //TODO: maybe use list and sort by angle?
-	private List<MapWaySegment> outboundLines = new ArrayList<MapWaySegment>();
+	private List<MapWaySegment> inboundLines = emptyList(); //TODO: maybe use list and sort by angle?
+	private List<MapWaySegment> outboundLines = emptyList();
 
-	private Collection<MapArea> adjacentAreas = new ArrayList<MapArea>();
+	private Collection<MapArea> adjacentAreas = emptyList();
 
 	public MapNode(long id, TagSet tags, VectorXZ pos) {
 		this.id = id;
@@ -60,6 +66,10 @@ public class MapNode extends MapRelationElement implements MapElement {
 
 	public void addInboundLine(MapWaySegment inboundLine) {
 
+		if (connectedWaySegments.isEmpty()) { connectedWaySegments = new ArrayList<>(); }
+		if (connectedSegments.isEmpty()) { connectedSegments = new ArrayList<>(); }
+		if (inboundLines.isEmpty()) { inboundLines = new ArrayList<>(); }
+
 		connectedWaySegments.add(inboundLine);
 		connectedSegments.add(inboundLine);
 		inboundLines.add(inboundLine);
@@ -72,6 +82,10 @@ public class MapNode extends MapRelationElement implements MapElement {
 
 	public void addOutboundLine(MapWaySegment outboundLine) {
 
+		if (connectedWaySegments.isEmpty()) { connectedWaySegments = new ArrayList<>(); }
+		if (connectedSegments.isEmpty()) { connectedSegments = new ArrayList<>(); }
+		if (outboundLines.isEmpty()) { outboundLines = new ArrayList<>(); }
+
 		connectedWaySegments.add(outboundLine);
 		connectedSegments.add(outboundLine);
 		outboundLines.add(outboundLine);
@@ -103,6 +117,9 @@ public class MapNode extends MapRelationElement implements MapElement {
 		assert adjacentAreaSegment.getArea() == adjacentArea;
 		assert adjacentAreaSegment.getStartNode() == this || adjacentAreaSegment.getEndNode() == this;
 
+		if (adjacentAreas.isEmpty()) { adjacentAreas = new ArrayList<>(); }
+		if (connectedSegments.isEmpty()) { connectedSegments = new ArrayList<>(); }
+
 		if (!adjacentAreas.contains(adjacentArea)) {
 			adjacentAreas.add(adjacentArea);
 		}
@@ -187,6 +204,9 @@ public class MapNode extends MapRelationElement implements MapElement {
 	 * adds a visual representation for this node
 	 */
 	public void addRepresentation(NodeWorldObject representation) {
+		if (representations.isEmpty()) {
+			representations = new ArrayList<>(1);
+		}
 		this.representations.add(representation);
 	}
 
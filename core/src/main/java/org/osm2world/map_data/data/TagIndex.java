@@ -0,0 +1,124 @@
+package org.osm2world.map_data.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+/**
+ * an index of the elements in a {@link MapData} set by the keys of their tags.
+ * It is built in a single pass over all elements, see {@link MapData#getTagIndex()}.
+ * Code which is only interested in elements with certain keys (such as most world modules)
+ * can use it to skip all other elements without looking at their tags.
+ *
+ * Results always preserve the order of the elements in the {@link MapData}.
+ */
+public class TagIndex {
+
+	/** integer ids for all keys which occur in the data, assigned in order of first occurrence */
+	private final TObjectIntMap<String> keyIds = new TObjectIntHashMap<>(64, 0.5f, -1);
+
+	private final ElementTypeIndex<MapNode> nodeIndex;
+	private final ElementTypeIndex<MapWay> wayIndex;
+	private final ElementTypeIndex<MapWaySegment> waySegmentIndex;
+	private final ElementTypeIndex<MapArea> areaIndex;
+
+	TagIndex(MapData mapData) {
+		nodeIndex = new ElementTypeIndex<>(mapData.mapNodes, MapNode::getTags);
+		wayIndex = new ElementTypeIndex<>(mapData.mapWays, MapWay::getTags);
+		waySegmentIndex = new ElementTypeIndex<>(mapData.mapWaySegments, MapWaySegment::getTags);
+		areaIndex = new ElementTypeIndex<>(mapData.mapAreas, MapArea::getTags);
+	}
+
+	/** returns the nodes which have at least one of the keys */
+	public List<MapNode> getNodes(Collection<String> keys) {
+		return nodeIndex.getElements(keys);
+	}
+
+	/** returns the ways which have at least one of the keys */
+	public List<MapWay> getWays(Collection<String> keys) {
+		return wayIndex.getElements(keys);
+	}
+
+	/** returns the way segments which have at least one of the keys (i.e. whose ways have it) */
+	public List<MapWaySegment> getWaySegments(Collection<String> keys) {
+		return waySegmentIndex.getElements(keys);
+	}
+
+	/** returns the areas which have at least one of the keys */
+	public List<MapArea> getAreas(Collection<String> keys) {
+		return areaIndex.getElements(keys);
+	}
+
+	/** returns the number of distinct keys in the data */
+	public int getKeyCount() {
+		return keyIds.size();
+	}
+
+	/** returns the id of a key, interning it if it hasn't been seen before */
+	private int internKey(String key) {
+		int id = keyIds.get(key);
+		if (id < 0) {
+			id = keyIds.size();
+			keyIds.put(key, id);
+		}
+		return id;
+	}
+
+	/** the part of the index for one type of element */
+	private class ElementTypeIndex<E> {
+
+		private final List<E> elements;
+
+		/** for each key id, the positions (in {@link #elements}) of the elements with that key */
+		private final List<TIntArrayList> positionsByKeyId = new ArrayList<>();
+
+		public ElementTypeIndex(List<E> elements, Function<E, TagSet> getTags) {
+
+			this.elements = elements;
+
+			for (int i = 0; i < elements.size(); i++) {
+				for (Tag tag : getTags.apply(elements.get(i))) {
+					int keyId = internKey(tag.key);
+					while (positionsByKeyId.size() <= keyId) {
+						positionsByKeyId.add(null);
+					}
+					if (positionsByKeyId.get(keyId) == null) {
+						positionsByKeyId.set(keyId, new TIntArrayList());
+					}
+					positionsByKeyId.get(keyId).add(i);
+				}
+			}
+
+		}
+
+		public List<E> getElements(Collection<String> keys) {
+
+			BitSet positions = new BitSet(elements.size());
+
+			for (String key : keys) {
+				int keyId = keyIds.get(key);
+				if (keyId >= 0 && keyId < positionsByKeyId.size() && positionsByKeyId.get(keyId) != null) {
+					TIntArrayList keyPositions = positionsByKeyId.get(keyId);
+					for (int i = 0; i < keyPositions.size(); i++) {
+						positions.set(keyPositions.get(i));
+					}
+				}
+			}
+
+			List<E> result = new ArrayList<>(positions.cardinality());
+			for (int p = positions.nextSetBit(0); p >= 0; p = positions.nextSetBit(p + 1)) {
+				result.add(elements.get(p));
+			}
+			return result;
+
+		}
+
+	}
+
+}
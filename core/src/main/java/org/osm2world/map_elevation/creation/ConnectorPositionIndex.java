@@ -0,0 +1,53 @@
+package org.osm2world.map_elevation.creation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.math.VectorXZ;
+
+/**
+ * connectors indexed by their position.
+ * Used to find the connectors which {@link EleConnector#connectsTo(EleConnector)} a new connector
+ * without comparing it to all other connectors.
+ */
+class ConnectorPositionIndex {
+
+	private final Map<VectorXZ, List<EleConnector>> connectorsByPos = new HashMap<>();
+
+	/**
+	 * adds a connector to the index
+	 *
+	 * @param connectAction  called for each previously added connector which connects to the new one
+	 */
+	public void add(EleConnector connector, Consumer<EleConnector> connectAction) {
+
+		List<EleConnector> connectorsAtPos = connectorsByPos.computeIfAbsent(
+				positionKey(connector.pos), k -> new ArrayList<>(1));
+
+		for (EleConnector other : connectorsAtPos) {
+			if (connector != other && connector.connectsTo(other)) {
+				connectAction.accept(other);
+			}
+		}
+
+		connectorsAtPos.add(connector);
+
+	}
+
+	/**
+	 * returns the key for {@link #connectorsByPos}.
+	 * Replaces negative zero coordinates, which are equal to positive zero but have a different hash code.
+	 */
+	private static VectorXZ positionKey(VectorXZ pos) {
+		if (pos.x == 0 || pos.z == 0) {
+			return new VectorXZ(pos.x + 0.0, pos.z + 0.0);
+		} else {
+			return pos;
+		}
+	}
+
+}
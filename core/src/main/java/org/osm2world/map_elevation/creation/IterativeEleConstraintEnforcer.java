@@ -0,0 +1,661 @@
+package org.osm2world.map_elevation.creation;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static org.osm2world.map_elevation.data.GroundState.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.osm2world.conversion.ConversionLog;
+import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.math.VectorXYZ;
+import org.osm2world.math.VectorXZ;
+import org.osm2world.util.ParallelIterationUtil;
+
+/**
+ * enforcer implementation which takes all types of constraints into account.
+ *
+ * Connectors which are required to have the same elevation are merged into a single variable.
+ * All other constraints are linear (in)equalities on these variables. They are solved with a
+ * projected Gauss-Seidel iteration: Each violated constraint is satisfied in turn by moving its variables,
+ * and this is repeated until the elevations no longer change.
+ * Smoothness constraints and a pull towards the initial (terrain) elevation are soft constraints,
+ * i.e. they only move the variables part of the way in each iteration.
+ * Variables for connectors on the ground are pinned to their terrain elevation instead,
+ * and move less than those above or below the ground when a hard constraint is enforced.
+ *
+ * Constraints only affect the connectors they are connected to, directly or indirectly.
+ * Each of these connected components is solved independently, and components can be solved in parallel.
+ * All data is kept in primitive arrays indexed by connector or variable id.
+ */
+public class IterativeEleConstraintEnforcer implements EleConstraintEnforcer {
+
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+	public static final double DEFAULT_TIME_LIMIT = 10;
+
+	/** accepted violation of hard constraints, and minimum change in elevation per iteration, in meters */
+	private static final double TOLERANCE = 0.01;
+
+	/** initial vertical distance of connectors above or below the ground to the terrain, in meters */
+	private static final double DEFAULT_CLEARING = 5;
+
+	/** share of a hard constraint's correction applied to connectors on the ground, relative to others */
+	private static final double ON_GROUND_MOBILITY = 0.1;
+
+	/** strength of the pull towards the initial elevation per iteration, between 0 and 1 */
+	private static final double ON_GROUND_ANCHOR_STIFFNESS = 1;
+	private static final double OFF_GROUND_ANCHOR_STIFFNESS = 0.02;
+
+	private static final double SMOOTHNESS_STIFFNESS = 0.3;
+
+	private final int maxIterations;
+	private final double timeLimit;
+	private final int threads;
+
+	/** all connectors added so far, used to find connectors at the same position */
+	private final ConnectorPositionIndex positionIndex = new ConnectorPositionIndex();
+
+	/** all connectors, and the sets of connectors which are required to have the same elevation */
+	private final StiffConnectorSets stiffSets = new StiffConnectorSets();
+
+	/** constraints other than {@link #requireSameEle(EleConnector, EleConnector)}, referencing connector ids */
+	private final LinearConstraints constraints = new LinearConstraints();
+
+	/**
+	 * @param maxIterations  maximum number of iterations for each connected component of connectors
+	 * @param timeLimit      maximum time in seconds before the solver stops even if it has not converged
+	 * @param threads        number of threads for solving independent components in parallel
+	 */
+	public IterativeEleConstraintEnforcer(int maxIterations, double timeLimit, int threads) {
+
+		if (maxIterations < 1) throw new IllegalArgumentException("invalid iteration limit: " + maxIterations);
+		if (!(timeLimit > 0)) throw new IllegalArgumentException("invalid time limit: " + timeLimit);
+		if (threads < 1) throw new IllegalArgumentException("invalid number of threads: " + threads);
+
+		this.maxIterations = maxIterations;
+		this.timeLimit = timeLimit;
+		this.threads = threads;
+
+	}
+
+	public IterativeEleConstraintEnforcer() {
+		this(DEFAULT_MAX_ITERATIONS, DEFAULT_TIME_LIMIT, 1);
+	}
+
+	@Override
+	public void addConnectors(Iterable<EleConnector> newConnectors) {
+		for (EleConnector c : newConnectors) {
+			stiffSets.indexOf(c);
+			positionIndex.add(c, other -> requireSameEle(c, other));
+		}
+	}
+
+	@Override
+	public void requireSameEle(EleConnector c1, EleConnector c2) {
+		stiffSets.union(c1, c2);
+	}
+
+	@Override
+	public void requireSameEle(Iterable<EleConnector> cs) {
+		stiffSets.union(cs);
+	}
+
+	@Override
+	public void requireVerticalDistance(ConstraintType type, double distance,
+			EleConnector upper, EleConnector lower) {
+
+		constraints.startConstraint(type, distance, 1);
+		constraints.addTerm(stiffSets.indexOf(upper), 1);
+		constraints.addTerm(stiffSets.indexOf(lower), -1);
+
+	}
+
+	@Override
+	public void requireVerticalDistance(ConstraintType type, double distance,
+			EleConnector upper, EleConnector base1, EleConnector base2) {
+
+		/* use the base segment's elevation at the point closest to the upper connector */
+
+		VectorXZ baseVector = base2.pos.subtract(base1.pos);
+		double baseLengthSquared = baseVector.lengthSquared();
+
+		double t = 0;
+		if (baseLengthSquared > 0) {
+			t = upper.pos.subtract(base1.pos).dot(baseVector) / baseLengthSquared;
+			t = Math.min(1, max(0, t));
+		}
+
+		constraints.startConstraint(type, distance, 1);
+		constraints.addTerm(stiffSets.indexOf(upper), 1);
+		constraints.addTerm(stiffSets.indexOf(base1), -(1 - t));
+		constraints.addTerm(stiffSets.indexOf(base2), -t);
+
+	}
+
+	@Override
+	public void requireIncline(ConstraintType type, double incline, List<EleConnector> cs) {
+
+		for (int i = 0; i + 1 < cs.size(); i++) {
+
+			double distance = cs.get(i).pos.distanceTo(cs.get(i + 1).pos);
+
+			constraints.startConstraint(type, incline * distance, 1);
+			constraints.addTerm(stiffSets.indexOf(cs.get(i + 1)), 1);
+			constraints.addTerm(stiffSets.indexOf(cs.get(i)), -1);
+
+		}
+
+	}
+
+	@Override
+	public void requireSmoothness(EleConnector from, EleConnector via, EleConnector to) {
+
+		/* require the elevation of 'via' to be on the line from 'from' to 'to' */
+
+		double d1 = from.pos.distanceTo(via.pos);
+		double d2 = via.pos.distanceTo(to.pos);
+
+		if (d1 == 0 || d2 == 0) return;
+
+		constraints.startConstraint(ConstraintType.EXACT, 0, SMOOTHNESS_STIFFNESS);
+		constraints.addTerm(stiffSets.indexOf(via), -1);
+		constraints.addTerm(stiffSets.indexOf(from), d2 / (d1 + d2));
+		constraints.addTerm(stiffSets.indexOf(to), d1 / (d1 + d2));
+
+	}
+
+	@Override
+	public void enforceConstraints() {
+
+		long deadline = System.nanoTime() + (long) (timeLimit * 1e9);
+
+		Problem problem = buildProblem();
+
+		List<Component> components = problem.findComponents();
+
+		var unconvergedComponents = new AtomicInteger(0);
+
+		ExecutorService executor = (threads > 1 && components.size() > 1)
+				? Executors.newFixedThreadPool(threads)
+				: null;
+
+		try {
+			ParallelIterationUtil.forEach(components, executor, component -> {
+				if (!problem.solve(component, maxIterations, deadline)) {
+					unconvergedComponents.incrementAndGet();
+				}
+			});
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
+
+		if (unconvergedComponents.get() > 0) {
+			ConversionLog.warn("Elevation constraints did not converge for " + unconvergedComponents.get()
+					+ " of " + components.size() + " groups of connectors");
+		}
+
+		/* write the results to the connectors */
+
+		for (int i = 0; i < stiffSets.size(); i++) {
+			EleConnector connector = stiffSets.getConnector(i);
+			connector.setPosXYZ(connector.pos.xyz(problem.ele[problem.variableOfConnector[i]]));
+		}
+
+	}
+
+	/**
+	 * sets up the variables (one for each set of connectors with the same elevation) and their initial values
+	 */
+	private Problem buildProblem() {
+
+		int connectorCount = stiffSets.size();
+
+		/* assign a variable to each stiff set */
+
+		int[] variableOfConnector = new int[connectorCount];
+		int[] variableOfRoot = new int[connectorCount];
+		Arrays.fill(variableOfRoot, -1);
+
+		int variableCount = 0;
+
+		for (int i = 0; i < connectorCount; i++) {
+			int root = stiffSets.find(i);
+			if (variableOfRoot[root] < 0) {
+				variableOfRoot[root] = variableCount++;
+			}
+			variableOfConnector[i] = variableOfRoot[root];
+		}
+
+		/* determine initial elevations, mobility and anchoring of each variable */
+
+		double[] onGroundEleSum = new double[variableCount];
+		int[] onGroundCount = new int[variableCount];
+		double[] offGroundEleSum = new double[variableCount];
+		int[] offGroundCount = new int[variableCount];
+		double[] attachedEleSum = new double[variableCount];
+		int[] attachedCount = new int[variableCount];
+		boolean[] hasOnGroundConnector = new boolean[variableCount];
+
+		for (int i = 0; i < connectorCount; i++) {
+
+			EleConnector c = stiffSets.getConnector(i);
+			int v = variableOfConnector[i];
+
+			if (c.groundState == ON) {
+				hasOnGroundConnector[v] = true;
+			}
+
+			VectorXYZ posXYZ = c.getPosXYZ();
+
+			if (posXYZ != null) {
+				switch (c.groundState) {
+					case ON -> {
+						onGroundEleSum[v] += posXYZ.y;
+						onGroundCount[v] ++;
+					}
+					case ABOVE -> {
+						offGroundEleSum[v] += posXYZ.y + DEFAULT_CLEARING;
+						offGroundCount[v] ++;
+					}
+					case BELOW -> {
+						offGroundEleSum[v] += posXYZ.y - DEFAULT_CLEARING;
+						offGroundCount[v] ++;
+					}
+					case ATTACHED -> {
+						attachedEleSum[v] += posXYZ.y;
+						attachedCount[v] ++;
+					}
+				}
+			}
+
+		}
+
+		double[] anchorEle = new double[variableCount];
+		double[] anchorStiffness = new double[variableCount];
+		double[] mobility = new double[variableCount];
+
+		for (int v = 0; v < variableCount; v++) {
+
+			if (onGroundCount[v] > 0) {
+				anchorEle[v] = onGroundEleSum[v] / onGroundCount[v];
+			} else if (offGroundCount[v] > 0) {
+				anchorEle[v] = offGroundEleSum[v] / offGroundCount[v];
+			} else if (attachedCount[v] > 0) {
+				anchorEle[v] = attachedEleSum[v] / attachedCount[v];
+			}
+
+			if (onGroundCount[v] > 0) {
+				anchorStiffness[v] = ON_GROUND_ANCHOR_STIFFNESS;
+			} else if (offGroundCount[v] + attachedCount[v] > 0) {
+				anchorStiffness[v] = OFF_GROUND_ANCHOR_STIFFNESS;
+			} else {
+				/* without any terrain elevation, only the constraints determine the elevation */
+				anchorStiffness[v] = 0;
+			}
+
+			mobility[v] = hasOnGroundConnector[v] ? ON_GROUND_MOBILITY : 1;
+
+		}
+
+		double[] ele = anchorEle.clone();
+
+		return new Problem(variableOfConnector, variableCount, ele, anchorEle, anchorStiffness, mobility,
+				constraints.withVariables(variableOfConnector));
+
+	}
+
+	/** a group of variables which are connected by constraints, and these constraints */
+	private record Component(int[] variables, int[] constraints) {}
+
+	/** the variables and constraints in the form used by the solver */
+	private static class Problem {
+
+		final int[] variableOfConnector;
+		final int variableCount;
+
+		/** current elevation of each variable */
+		final double[] ele;
+
+		final double[] anchorEle;
+		final double[] anchorStiffness;
+		final double[] mobility;
+
+		/** the constraints, referencing variables instead of connectors */
+		final LinearConstraints constraints;
+
+		Problem(int[] variableOfConnector, int variableCount, double[] ele, double[] anchorEle,
+				double[] anchorStiffness, double[] mobility, LinearConstraints constraints) {
+			this.variableOfConnector = variableOfConnector;
+			this.variableCount = variableCount;
+			this.ele = ele;
+			this.anchorEle = anchorEle;
+			this.anchorStiffness = anchorStiffness;
+			this.mobility = mobility;
+			this.constraints = constraints;
+		}
+
+		/**
+		 * groups variables which are connected by constraints into components.
+		 * Variables without constraints are not part of any component.
+		 */
+		List<Component> findComponents() {
+
+			/* join the variables of each constraint */
+
+			int[] parent = new int[variableCount];
+			for (int v = 0; v < variableCount; v++) {
+				parent[v] = v;
+			}
+
+			for (int c = 0; c < constraints.size(); c++) {
+				int first = constraints.termVariable[constraints.termStart[c]];
+				for (int t = constraints.termStart[c] + 1; t < constraints.termStart[c + 1]; t++) {
+					int root1 = find(parent, first);
+					int root2 = find(parent, constraints.termVariable[t]);
+					if (root1 != root2) {
+						parent[root2] = root1;
+					}
+				}
+			}
+
+			/* assign consecutive component ids to roots of variables with constraints */
+
+			int[] componentOfRoot = new int[variableCount];
+			Arrays.fill(componentOfRoot, -1);
+
+			int componentCount = 0;
+			int[] constraintsPerComponent = new int[variableCount];
+
+			for (int c = 0; c < constraints.size(); c++) {
+				int root = find(parent, constraints.termVariable[constraints.termStart[c]]);
+				if (componentOfRoot[root] < 0) {
+					componentOfRoot[root] = componentCount++;
+				}
+				constraintsPerComponent[componentOfRoot[root]]++;
+			}
+
+			int[] variablesPerComponent = new int[componentCount];
+			for (int v = 0; v < variableCount; v++) {
+				int component = componentOfRoot[find(parent, v)];
+				if (component >= 0) {
+					variablesPerComponent[component]++;
+				}
+			}
+
+			/* distribute variables and constraints to their components */
+
+			int[][] componentVariables = new int[componentCount][];
+			int[][] componentConstraints = new int[componentCount][];
+
+			for (int i = 0; i < componentCount; i++) {
+				componentVariables[i] = new int[variablesPerComponent[i]];
+				componentConstraints[i] = new int[constraintsPerComponent[i]];
+			}
+
+			int[] variableFill = new int[componentCount];
+			int[] constraintFill = new int[componentCount];
+
+			for (int v = 0; v < variableCount; v++) {
+				int component = componentOfRoot[find(parent, v)];
+				if (component >= 0) {
+					componentVariables[component][variableFill[component]++] = v;
+				}
+			}
+
+			for (int c = 0; c < constraints.size(); c++) {
+				int component = componentOfRoot[find(parent, constraints.termVariable[constraints.termStart[c]])];
+				componentConstraints[component][constraintFill[component]++] = c;
+			}
+
+			List<Component> result = new ArrayList<>(componentCount);
+
+			for (int i = 0; i < componentCount; i++) {
+				result.add(new Component(componentVariables[i], componentConstraints[i]));
+			}
+
+			return result;
+
+		}
+
+		/**
+		 * iteratively adjusts the elevations of a component's variables.
+		 * Only modifies the elements of {@link #ele} belonging to that component,
+		 * so different components can be solved concurrently.
+		 *
+		 * @return  true if the solution converged within the iteration and time limits
+		 */
+		boolean solve(Component component, int maxIterations, long deadline) {
+
+			int[] variables = component.variables();
+
+			double[] previousEle = new double[variables.length];
+
+			/* apply soft and hard constraints until the elevations no longer change */
+
+			boolean converged = false;
+
+			for (int iteration = 0; iteration < maxIterations && !converged; iteration++) {
+
+				for (int i = 0; i < variables.length; i++) {
+					int v = variables[i];
+					previousEle[i] = ele[v];
+					ele[v] += anchorStiffness[v] * (anchorEle[v] - ele[v]);
+				}
+
+				projectConstraints(component, true);
+
+				double maxChange = 0;
+				for (int i = 0; i < variables.length; i++) {
+					maxChange = max(maxChange, abs(ele[variables[i]] - previousEle[i]));
+				}
+
+				converged = maxChange < TOLERANCE;
+
+				if (System.nanoTime() > deadline) break;
+
+			}
+
+			/* make sure that the hard constraints are satisfied in the end */
+
+			boolean hardConstraintsSatisfied = false;
+
+			for (int iteration = 0; iteration < maxIterations && !hardConstraintsSatisfied; iteration++) {
+				hardConstraintsSatisfied = projectConstraints(component, false) < TOLERANCE;
+				if (System.nanoTime() > deadline) break;
+			}
+
+			return converged && hardConstraintsSatisfied;
+
+		}
+
+		/**
+		 * moves variables to satisfy each of a component's constraints, one after the other
+		 *
+		 * @param includeSoftConstraints  whether constraints with a stiffness below 1 are applied
+		 * @return  the largest violation of a hard constraint before it was corrected
+		 */
+		private double projectConstraints(Component component, boolean includeSoftConstraints) {
+
+			double maxViolation = 0;
+
+			for (int c : component.constraints()) {
+
+				double stiffness = constraints.stiffness[c];
+				boolean hard = stiffness >= 1;
+
+				if (!hard && !includeSoftConstraints) continue;
+
+				int start = constraints.termStart[c];
+				int end = constraints.termStart[c + 1];
+
+				double residual = -constraints.rhs[c];
+				for (int t = start; t < end; t++) {
+					residual += constraints.termCoefficient[t] * ele[constraints.termVariable[t]];
+				}
+
+				boolean violated = switch (constraints.type[c]) {
+					case MIN -> residual < 0;
+					case MAX -> residual > 0;
+					case EXACT -> residual != 0;
+				};
+
+				if (!violated) continue;
+
+				if (hard) {
+					maxViolation = max(maxViolation, abs(residual));
+				}
+
+				double denominator = 0;
+				for (int t = start; t < end; t++) {
+					double coefficient = constraints.termCoefficient[t];
+					denominator += coefficient * coefficient * mobility[constraints.termVariable[t]];
+				}
+
+				if (denominator == 0) continue;
+
+				double lambda = -stiffness * residual / denominator;
+
+				for (int t = start; t < end; t++) {
+					int v = constraints.termVariable[t];
+					ele[v] += lambda * constraints.termCoefficient[t] * mobility[v];
+				}
+
+			}
+
+			return maxViolation;
+
+		}
+
+		private static int find(int[] parent, int i) {
+			while (parent[i] != i) {
+				parent[i] = parent[parent[i]];
+				i = parent[i];
+			}
+			return i;
+		}
+
+	}
+
+	/**
+	 * linear constraints of the form sum(coefficient * elevation) {>=, <=, =} rhs,
+	 * stored in growable primitive arrays. The terms of constraint i are those with indices
+	 * from termStart[i] (inclusive) to termStart[i + 1] (exclusive).
+	 */
+	private static class LinearConstraints {
+
+		ConstraintType[] type = new ConstraintType[16];
+		double[] rhs = new double[16];
+		double[] stiffness = new double[16];
+		int[] termStart = new int[17];
+		private int constraintCount = 0;
+
+		/** the connector or variable id of each term */
+		int[] termVariable = new int[64];
+		double[] termCoefficient = new double[64];
+		private int termCount = 0;
+
+		int size() {
+			return constraintCount;
+		}
+
+		/**
+		 * adds a new constraint. Its terms are added with subsequent calls to {@link #addTerm(int, double)}.
+		 *
+		 * @param stiffness  1 for hard constraints, lower values for soft constraints
+		 */
+		void startConstraint(ConstraintType type, double rhs, double stiffness) {
+
+			if (constraintCount + 1 == this.type.length) {
+				int newLength = 2 * this.type.length;
+				this.type = Arrays.copyOf(this.type, newLength);
+				this.rhs = Arrays.copyOf(this.rhs, newLength);
+				this.stiffness = Arrays.copyOf(this.stiffness, newLength);
+				this.termStart = Arrays.copyOf(this.termStart, newLength + 1);
+			}
+
+			this.type[constraintCount] = type;
+			this.rhs[constraintCount] = rhs;
+			this.stiffness[constraintCount] = stiffness;
+			constraintCount++;
+			this.termStart[constraintCount] = termCount;
+
+		}
+
+		void addTerm(int variable, double coefficient) {
+
+			if (termCount == termVariable.length) {
+				termVariable = Arrays.copyOf(termVariable, 2 * termVariable.length);
+				termCoefficient = Arrays.copyOf(termCoefficient, 2 * termCoefficient.length);
+			}
+
+			termVariable[termCount] = variable;
+			termCoefficient[termCount] = coefficient;
+			termCount++;
+			termStart[constraintCount] = termCount;
+
+		}
+
+		/**
+		 * returns a copy of these constraints with connector ids replaced by variable ids.
+		 * Terms referencing the same variable are combined,
+		 * and constraints which no longer depend on any variable are dropped.
+		 */
+		LinearConstraints withVariables(int[] variableOfConnector) {
+
+			var result = new LinearConstraints();
+
+			for (int c = 0; c < constraintCount; c++) {
+
+				int start = termStart[c];
+				int end = termStart[c + 1];
+
+				/* combine terms (there are only a few terms per constraint) */
+
+				int[] variables = new int[end - start];
+				double[] coefficients = new double[end - start];
+				int count = 0;
+
+				termLoop:
+				for (int t = start; t < end; t++) {
+					int v = variableOfConnector[termVariable[t]];
+					for (int i = 0; i < count; i++) {
+						if (variables[i] == v) {
+							coefficients[i] += termCoefficient[t];
+							continue termLoop;
+						}
+					}
+					variables[count] = v;
+					coefficients[count] = termCoefficient[t];
+					count++;
+				}
+
+				boolean hasVariables = false;
+				for (int i = 0; i < count; i++) {
+					hasVariables |= abs(coefficients[i]) > 1e-9;
+				}
+
+				if (hasVariables) {
+					result.startConstraint(type[c], rhs[c], stiffness[c]);
+					for (int i = 0; i < count; i++) {
+						if (abs(coefficients[i]) > 1e-9) {
+							result.addTerm(variables[i], coefficients[i]);
+						}
+					}
+				}
+
+			}
+
+			return result;
+
+		}
+
+	}
+
+}
@@ -1,16 +1,11 @@
 package org.osm2world.map_elevation.creation;
 
 import static java.lang.Math.*;
-import static java.util.Arrays.stream;
-import static java.util.Locale.ROOT;
-import static java.util.Objects.requireNonNullElse;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Optional;
-import java.util.regex.Pattern;
 
 import org.osm2world.conversion.ConversionLog;
 import org.osm2world.math.VectorXYZ;
@@ -26,14 +21,26 @@ public class SRTMData implements TerrainElevationData {
 
 	private final File tileDirectory;
 	private final MapProjection projection;
+	private final SRTMTileCache tileCache;
 	private final SRTMTile[][] tiles;
 
-	public SRTMData(File tileDirectory, MapProjection projection) {
+	/**
+	 * @param tileCache  cache for loaded tiles, can be shared with other instances
+	 */
+	public SRTMData(File tileDirectory, MapProjection projection, SRTMTileCache tileCache) {
 		this.tileDirectory = tileDirectory;
 		this.projection = projection;
+		this.tileCache = tileCache;
 		this.tiles = new SRTMTile[360][180];
 	}
 
+	/**
+	 * creates an instance using the {@link SRTMTileCache#getSharedInstance()}
+	 */
+	public SRTMData(File tileDirectory, MapProjection projection) {
+		this(tileDirectory, projection, SRTMTileCache.getSharedInstance());
+	}
+
 	public Collection<VectorXYZ> getSites(double minLon, double minLat,
 			double maxLon, double maxLat) throws IOException {
 
@@ -83,32 +90,12 @@ public class SRTMData implements TerrainElevationData {
 
 		if (getTile(lon, lat) == null) {
 
-			String fileNameRegex = "";
-
-			if (lat >= 0) {
-				fileNameRegex += String.format(ROOT, "N%02d", lat);
-			} else {
-				fileNameRegex += String.format(ROOT, "S%02d", -lat);
-			}
-
-			if (lon >= 0) {
-				fileNameRegex += String.format(ROOT, "E%03d", lon);
-			} else {
-				fileNameRegex += String.format(ROOT, "W%03d", -lon);
-			}
-
-			fileNameRegex += "(?:\\.SRTMGL3)?\\.hgt(?:\\.zip)?";
-
-			Pattern pattern = Pattern.compile(fileNameRegex);
-
-			Optional<File> file = stream(requireNonNullElse(tileDirectory.listFiles(), new File[0]))
-					.filter(it -> pattern.matcher(it.getName()).matches())
-					.findFirst();
+			SRTMTile tile = tileCache.getTile(tileDirectory, lon, lat);
 
-			if (file.isPresent()) {
-				setTile(lon, lat, new SRTMTile(file.get()));
+			if (tile != null) {
+				setTile(lon, lat, tile);
 			} else {
-				ConversionLog.error("Missing SRTM tile " + fileNameRegex);
+				ConversionLog.error("Missing SRTM tile " + SRTMTileCache.getTileName(lon, lat));
 			}
 
 		}
@@ -15,7 +15,7 @@ import org.osm2world.util.platform.uri.LoadUriUtil;
  * a single SRTM data tile.
  *
  * Multiple such tiles are used by {@link SRTMData} to build coverage
- * for larger regions.
+ * for larger regions. Tiles are immutable and can be shared between threads.
  */
 class SRTMTile {
 
@@ -0,0 +1,147 @@
+package org.osm2world.map_elevation.creation;
+
+import static java.util.Locale.ROOT;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.osm2world.util.BoundedCache;
+
+/**
+ * a cache of loaded {@link SRTMTile}s which can be shared by multiple {@link SRTMData} instances,
+ * including instances used by conversions running in parallel.
+ * The number of tiles is limited, the least recently used tiles are removed from the cache first.
+ * Each tile is only loaded once, even if it is requested by multiple threads at the same time.
+ */
+public class SRTMTileCache {
+
+	/** the default maximum number of tiles in a cache */
+	public static final int DEFAULT_MAX_TILES = 32;
+
+	private static final SRTMTileCache SHARED_INSTANCE = new SRTMTileCache(DEFAULT_MAX_TILES);
+
+	private static final Pattern FILE_NAME_PATTERN =
+			Pattern.compile("([NS]\\d{2}[EW]\\d{3})(?:\\.SRTMGL3)?\\.hgt(?:\\.zip)?");
+
+	private final BoundedCache<TileKey, SRTMTile> tiles;
+
+	private final Map<File, DirectoryContent> directoryContents = new HashMap<>();
+
+	private record TileKey(File tileDirectory, int lon, int lat) {}
+
+	/** the SRTM files in a directory, indexed by tile name (e.g. N04E033) */
+	private record DirectoryContent(long lastModified, Map<String, File> filesByTileName) {}
+
+	/**
+	 * @param maxTiles  the maximum number of tiles kept in the cache
+	 */
+	public SRTMTileCache(int maxTiles) {
+
+		if (maxTiles < 1) throw new IllegalArgumentException("invalid cache size: " + maxTiles);
+
+		this.tiles = new BoundedCache<>(maxTiles);
+
+	}
+
+	/**
+	 * returns the cache which is shared by all {@link SRTMData} instances unless they are given a different cache
+	 */
+	public static SRTMTileCache getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * returns a tile, loading it if it isn't in the cache yet
+	 *
+	 * @param lon  longitude of the tile's south-west corner
+	 * @param lat  latitude of the tile's south-west corner
+	 * @return  the tile, or null if the directory doesn't contain a file for this tile
+	 */
+	@Nullable SRTMTile getTile(File tileDirectory, int lon, int lat) throws IOException {
+		var key = new TileKey(tileDirectory.getAbsoluteFile(), lon, lat);
+		// missing tiles are not cached because the file might be added later
+		return tiles.get(key, () -> loadTile(key));
+	}
+
+	/** returns the number of tiles currently in the cache */
+	public int size() {
+		return tiles.size();
+	}
+
+	/** removes all tiles from the cache */
+	public void clear() {
+		tiles.clear();
+		synchronized (this) {
+			directoryContents.clear();
+		}
+	}
+
+	private @Nullable SRTMTile loadTile(TileKey key) throws IOException {
+		File file = getDirectoryContent(key.tileDirectory).filesByTileName().get(getTileName(key.lon, key.lat));
+		return file != null ? new SRTMTile(file) : null;
+	}
+
+	/**
+	 * returns the SRTM files in a directory.
+	 * The directory is only listed again if it has been modified since it was last listed.
+	 */
+	private synchronized DirectoryContent getDirectoryContent(File tileDirectory) {
+
+		long lastModified = tileDirectory.lastModified();
+
+		DirectoryContent content = directoryContents.get(tileDirectory);
+
+		if (content == null || content.lastModified() != lastModified) {
+
+			Map<String, File> filesByTileName = new HashMap<>();
+
+			File[] files = tileDirectory.listFiles();
+
+			if (files != null) {
+				for (File file : files) {
+					Matcher matcher = FILE_NAME_PATTERN.matcher(file.getName());
+					if (matcher.matches()) {
+						filesByTileName.putIfAbsent(matcher.group(1), file);
+					}
+				}
+			}
+
+			content = new DirectoryContent(lastModified, filesByTileName);
+			directoryContents.put(tileDirectory, content);
+
+		}
+
+		return content;
+
+	}
+
+	/**
+	 * returns the name of a tile, such as N04E033, which is the start of the tile's file name
+	 */
+	static String getTileName(int lon, int lat) {
+
+		String result = "";
+
+		if (lat >= 0) {
+			result += String.format(ROOT, "N%02d", lat);
+		} else {
+			result += String.format(ROOT, "S%02d", -lat);
+		}
+
+		if (lon >= 0) {
+			result += String.format(ROOT, "E%03d", lon);
+		} else {
+			result += String.format(ROOT, "W%03d", -lon);
+		}
+
+		return result;
+
+	}
+
+}
@@ -1,10 +1,9 @@
 package org.osm2world.map_elevation.creation;
 
-import static java.util.Arrays.asList;
-
 import java.util.*;
 
 import org.osm2world.map_elevation.data.EleConnector;
+import org.osm2world.math.VectorXYZ;
 
 /**
  * enforcer implementation that ignores many of the constraints,
@@ -18,103 +17,30 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 
 	private Collection<EleConnector> connectors = new ArrayList<EleConnector>();
 
-	/**
-	 * associates each EleConnector with the {@link StiffConnectorSet}
-	 * it is part of (if any)
-	 */
-	private Map<EleConnector, StiffConnectorSet> stiffSetMap =
-			new HashMap<EleConnector, StiffConnectorSet>();
+	/** all connectors added so far, used to find connectors at the same position */
+	private ConnectorPositionIndex positionIndex = new ConnectorPositionIndex();
+
+	/** the sets of connectors which are required to have the same elevation */
+	private StiffConnectorSets stiffSets = new StiffConnectorSets();
 
 	@Override
 	public void addConnectors(Iterable<EleConnector> newConnectors) {
 
 		for (EleConnector c : newConnectors) {
 			connectors.add(c);
-		}
-
-		/* connect connectors */
-
-		for (EleConnector c1 : newConnectors) {
-			for (EleConnector c2 : connectors) {
-
-				if (c1 != c2 && c1.connectsTo(c2)) {
-					requireSameEle(c1, c2);
-				}
-
-			}
+			positionIndex.add(c, other -> requireSameEle(c, other));
 		}
 
 	}
 
 	@Override
 	public void requireSameEle(EleConnector c1, EleConnector c2) {
-
-		//SUGGEST (performance): a special case implementation would be faster
-
-		requireSameEle(asList(c1, c2));
-
+		stiffSets.union(c1, c2);
 	}
 
 	@Override
 	public void requireSameEle(Iterable<EleConnector> cs) {
-
-		/* find stiff sets containing any of the affected connectors */
-
-		Set<EleConnector> looseConnectors = new HashSet<EleConnector>();
-		Set<StiffConnectorSet> existingStiffSets = new HashSet<StiffConnectorSet>();
-
-		for (EleConnector c : cs) {
-
-			StiffConnectorSet stiffSet = stiffSetMap.get(c);
-
-			if (stiffSet != null) {
-				existingStiffSets.add(stiffSet);
-			} else {
-				looseConnectors.add(c);
-			}
-
-		}
-
-		/* return if the connectors are already in a set together */
-
-		if (existingStiffSets.size() == 1 && looseConnectors.isEmpty()) return;
-
-		/* merge existing sets (if any) into a single set */
-
-		StiffConnectorSet commonStiffSet = null;
-
-		if (existingStiffSets.isEmpty()) {
-			commonStiffSet = new StiffConnectorSet();
-		} else {
-
-			for (StiffConnectorSet stiffSet : existingStiffSets) {
-
-				if (commonStiffSet == null) {
-					commonStiffSet = stiffSet;
-				} else {
-
-					for (EleConnector c : stiffSet) {
-						stiffSetMap.put(c, commonStiffSet);
-					}
-
-					commonStiffSet.mergeFrom(stiffSet);
-
-				}
-
-			}
-
-		}
-
-		/* add remaining (loose) connectors into the common set */
-
-		for (EleConnector c : looseConnectors) {
-
-			commonStiffSet.add(c);
-
-			stiffSetMap.put(c, commonStiffSet);
-
-		}
-
+		stiffSets.union(cs);
 	}
 
 	@Override
@@ -149,18 +75,7 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 		/* assign elevation to stiff sets by averaging terrain elevation */
 		//TODO what for stiff sets above the ground?
 
-		for (StiffConnectorSet stiffSet : stiffSetMap.values()) {
-
-			double averageEle = stiffSet.connectors.stream()
-					.filter(it -> it.getPosXYZ() != null)
-					.mapToDouble(it -> it.getPosXYZ().y)
-					.average().orElse(0.0);
-
-			for (EleConnector connector : stiffSet) {
-				connector.setPosXYZ(connector.pos.xyz(averageEle));
-			}
-
-		}
+		assignAverageEle();
 
 		/* TODO implement intended algorithm:
 		 * - first assign ground ele to ON
@@ -184,43 +99,30 @@ public final class SimpleEleConstraintEnforcer implements EleConstraintEnforcer
 	}
 
 	/**
-	 * a set of connectors that are required to have the same elevation
-	 * TODO or a precise vertical offset
+	 * sets the elevation of all connectors in each stiff set to the average of the elevations which have
+	 * already been assigned to connectors in that set
 	 */
-	private static class StiffConnectorSet implements Iterable<EleConnector> {
-
-		//TODO maybe look for a more efficient set implementation
-		private Set<EleConnector> connectors = new HashSet<EleConnector>();
-
-		/**
-		 * adds a connector to this set, requiring it to be at the set's
-		 * reference elevation
-		 */
-		public void add(EleConnector connector) {
-			connectors.add(connector);
-		}
-
-		/**
-		 * combines this set with another, and makes the other set unusable.
-		 * This set will contain all {@link EleConnector}s from the other set
-		 * afterwards.
-		 */
-		public void mergeFrom(StiffConnectorSet otherSet) {
+	private void assignAverageEle() {
 
-			connectors.addAll(otherSet.connectors);
+		int n = stiffSets.size();
 
-			// make sure that the other set cannot be used anymore
-			otherSet.connectors = null;
+		double[] eleSums = new double[n];
+		int[] eleCounts = new int[n];
 
+		for (int i = 0; i < n; i++) {
+			VectorXYZ posXYZ = stiffSets.getConnector(i).getPosXYZ();
+			if (posXYZ != null) {
+				int root = stiffSets.find(i);
+				eleSums[root] += posXYZ.y;
+				eleCounts[root] += 1;
+			}
 		}
 
-		public double size() {
-			return connectors.size();
-		}
-
-		@Override
-		public Iterator<EleConnector> iterator() {
-			return connectors.iterator();
+		for (int i = 0; i < n; i++) {
+			int root = stiffSets.find(i);
+			double averageEle = eleCounts[root] > 0 ? eleSums[root] / eleCounts[root] : 0.0;
+			EleConnector connector = stiffSets.getConnector(i);
+			connector.setPosXYZ(connector.pos.xyz(averageEle));
 		}
 
 	}
@@ -0,0 +1,126 @@
+package org.osm2world.map_elevation.creation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.osm2world.map_elevation.data.EleConnector;
+
+/**
+ * sets of connectors that are required to have the same elevation.
+ * Used by {@link EleConstraintEnforcer} implementations.
+ *
+ * Implemented as a union-find (disjoint set) structure with path compression and union by size,
+ * so joining two sets does not require copying their members.
+ * Each connector which has been passed to {@link #indexOf(EleConnector)} is part of exactly one set.
+ * Connectors are identified by consecutive indices starting at 0.
+ */
+class StiffConnectorSets {
+
+	private final Map<EleConnector, Integer> indexMap = new HashMap<>();
+	private final List<EleConnector> connectors = new ArrayList<>();
+
+	/** the parent of each connector's index in the tree representing its set, roots are their own parent */
+	private int[] parent = new int[64];
+
+	/** number of connectors in each set, only valid for roots */
+	private int[] setSize = new int[64];
+
+	/** returns the index of a connector, adding it as a set of its own if necessary */
+	public int indexOf(EleConnector connector) {
+
+		Integer index = indexMap.get(connector);
+
+		if (index == null) {
+
+			index = connectors.size();
+
+			if (index == parent.length) {
+				parent = Arrays.copyOf(parent, 2 * parent.length);
+				setSize = Arrays.copyOf(setSize, 2 * setSize.length);
+			}
+
+			parent[index] = index;
+			setSize[index] = 1;
+
+			connectors.add(connector);
+			indexMap.put(connector, index);
+
+		}
+
+		return index;
+
+	}
+
+	/** returns the number of connectors in all sets */
+	public int size() {
+		return connectors.size();
+	}
+
+	/** returns the connector with a given index */
+	public EleConnector getConnector(int index) {
+		return connectors.get(index);
+	}
+
+	/** returns the index of the root of the set containing the connector with a given index */
+	public int find(int index) {
+
+		int root = index;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+
+		// path compression
+		while (parent[index] != root) {
+			int next = parent[index];
+			parent[index] = root;
+			index = next;
+		}
+
+		return root;
+
+	}
+
+	/** joins the sets containing the connectors with the given indices */
+	public void union(int index1, int index2) {
+
+		int root1 = find(index1);
+		int root2 = find(index2);
+
+		if (root1 == root2) return;
+
+		if (setSize[root1] < setSize[root2]) {
+			int temp = root1;
+			root1 = root2;
+			root2 = temp;
+		}
+
+		parent[root2] = root1;
+		setSize[root1] += setSize[root2];
+
+	}
+
+	/** joins the sets containing two connectors */
+	public void union(EleConnector c1, EleConnector c2) {
+		union(indexOf(c1), indexOf(c2));
+	}
+
+	/** joins the sets containing any of the connectors */
+	public void union(Iterable<EleConnector> cs) {
+
+		int firstIndex = -1;
+
+		for (EleConnector c : cs) {
+			int index = indexOf(c);
+			if (firstIndex < 0) {
+				firstIndex = index;
+			} else {
+				union(firstIndex, index);
+			}
+		}
+
+	}
+
+}
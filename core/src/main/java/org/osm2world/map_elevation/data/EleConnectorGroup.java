@@ -18,6 +18,20 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 	//TODO make private
 	public final List<EleConnector> eleConnectors;
 
+	/**
+	 * groups with at most this many connectors are searched linearly instead of building {@link #connectorsByPos}
+	 */
+	private static final int MIN_INDEXED_CONNECTORS = 16;
+
+	/**
+	 * the first connector at each position, used by {@link #getConnector(VectorXZ)}.
+	 * Created lazily, null until it is first needed.
+	 */
+	private Map<VectorXZ, EleConnector> connectorsByPos = null;
+
+	/** the number of elements of {@link #eleConnectors} which have been added to {@link #connectorsByPos} */
+	private int indexedConnectors = 0;
+
 	public EleConnectorGroup() {
 		this(new ArrayList<EleConnector>());
 	}
@@ -30,7 +44,7 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 			Object reference, GroundState groundState) {
 
 		for (VectorXZ pos : positions) {
-			eleConnectors.add(new EleConnector(pos, reference, groundState));
+			add(new EleConnector(pos, reference, groundState));
 		}
 
 	}
@@ -62,13 +76,13 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 
 	}
 
-	public void add(EleConnector newConnector) {
+	public synchronized void add(EleConnector newConnector) {
 
 		eleConnectors.add(newConnector);
 
 	}
 
-	public void addAll(Iterable<EleConnector> newConnectors) {
+	public synchronized void addAll(Iterable<EleConnector> newConnectors) {
 
 		for (EleConnector c : newConnectors) {
 			eleConnectors.add(c);
@@ -76,18 +90,62 @@ public class EleConnectorGroup implements Iterable<EleConnector> {
 
 	}
 
-	public EleConnector getConnector(VectorXZ pos) {
+	/**
+	 * returns the first connector at a position, or null if there is none
+	 */
+	public synchronized EleConnector getConnector(VectorXZ pos) {
 		//TODO review this method (parameters sufficient? necessary at all?)
 
-		for (EleConnector eleConnector : eleConnectors) {
-			if (eleConnector.pos.equals(pos)) {
-				return eleConnector;
+		if (eleConnectors.size() <= MIN_INDEXED_CONNECTORS) {
+
+			for (EleConnector eleConnector : eleConnectors) {
+				if (eleConnector.pos.equals(pos)) {
+					return eleConnector;
+				}
 			}
+
+			return null;
+			//TODO maybe ... throw new IllegalArgumentException();
+
+		} else {
+
+			updatePositionIndex();
+			return connectorsByPos.get(positionKey(pos));
+
 		}
 
-		return null;
-		//TODO maybe ... throw new IllegalArgumentException();
+	}
 
+	/**
+	 * adds connectors to {@link #connectorsByPos} which have been added to the group since the last lookup.
+	 * The index is rebuilt if connectors have been removed from the list.
+	 */
+	private void updatePositionIndex() {
+
+		if (connectorsByPos == null || indexedConnectors > eleConnectors.size()) {
+			connectorsByPos = new HashMap<>(2 * eleConnectors.size());
+			indexedConnectors = 0;
+		}
+
+		for (int i = indexedConnectors; i < eleConnectors.size(); i++) {
+			EleConnector c = eleConnectors.get(i);
+			connectorsByPos.putIfAbsent(positionKey(c.pos), c);
+		}
+
+		indexedConnectors = eleConnectors.size();
+
+	}
+
+	/**
+	 * returns the key for {@link #connectorsByPos}.
+	 * Replaces negative zero coordinates, which are equal to positive zero but have a different hash code.
+	 */
+	private static VectorXZ positionKey(VectorXZ pos) {
+		if (pos.x == 0 || pos.z == 0) {
+			return new VectorXZ(pos.x + 0.0, pos.z + 0.0);
+		} else {
+			return pos;
+		}
 	}
 
 	public List<EleConnector> getConnectors(Iterable<VectorXZ> positions) {
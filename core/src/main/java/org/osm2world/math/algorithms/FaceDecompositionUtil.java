@@ -1,7 +1,6 @@
 package org.osm2world.math.algorithms;
 
 import static java.util.Collections.min;
-import static java.util.Comparator.comparingDouble;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.collections4.CollectionUtils.union;
@@ -9,6 +8,8 @@ import static org.osm2world.math.shapes.AxisAlignedRectangleXZ.bboxUnion;
 
 import java.util.*;
 
+import javax.annotation.Nullable;
+
 import org.osm2world.conversion.ConversionLog;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.algorithms.LineSegmentIntersectionFinder.Intersection;
@@ -78,22 +79,20 @@ public final class FaceDecompositionUtil {
 
 		/* determine all intersection points */
 
-		//TODO: use the faster LineSegmentIntersectionFinder once it is bug-free
-		List<Intersection<LineSegmentXZ>> intersections = SimpleLineSegmentIntersectionFinder.findAllIntersections(segments);
+		List<Intersection<LineSegmentXZ>> intersections = LineSegmentIntersectionFinder.findAllIntersections(segments);
 
 		/* snap intersection points to nearby segment endpoints */
 
-		Set<VectorXZ> knownPoints = segments.stream().flatMap(s -> s.vertices().stream()).collect(toSet());
-		List<Intersection<LineSegmentXZ>> newIntersections = new ArrayList<>();
-		for (Iterator<Intersection<LineSegmentXZ>> iterator = intersections.iterator(); iterator.hasNext();) {
+		var knownPoints = new PointSnapGrid(SNAP_DISTANCE);
+		segments.forEach(s -> s.vertices().forEach(knownPoints::add));
+
+		for (ListIterator<Intersection<LineSegmentXZ>> iterator = intersections.listIterator(); iterator.hasNext();) {
 			Intersection<LineSegmentXZ> intersection = iterator.next();
-			VectorXZ closestKnownPoint = knownPoints.stream().min(comparingDouble(intersection.pos()::distanceTo)).get();
-			if (closestKnownPoint.distanceTo(intersection.pos()) < SNAP_DISTANCE) {
-				iterator.remove();
-				newIntersections.add(new Intersection<>(closestKnownPoint, intersection.segmentA(), intersection.segmentB()));
+			VectorXZ closestKnownPoint = knownPoints.closestPoint(intersection.pos());
+			if (closestKnownPoint != null) {
+				iterator.set(new Intersection<>(closestKnownPoint, intersection.segmentA(), intersection.segmentB()));
 			}
 		}
-		intersections.addAll(newIntersections);
 
 		/* split the segments at the intersection points (also deduplicates edges) */
 
@@ -106,7 +105,7 @@ public final class FaceDecompositionUtil {
 			intersectionPointsPerSegment.putAll(segment, segment.vertices());
 		}
 
-		for (LineSegmentXZ segment : intersectionPointsPerSegment.keys()) {
+		for (LineSegmentXZ segment : intersectionPointsPerSegment.keySet()) {
 
 			List<VectorXZ> points = new ArrayList<>(intersectionPointsPerSegment.get(segment));
 
@@ -147,19 +146,15 @@ public final class FaceDecompositionUtil {
 		Map<VectorXZ, List<LineSegmentXZ>> outgoingEdgesForNodes = new HashMap<>();
 
 		for (VectorXZ node : nodes) {
+			outgoingEdgesForNodes.put(node, new ArrayList<>());
+		}
 
-			List<LineSegmentXZ> outgoingEdges = new ArrayList<>();
-
-			for (LineSegmentXZ edge : directedEdges) {
-				if (edge.p1.equals(node)) {
-					outgoingEdges.add(edge);
-				}
-			}
+		for (LineSegmentXZ edge : directedEdges) {
+			outgoingEdgesForNodes.get(edge.p1).add(edge);
+		}
 
+		for (List<LineSegmentXZ> outgoingEdges : outgoingEdgesForNodes.values()) {
 			outgoingEdges.sort(Comparator.comparingDouble(e -> e.getDirection().angle()));
-
-			outgoingEdgesForNodes.put(node, outgoingEdges);
-
 		}
 
 		/*
@@ -199,7 +194,7 @@ public final class FaceDecompositionUtil {
 
 			}
 
-			remainingEdges.removeAll(currentPath);
+			currentPath.forEach(remainingEdges::remove);
 
 			List<VectorXZ> vertexLoop = currentPath.stream().map(e -> e.p1).collect(toList());
 			try {
@@ -216,6 +211,55 @@ public final class FaceDecompositionUtil {
 
 	}
 
+	/**
+	 * a set of points in a hash grid with cells the size of the snap distance.
+	 * Finds the closest point within the snap distance by only looking at the neighboring cells.
+	 */
+	private static final class PointSnapGrid {
+
+		private record Cell(long x, long z) {}
+
+		private final double snapDistance;
+		private final Map<Cell, List<VectorXZ>> pointsByCell = new HashMap<>();
+
+		public PointSnapGrid(double snapDistance) {
+			this.snapDistance = snapDistance;
+		}
+
+		public void add(VectorXZ point) {
+			pointsByCell.computeIfAbsent(cellFor(point.x, point.z), k -> new ArrayList<>(1)).add(point);
+		}
+
+		/** returns the closest point with a distance less than the snap distance, or null if there is none */
+		public @Nullable VectorXZ closestPoint(VectorXZ pos) {
+
+			Cell centerCell = cellFor(pos.x, pos.z);
+
+			VectorXZ closestPoint = null;
+			double closestDistance = snapDistance;
+
+			for (long x = centerCell.x - 1; x <= centerCell.x + 1; x++) {
+				for (long z = centerCell.z - 1; z <= centerCell.z + 1; z++) {
+					for (VectorXZ point : pointsByCell.getOrDefault(new Cell(x, z), List.of())) {
+						double distance = point.distanceTo(pos);
+						if (distance < closestDistance) {
+							closestPoint = point;
+							closestDistance = distance;
+						}
+					}
+				}
+			}
+
+			return closestPoint;
+
+		}
+
+		private Cell cellFor(double x, double z) {
+			return new Cell((long) Math.floor(x / snapDistance), (long) Math.floor(z / snapDistance));
+		}
+
+	}
+
 	//TODO deduplicate with MultipolygonAreaBuilder
 	private static final Collection<PolygonWithHolesXZ> buildPolygonsFromRings(
 			List<SimplePolygonXZ> outerRings, List<SimplePolygonXZ> innerRings) {
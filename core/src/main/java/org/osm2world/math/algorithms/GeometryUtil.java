@@ -1,7 +1,6 @@
 package org.osm2world.math.algorithms;
 
-import static java.lang.Math.max;
-import static java.lang.Math.sqrt;
+import static java.lang.Math.*;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
@@ -21,6 +20,8 @@ import org.locationtech.jts.geom.LineSegment;
 import org.osm2world.math.VectorXYZ;
 import org.osm2world.math.VectorXYZW;
 import org.osm2world.math.VectorXZ;
+import org.osm2world.math.datastructures.PolygonCoverageGrid;
+import org.osm2world.math.datastructures.PolygonCoverageGrid.Coverage;
 import org.osm2world.math.shapes.*;
 import org.osm2world.scene.color.LColor;
 
@@ -755,8 +756,32 @@ GeometryUtil {
 
 		double boxSize = sqrt(100 / density);
 
-		for (int boxZ = 0; boxZ <= (int)(outerBox.sizeZ() / boxSize); ++boxZ) {
-			for (int boxX = 0; boxX <= (int)(outerBox.sizeX() / boxSize); ++boxX) {
+		/* only boxes overlapping the boundary are relevant (with a margin of one box for numerical safety) */
+
+		int minBoxX = 0;
+		int minBoxZ = 0;
+		int maxBoxX = (int)(outerBox.sizeX() / boxSize);
+		int maxBoxZ = (int)(outerBox.sizeZ() / boxSize);
+
+		if (boundary != null) {
+			minBoxX = max(minBoxX, (int)floor((boundary.minX - outerBox.minX) / boxSize) - 1);
+			minBoxZ = max(minBoxZ, (int)floor((boundary.minZ - outerBox.minZ) / boxSize) - 1);
+			maxBoxX = min(maxBoxX, (int)floor((boundary.maxX - outerBox.minX) / boxSize) + 1);
+			maxBoxZ = min(maxBoxZ, (int)floor((boundary.maxZ - outerBox.minZ) / boxSize) + 1);
+		}
+
+		if (minBoxX > maxBoxX || minBoxZ > maxBoxZ) {
+			return result;
+		}
+
+		/* use a coverage grid aligned with the boxes to avoid polygon operations for most boxes and points */
+
+		PolygonCoverageGrid coverageGrid = new PolygonCoverageGrid(singletonList(polygonWithHolesXZ),
+				outerBox.minX + boxSize * minBoxX, outerBox.minZ + boxSize * minBoxZ, boxSize,
+				maxBoxX - minBoxX + 1, maxBoxZ - minBoxZ + 1);
+
+		for (int boxZ = minBoxZ; boxZ <= maxBoxZ; ++boxZ) {
+			for (int boxX = minBoxX; boxX <= maxBoxX; ++boxX) {
 
 				AxisAlignedRectangleXZ box = new AxisAlignedRectangleXZ(
 						outerBox.minX + boxSize * boxX,
@@ -768,7 +793,17 @@ GeometryUtil {
 					continue;
 				}
 
-				if (!polygonWithHolesXZ.contains(box.polygonXZ())
+				Coverage coverage = coverageGrid.getCoverage(box.center());
+
+				if (coverage == Coverage.NONE) {
+					continue;
+				}
+
+				/* for boxes on the outline, keep using the original test (which also skips some boxes next to holes)
+				 * so that the same boxes consume random numbers and the resulting points don't change */
+
+				if (coverage == Coverage.PARTIAL
+						&& !polygonWithHolesXZ.contains(box.polygonXZ())
 						&& !polygonWithHolesXZ.intersects(box.polygonXZ())) {
 					continue;
 				}
@@ -780,7 +815,7 @@ GeometryUtil {
 
 					VectorXZ v = new VectorXZ(x, z);
 
-					if (polygonWithHolesXZ.contains(v)) {
+					if (coverage == Coverage.FULL || coverageGrid.contains(v)) {
 
 						//TODO: check minimumDistance
 
@@ -1,13 +1,14 @@
 package org.osm2world.math.algorithms;
 
-import static java.lang.Double.NaN;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.osm2world.math.algorithms.GeometryUtil.distanceFromLine;
 import static org.osm2world.math.algorithms.GeometryUtil.getTrueLineSegmentIntersection;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
-import javax.annotation.Nullable;
-
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.shapes.LineSegmentXZ;
 
@@ -17,6 +18,14 @@ import com.google.common.collect.Multimap;
 /**
  * Takes a set of line segments, and detects all intersections between them.
  * Uses a sweepline algorithm that sweeps in positive x direction (left to right).
+ * The segments overlapping the sweepline are kept in an interval tree ordered by their z ranges.
+ * Each new segment is only tested against the active segments whose z range overlaps its own,
+ * and each pair of segments is tested independently of all others.
+ * This keeps the result correct in degenerate cases, such as many segments meeting in the same location.
+ *
+ * The running time is O(n log n + m log n) for n segments, where m is the number of pairs of segments
+ * with overlapping bounding boxes. m is at least the number of intersecting pairs,
+ * but can be larger if there are many long segments without intersections between them.
  */
 public final class LineSegmentIntersectionFinder {
 
@@ -34,8 +43,7 @@ public final class LineSegmentIntersectionFinder {
 	/**
 	 * finds all intersections in a set of line segments.
 	 * Only reports true intersections, not shared start or end points.
-	 *
-	 * Limitations: Does not work if three or more segments intersect in the same location.
+	 * For collinear overlapping segments, the end points of each segment in the interior of the other are reported.
 	 */
 	public static final List<Intersection<LineSegmentXZ>> findAllIntersections(Iterable<? extends LineSegmentXZ> segments) {
 		return findAllIntersections(segments, Function.identity());
@@ -78,88 +86,38 @@ public final class LineSegmentIntersectionFinder {
 
 		List<Intersection<OrderedSegment>> result = new ArrayList<>();
 
-		/* prepare the events for where a segment begins or ends */
-
-		List<Event> beginEndEvents = new ArrayList<>();
-
-		segments.forEach(s -> {
-			beginEndEvents.add(new BeginSegmentEvent(s));
-			beginEndEvents.add(new EndSegmentEvent(s));
-		});
-
-		//beginEndEvents.sort(null);
-		//TODO use two separate queues, a static and a dynamic one. Wrap that into a SweeplinePriorityQueue.
-
-		/* set up the event queue */
-
-		PriorityQueue<Event> eventQueue = new PriorityQueue<>(beginEndEvents);
-
-		/* run the sweep */
-
-		SweepLine sweepLine = new SweepLine();
-
-		while (!eventQueue.isEmpty()) {
-
-			Event event = eventQueue.poll();
-
-			sweepLine.moveTo(event.getXPosition());
-
-			if (event instanceof BeginSegmentEvent) {
-
-				OrderedSegment segment = ((BeginSegmentEvent) event).segment;
-
-				OrderedSegment higher = sweepLine.higher(segment);
-				insertIntersectionIfAny(eventQueue, sweepLine.getCurrentX(), segment, higher);
-
-				OrderedSegment lower = sweepLine.lower(segment);
-				insertIntersectionIfAny(eventQueue, sweepLine.getCurrentX(), segment, lower);
+		/* sort the segments by the x coordinate of their start points,
+		 * which is the order in which the sweepline reaches them */
 
-				sweepLine.add(segment);
+		List<OrderedSegment> sortedSegments = new ArrayList<>(segments);
+		sortedSegments.sort(Comparator.comparingDouble(s -> s.p1.x));
 
-			} else if (event instanceof EndSegmentEvent) {
+		/* run the sweep, testing each new segment against those which currently overlap the sweepline */
 
-				OrderedSegment segment = ((EndSegmentEvent) event).segment;
+		ActiveSegments activeSegments = new ActiveSegments();
+		PriorityQueue<ActiveSegments.Node> segmentsByEnd = new PriorityQueue<>(
+				Comparator.comparingDouble(n -> n.segment.p2.x));
 
-				sweepLine.remove(segment);
+		for (int i = 0; i < sortedSegments.size(); i++) {
 
-				OrderedSegment upperNeighbor = sweepLine.higher(segment);
-				OrderedSegment lowerNeighbor = sweepLine.lower(segment);
-				insertIntersectionIfAny(eventQueue, sweepLine.getCurrentX(), upperNeighbor, lowerNeighbor);
+			OrderedSegment segment = sortedSegments.get(i);
+			double sweeplineX = segment.p1.x;
 
-			} else if (event instanceof IntersectionEvent) {
+			/* remove the segments which the sweepline has passed */
 
-				Intersection<OrderedSegment> intersection = ((IntersectionEvent) event).intersection;
-
-				/* ignore intersections that are already handled. Doing this means that duplicated entries
-				 * in the event queue are ok, which saves us from ever having to remove existing events. */
-				if (result.contains(intersection)) continue;
-
-				result.add(intersection);
-
-				/* swap the positions of the intersecting segments (by removing them, then adding them again
-				 * now that the sweepline's comparator is using the new position). */
-				sweepLine.remove(intersection.segmentA);
-				sweepLine.remove(intersection.segmentB);
-				sweepLine.add(intersection.segmentA);
-				sweepLine.add(intersection.segmentB);
-
-				OrderedSegment upperSegmentAfterIntersection, lowerSegmentAfterIntersection;
+			while (!segmentsByEnd.isEmpty() && segmentsByEnd.peek().segment.p2.x < sweeplineX) {
+				activeSegments.remove(segmentsByEnd.poll());
+			}
 
-				if (sweepLine.comparator.compare(intersection.segmentA, intersection.segmentB) < 0) {
-					lowerSegmentAfterIntersection = intersection.segmentA;
-					upperSegmentAfterIntersection = intersection.segmentB;
-				} else {
-					lowerSegmentAfterIntersection = intersection.segmentB;
-					upperSegmentAfterIntersection = intersection.segmentA;
-				}
+			/* test the new segment, then add it to the active segments */
 
-				OrderedSegment higher = sweepLine.higher(upperSegmentAfterIntersection);
-				insertIntersectionIfAny(eventQueue, sweepLine.getCurrentX(), upperSegmentAfterIntersection, higher);
+			var node = new ActiveSegments.Node(segment, i);
 
-				OrderedSegment lower = sweepLine.lower(lowerSegmentAfterIntersection);
-				insertIntersectionIfAny(eventQueue, sweepLine.getCurrentX(), lowerSegmentAfterIntersection, lower);
+			activeSegments.forEachOverlapping(node.minZ, node.maxZ,
+					other -> addIntersections(result, other, segment));
 
-			}
+			activeSegments.insert(node);
+			segmentsByEnd.add(node);
 
 		}
 
@@ -167,187 +125,220 @@ public final class LineSegmentIntersectionFinder {
 
 	}
 
-	private static final void insertIntersectionIfAny(PriorityQueue<Event> eventQueue, double currentSweeplineX,
-			@Nullable OrderedSegment segmentA, @Nullable OrderedSegment segmentB) {
-
-		if (segmentA == null || segmentB == null) return;
+	/**
+	 * adds all intersections between two segments to the result.
+	 * This is usually the single point where they cross.
+	 * If the segments are collinear and overlap, it's each end point of one segment
+	 * which is located in the interior of the other.
+	 */
+	private static final void addIntersections(List<Intersection<OrderedSegment>> result,
+			OrderedSegment segmentA, OrderedSegment segmentB) {
 
 		VectorXZ pos = getTrueLineSegmentIntersection(segmentA.p1, segmentA.p2, segmentB.p1, segmentB.p2);
 
-		if (pos != null
-				&& pos.x >= currentSweeplineX) { //avoid re-inserting intersections that are "old news"
-			eventQueue.add(new IntersectionEvent(new Intersection<>(pos, segmentA, segmentB)));
+		if (pos != null) {
+			result.add(new Intersection<>(pos, segmentA, segmentB));
+		} else if (areCollinear(segmentA, segmentB)) {
+			for (VectorXZ p : List.of(segmentB.p1, segmentB.p2)) {
+				if (isInInterior(p, segmentA)) {
+					result.add(new Intersection<>(p, segmentA, segmentB));
+				}
+			}
+			for (VectorXZ p : List.of(segmentA.p1, segmentA.p2)) {
+				if (isInInterior(p, segmentB)) {
+					result.add(new Intersection<>(p, segmentA, segmentB));
+				}
+			}
 		}
 
 	}
 
-	private static final Comparator<VectorXZ> POINT_COMPARATOR =
-			Comparator.comparing(VectorXZ::getX).thenComparing(VectorXZ::getZ);
-	private static final Comparator<Event> EVENT_COMPARATOR =
-			Comparator.comparing(Event::getXPosition).thenComparing(Event::getZPosition);
+	private static final boolean areCollinear(LineSegmentXZ segmentA, LineSegmentXZ segmentB) {
+		return !segmentA.p1.equals(segmentA.p2)
+				&& distanceFromLine(segmentB.p1, segmentA.p1, segmentA.p2) < COLLINEARITY_TOLERANCE
+				&& distanceFromLine(segmentB.p2, segmentA.p1, segmentA.p2) < COLLINEARITY_TOLERANCE;
+	}
 
-	/** a segment that has its points ordered according to {@link #POINT_COMPARATOR} */
-	private static final class OrderedSegment extends LineSegmentXZ {
+	/**
+	 * checks whether a point on the line through a segment is strictly between the segment's end points
+	 */
+	private static final boolean isInInterior(VectorXZ p, LineSegmentXZ segment) {
+		if (p.equals(segment.p1) || p.equals(segment.p2)) return false;
+		VectorXZ direction = segment.p2.subtract(segment.p1);
+		double t = p.subtract(segment.p1).dot(direction) / direction.lengthSquared();
+		return t > 0 && t < 1;
+	}
 
-		public OrderedSegment(VectorXZ p1, VectorXZ p2) {
-			super(p1, p2);
-			if (POINT_COMPARATOR.compare(p1, p2) > 0) {
-				throw new IllegalArgumentException("wrong point order");
+	/**
+	 * the segments which currently overlap the sweepline, indexed by their z intervals.
+	 * Implemented as a treap (a randomized balanced binary search tree) ordered by each interval's minimum,
+	 * with each node storing the largest maximum in its subtree so that queries can skip entire subtrees.
+	 */
+	private static final class ActiveSegments {
+
+		static final class Node {
+
+			final OrderedSegment segment;
+			final int index;
+			final double minZ;
+			final double maxZ;
+
+			int priority;
+			Node left = null;
+			Node right = null;
+			double subtreeMaxZ;
+
+			/**
+			 * @param index  a number which is unique for each segment, used to order segments with the same minZ
+			 */
+			Node(OrderedSegment segment, int index) {
+				this.segment = segment;
+				this.index = index;
+				this.minZ = min(segment.p1.z, segment.p2.z);
+				this.maxZ = max(segment.p1.z, segment.p2.z);
+				this.subtreeMaxZ = maxZ;
 			}
-		}
 
-		public static OrderedSegment from(LineSegmentXZ s) {
-			if (POINT_COMPARATOR.compare(s.p1, s.p2) < 0) {
-				return new OrderedSegment(s.p1, s.p2);
-			} else {
-				return new OrderedSegment(s.p2, s.p1);
+			int compareTo(Node other) {
+				int c = Double.compare(minZ, other.minZ);
+				return c != 0 ? c : Integer.compare(index, other.index);
 			}
-		}
-
-	}
-
-	private static interface Event extends Comparable<Event> {
 
-		public double getXPosition();
-		public double getZPosition();
-
-		@Override
-		default int compareTo(Event other) {
-			return EVENT_COMPARATOR.compare(this, other);
 		}
 
-	}
-
-	private static class BeginSegmentEvent implements Event {
+		/** source of the treap priorities, seeded to make the tree's shape (and result order) reproducible */
+		private final Random random = new Random(0);
 
-		public final OrderedSegment segment;
-		private final double x;
-		private final double z;
+		private Node root = null;
 
-		public BeginSegmentEvent(OrderedSegment segment) {
-			this.segment = segment;
-			VectorXZ pos = segment.p1;
-			this.x = pos.x;
-			this.z = pos.z;
+		void insert(Node node) {
+			node.priority = random.nextInt();
+			root = insert(root, node);
 		}
 
-		@Override
-		public double getXPosition() {
-			return x;
+		void remove(Node node) {
+			root = remove(root, node);
 		}
 
-		@Override
-		public double getZPosition() {
-			return z;
+		/**
+		 * calls an action for each segment whose z interval overlaps the interval [minZ, maxZ]
+		 */
+		void forEachOverlapping(double minZ, double maxZ, Consumer<OrderedSegment> action) {
+			forEachOverlapping(root, minZ, maxZ, action);
 		}
 
-		@Override
-		public String toString() {
-			return "Begin {x = " + x + ", segment = " + segment + "}";
+		private static Node insert(Node subtree, Node node) {
+			if (subtree == null) {
+				return node;
+			} else if (node.compareTo(subtree) < 0) {
+				subtree.left = insert(subtree.left, node);
+				updateMax(subtree);
+				return subtree.left.priority > subtree.priority ? rotateRight(subtree) : subtree;
+			} else {
+				subtree.right = insert(subtree.right, node);
+				updateMax(subtree);
+				return subtree.right.priority > subtree.priority ? rotateLeft(subtree) : subtree;
+			}
 		}
 
-	}
-
-	private static class EndSegmentEvent implements Event {
-
-		public final OrderedSegment segment;
-		private final double x;
-		private final double z;
-
-		public EndSegmentEvent(OrderedSegment segment) {
-			this.segment = segment;
-			VectorXZ pos = segment.p2;
-			this.x = pos.x;
-			this.z = pos.z;
+		private static Node remove(Node subtree, Node node) {
+			if (subtree == null) {
+				return null;
+			} else if (subtree == node) {
+				return merge(subtree.left, subtree.right);
+			} else if (node.compareTo(subtree) < 0) {
+				subtree.left = remove(subtree.left, node);
+			} else {
+				subtree.right = remove(subtree.right, node);
+			}
+			updateMax(subtree);
+			return subtree;
 		}
 
-		@Override
-		public double getXPosition() {
-			return x;
+		/** merges two subtrees, all nodes in the first one must be ordered before all nodes in the second one */
+		private static Node merge(Node a, Node b) {
+			if (a == null) {
+				return b;
+			} else if (b == null) {
+				return a;
+			} else if (a.priority > b.priority) {
+				a.right = merge(a.right, b);
+				updateMax(a);
+				return a;
+			} else {
+				b.left = merge(a, b.left);
+				updateMax(b);
+				return b;
+			}
 		}
 
-		@Override
-		public double getZPosition() {
-			return z;
-		}
+		private static void forEachOverlapping(Node subtree, double minZ, double maxZ,
+				Consumer<OrderedSegment> action) {
 
-		@Override
-		public String toString() {
-			return "End {x = " + x + ", segment = " + segment + "}";
-		}
+			if (subtree == null || subtree.subtreeMaxZ < minZ) return;
 
-	}
+			forEachOverlapping(subtree.left, minZ, maxZ, action);
 
-	private record IntersectionEvent(
-			Intersection<OrderedSegment> intersection) implements Event {
+			if (subtree.minZ <= maxZ) {
+				if (subtree.maxZ >= minZ) {
+					action.accept(subtree.segment);
+				}
+				// nodes in the right subtree have an even larger minZ, so they only need to be checked in this case
+				forEachOverlapping(subtree.right, minZ, maxZ, action);
+			}
 
-		@Override
-		public double getXPosition() {
-			return intersection.pos.x;
 		}
 
-		@Override
-		public double getZPosition() {
-			return intersection.pos.z;
+		private static Node rotateRight(Node node) {
+			Node newRoot = node.left;
+			node.left = newRoot.right;
+			newRoot.right = node;
+			updateMax(node);
+			updateMax(newRoot);
+			return newRoot;
 		}
 
-		@Override
-		public String toString() {
-			return "Intersection " + intersection.pos;
+		private static Node rotateLeft(Node node) {
+			Node newRoot = node.right;
+			node.right = newRoot.left;
+			newRoot.left = node;
+			updateMax(node);
+			updateMax(newRoot);
+			return newRoot;
 		}
 
-	}
-
-	/**
-	 * a data structure that contains and orders all segments currently under the sweepline.
-	 * Wraps a {@link TreeSet} with a custom comparator.
-	 */
-	private static class SweepLine {
-
-		private double currentX = NaN;
-
-		public void moveTo(double currentX) {
-			if (currentX < this.currentX) throw new IllegalArgumentException("moving backward is illegal");
-			this.currentX = currentX;
-		}
-
-		public double getCurrentX() {
-			return currentX;
+		private static void updateMax(Node node) {
+			node.subtreeMaxZ = node.maxZ;
+			if (node.left != null) node.subtreeMaxZ = max(node.subtreeMaxZ, node.left.subtreeMaxZ);
+			if (node.right != null) node.subtreeMaxZ = max(node.subtreeMaxZ, node.right.subtreeMaxZ);
 		}
 
-		/**
-		 * compares line segments based on where the sweepline currently is.
-		 * (That makes a big difference: After an intersection, the order of the intersecting segments will be swapped.)
-		 *
-		 * It's ok for the comparator to be mutable: only changes at intersections, and there will be an event for each.
-		 */
-		private final Comparator<OrderedSegment> comparator = (OrderedSegment s1, OrderedSegment s2) -> {
-			if (Double.isNaN(currentX)) throw new IllegalStateException("sweeplineX unset");
-			double x = currentX + 1e-5; //small offset ensures a sensible order if we're exactly at an intersection
-			VectorXZ p1 = new VectorXZ(x, s1.evaluateAtX(x));
-			VectorXZ p2 = new VectorXZ(x, s2.evaluateAtX(x));
-			return POINT_COMPARATOR.compare(p1, p2);
-		};
-
-		private final TreeSet<OrderedSegment> tree = new TreeSet<>(this.comparator);
+	}
 
+	/** maximum distance of a point from a line to be considered on that line */
+	private static final double COLLINEARITY_TOLERANCE = 1e-7;
 
-		public void add(OrderedSegment segment) {
-			tree.add(segment);
-		}
+	private static final Comparator<VectorXZ> POINT_COMPARATOR =
+			Comparator.comparing(VectorXZ::getX).thenComparing(VectorXZ::getZ);
 
-		public void remove(OrderedSegment segment) {
-			tree.remove(segment);
-		}
+	/** a segment that has its points ordered according to {@link #POINT_COMPARATOR} */
+	private static final class OrderedSegment extends LineSegmentXZ {
 
-		public OrderedSegment lower(OrderedSegment segment) {
-			return tree.lower(segment);
+		public OrderedSegment(VectorXZ p1, VectorXZ p2) {
+			super(p1, p2);
+			if (POINT_COMPARATOR.compare(p1, p2) > 0) {
+				throw new IllegalArgumentException("wrong point order");
+			}
 		}
 
-		public OrderedSegment higher(OrderedSegment segment) {
-			return tree.higher(segment);
+		public static OrderedSegment from(LineSegmentXZ s) {
+			if (POINT_COMPARATOR.compare(s.p1, s.p2) < 0) {
+				return new OrderedSegment(s.p1, s.p2);
+			} else {
+				return new OrderedSegment(s.p2, s.p1);
+			}
 		}
 
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,374 @@
+package org.osm2world.math.datastructures;
+
+import static java.lang.Math.*;
+
+import java.util.*;
+
+import org.osm2world.math.VectorXZ;
+import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
+import org.osm2world.math.shapes.PolygonShapeXZ;
+import org.osm2world.math.shapes.SimplePolygonShapeXZ;
+
+/**
+ * a rasterized coverage mask which speeds up repeated tests whether points are covered by any of a set of polygons.
+ *
+ * The polygons' outlines are sorted into the cells of a regular grid. Cells which are not crossed by any outline
+ * are entirely inside or outside the polygons, so points in them can be classified immediately.
+ * For other cells, only the outline segments within the cell need to be inspected.
+ *
+ * Results of {@link #contains(VectorXZ)} match {@link PolygonShapeXZ#contains(VectorXZ)},
+ * except possibly for points exactly on a polygon's outline.
+ */
+public class PolygonCoverageGrid {
+
+	/** how much of a grid cell is covered by the polygons */
+	public enum Coverage { NONE, PARTIAL, FULL }
+
+	/**
+	 * position of each cell's reference point relative to the cell's minimum corner, as a fraction of the cell size.
+	 * Chosen to make it unlikely that the reference point is exactly on a polygon's outline.
+	 */
+	private static final double REFERENCE_OFFSET_X = 0.5 + 0.01 * sqrt(2);
+	private static final double REFERENCE_OFFSET_Z = 0.5 + 0.01 * sqrt(3);
+
+	/** a segment of one of a polygon's rings */
+	private record Edge(int ringIndex, VectorXZ p1, VectorXZ p2) {}
+
+	/**
+	 * a polygon whose outline crosses a cell
+	 *
+	 * @param ringParities  for each ring of the polygon, whether the cell's reference point is inside that ring
+	 * @param edges  the polygon's outline segments which intersect the cell
+	 */
+	private record PolygonInCell(boolean[] ringParities, List<Edge> edges) {}
+
+	private final List<? extends PolygonShapeXZ> polygons;
+	private final List<AxisAlignedRectangleXZ> polygonBboxes;
+
+	private final double minX, minZ;
+	private final double cellSize;
+	private final int cellCountX, cellCountZ;
+
+	private final Coverage[] cellCoverage;
+
+	/** information about the polygons crossing each cell with {@link Coverage#PARTIAL} */
+	private final Map<Integer, List<PolygonInCell>> partialCells = new HashMap<>();
+
+	/**
+	 * creates a grid of cells starting at a minimum corner
+	 *
+	 * @param polygons  the polygons whose union should be tested against
+	 * @param cellSize  the width and height of each cell, must be positive
+	 */
+	public PolygonCoverageGrid(List<? extends PolygonShapeXZ> polygons,
+			double minX, double minZ, double cellSize, int cellCountX, int cellCountZ) {
+
+		if (!(cellSize > 0)) throw new IllegalArgumentException("invalid cell size: " + cellSize);
+		if (cellCountX < 1 || cellCountZ < 1) throw new IllegalArgumentException("invalid cell count");
+
+		this.polygons = polygons;
+		this.polygonBboxes = polygons.stream().map(PolygonShapeXZ::boundingBox).toList();
+		this.minX = minX;
+		this.minZ = minZ;
+		this.cellSize = cellSize;
+		this.cellCountX = cellCountX;
+		this.cellCountZ = cellCountZ;
+
+		cellCoverage = new Coverage[cellCountX * cellCountZ];
+		Arrays.fill(cellCoverage, Coverage.NONE);
+
+		/* sort the outline segments into the cells they intersect, grouped by polygon */
+
+		Map<Integer, Map<Integer, List<Edge>>> edgesByCell = new HashMap<>();
+
+		for (int p = 0; p < polygons.size(); p++) {
+			List<? extends SimplePolygonShapeXZ> rings = polygons.get(p).getRings();
+			for (int r = 0; r < rings.size(); r++) {
+				List<VectorXZ> vertices = rings.get(r).vertices();
+				for (int i = 0, j = vertices.size() - 1; i < vertices.size(); j = i++) {
+					if (!vertices.get(i).equals(vertices.get(j))) {
+						addEdge(edgesByCell, p, new Edge(r, vertices.get(j), vertices.get(i)));
+					}
+				}
+			}
+		}
+
+		/* classify the reference point of each cell, one row at a time */
+
+		Map<Integer, Map<Integer, boolean[]>> ringParitiesByCell = new HashMap<>();
+
+		for (int row = 0; row < cellCountZ; row++) {
+
+			double refZ = minZ + (row + REFERENCE_OFFSET_Z) * cellSize;
+
+			for (int p = 0; p < polygons.size(); p++) {
+
+				AxisAlignedRectangleXZ bbox = polygonBboxes.get(p);
+
+				if (refZ < bbox.minZ || refZ > bbox.maxZ) continue;
+
+				int colMin = max(0, (int) floor((bbox.minX - minX) / cellSize));
+				int colMax = min(cellCountX - 1, (int) floor((bbox.maxX - minX) / cellSize));
+
+				if (colMin > colMax) continue;
+
+				List<? extends SimplePolygonShapeXZ> rings = polygons.get(p).getRings();
+
+				boolean[][] parities = new boolean[rings.size()][];
+				for (int r = 0; r < rings.size(); r++) {
+					parities[r] = calculateParities(rings.get(r), refZ, colMin, colMax);
+				}
+
+				for (int col = colMin; col <= colMax; col++) {
+
+					int cellIndex = row * cellCountX + col;
+
+					Map<Integer, List<Edge>> edgesInCell = edgesByCell.get(cellIndex);
+
+					if (edgesInCell != null && edgesInCell.containsKey(p)) {
+						boolean[] ringParities = new boolean[rings.size()];
+						for (int r = 0; r < rings.size(); r++) {
+							ringParities[r] = parities[r][col - colMin];
+						}
+						ringParitiesByCell.computeIfAbsent(cellIndex, k -> new HashMap<>()).put(p, ringParities);
+					} else if (isInside(parities, col - colMin)) {
+						cellCoverage[cellIndex] = Coverage.FULL;
+					}
+
+				}
+
+			}
+
+		}
+
+		/* remember the relevant outline segments for cells which are only partially covered */
+
+		for (var cellEntry : edgesByCell.entrySet()) {
+
+			int cellIndex = cellEntry.getKey();
+
+			if (cellCoverage[cellIndex] == Coverage.FULL) continue;
+
+			cellCoverage[cellIndex] = Coverage.PARTIAL;
+
+			List<PolygonInCell> polygonsInCell = new ArrayList<>(cellEntry.getValue().size());
+
+			for (var polygonEntry : cellEntry.getValue().entrySet()) {
+				boolean[] ringParities = ringParitiesByCell.getOrDefault(cellIndex, Map.of())
+						.getOrDefault(polygonEntry.getKey(),
+								new boolean[polygons.get(polygonEntry.getKey()).getRings().size()]);
+				polygonsInCell.add(new PolygonInCell(ringParities, polygonEntry.getValue()));
+			}
+
+			partialCells.put(cellIndex, polygonsInCell);
+
+		}
+
+	}
+
+	/**
+	 * creates a grid covering a rectangle, with the first cell starting at the rectangle's minimum corner
+	 *
+	 * @see #PolygonCoverageGrid(List, double, double, double, int, int)
+	 */
+	public PolygonCoverageGrid(List<? extends PolygonShapeXZ> polygons, AxisAlignedRectangleXZ bounds,
+			double cellSize) {
+		this(polygons, bounds.minX, bounds.minZ, cellSize,
+				(int) (bounds.sizeX() / cellSize) + 1, (int) (bounds.sizeZ() / cellSize) + 1);
+	}
+
+	/** checks whether a point is inside any of the polygons */
+	public boolean contains(VectorXZ v) {
+
+		int col = (int) floor((v.x - minX) / cellSize);
+		int row = (int) floor((v.z - minZ) / cellSize);
+
+		if (col < 0 || row < 0 || col >= cellCountX || row >= cellCountZ) {
+			for (int p = 0; p < polygons.size(); p++) {
+				if (polygonBboxes.get(p).contains(v) && polygons.get(p).contains(v)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		int cellIndex = row * cellCountX + col;
+
+		if (cellCoverage[cellIndex] == Coverage.NONE) {
+			return false;
+		} else if (cellCoverage[cellIndex] == Coverage.FULL) {
+			return true;
+		}
+
+		/* the point is inside a ring if the segment to the reference point crosses the ring an even number of times
+		 * and the reference point is inside, or an odd number of times and the reference point is outside */
+
+		VectorXZ ref = new VectorXZ(
+				minX + (col + REFERENCE_OFFSET_X) * cellSize,
+				minZ + (row + REFERENCE_OFFSET_Z) * cellSize);
+
+		for (PolygonInCell polygonInCell : partialCells.get(cellIndex)) {
+
+			boolean[] parities = polygonInCell.ringParities().clone();
+
+			for (Edge edge : polygonInCell.edges()) {
+				if (crosses(ref, v, edge.p1(), edge.p2())) {
+					parities[edge.ringIndex()] = !parities[edge.ringIndex()];
+				}
+			}
+
+			if (isInside(parities)) {
+				return true;
+			}
+
+		}
+
+		return false;
+
+	}
+
+	/**
+	 * returns how much of the grid cell containing a point is covered by the polygons.
+	 * Returns {@link Coverage#PARTIAL} for points outside the grid.
+	 */
+	public Coverage getCoverage(VectorXZ v) {
+
+		int col = (int) floor((v.x - minX) / cellSize);
+		int row = (int) floor((v.z - minZ) / cellSize);
+
+		if (col < 0 || row < 0 || col >= cellCountX || row >= cellCountZ) {
+			return Coverage.PARTIAL;
+		} else {
+			return cellCoverage[row * cellCountX + col];
+		}
+
+	}
+
+	private void addEdge(Map<Integer, Map<Integer, List<Edge>>> edgesByCell, int polygonIndex, Edge edge) {
+
+		double epsilon = cellSize * 1e-9;
+
+		int colMin = max(0, (int) floor((min(edge.p1().x, edge.p2().x) - epsilon - minX) / cellSize));
+		int colMax = min(cellCountX - 1, (int) floor((max(edge.p1().x, edge.p2().x) + epsilon - minX) / cellSize));
+		int rowMin = max(0, (int) floor((min(edge.p1().z, edge.p2().z) - epsilon - minZ) / cellSize));
+		int rowMax = min(cellCountZ - 1, (int) floor((max(edge.p1().z, edge.p2().z) + epsilon - minZ) / cellSize));
+
+		for (int row = rowMin; row <= rowMax; row++) {
+			for (int col = colMin; col <= colMax; col++) {
+
+				double cellMinX = minX + col * cellSize;
+				double cellMinZ = minZ + row * cellSize;
+
+				if (segmentIntersectsBox(edge.p1(), edge.p2(), cellMinX - epsilon, cellMinZ - epsilon,
+						cellMinX + cellSize + epsilon, cellMinZ + cellSize + epsilon)) {
+					edgesByCell.computeIfAbsent(row * cellCountX + col, k -> new HashMap<>())
+							.computeIfAbsent(polygonIndex, k -> new ArrayList<>())
+							.add(edge);
+				}
+
+			}
+		}
+
+	}
+
+	/**
+	 * determines for the reference point of each cell in a range of a row whether it's inside a ring.
+	 * Uses the same crossing rule as {@link SimplePolygonShapeXZ#contains(VectorXZ)}.
+	 */
+	private boolean[] calculateParities(SimplePolygonShapeXZ ring, double refZ, int colMin, int colMax) {
+
+		List<VectorXZ> vertices = ring.vertices();
+
+		double[] crossings = new double[vertices.size()];
+		int crossingCount = 0;
+
+		for (int i = 0, j = vertices.size() - 1; i < vertices.size(); j = i++) {
+			VectorXZ vi = vertices.get(i);
+			VectorXZ vj = vertices.get(j);
+			if ((vi.z > refZ) != (vj.z > refZ)) {
+				crossings[crossingCount++] = (vj.x - vi.x) * (refZ - vi.z) / (vj.z - vi.z) + vi.x;
+			}
+		}
+
+		Arrays.sort(crossings, 0, crossingCount);
+
+		boolean[] result = new boolean[colMax - colMin + 1];
+
+		int crossingsLeftOfRef = 0;
+
+		for (int col = colMin; col <= colMax; col++) {
+			double refX = minX + (col + REFERENCE_OFFSET_X) * cellSize;
+			while (crossingsLeftOfRef < crossingCount && crossings[crossingsLeftOfRef] <= refX) {
+				crossingsLeftOfRef++;
+			}
+			result[col - colMin] = (crossingCount - crossingsLeftOfRef) % 2 == 1;
+		}
+
+		return result;
+
+	}
+
+	/** checks whether a point is inside a polygon based on the parities of the outer ring and holes */
+	private static boolean isInside(boolean[] ringParities) {
+		if (!ringParities[0]) return false;
+		for (int r = 1; r < ringParities.length; r++) {
+			if (ringParities[r]) return false;
+		}
+		return true;
+	}
+
+	/** variant of {@link #isInside(boolean[])} for parities stored per ring and column */
+	private static boolean isInside(boolean[][] ringParities, int index) {
+		if (!ringParities[0][index]) return false;
+		for (int r = 1; r < ringParities.length; r++) {
+			if (ringParities[r][index]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * checks whether the segment from a to b crosses the segment from c to d.
+	 * Points on the other segment's line count as being on its negative side,
+	 * so that a segment passing through a shared vertex of two edges is counted consistently.
+	 */
+	private static boolean crosses(VectorXZ a, VectorXZ b, VectorXZ c, VectorXZ d) {
+		return (orientation(c, d, a) > 0) != (orientation(c, d, b) > 0)
+				&& (orientation(a, b, c) > 0) != (orientation(a, b, d) > 0);
+	}
+
+	private static double orientation(VectorXZ p1, VectorXZ p2, VectorXZ p) {
+		return (p2.x - p1.x) * (p.z - p1.z) - (p2.z - p1.z) * (p.x - p1.x);
+	}
+
+	/** checks whether a line segment intersects an axis-aligned box, using Liang-Barsky clipping */
+	private static boolean segmentIntersectsBox(VectorXZ p1, VectorXZ p2,
+			double boxMinX, double boxMinZ, double boxMaxX, double boxMaxZ) {
+
+		double dx = p2.x - p1.x;
+		double dz = p2.z - p1.z;
+
+		double[] p = {-dx, dx, -dz, dz};
+		double[] q = {p1.x - boxMinX, boxMaxX - p1.x, p1.z - boxMinZ, boxMaxZ - p1.z};
+
+		double t0 = 0, t1 = 1;
+
+		for (int i = 0; i < 4; i++) {
+			if (p[i] == 0) {
+				if (q[i] < 0) return false;
+			} else {
+				double t = q[i] / p[i];
+				if (p[i] < 0) {
+					if (t > t1) return false;
+					t0 = max(t0, t);
+				} else {
+					if (t < t0) return false;
+					t1 = min(t1, t);
+				}
+			}
+		}
+
+		return true;
+
+	}
+
+}
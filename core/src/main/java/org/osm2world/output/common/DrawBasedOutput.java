@@ -15,6 +15,7 @@ import org.osm2world.scene.mesh.LevelOfDetail;
 import org.osm2world.scene.mesh.Mesh;
 import org.osm2world.scene.mesh.MeshStore;
 import org.osm2world.scene.mesh.TriangleGeometry;
+import org.osm2world.scene.model.ModelInstance;
 import org.osm2world.world.data.WorldObject;
 
 /**
@@ -64,12 +65,28 @@ public interface DrawBasedOutput extends Output, CommonTarget {
 
 	/**
 	 * renders one {@link WorldObject} to this output.
+	 * If the configuration sets a LOD, the object's geometry for that LOD is used.
 	 * Also sends {@link #beginObject(WorldObject)} calls.
 	 */
 	private void renderObject(WorldObject object) {
 		beginObject(object);
-		object.buildMeshes().forEach(this::drawMesh);
-		object.getSubModels().forEach(it -> it.render(this));
+		O2WConfig config = getConfiguration();
+		if (config != null && config.containsKey("lod")) {
+			object.buildMeshes(getLod()).forEach(this::drawMesh);
+			object.getSubModels(getLod()).forEach(this::drawSubModel);
+		} else {
+			object.buildMeshes().forEach(this::drawMesh);
+			object.getSubModels().forEach(this::drawSubModel);
+		}
+	}
+
+	/**
+	 * draws one of the {@link WorldObject#getSubModels()} of the current object.
+	 * By default, this simply renders the model instance's meshes.
+	 * Implementations can override this if they want to handle model instances separately.
+	 */
+	default void drawSubModel(ModelInstance modelInstance) {
+		modelInstance.render(this);
 	}
 
 	/**
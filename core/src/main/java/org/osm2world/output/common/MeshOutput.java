@@ -1,5 +1,6 @@
 package org.osm2world.output.common;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -7,6 +8,9 @@ import org.osm2world.output.Output;
 import org.osm2world.scene.mesh.Mesh;
 import org.osm2world.scene.mesh.MeshStore;
 import org.osm2world.scene.mesh.MeshStore.MeshMetadata;
+import org.osm2world.scene.mesh.MeshStore.ModelInstanceWithMetadata;
+import org.osm2world.scene.model.Model;
+import org.osm2world.scene.model.ModelInstance;
 import org.osm2world.world.data.WorldObject;
 
 /**
@@ -21,6 +25,11 @@ public class MeshOutput extends AbstractOutput implements DrawBasedOutput {
 
 	protected WorldObject currentWorldObject = null;
 
+	private boolean keepModelInstances = false;
+
+	/** sub-models which have not been converted to meshes, see {@link #setKeepModelInstances(boolean)} */
+	private final List<ModelInstanceWithMetadata> modelInstances = new ArrayList<>();
+
 	/**
 	 * @param worldObjectFilter  only {@link WorldObject}s matching this filter will be included in the output
 	 */
@@ -42,16 +51,35 @@ public class MeshOutput extends AbstractOutput implements DrawBasedOutput {
 		this.currentWorldObject = object;
 	}
 
+	/**
+	 * Sets whether sub-models of {@link WorldObject}s should be kept as {@link ModelInstance}s
+	 * instead of being converted to meshes. This only affects models which {@link Model#supportsInstancing()}
+	 * and don't have an instance-specific color. Model instances are available from {@link #getModelInstances()}.
+	 */
+	public void setKeepModelInstances(boolean keepModelInstances) {
+		this.keepModelInstances = keepModelInstances;
+	}
+
 	@Override
 	public void drawMesh(Mesh mesh) {
+		meshStore.addMesh(mesh, currentMetadata());
+	}
+
+	@Override
+	public void drawSubModel(ModelInstance modelInstance) {
+		if (keepModelInstances && modelInstance.model().supportsInstancing()
+				&& modelInstance.params().color() == null) {
+			modelInstances.add(new ModelInstanceWithMetadata(modelInstance, currentMetadata()));
+		} else {
+			DrawBasedOutput.super.drawSubModel(modelInstance);
+		}
+	}
 
-		MeshMetadata metadata = (currentWorldObject != null)
+	private MeshMetadata currentMetadata() {
+		return (currentWorldObject != null)
 				? new MeshMetadata(currentWorldObject.getPrimaryMapElement().getElementWithId(),
 						currentWorldObject.getClass())
 				: new MeshMetadata(null, null);
-
-		meshStore.addMesh(mesh, metadata);
-
 	}
 
 	public List<Mesh> getMeshes() {
@@ -62,4 +90,12 @@ public class MeshOutput extends AbstractOutput implements DrawBasedOutput {
 		return meshStore.meshesWithMetadata();
 	}
 
+	/**
+	 * returns the sub-models which have been kept intact.
+	 * Always empty unless {@link #setKeepModelInstances(boolean)} has been enabled.
+	 */
+	public List<ModelInstanceWithMetadata> getModelInstances() {
+		return new ArrayList<>(modelInstances);
+	}
+
 }
\ No newline at end of file
@@ -1,10 +1,8 @@
 package org.osm2world.output.common;
 
-import static org.apache.commons.io.FilenameUtils.getBaseName;
 import static org.osm2world.output.common.ResourceOutputSettings.ResourceOutputMode.*;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.function.Function;
@@ -51,23 +49,16 @@ public record ResourceOutputSettings(
 
 	/**
 	 * Stores a texture and returns the path to it.
-	 * This can be used to implement {@link ResourceOutputMode#STORE_SEPARATELY_AND_REFERENCE})
+	 * This can be used to implement {@link ResourceOutputMode#STORE_SEPARATELY_AND_REFERENCE}).
+	 * Textures are stored using the shared {@link TextureStore},
+	 * so identical textures are only written once to the texture directory.
+	 *
+	 * @param compressionQuality  value between 0 and 1 indicating the desired quality
 	 */
-	public String storeTexture(TextureData texture, @Nullable URI baseForRelativePaths) throws IOException {
-
-		File textureDir = new File(textureDirectory);
-		boolean textureDirCreated = textureDir.mkdir();
-		if (!textureDirCreated && !textureDir.exists()) {
-			throw new IOException("Could not create texture directory at " + textureDir);
-		}
-
-		String prefix = "tex-" + ((texture instanceof ImageFileTexture)
-				? getBaseName(((ImageFileTexture)texture).getFile().getName()) + "-" : "");
-		File textureFile = File.createTempFile(prefix, "." + texture.getRasterImageFormat().fileExtension(), textureDir);
+	public String storeTexture(TextureData texture, float compressionQuality, @Nullable URI baseForRelativePaths)
+			throws IOException {
 
-		try (var stream = new FileOutputStream(textureFile)) {
-			texture.writeRasterImageToStream(stream);
-		}
+		File textureFile = TextureStore.getSharedInstance().store(texture, compressionQuality, new File(textureDirectory));
 
 		if (baseForRelativePaths == null) {
 			return textureFile.getAbsolutePath();
@@ -77,6 +68,11 @@ public record ResourceOutputSettings(
 
 	}
 
+	/** variant of {@link #storeTexture(TextureData, float, URI)} with default compression quality */
+	public String storeTexture(TextureData texture, @Nullable URI baseForRelativePaths) throws IOException {
+		return storeTexture(texture, 0.75f, baseForRelativePaths);
+	}
+
 	public static ResourceOutputSettings fromConfig(O2WConfig config, URI textureDirectory, boolean canEmbed) {
 
 		/* parse the modes */
@@ -0,0 +1,151 @@
+package org.osm2world.output.common;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import org.osm2world.scene.material.RasterImageFormat;
+import org.osm2world.scene.material.TextureData;
+import org.osm2world.util.BoundedCache;
+
+/**
+ * encodes textures as raster images and stores them as files named after a hash of their content.
+ * Identical textures are therefore only encoded once per process and only written once per output directory,
+ * even if they are used by many tiles or models.
+ * Can be shared by multiple threads.
+ *
+ * Encoded images are cached in memory. The total size of the cached images is limited,
+ * the least recently used images are removed from the cache first.
+ */
+public class TextureStore {
+
+	/** the default maximum total size of the encoded images in a store's cache, in bytes */
+	public static final long DEFAULT_MAX_CACHED_BYTES = 256 * 1024 * 1024;
+
+	private static final TextureStore SHARED_INSTANCE = new TextureStore(DEFAULT_MAX_CACHED_BYTES);
+
+	/** a texture encoded as a raster image */
+	public record EncodedTexture(byte[] data, RasterImageFormat format, String hash) {
+
+		/** returns the file name for this texture, which only depends on the content */
+		public String fileName() {
+			return "tex-" + hash + "." + format.fileExtension();
+		}
+
+		/** returns the texture as a data URI */
+		public String dataUri() {
+			return "data:" + format.mimeType() + ";base64," + Base64.getEncoder().encodeToString(data);
+		}
+
+	}
+
+	/**
+	 * @param fileLastModified  see {@link TextureData#getFileLastModified()}
+	 */
+	private record CacheKey(TextureData texture, float compressionQuality, long fileLastModified) {}
+
+	private final BoundedCache<CacheKey, EncodedTexture> cache;
+
+	/**
+	 * @param maxCachedBytes  the maximum total size of the encoded images kept in memory
+	 */
+	public TextureStore(long maxCachedBytes) {
+		this.cache = new BoundedCache<>(maxCachedBytes, t -> t.data().length);
+	}
+
+	/**
+	 * returns the store which is shared by all outputs unless they are given a different store
+	 */
+	public static TextureStore getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * returns a texture encoded as a raster image, encoding it if it isn't in the cache yet.
+	 * Uses the format returned by {@link TextureData#getRasterImageFormat()}.
+	 *
+	 * @param compressionQuality  value between 0 and 1 indicating the desired quality
+	 */
+	public EncodedTexture encode(TextureData texture, float compressionQuality) throws IOException {
+
+		var key = new CacheKey(texture, compressionQuality, texture.getFileLastModified());
+		return cache.get(key, () -> encodeUncached(texture, compressionQuality));
+
+	}
+
+	/**
+	 * stores a texture in a directory unless a file with the same content already exists there.
+	 * The directory is created if necessary.
+	 * Safe to use from multiple threads and processes writing to the same directory.
+	 *
+	 * @param compressionQuality  value between 0 and 1 indicating the desired quality
+	 * @return  the texture file
+	 */
+	public File store(TextureData texture, float compressionQuality, File directory) throws IOException {
+
+		EncodedTexture encodedTexture = encode(texture, compressionQuality);
+
+		Path targetPath = directory.toPath().resolve(encodedTexture.fileName());
+
+		if (!Files.exists(targetPath)) {
+
+			Files.createDirectories(directory.toPath());
+
+			/* write to a temporary file first, so that no other writer or reader sees an incomplete file */
+
+			Path tempPath = Files.createTempFile(directory.toPath(), "tex-", ".tmp");
+
+			try {
+				Files.write(tempPath, encodedTexture.data());
+				try {
+					Files.move(tempPath, targetPath, ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempPath, targetPath, REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tempPath);
+			}
+
+		}
+
+		return targetPath.toFile();
+
+	}
+
+	/** returns the total size of the encoded images currently in the cache, in bytes */
+	public long cachedBytes() {
+		return cache.totalWeight();
+	}
+
+	/** removes all encoded images from the cache */
+	public void clear() {
+		cache.clear();
+	}
+
+	private static EncodedTexture encodeUncached(TextureData texture, float compressionQuality) throws IOException {
+
+		var stream = new ByteArrayOutputStream();
+		texture.writeRasterImageToStream(stream, compressionQuality);
+		byte[] data = stream.toByteArray();
+
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+			String hash = HexFormat.of().formatHex(digest, 0, 16);
+			return new EncodedTexture(data, texture.getRasterImageFormat(), hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new Error(e);
+		}
+
+	}
+
+}
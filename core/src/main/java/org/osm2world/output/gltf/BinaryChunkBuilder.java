@@ -0,0 +1,94 @@
+package org.osm2world.output.gltf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * collects binary data for glTF buffers, such as the BIN chunk of a glb file.
+ * Values are written in little endian byte order to a single growable array,
+ * which avoids allocating a separate buffer for each buffer view.
+ * Can also be used as an {@link OutputStream}, e.g. for writing embedded images.
+ */
+class BinaryChunkBuilder extends OutputStream {
+
+	private static final int INITIAL_CAPACITY = 64 * 1024;
+
+	private byte[] data = new byte[INITIAL_CAPACITY];
+	private int size = 0;
+
+	/** returns the number of bytes written so far, which is also the offset of the next byte */
+	public int size() {
+		return size;
+	}
+
+	public void putFloat(float value) {
+		putInt(Float.floatToRawIntBits(value));
+	}
+
+	public void putInt(int value) {
+		ensureCapacity(size + 4);
+		data[size] = (byte) value;
+		data[size + 1] = (byte) (value >>> 8);
+		data[size + 2] = (byte) (value >>> 16);
+		data[size + 3] = (byte) (value >>> 24);
+		size += 4;
+	}
+
+	public void putShort(short value) {
+		ensureCapacity(size + 2);
+		data[size] = (byte) value;
+		data[size + 1] = (byte) (value >>> 8);
+		size += 2;
+	}
+
+	/**
+	 * adds padding bytes until the size is a multiple of 4 bytes.
+	 * This is used to fulfil the glTF spec requirement of alignment to 4-byte boundaries.
+	 */
+	public void pad(byte paddingChar) {
+		while (size % 4 != 0) {
+			write(paddingChar);
+		}
+	}
+
+	@Override
+	public void write(int b) {
+		ensureCapacity(size + 1);
+		data[size++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		ensureCapacity(size + len);
+		System.arraycopy(b, off, data, size, len);
+		size += len;
+	}
+
+	/** returns a copy of a range of the data */
+	public byte[] toByteArray(int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > size) throw new IndexOutOfBoundsException();
+		return Arrays.copyOfRange(data, offset, offset + length);
+	}
+
+	/** discards all data after the first newSize bytes */
+	public void truncate(int newSize) {
+		if (newSize < 0 || newSize > size) throw new IndexOutOfBoundsException();
+		size = newSize;
+	}
+
+	/** writes all data to another stream without copying it */
+	public void writeTo(OutputStream outputStream) throws IOException {
+		outputStream.write(data, 0, size);
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity < 0) {
+			throw new OutOfMemoryError("binary glTF data is too large");
+		} else if (minCapacity > data.length) {
+			int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(2L * data.length, minCapacity));
+			data = Arrays.copyOf(data, newCapacity);
+		}
+	}
+
+}
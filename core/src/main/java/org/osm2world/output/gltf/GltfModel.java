@@ -49,7 +49,12 @@ public class GltfModel implements Model {
 	private final Gltf gltf;
 	private final @Nullable ExternalModelSource source;
 
+	/*
+	 * caches for data which is used by each instance of this model.
+	 * Access is synchronized because models can be shared between threads, see GltfModelCache.
+	 */
 	private final Map<Pair<GltfImage, Wrap>, TextureData> imageCache = new HashMap<>();
+	private final Map<GltfBuffer, byte[]> bufferCache = new HashMap<>();
 
 	public GltfModel(Gltf gltf, @Nullable ExternalModelSource source) {
 
@@ -102,6 +107,11 @@ public class GltfModel implements Model {
 
 	}
 
+	@Override
+	public boolean supportsInstancing() {
+		return true;
+	}
+
 	private List<? extends Mesh> buildMeshesForNode(GltfNode node, TransformationMatrix parentTransform,
 				LODRange lodRange, @Nullable Color instanceColor) throws IOException {
 
@@ -359,7 +369,28 @@ public class GltfModel implements Model {
 	private ByteBuffer readBufferView(GltfBufferView bufferView) {
 
 		GltfBuffer buffer = gltf.buffers.get(bufferView.buffer);
-		ByteBuffer result;
+
+		ByteBuffer result = ByteBuffer.wrap(readBuffer(buffer));
+
+		int byteOffset = bufferView.byteOffset == null ? 0 : bufferView.byteOffset;
+		int byteLength = bufferView.byteLength;
+		result = sliceBuffer(result, byteOffset, byteLength);
+
+		result.order(ByteOrder.LITTLE_ENDIAN);
+
+		return result;
+
+	}
+
+	/** returns the content of a buffer. Must not be modified by the caller. */
+	private synchronized byte[] readBuffer(GltfBuffer buffer) {
+
+		byte[] cachedData = bufferCache.get(buffer);
+		if (cachedData != null) {
+			return cachedData;
+		}
+
+		byte[] result;
 
 		if (buffer.uri == null) {
 			// In GLB files, the buffer data should have been processed in loadFromGlbFile
@@ -376,8 +407,7 @@ public class GltfModel implements Model {
 			if (matcher.matches()) {
 
 				// load data URI
-				byte[] data = LoadUriUtil.fetchBinary(new URI(buffer.uri));
-				result = ByteBuffer.wrap(data);
+				result = LoadUriUtil.fetchBinary(new URI(buffer.uri));
 
 			} else {
 
@@ -389,7 +419,7 @@ public class GltfModel implements Model {
 					bufferUri = httpUrlSource.url().toURI().resolve(bufferUri);
 				}
 				try (InputStream inputStream = bufferUri.toURL().openStream()) {
-					result = ByteBuffer.wrap(inputStream.readAllBytes());
+					result = inputStream.readAllBytes();
 				}
 
 			}
@@ -398,11 +428,7 @@ public class GltfModel implements Model {
 			throw new RuntimeException(e);
 		}
 
-		int byteOffset = bufferView.byteOffset == null ? 0 : bufferView.byteOffset;
-		int byteLength = bufferView.byteLength;
-		result = sliceBuffer(result, byteOffset, byteLength);
-
-		result.order(ByteOrder.LITTLE_ENDIAN);
+		bufferCache.put(buffer, result);
 
 		return result;
 
@@ -530,7 +556,7 @@ public class GltfModel implements Model {
 
 	}
 
-	private TextureData readImage(GltfImage image, Wrap wrap) throws IOException {
+	private synchronized TextureData readImage(GltfImage image, Wrap wrap) throws IOException {
 
 		if (!imageCache.containsKey(Pair.of(image, wrap))) {
 
@@ -0,0 +1,80 @@
+package org.osm2world.output.gltf;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import javax.annotation.Nullable;
+
+import org.osm2world.scene.model.ExternalModelSource;
+import org.osm2world.util.BoundedCache;
+
+/**
+ * a cache of loaded {@link GltfModel}s, so that models used by many elements, tiles or conversions
+ * only need to be loaded and parsed once. Can be shared by multiple threads.
+ * Models are identified by their URI and, for local files, the file's modification time.
+ * The number of models is limited, the least recently used models are removed from the cache first.
+ */
+public class GltfModelCache {
+
+	/** the default maximum number of models in a cache */
+	public static final int DEFAULT_MAX_MODELS = 256;
+
+	private static final GltfModelCache SHARED_INSTANCE = new GltfModelCache(DEFAULT_MAX_MODELS);
+
+	private final BoundedCache<ModelKey, GltfModel> models;
+
+	/**
+	 * @param lastModified  modification time for local files, 0 for other URIs
+	 */
+	private record ModelKey(URI uri, long lastModified) {}
+
+	/**
+	 * @param maxModels  the maximum number of models kept in the cache
+	 */
+	public GltfModelCache(int maxModels) {
+
+		if (maxModels < 1) throw new IllegalArgumentException("invalid cache size: " + maxModels);
+
+		this.models = new BoundedCache<>(maxModels);
+
+	}
+
+	/**
+	 * returns the cache which is shared by all styles and modules unless they are given a different cache
+	 */
+	public static GltfModelCache getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * returns a model, loading it if it isn't in the cache yet.
+	 * Parameters are the same as for {@link GltfModel#loadFromUri(URI, GltfFlavor, ExternalModelSource)}.
+	 * Models which could not be loaded are not cached.
+	 */
+	public GltfModel get(URI uri, @Nullable GltfFlavor flavor, @Nullable ExternalModelSource source)
+			throws IOException {
+
+		long lastModified = "file".equals(uri.getScheme()) ? new File(uri).lastModified() : 0;
+		var key = new ModelKey(uri.normalize(), lastModified);
+
+		return models.get(key, () -> GltfModel.loadFromUri(uri, flavor, source));
+
+	}
+
+	/** convenience method for loading a model from a local file */
+	public GltfModel get(File file) throws IOException {
+		return get(file.getAbsoluteFile().toURI(), null, null);
+	}
+
+	/** returns the number of models currently in the cache */
+	public int size() {
+		return models.size();
+	}
+
+	/** removes all models from the cache */
+	public void clear() {
+		models.clear();
+	}
+
+}
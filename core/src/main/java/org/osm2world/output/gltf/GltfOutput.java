@@ -1,10 +1,12 @@
 package org.osm2world.output.gltf;
 
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNullElse;
-import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.osm2world.conversion.O2WConfig.ObjectMetadataType;
+import static org.osm2world.math.VectorXYZ.NULL_VECTOR;
 import static org.osm2world.math.algorithms.NormalCalculationUtil.calculateTriangleNormals;
 import static org.osm2world.output.common.ResourceOutputSettings.ResourceOutputMode.EMBED;
 import static org.osm2world.output.common.ResourceOutputSettings.ResourceOutputMode.REFERENCE;
@@ -20,6 +22,8 @@ import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.annotation.Nullable;
 
@@ -32,10 +36,14 @@ import org.osm2world.math.Vector3D;
 import org.osm2world.math.VectorXYZ;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.geo.LatLon;
+import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
 import org.osm2world.math.shapes.SimpleClosedShapeXZ;
 import org.osm2world.math.shapes.TriangleXYZ;
 import org.osm2world.output.common.AbstractOutput;
+import org.osm2world.output.common.MeshOutput;
 import org.osm2world.output.common.ResourceOutputSettings;
+import org.osm2world.output.common.TextureStore;
+import org.osm2world.output.common.TextureStore.EncodedTexture;
 import org.osm2world.output.common.compression.Compression;
 import org.osm2world.output.gltf.data.*;
 import org.osm2world.output.gltf.data.GltfMaterial.NormalTextureInfo;
@@ -43,12 +51,16 @@ import org.osm2world.output.gltf.data.GltfMaterial.OcclusionTextureInfo;
 import org.osm2world.output.gltf.data.GltfMaterial.PbrMetallicRoughness;
 import org.osm2world.output.gltf.data.GltfMaterial.TextureInfo;
 import org.osm2world.scene.Scene;
+import org.osm2world.scene.color.Color;
 import org.osm2world.scene.color.LColor;
 import org.osm2world.scene.material.Material;
 import org.osm2world.scene.material.TextureData;
 import org.osm2world.scene.material.TextureLayer;
 import org.osm2world.scene.mesh.*;
 import org.osm2world.scene.mesh.MeshStore.MergeMeshes.MergeOption;
+import org.osm2world.scene.model.InstanceParameters;
+import org.osm2world.scene.model.Model;
+import org.osm2world.scene.model.ModelInstance;
 import org.osm2world.util.FaultTolerantIterationUtil;
 import org.osm2world.util.GlobalValues;
 import org.osm2world.util.platform.json.JsonUtil;
@@ -61,6 +73,8 @@ import com.google.common.collect.Multimap;
  */
 public class GltfOutput extends AbstractOutput {
 
+	private static final String EXT_MESH_GPU_INSTANCING = "EXT_mesh_gpu_instancing";
+
 	private final File outputFile;
 	private final GltfFlavor flavor;
 	private final Compression compression;
@@ -71,8 +85,11 @@ public class GltfOutput extends AbstractOutput {
 	private final Map<Material, Integer> materialIndexMap = new HashMap<>();
 	private final Map<TextureData, Integer> textureIndexMap = new HashMap<>();
 
-	/** data for the glb BIN chunk, only used if {@link #flavor} is {@link GltfFlavor#GLB} */
-	private final List<ByteBuffer> binChunkData = new ArrayList<>();
+	/**
+	 * binary data for buffer views. For {@link GltfFlavor#GLB}, this is the content of the BIN chunk.
+	 * Otherwise, it only temporarily holds the data of the buffer view under construction.
+	 */
+	private final BinaryChunkBuilder binaryData = new BinaryChunkBuilder();
 
 	/**
 	 * Sets up an output to write a scene as glTF.
@@ -116,9 +133,20 @@ public class GltfOutput extends AbstractOutput {
 
 	@Override
 	public void outputScene(Scene scene) {
-		outputScene(scene.getMeshesWithMetadata(config),
-				scene.getMapProjection() != null ? scene.getMapProjection().getOrigin() : null,
-				scene.getBoundary());
+
+		LatLon origin = scene.getMapProjection() != null ? scene.getMapProjection().getOrigin() : null;
+
+		if (config.gltfInstancing()) {
+			var meshOutput = new MeshOutput();
+			meshOutput.setConfiguration(config);
+			meshOutput.setKeepModelInstances(true);
+			meshOutput.outputScene(scene);
+			outputScene(meshOutput.getMeshesWithMetadata(), meshOutput.getModelInstances(), origin,
+					scene.getBoundary());
+		} else {
+			outputScene(scene.getMeshesWithMetadata(config), origin, scene.getBoundary());
+		}
+
 	}
 
 	/**
@@ -127,6 +155,19 @@ public class GltfOutput extends AbstractOutput {
 	 */
 	public void outputScene(List<MeshWithMetadata> meshesWithMetadata, @Nullable LatLon origin,
 			@Nullable SimpleClosedShapeXZ bounds) {
+		outputScene(meshesWithMetadata, List.of(), origin, bounds);
+	}
+
+	/**
+	 * variant of {@link #outputScene(List, LatLon, SimpleClosedShapeXZ)} with model instances.
+	 * Models with multiple instances are written using the EXT_mesh_gpu_instancing extension.
+	 *
+	 * @param modelInstances  model instances which have not been converted to meshes.
+	 *                        Usually obtained from {@link MeshOutput#getModelInstances()}.
+	 */
+	public void outputScene(List<MeshWithMetadata> meshesWithMetadata,
+			List<ModelInstanceWithMetadata> modelInstances, @Nullable LatLon origin,
+			@Nullable SimpleClosedShapeXZ bounds) {
 
 		MeshStore meshStore = new MeshStore(meshesWithMetadata);
 
@@ -134,12 +175,12 @@ public class GltfOutput extends AbstractOutput {
 
 			try {
 				if (flavor == GltfFlavor.GLTF) {
-					writeJson(meshStore, origin, bounds, outputStream);
+					writeJson(meshStore, modelInstances, origin, bounds, outputStream);
 				} else {
 					try (var jsonChunkOutputStream = new ByteArrayOutputStream()) {
-						writeJson(meshStore, origin, bounds, jsonChunkOutputStream);
+						writeJson(meshStore, modelInstances, origin, bounds, jsonChunkOutputStream);
 						ByteBuffer jsonChunkData = asPaddedByteBuffer(jsonChunkOutputStream.toByteArray(), (byte) 0x20);
-						writeGlb(outputStream, jsonChunkData, binChunkData);
+						writeGlb(outputStream, jsonChunkData, binaryData);
 					}
 				}
 			} catch (IOException e) {
@@ -175,8 +216,6 @@ public class GltfOutput extends AbstractOutput {
 		TriangleGeometry triangleGeometry = mesh.geometry.asTriangles();
 		List<? extends TriangleXYZ> triangles = triangleGeometry.triangles;
 		List<List<VectorXZ>> texCoordLists = triangleGeometry.texCoords;
-		List<LColor> colors = triangleGeometry.colors == null ? null
-				: triangleGeometry.colors.stream().map(LColor::fromRGB).toList();
 
 		texCoordLists = mirroredVertically(texCoordLists); // move texture coordinate origin to the top left
 
@@ -194,24 +233,61 @@ public class GltfOutput extends AbstractOutput {
 		primitive.material = materialIndex;
 
 		/* put geometry into buffers and set up accessors */
-		// TODO consider using indices
 
 		primitive.mode = GltfMesh.TRIANGLES;
 
-		List<VectorXYZ> positions = new ArrayList<>(3 * triangles.size());
-		triangles.forEach(t -> positions.addAll(t.verticesNoDup()));
-		primitive.attributes.put("POSITION", createAccessor(3, positions));
-
 		List<VectorXYZ> normals = calculateTriangleNormals(triangles, material.interpolation() == SMOOTH);
-		primitive.attributes.put("NORMAL", createAccessor(3, normals));
 
-		if (material.textureLayers().size() > 0) {
-			primitive.attributes.put("TEXCOORD_0", createAccessor(2, texCoordLists.get(0)));
+		List<VectorXZ> texCoords = material.textureLayers().size() > 0 ? texCoordLists.get(0) : null;
+
+		@Nullable List<Color> colors = triangleGeometry.colors;
+
+		/* write all vertex attributes to one interleaved array */
+
+		int stride = 3 + 3 + (texCoords != null ? 2 : 0) + (colors != null ? 3 : 0);
+		int vertexCount = 3 * triangles.size();
+
+		float[] vertexData = new float[stride * vertexCount];
+
+		int offset = 0;
+		int i = 0;
+
+		for (TriangleXYZ triangle : triangles) {
+			for (int j = 0; j < 3; j++) {
+				VectorXYZ position = (j == 0) ? triangle.v1 : (j == 1) ? triangle.v2 : triangle.v3;
+				offset = putComponents(vertexData, offset, 3, position);
+				offset = putComponents(vertexData, offset, 3, normals.get(i));
+				if (texCoords != null) {
+					offset = putComponents(vertexData, offset, 2, texCoords.get(i));
+				}
+				if (colors != null) {
+					LColor c = LColor.fromRGB(colors.get(i));
+					vertexData[offset++] = c.red;
+					vertexData[offset++] = c.green;
+					vertexData[offset++] = c.blue;
+				}
+				i++;
+			}
 		}
 
-		if (colors != null) {
-			List<VectorXYZ> colorsAsVectors = colors.stream().map(c -> new VectorXYZ(c.red, c.green, -c.blue)).collect(toList());
-			primitive.attributes.put("COLOR_0", createAccessor(3, colorsAsVectors));
+		if (config.gltfIndexedGeometry()) {
+
+			var deduplicator = new VertexDeduplicator(stride, vertexCount);
+
+			for (int v = 0; v < vertexCount; v++) {
+				deduplicator.add(vertexData, v * stride);
+			}
+
+			createAttributeAccessors(primitive, deduplicator.getVertexData(), deduplicator.getVertexCount(), stride,
+					texCoords != null, colors != null);
+
+			primitive.indices = createIndexAccessor(deduplicator.getIndices(), deduplicator.getIndexCount(),
+					deduplicator.getVertexCount());
+
+		} else {
+
+			createAttributeAccessors(primitive, vertexData, vertexCount, stride, texCoords != null, colors != null);
+
 		}
 
 		gltf.meshes.add(gltfMesh);
@@ -219,11 +295,54 @@ public class GltfOutput extends AbstractOutput {
 
 	}
 
-	private int createAccessor(int numComponents, List<? extends Vector3D> vs) {
+	/**
+	 * sets up the vertex attributes of a primitive
+	 *
+	 * @param vertexData  interleaved attribute values: position, normal, texture coordinates (optional),
+	 *                    color (optional)
+	 */
+	private void createAttributeAccessors(GltfMesh.Primitive primitive, float[] vertexData, int vertexCount,
+			int stride, boolean hasTexCoords, boolean hasColors) {
+
+		int offset = 0;
+
+		primitive.attributes.put("POSITION", createAccessor(3, vertexData, stride, offset, vertexCount,
+				GltfBufferView.TARGET_ARRAY_BUFFER));
+		offset += 3;
+
+		primitive.attributes.put("NORMAL", createAccessor(3, vertexData, stride, offset, vertexCount,
+				GltfBufferView.TARGET_ARRAY_BUFFER));
+		offset += 3;
+
+		if (hasTexCoords) {
+			primitive.attributes.put("TEXCOORD_0", createAccessor(2, vertexData, stride, offset, vertexCount,
+					GltfBufferView.TARGET_ARRAY_BUFFER));
+			offset += 2;
+		}
+
+		if (hasColors) {
+			primitive.attributes.put("COLOR_0", createAccessor(3, vertexData, stride, offset, vertexCount,
+					GltfBufferView.TARGET_ARRAY_BUFFER));
+		}
+
+	}
+
+	/**
+	 * creates an accessor for float vectors
+	 *
+	 * @param data    array containing the vectors' components, possibly interleaved with other values
+	 * @param stride  number of floats from the start of one vector to the start of the next one
+	 * @param offset  position of the first vector's first component in the array
+	 * @param count   number of vectors
+	 * @param target  the target for the accessor's buffer view, or null if none should be set
+	 */
+	private int createAccessor(int numComponents, float[] data, int stride, int offset, int count,
+			@Nullable Integer target) {
 
 		String type = switch (numComponents) {
 			case 2 -> "VEC2";
 			case 3 -> "VEC3";
+			case 4 -> "VEC4";
 			default -> throw new UnsupportedOperationException("invalid numComponents: " + numComponents);
 		};
 
@@ -233,25 +352,19 @@ public class GltfOutput extends AbstractOutput {
 		Arrays.fill(min, Float.POSITIVE_INFINITY);
 		Arrays.fill(max, Float.NEGATIVE_INFINITY);
 
-		int byteLength = 4 /* FLOAT */ * numComponents * vs.size();
-
-		ByteBuffer byteBuffer = ByteBuffer.allocate(byteLength);
-		byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-
-		for (Vector3D v : vs) {
-
-			float[] components = components(numComponents, v);
+		int byteOffset = binaryData.size();
 
+		for (int v = 0; v < count; v++) {
 			for (int i = 0; i < numComponents; i++) {
-				byteBuffer.putFloat(components[i]);
-				min[i] = Math.min(min[i], components[i]);
-				max[i] = Math.max(max[i], components[i]);
+				float component = data[offset + v * stride + i];
+				binaryData.putFloat(component);
+				min[i] = Math.min(min[i], component);
+				max[i] = Math.max(max[i], component);
 			}
-
 		}
 
-		GltfAccessor accessor = new GltfAccessor(GltfAccessor.TYPE_FLOAT, vs.size(), type);
-		accessor.bufferView = createBufferView(byteBuffer, GltfBufferView.TARGET_ARRAY_BUFFER);
+		GltfAccessor accessor = new GltfAccessor(GltfAccessor.TYPE_FLOAT, count, type);
+		accessor.bufferView = createBufferView(byteOffset, binaryData.size() - byteOffset, target);
 		accessor.min = min;
 		accessor.max = max;
 		gltf.accessors.add(accessor);
@@ -260,26 +373,66 @@ public class GltfOutput extends AbstractOutput {
 
 	}
 
-	private int createBufferView(ByteBuffer byteBuffer, @Nullable Integer target) {
+	/**
+	 * creates an accessor for vertex indices.
+	 * Uses unsigned shorts if possible and unsigned ints otherwise.
+	 * The largest value of each type is reserved by the glTF spec (primitive restart) and therefore avoided.
+	 *
+	 * @param count        number of indices
+	 * @param vertexCount  number of vertices referenced by the indices
+	 */
+	private int createIndexAccessor(int[] indices, int count, int vertexCount) {
+
+		boolean useShort = vertexCount <= 0xFFFF;
+
+		int byteOffset = binaryData.size();
+
+		for (int i = 0; i < count; i++) {
+			if (useShort) {
+				binaryData.putShort((short) indices[i]);
+			} else {
+				binaryData.putInt(indices[i]);
+			}
+		}
+
+		binaryData.pad((byte) 0x00);
+
+		GltfAccessor accessor = new GltfAccessor(
+				useShort ? GltfAccessor.TYPE_UNSIGNED_SHORT : GltfAccessor.TYPE_UNSIGNED_INT, count, "SCALAR");
+		accessor.bufferView = createBufferView(byteOffset, binaryData.size() - byteOffset,
+				GltfBufferView.TARGET_ELEMENT_ARRAY_BUFFER);
+		gltf.accessors.add(accessor);
+
+		return gltf.accessors.size() - 1;
+
+	}
+
+	/**
+	 * creates a buffer view for data which has just been written to {@link #binaryData}
+	 *
+	 * @param byteOffset  position of the data's first byte in {@link #binaryData}
+	 * @param byteLength  length of the data in bytes, including padding
+	 */
+	private int createBufferView(int byteOffset, int byteLength, @Nullable Integer target) {
 
 		GltfBufferView view = switch (flavor) {
 			case GLTF -> {
 
 				String dataUri = "data:application/gltf-buffer;base64,"
-						+ Base64.getEncoder().encodeToString(byteBuffer.array());
+						+ Base64.getEncoder().encodeToString(binaryData.toByteArray(byteOffset, byteLength));
 
-				GltfBuffer buffer = new GltfBuffer(byteBuffer.capacity());
+				binaryData.truncate(byteOffset);
+
+				GltfBuffer buffer = new GltfBuffer(byteLength);
 				buffer.uri = dataUri;
 				gltf.buffers.add(buffer);
 				int bufferIndex = gltf.buffers.size() - 1;
 
-				yield new GltfBufferView(bufferIndex, byteBuffer.capacity());
+				yield new GltfBufferView(bufferIndex, byteLength);
 
 			}
 			case GLB -> {
-				int byteOffset = binChunkData.stream().mapToInt(ByteBuffer::capacity).sum();
-				binChunkData.add(byteBuffer);
-				var binBufferView = new GltfBufferView(0, byteBuffer.capacity());
+				var binBufferView = new GltfBufferView(0, byteLength);
 				binBufferView.byteOffset = byteOffset;
 				yield binBufferView;
 			}
@@ -389,16 +542,18 @@ public class GltfOutput extends AbstractOutput {
 		GltfImage image = new GltfImage();
 
 		if (flavor == GltfFlavor.GLB && mode == EMBED) {
-			try (var stream = new ByteArrayOutputStream()) {
-				textureData.writeRasterImageToStream(stream, config.textureQuality());
-				image.bufferView = createBufferView(asPaddedByteBuffer(stream.toByteArray(), (byte) 0x00), null);
-				image.mimeType = textureData.getRasterImageFormat().mimeType();
-			}
+			EncodedTexture encodedTexture = TextureStore.getSharedInstance().encode(textureData, config.textureQuality());
+			int byteOffset = binaryData.size();
+			binaryData.write(encodedTexture.data());
+			binaryData.pad((byte) 0x00);
+			image.bufferView = createBufferView(byteOffset, encodedTexture.data().length, null);
+			image.mimeType = encodedTexture.format().mimeType();
 		} else {
 			image.uri = switch (mode) {
 				case REFERENCE -> resourceOutputSettings.buildTextureReference(textureData);
-				case STORE_SEPARATELY_AND_REFERENCE -> resourceOutputSettings.storeTexture(textureData, outputDir().toURI());
-				case EMBED -> textureData.getDataUri();
+				case STORE_SEPARATELY_AND_REFERENCE -> resourceOutputSettings.storeTexture(
+						textureData, config.textureQuality(), outputDir().toURI());
+				case EMBED -> TextureStore.getSharedInstance().encode(textureData, config.textureQuality()).dataUri();
 			};
 		}
 
@@ -411,12 +566,62 @@ public class GltfOutput extends AbstractOutput {
 	 * constructs the JSON document after all parts of the glTF have been created
 	 * and outputs it to an {@link OutputStream}
 	 */
-	private void writeJson(MeshStore meshStore, @Nullable LatLon origin, SimpleClosedShapeXZ bounds,
-			OutputStream outputStream) throws IOException {
+	private void writeJson(MeshStore meshStore, List<ModelInstanceWithMetadata> modelInstances,
+			@Nullable LatLon origin, SimpleClosedShapeXZ bounds, OutputStream outputStream) throws IOException {
 
 		boolean keepOsmElements = config.keepOsmElements();
 		boolean clipToBounds = config.clipToBounds();
 
+		LevelOfDetail lod = config.lod();
+
+		/*
+		 * group the model instances. Instances which are not entirely inside the bounds are converted
+		 * to regular meshes so they can be clipped, as are models with only a single instance.
+		 */
+
+		Map<InstanceGroup, List<ModelInstanceWithMetadata>> instanceGroups = new LinkedHashMap<>();
+
+		for (ModelInstanceWithMetadata m : modelInstances) {
+			if (m.modelInstance().params().lodRange().contains(lod)) {
+				instanceGroups.computeIfAbsent(InstanceGroup.of(m, keepOsmElements), k -> new ArrayList<>()).add(m);
+			}
+		}
+
+		Map<InstanceGroup, List<Mesh>> sharedMeshes = new HashMap<>();
+
+		for (var iterator = instanceGroups.entrySet().iterator(); iterator.hasNext(); ) {
+
+			var entry = iterator.next();
+			InstanceGroup group = entry.getKey();
+			List<ModelInstanceWithMetadata> instances = entry.getValue();
+
+			List<Mesh> meshes = group.model().buildMeshes(group.params());
+
+			if (clipToBounds && bounds != null) {
+				double radius = horizontalRadius(meshes);
+				List<ModelInstanceWithMetadata> instancesInside = new ArrayList<>(instances.size());
+				for (ModelInstanceWithMetadata m : instances) {
+					if (isInside(m.modelInstance().params().position().xz(), radius, bounds)) {
+						instancesInside.add(m);
+					} else {
+						m.modelInstance().getMeshes().forEach(mesh -> meshStore.addMesh(mesh, m.metadata()));
+					}
+				}
+				instances = instancesInside;
+				entry.setValue(instances);
+			}
+
+			if (instances.size() <= 1) {
+				for (ModelInstanceWithMetadata m : instances) {
+					m.modelInstance().getMeshes().forEach(mesh -> meshStore.addMesh(mesh, m.metadata()));
+				}
+				iterator.remove();
+			} else {
+				sharedMeshes.put(group, meshes);
+			}
+
+		}
+
 		/* process the meshes */
 
 		EnumSet<MergeOption> mergeOptions = EnumSet.noneOf(MergeOption.class);
@@ -425,21 +630,33 @@ public class GltfOutput extends AbstractOutput {
 			mergeOptions.add(MergeOption.MERGE_ELEMENTS);
 		}
 
-		LevelOfDetail lod = config.lod();
-
 		List<MeshProcessingStep> processingSteps = new ArrayList<>(asList(
 				new FilterLod(lod),
 				new ConvertToTriangles(lod),
 				new EmulateTextureLayers(lod.ordinal() <= 1 ? 1 : Integer.MAX_VALUE),
 				new MoveColorsToVertices(), // after EmulateTextureLayers because colorable is per layer
-				new ReplaceTexturesWithAtlas(t -> getResourceOutputSettings().modeForTexture(t) == REFERENCE),
+				new ReplaceTexturesWithAtlas(t -> getResourceOutputSettings().modeForTexture(t) == REFERENCE,
+						TextureAtlasRegistry.getSharedInstance()),
 				new MergeMeshes(mergeOptions)));
 
+		List<MeshProcessingStep> instancedModelProcessingSteps = List.copyOf(processingSteps);
+
 		if (clipToBounds && bounds != null) {
 			processingSteps.add(1, new ClipToBounds(bounds, true));
 		}
 
-		MeshStore processedMeshStore = meshStore.process(processingSteps);
+		MeshStore processedMeshStore;
+
+		if (config.meshProcessingThreads() > 1) {
+			ExecutorService executor = Executors.newFixedThreadPool(config.meshProcessingThreads());
+			try {
+				processedMeshStore = meshStore.process(processingSteps, executor);
+			} finally {
+				executor.shutdown();
+			}
+		} else {
+			processedMeshStore = meshStore.process(processingSteps);
+		}
 
 		Multimap<MeshMetadata, Mesh> meshesByMetadata = processedMeshStore.meshesByMetadata();
 
@@ -512,10 +729,51 @@ public class GltfOutput extends AbstractOutput {
 
 		}
 
+		/* generate the glTF nodes and meshes for instanced models */
+
+		for (InstanceGroup group : instanceGroups.keySet()) {
+
+			List<ModelInstanceWithMetadata> instances = instanceGroups.get(group);
+
+			List<Mesh> meshes = new MeshStore(sharedMeshes.get(group), null)
+					.process(instancedModelProcessingSteps).meshes();
+
+			if (meshes.isEmpty()) continue;
+
+			Map<String, Object> instancingExtension = createInstancingExtension(instances,
+					!group.model().ignoresDirection());
+
+			List<Integer> meshNodeIndizes = new ArrayList<>(meshes.size());
+
+			FaultTolerantIterationUtil.forEach(meshes, (Mesh mesh) -> {
+				try {
+					int index = createNode(createMesh(mesh), null);
+					gltf.nodes.get(index).extensions = Map.of(EXT_MESH_GPU_INSTANCING, instancingExtension);
+					meshNodeIndizes.add(index);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+
+			if (keepOsmElements) {
+				meshNodeIndizes.forEach(index -> addMeshNameAndExtras(gltf.nodes.get(index), group.metadata(), config));
+			}
+
+			rootNode.children.addAll(meshNodeIndizes);
+
+		}
+
+		if (gltf.nodes.stream().anyMatch(n -> n.extensions != null
+				&& n.extensions.containsKey(EXT_MESH_GPU_INSTANCING))) {
+			// viewers without support for the extension would only display a single instance
+			gltf.extensionsUsed = List.of(EXT_MESH_GPU_INSTANCING);
+			gltf.extensionsRequired = List.of(EXT_MESH_GPU_INSTANCING);
+		}
+
 		/* add a buffer for the BIN chunk */
 
 		if (flavor == GltfFlavor.GLB) {
-			gltf.buffers.add(0, new GltfBuffer(binChunkData.stream().mapToInt(ByteBuffer::capacity).sum()));
+			gltf.buffers.add(0, new GltfBuffer(binaryData.size()));
 		}
 
 		/* use null instead of [] when lists are empty */
@@ -560,58 +818,125 @@ public class GltfOutput extends AbstractOutput {
 
 	}
 
+	/**
+	 * creates the accessors with per-instance transformations
+	 * and returns the content of the EXT_mesh_gpu_instancing extension object for a node
+	 *
+	 * @param rotate  whether the instances are rotated according to their direction,
+	 *                see {@link Model#ignoresDirection()}
+	 */
+	private Map<String, Object> createInstancingExtension(List<ModelInstanceWithMetadata> instances,
+			boolean rotate) {
+
+		float[] translations = new float[3 * instances.size()];
+		float[] rotations = new float[4 * instances.size()];
+
+		for (int i = 0; i < instances.size(); i++) {
+
+			InstanceParameters params = instances.get(i).modelInstance().params();
+
+			putComponents(translations, 3 * i, 3, params.position());
+
+			/* rotation around the y axis. The sign is inverted due to the different handedness of glTF */
+			double halfAngle = params.direction() / 2;
+			rotations[4 * i] = 0;
+			rotations[4 * i + 1] = (float) -sin(halfAngle);
+			rotations[4 * i + 2] = 0;
+			rotations[4 * i + 3] = (float) cos(halfAngle);
+
+		}
+
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("TRANSLATION", createAccessor(3, translations, 3, 0, instances.size(), null));
+		if (rotate) {
+			attributes.put("ROTATION", createAccessor(4, rotations, 4, 0, instances.size(), null));
+		}
+
+		return Map.of("attributes", attributes);
+
+	}
+
+	/**
+	 * returns the largest horizontal distance of a vertex in the meshes from the origin
+	 */
+	private static double horizontalRadius(List<Mesh> meshes) {
+		double result = 0;
+		for (Mesh mesh : meshes) {
+			for (TriangleXYZ t : mesh.geometry.asTriangles().triangles) {
+				for (VectorXYZ v : List.of(t.v1, t.v2, t.v3)) {
+					result = Math.max(result, v.xz().length());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * checks whether a circle (approximated by its bounding box) is entirely inside the bounds
+	 */
+	private static boolean isInside(VectorXZ center, double radius, SimpleClosedShapeXZ bounds) {
+		var box = new AxisAlignedRectangleXZ(center.x - radius, center.z - radius,
+				center.x + radius, center.z + radius);
+		return box.vertices().stream().allMatch(bounds::contains)
+				&& box.getSegments().stream().allMatch(s -> bounds.intersectionPositions(s).isEmpty());
+	}
+
 	/** writes a binary glTF */
-	private static void writeGlb(OutputStream outputStream, ByteBuffer jsonChunkData, List<ByteBuffer> binChunkData)
+	private static void writeGlb(OutputStream outputStream, ByteBuffer jsonChunkData, BinaryChunkBuilder binChunkData)
 			throws IOException {
 
 		int jsonChunkDataLength = jsonChunkData.capacity();
-		int binChunkDataLength = binChunkData.stream().mapToInt(ByteBuffer::capacity).sum();
+		int binChunkDataLength = binChunkData.size();
 
 		int length = 12 // header
 				+ 8 + jsonChunkDataLength // JSON chunk header + JSON chunk data
 				+ 8 + binChunkDataLength; // BIN chunk header + BIN chunk data
 
-		ByteBuffer result = ByteBuffer.allocate(length);
-		result.order(ByteOrder.LITTLE_ENDIAN);
+		ByteBuffer header = ByteBuffer.allocate(12 + 8);
+		header.order(ByteOrder.LITTLE_ENDIAN);
 
 		/* write the header */
 
-		result.putInt(0x46546C67); // magic number
-		result.putInt(2); // version
-		result.putInt(length);
+		header.putInt(0x46546C67); // magic number
+		header.putInt(2); // version
+		header.putInt(length);
 
 		/* write the JSON chunk */
 
-		result.putInt(jsonChunkDataLength);
-		result.putInt(0x4E4F534A); // chunk type "JSON"
-		result.put(jsonChunkData.array());
+		header.putInt(jsonChunkDataLength);
+		header.putInt(0x4E4F534A); // chunk type "JSON"
 
-		/* write the BIN chunk */
+		outputStream.write(header.array());
+		outputStream.write(jsonChunkData.array());
 
-		result.putInt(binChunkDataLength);
-		result.putInt(0x004E4942); // chunk type "BIN"
-		binChunkData.forEach(it -> result.put(it.array()));
+		/* write the BIN chunk */
 
-		/* output the result */
+		ByteBuffer binChunkHeader = ByteBuffer.allocate(8);
+		binChunkHeader.order(ByteOrder.LITTLE_ENDIAN);
+		binChunkHeader.putInt(binChunkDataLength);
+		binChunkHeader.putInt(0x004E4942); // chunk type "BIN"
 
-		outputStream.write(result.array());
+		outputStream.write(binChunkHeader.array());
+		binChunkData.writeTo(outputStream);
 
 	}
 
-	private static float[] components(int numComponents, Vector3D v) {
+	/**
+	 * writes the components of a vector to an array, converting them to glTF's coordinate system
+	 *
+	 * @return  the offset after the last component which has been written
+	 */
+	private static int putComponents(float[] target, int offset, int numComponents, Vector3D v) {
 		if (numComponents == 2) {
-			return new float[] {
-					(float)((VectorXZ)v).x,
-					(float)((VectorXZ)v).z
-			};
+			target[offset] = (float)((VectorXZ)v).x;
+			target[offset + 1] = (float)((VectorXZ)v).z;
 		} else {
 			assert numComponents == 3;
-			return new float[] {
-					(float)((VectorXYZ)v).x,
-					(float)((VectorXYZ)v).y,
-					(float)((VectorXYZ)v).z * -1
-			};
+			target[offset] = (float)((VectorXYZ)v).x;
+			target[offset + 1] = (float)((VectorXYZ)v).y;
+			target[offset + 2] = (float)((VectorXYZ)v).z * -1;
 		}
+		return offset + numComponents;
 	}
 
 	/**
@@ -666,6 +991,24 @@ public class GltfOutput extends AbstractOutput {
 
 	}
 
+	/**
+	 * a set of model instances which can share the same geometry
+	 *
+	 * @param params    parameters for building the shared geometry, with position and direction set to 0
+	 * @param metadata  metadata shared by all instances, or empty metadata if instances aren't separated by element
+	 */
+	private record InstanceGroup(Model model, InstanceParameters params, MeshMetadata metadata) {
+
+		static InstanceGroup of(ModelInstanceWithMetadata m, boolean separateElements) {
+			ModelInstance instance = m.modelInstance();
+			return new InstanceGroup(instance.model(),
+					new InstanceParameters(NULL_VECTOR, 0, instance.params().height(), null,
+							instance.params().lodRange()),
+					separateElements ? m.metadata() : new MeshMetadata(null, null));
+		}
+
+	}
+
 	private Pair<GltfFlavor, Compression> guessFlavorAndCompression(String fileName) {
 		if (fileName.endsWith(".gltf")) {
 			return Pair.of(GLTF, NONE);
@@ -0,0 +1,158 @@
+package org.osm2world.output.gltf;
+
+import java.util.Arrays;
+
+/**
+ * collects vertices for indexed geometry, assigning the same index to vertices with identical attributes.
+ * Each vertex is a fixed number of floats (e.g. position, normal and texture coordinates),
+ * and two vertices are considered identical if all of these floats are bitwise equal.
+ * Uses an open addressing hash table of ints to avoid creating an object for each vertex.
+ */
+class VertexDeduplicator {
+
+	/** number of floats per vertex */
+	private final int stride;
+
+	/** attribute values for each unique vertex, {@link #stride} floats per vertex */
+	private float[] vertexData;
+	private int vertexCount = 0;
+
+	/** hash table containing vertex index + 1 for occupied slots and 0 for empty slots */
+	private int[] table;
+
+	/** index of the unique vertex for each vertex passed to {@link #add(float[])} */
+	private int[] indices;
+	private int indexCount = 0;
+
+	/**
+	 * @param stride          number of floats per vertex
+	 * @param expectedVertices  number of vertices which will be added, used to size the internal arrays
+	 */
+	public VertexDeduplicator(int stride, int expectedVertices) {
+
+		if (stride < 1) throw new IllegalArgumentException("invalid stride: " + stride);
+
+		this.stride = stride;
+
+		int capacity = Math.max(expectedVertices, 16);
+		vertexData = new float[capacity * stride];
+		indices = new int[capacity];
+		table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+
+	}
+
+	/**
+	 * adds a vertex
+	 *
+	 * @param vertex  the vertex' attribute values, must have a length of {@link #stride}. Is not modified or stored.
+	 * @return  the index of the vertex among the unique vertices
+	 */
+	public int add(float[] vertex) {
+		assert vertex.length == stride;
+		return add(vertex, 0);
+	}
+
+	/**
+	 * adds a vertex which is part of a larger array
+	 *
+	 * @param data    array containing the vertex' attribute values. Is not modified or stored.
+	 * @param offset  position of the vertex' first attribute value in the array
+	 * @return  the index of the vertex among the unique vertices
+	 */
+	public int add(float[] data, int offset) {
+
+		int mask = table.length - 1;
+		int slot = hash(data, offset) & mask;
+
+		int index;
+
+		while (true) {
+			int entry = table[slot];
+			if (entry == 0) {
+				index = appendVertex(data, offset);
+				table[slot] = index + 1;
+				if (vertexCount * 2 > table.length) {
+					rehash();
+				}
+				break;
+			} else if (equalsVertex(entry - 1, data, offset)) {
+				index = entry - 1;
+				break;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (indexCount == indices.length) {
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		indices[indexCount++] = index;
+
+		return index;
+
+	}
+
+	/** returns the number of unique vertices */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/** returns the number of vertices which have been added, including duplicates */
+	public int getIndexCount() {
+		return indexCount;
+	}
+
+	/**
+	 * returns the attribute values of the unique vertices.
+	 * The array may be longer than {@link #getVertexCount()} * stride.
+	 */
+	public float[] getVertexData() {
+		return vertexData;
+	}
+
+	/**
+	 * returns the index of each vertex which has been added.
+	 * The array may be longer than {@link #getIndexCount()}.
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+	private int appendVertex(float[] data, int offset) {
+		if ((vertexCount + 1) * stride > vertexData.length) {
+			vertexData = Arrays.copyOf(vertexData, vertexData.length * 2);
+		}
+		System.arraycopy(data, offset, vertexData, vertexCount * stride, stride);
+		return vertexCount++;
+	}
+
+	private boolean equalsVertex(int index, float[] data, int offset) {
+		int vertexOffset = index * stride;
+		for (int i = 0; i < stride; i++) {
+			if (Float.floatToIntBits(vertexData[vertexOffset + i]) != Float.floatToIntBits(data[offset + i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int hash(float[] vertexData, int offset) {
+		int hash = 1;
+		for (int i = 0; i < stride; i++) {
+			hash = 31 * hash + Float.floatToIntBits(vertexData[offset + i]);
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private void rehash() {
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+		for (int index = 0; index < vertexCount; index++) {
+			int slot = hash(vertexData, index * stride) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = index + 1;
+		}
+	}
+
+}
@@ -36,6 +36,11 @@ public abstract class ImageFileTexture extends TextureData {
 		return file;
 	}
 
+	@Override
+	public long getFileLastModified() {
+		return file.lastModified();
+	}
+
 	@Override
 	public String toString() {
 		return file.getName();
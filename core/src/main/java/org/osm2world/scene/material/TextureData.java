@@ -81,6 +81,14 @@ public abstract class TextureData {
 		return dimensions;
 	}
 
+	/**
+	 * returns the modification time of the local file this texture is read from, or 0 for other textures.
+	 * Textures using the same file are equal, so caches use this to notice when the file has been edited.
+	 */
+	public long getFileLastModified() {
+		return 0;
+	}
+
 	/**
 	 * Returns the texture as a {@link BufferedImage}.
 	 * This may involve converting a vector or procedural texture into a raster image,
@@ -1,5 +1,6 @@
 package org.osm2world.scene.material;
 
+import java.io.File;
 import java.net.URI;
 import java.util.Objects;
 import java.util.function.Function;
@@ -21,6 +22,11 @@ public class UriTexture extends TextureData {
 		return imageUri;
 	}
 
+	@Override
+	public long getFileLastModified() {
+		return "file".equals(imageUri.getScheme()) ? new File(imageUri).lastModified() : 0;
+	}
+
 	@Override
 	public String toString() {
 		return imageUri.toString();
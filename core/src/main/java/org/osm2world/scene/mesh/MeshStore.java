@@ -1,5 +1,6 @@
 package org.osm2world.scene.mesh;
 
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Arrays.stream;
 import static java.util.Collections.emptyList;
@@ -9,7 +10,10 @@ import static org.osm2world.math.algorithms.GeometryUtil.isRightOf;
 import static org.osm2world.scene.color.Color.WHITE;
 import static org.osm2world.scene.mesh.Geometry.combine;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
@@ -17,10 +21,12 @@ import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.osm2world.conversion.ConversionLog;
 import org.osm2world.map_data.data.MapRelationElement;
 import org.osm2world.math.VectorXYZ;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.algorithms.GeometryUtil;
+import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
 import org.osm2world.math.shapes.LineSegmentXZ;
 import org.osm2world.math.shapes.SimpleClosedShapeXZ;
 import org.osm2world.math.shapes.TriangleXYZ;
@@ -28,7 +34,9 @@ import org.osm2world.math.shapes.TriangleXZ;
 import org.osm2world.scene.color.Color;
 import org.osm2world.scene.color.LColor;
 import org.osm2world.scene.material.*;
+import org.osm2world.scene.model.ModelInstance;
 import org.osm2world.util.FaultTolerantIterationUtil;
+import org.osm2world.util.ParallelIterationUtil;
 import org.osm2world.world.data.WorldObject;
 
 import com.google.common.base.Objects;
@@ -43,6 +51,28 @@ public class MeshStore {
 	@FunctionalInterface
 	public static interface MeshProcessingStep extends Function<MeshStore, MeshStore> {}
 
+	/**
+	 * a {@link MeshProcessingStep} which processes each mesh independently of all other meshes.
+	 * Consecutive steps of this type are applied together in a single pass over the meshes
+	 * by {@link MeshStore#process(List, Executor)}, and the meshes can be processed in parallel.
+	 */
+	@FunctionalInterface
+	public static interface PerMeshProcessingStep extends MeshProcessingStep {
+
+		/** processes a single mesh and returns the resulting meshes (which can be none, one or several) */
+		List<MeshWithMetadata> applyToMesh(MeshWithMetadata mesh);
+
+		@Override
+		default MeshStore apply(MeshStore meshStore) {
+			List<MeshWithMetadata> result = new ArrayList<>();
+			for (MeshWithMetadata mesh : meshStore.meshesWithMetadata()) {
+				result.addAll(applyToMesh(mesh));
+			}
+			return new MeshStore(result);
+		}
+
+	}
+
 	public record MeshMetadata(
 			@Nullable MapRelationElement mapElement,
 			@Nullable Class<? extends WorldObject> modelClass) {
@@ -79,6 +109,18 @@ public class MeshStore {
 
 	}
 
+	/**
+	 * a {@link ModelInstance} which has been kept intact instead of being converted to meshes.
+	 * This allows outputs to share the model's geometry between instances.
+	 */
+	public record ModelInstanceWithMetadata(@Nonnull ModelInstance modelInstance, @Nonnull MeshMetadata metadata) {
+
+		public ModelInstanceWithMetadata {
+			if (modelInstance == null || metadata == null) throw new NullPointerException();
+		}
+
+	}
+
 	private final List<MeshWithMetadata> meshes = new ArrayList<>();
 
 	public MeshStore() {}
@@ -113,15 +155,112 @@ public class MeshStore {
 	}
 
 	public MeshStore process(List<MeshProcessingStep> processingSteps) {
+		return process(processingSteps, null);
+	}
+
+	/**
+	 * applies a sequence of processing steps to the meshes.
+	 * Consecutive {@link PerMeshProcessingStep}s are fused into a single pass over the meshes,
+	 * which is distributed across threads if an executor is provided.
+	 * Other steps (such as merging meshes or building texture atlases) need to see all meshes at once
+	 * and are applied on the calling thread after all previous steps have finished.
+	 *
+	 * The time spent on each step is added to the {@link ConversionLog}'s times of the calling thread.
+	 * For steps running in parallel, this is the sum of the time spent on all threads.
+	 * The times only become part of a conversion's log files if the output is written during the conversion.
+	 *
+	 * @param executor  executor for processing meshes in parallel, can be null
+	 */
+	public MeshStore process(List<MeshProcessingStep> processingSteps, @Nullable Executor executor) {
+
 		MeshStore result = this;
-		for (MeshProcessingStep processingStep : processingSteps) {
-			result = processingStep.apply(result);
+
+		int i = 0;
+
+		while (i < processingSteps.size()) {
+
+			if (processingSteps.get(i) instanceof PerMeshProcessingStep) {
+
+				List<PerMeshProcessingStep> fusedSteps = new ArrayList<>();
+				while (i < processingSteps.size() && processingSteps.get(i) instanceof PerMeshProcessingStep step) {
+					fusedSteps.add(step);
+					i++;
+				}
+
+				result = applyPerMeshSteps(result, fusedSteps, executor);
+
+			} else {
+
+				MeshProcessingStep step = processingSteps.get(i++);
+
+				long startTime = System.nanoTime();
+				result = step.apply(result);
+				logStepTime(step, System.nanoTime() - startTime);
+
+			}
+
 		}
+
 		return result;
+
+	}
+
+	private static MeshStore applyPerMeshSteps(MeshStore meshStore, List<PerMeshProcessingStep> steps,
+			@Nullable Executor executor) {
+
+		List<MeshWithMetadata> meshes = meshStore.meshesWithMetadata();
+
+		@SuppressWarnings("unchecked")
+		List<MeshWithMetadata>[] results = new List[meshes.size()];
+		AtomicLongArray nanosPerStep = new AtomicLongArray(steps.size());
+
+		ParallelIterationUtil.forEach(IntStream.range(0, meshes.size()).boxed().toList(), executor, 8, index -> {
+
+			List<MeshWithMetadata> currentMeshes = List.of(meshes.get(index));
+
+			for (int s = 0; s < steps.size() && !currentMeshes.isEmpty(); s++) {
+
+				long startTime = System.nanoTime();
+
+				if (currentMeshes.size() == 1) {
+					currentMeshes = steps.get(s).applyToMesh(currentMeshes.get(0));
+				} else {
+					List<MeshWithMetadata> newMeshes = new ArrayList<>();
+					for (MeshWithMetadata mesh : currentMeshes) {
+						newMeshes.addAll(steps.get(s).applyToMesh(mesh));
+					}
+					currentMeshes = newMeshes;
+				}
+
+				nanosPerStep.addAndGet(s, System.nanoTime() - startTime);
+
+			}
+
+			results[index] = currentMeshes;
+
+		});
+
+		for (int s = 0; s < steps.size(); s++) {
+			logStepTime(steps.get(s), nanosPerStep.get(s));
+		}
+
+		List<MeshWithMetadata> result = new ArrayList<>();
+		for (List<MeshWithMetadata> meshesForIndex : results) {
+			result.addAll(meshesForIndex);
+		}
+		return new MeshStore(result);
+
+	}
+
+	private static void logStepTime(MeshProcessingStep step, long nanos) {
+		String stepName = step.getClass().isAnonymousClass() || step.getClass().isSynthetic()
+				? "MeshProcessingStep"
+				: step.getClass().getSimpleName();
+		ConversionLog.logTime("MeshStore." + stepName, Duration.ofNanos(nanos));
 	}
 
 
-	public static class FilterLod implements MeshProcessingStep {
+	public static class FilterLod implements PerMeshProcessingStep {
 
 		private final LevelOfDetail targetLod;
 
@@ -130,16 +269,14 @@ public class MeshStore {
 		}
 
 		@Override
-		public MeshStore apply(MeshStore meshStore) {
-			return new MeshStore(meshStore.meshesWithMetadata().stream()
-					.filter(m -> m.mesh().lodRange.contains(targetLod))
-					.toList());
+		public List<MeshWithMetadata> applyToMesh(MeshWithMetadata mesh) {
+			return mesh.mesh().lodRange.contains(targetLod) ? List.of(mesh) : List.of();
 		}
 
 	}
 
 	/** converts all geometry to {@link TriangleGeometry} */
-	public record ConvertToTriangles(double desiredMaxError) implements MeshProcessingStep {
+	public record ConvertToTriangles(double desiredMaxError) implements PerMeshProcessingStep {
 
 		public ConvertToTriangles {
 			if (!Double.isFinite(desiredMaxError)) {
@@ -158,11 +295,9 @@ public class MeshStore {
 		}
 
 		@Override
-		public MeshStore apply(MeshStore meshStore) {
-			return new MeshStore(meshStore.meshesWithMetadata().stream()
-					.map(m -> new MeshWithMetadata(new Mesh(applyToGeometry(m.mesh().geometry),
-							m.mesh().material, m.mesh().lodRange), m.metadata()))
-					.toList());
+		public List<MeshWithMetadata> applyToMesh(MeshWithMetadata m) {
+			return List.of(new MeshWithMetadata(new Mesh(applyToGeometry(m.mesh().geometry),
+					m.mesh().material, m.mesh().lodRange), m.metadata()));
 		}
 
 		public TriangleGeometry applyToGeometry(Geometry g) {
@@ -275,7 +410,7 @@ public class MeshStore {
 	}
 
 	/** replaces meshes that have multiple layers of textures with multiple meshes, each of which have only one layer */
-	public static class EmulateTextureLayers implements MeshProcessingStep {
+	public static class EmulateTextureLayers implements PerMeshProcessingStep {
 
 		private static final double OFFSET_PER_LAYER = 5e-2;
 
@@ -291,107 +426,95 @@ public class MeshStore {
 		}
 
 		@Override
-		public MeshStore apply(MeshStore meshStore) {
+		public List<MeshWithMetadata> applyToMesh(MeshWithMetadata meshWithMetadata) {
 
 			/* replace any multi-layer meshes with multiple meshes */
 
-			List<MeshWithMetadata> result = new ArrayList<>();
+			Mesh mesh = meshWithMetadata.mesh();
 
-			for (MeshWithMetadata meshWithMetadata : meshStore.meshesWithMetadata()) {
+			if (mesh.material.textureLayers().size() <= 1) {
+				return List.of(meshWithMetadata);
+			} else {
 
-				Mesh mesh = meshWithMetadata.mesh();
+				List<MeshWithMetadata> result = new ArrayList<>();
 
-				if (mesh.material.textureLayers().size() <= 1) {
-					result.add(meshWithMetadata);
-				} else {
+				TriangleGeometry tg = mesh.geometry.asTriangles();
 
-					TriangleGeometry tg = mesh.geometry.asTriangles();
+				for (int layer = 0; layer < min(maxLayers, mesh.material.textureLayers().size()); layer++) {
 
-					for (int layer = 0; layer < min(maxLayers, mesh.material.textureLayers().size()); layer++) {
+					double offset = layer * OFFSET_PER_LAYER;
 
-						double offset = layer * OFFSET_PER_LAYER;
+					TriangleGeometry.Builder builder = new TriangleGeometry.Builder(1, null, null);
+					List<TriangleXYZ> offsetTriangles = tg.triangles.stream()
+							.map(t -> t.shift(t.getNormal().mult(offset)))
+							.collect(toList());
+					List<List<VectorXZ>> texCoords = List.of(tg.texCoords.get(layer));
+					builder.addTriangles(offsetTriangles, texCoords, tg.colors, tg.normalData.normals());
+					TriangleGeometry newGeometry = builder.build();
 
-						TriangleGeometry.Builder builder = new TriangleGeometry.Builder(1, null, null);
-						List<TriangleXYZ> offsetTriangles = tg.triangles.stream()
-								.map(t -> t.shift(t.getNormal().mult(offset)))
-								.collect(toList());
-						List<List<VectorXZ>> texCoords = List.of(tg.texCoords.get(layer));
-						builder.addTriangles(offsetTriangles, texCoords, tg.colors, tg.normalData.normals());
-						TriangleGeometry newGeometry = builder.build();
+					Material singleLayerMaterial = mesh.material
+							.withTransparency(layer > 0 ? Material.Transparency.BINARY : null)
+							.withLayers(List.of(mesh.material.textureLayers().get(layer)));
 
-						Material singleLayerMaterial = mesh.material
-								.withTransparency(layer > 0 ? Material.Transparency.BINARY : null)
-								.withLayers(List.of(mesh.material.textureLayers().get(layer)));
+					Mesh newMesh = new Mesh(newGeometry, singleLayerMaterial, mesh.lodRange);
 
-						Mesh newMesh = new Mesh(newGeometry, singleLayerMaterial, mesh.lodRange);
+					result.add(new MeshWithMetadata(newMesh, meshWithMetadata.metadata()));
 
-						result.add(new MeshWithMetadata(newMesh, meshWithMetadata.metadata()));
+				}
 
-					}
+				return result;
 
-				}
 			}
 
-			return new MeshStore(result);
-
 		}
 
 	}
 
 	/** adds the {@link Material}'s colors directly to the {@link Mesh} as vertex colors */
-	public static class MoveColorsToVertices implements MeshProcessingStep {
+	public static class MoveColorsToVertices implements PerMeshProcessingStep {
 
 		@Override
-		public MeshStore apply(MeshStore meshStore) {
-
-			List<MeshWithMetadata> result = new ArrayList<>();
-
-			for (MeshWithMetadata meshWithMetadata : meshStore.meshesWithMetadata()) {
+		public List<MeshWithMetadata> applyToMesh(MeshWithMetadata meshWithMetadata) {
 
-				if (!meshWithMetadata.mesh().material.textureLayers().isEmpty()
-						&& meshWithMetadata.mesh().material.textureLayers().stream().noneMatch(it -> it.colorable)) {
-					result.add(meshWithMetadata);
-					continue;
-				}
-
-				Mesh mesh = meshWithMetadata.mesh();
-				Material newMaterial = mesh.material.withColor(WHITE);
-				Geometry newGeometry;
+			if (!meshWithMetadata.mesh().material.textureLayers().isEmpty()
+					&& meshWithMetadata.mesh().material.textureLayers().stream().noneMatch(it -> it.colorable)) {
+				return List.of(meshWithMetadata);
+			}
 
-				if (mesh.geometry instanceof TriangleGeometry tg) {
+			Mesh mesh = meshWithMetadata.mesh();
+			Material newMaterial = mesh.material.withColor(WHITE);
+			Geometry newGeometry;
 
-					List<Color> colors = (tg.colors != null) ? tg.colors
-							: nCopies(tg.vertices().size(), mesh.material.color());
+			if (mesh.geometry instanceof TriangleGeometry tg) {
 
-					TriangleGeometry.Builder builder = new TriangleGeometry.Builder(tg.texCoords.size(), null, null);
-					builder.addTriangles(tg.triangles, tg.texCoords, colors, tg.normalData.normals());
-					newGeometry = builder.build();
+				List<Color> colors = (tg.colors != null) ? tg.colors
+						: nCopies(tg.vertices().size(), mesh.material.color());
 
-				} else if (mesh.geometry instanceof ShapeGeometry sg) {
+				TriangleGeometry.Builder builder = new TriangleGeometry.Builder(tg.texCoords.size(), null, null);
+				builder.addTriangles(tg.triangles, tg.texCoords, colors, tg.normalData.normals());
+				newGeometry = builder.build();
 
-					LColor existingColor = sg.color == null ? LColor.WHITE : LColor.fromRGB(sg.color);
-					LColor newColor = existingColor.multiply(LColor.fromRGB(mesh.material.color()));
+			} else if (mesh.geometry instanceof ShapeGeometry sg) {
 
-					newGeometry = new ShapeGeometry(sg.shape, sg.point, sg.frontVector, sg.upVector, sg.scaleFactor,
-							newColor.toRGB(), sg.normalMode, sg.textureDimensions);
+				LColor existingColor = sg.color == null ? LColor.WHITE : LColor.fromRGB(sg.color);
+				LColor newColor = existingColor.multiply(LColor.fromRGB(mesh.material.color()));
 
-				} else if (mesh.geometry instanceof ExtrusionGeometry eg) {
+				newGeometry = new ShapeGeometry(sg.shape, sg.point, sg.frontVector, sg.upVector, sg.scaleFactor,
+						newColor.toRGB(), sg.normalMode, sg.textureDimensions);
 
-					LColor existingColor = eg.color == null ? LColor.WHITE : LColor.fromRGB(eg.color);
-					LColor newColor = existingColor.multiply(LColor.fromRGB(mesh.material.color()));
+			} else if (mesh.geometry instanceof ExtrusionGeometry eg) {
 
-					newGeometry = new ExtrusionGeometry(eg.shape, eg.path, eg.upVectors, eg.scaleFactors,
-							newColor.toRGB(), eg.options, eg.textureDimensions);
+				LColor existingColor = eg.color == null ? LColor.WHITE : LColor.fromRGB(eg.color);
+				LColor newColor = existingColor.multiply(LColor.fromRGB(mesh.material.color()));
 
-				} else {
-					throw new Error("unsupported geometry type: " + mesh.geometry.getClass());
-				}
-
-				result.add(new MeshWithMetadata(new Mesh(newGeometry, newMaterial), meshWithMetadata.metadata()));
+				newGeometry = new ExtrusionGeometry(eg.shape, eg.path, eg.upVectors, eg.scaleFactors,
+						newColor.toRGB(), eg.options, eg.textureDimensions);
 
+			} else {
+				throw new Error("unsupported geometry type: " + mesh.geometry.getClass());
 			}
 
-			return new MeshStore(result);
+			return List.of(new MeshWithMetadata(new Mesh(newGeometry, newMaterial), meshWithMetadata.metadata()));
 
 		}
 
@@ -404,12 +527,20 @@ public class MeshStore {
 
 			public final TextureAtlas baseColorAtlas, normalAtlas, ormAtlas, displacementAtlas;
 
-			private TextureAtlasGroup(Set<TextureLayer> textureLayers) {
+			/**
+			 * the order of the layers in the atlas only depends on the set of layers,
+			 * so equal sets of layers result in equal atlases, including in different runs
+			 */
+			private static final Comparator<TextureLayer> LAYER_ORDER = Comparator.comparing(TextureAtlasGroup::layerName);
+
+			TextureAtlasGroup(Set<TextureLayer> textureLayers) {
+
+				List<TextureLayer> orderedLayers = textureLayers.stream().sorted(LAYER_ORDER).collect(toList());
 
 				Map<TextureLayer.TextureType, List<TextureData>> map = new HashMap<>();
 
 				for (TextureLayer.TextureType type : TextureLayer.TextureType.values()) {
-					map.put(type, textureLayers.stream()
+					map.put(type, orderedLayers.stream()
 							.map(l -> l.getTexture(type))
 							.map(t -> t != null ? t : BlankTexture.INSTANCE)
 							.collect(toList()));
@@ -432,6 +563,31 @@ public class MeshStore {
 				}
 			}
 
+			/** returns true if this group can replace each of the layers */
+			public boolean canReplaceLayers(Collection<TextureLayer> layers) {
+				return layers.stream().allMatch(this::canReplaceLayer);
+			}
+
+			/**
+			 * returns a name for a texture layer which does not depend on hash codes or object identities.
+			 * Textures are identified by their file or URI if they have one.
+			 */
+			static String layerName(TextureLayer layer) {
+				StringBuilder name = new StringBuilder();
+				for (TextureLayer.TextureType type : TextureLayer.TextureType.values()) {
+					TextureData texture = layer.getTexture(type);
+					if (texture instanceof ImageFileTexture t) {
+						name.append(t.getFile().getPath());
+					} else if (texture instanceof UriTexture t) {
+						name.append(t.getUri());
+					} else if (texture != null) {
+						name.append(texture.getClass().getSimpleName()).append(':').append(texture);
+					}
+					name.append('|');
+				}
+				return name.append(layer.colorable).toString();
+			}
+
 			public boolean canReplaceLayer(TextureLayer layer) {
 
 				int index = baseColorAtlas.textures.indexOf(layer.baseColorTexture);
@@ -445,6 +601,7 @@ public class MeshStore {
 
 		public final @Nullable TextureAtlasGroup textureAtlasGroup;
 		public final Predicate<TextureData> excludeFromAtlas;
+		public final @Nullable TextureAtlasRegistry registry;
 
 		/**
 		 * @param textureAtlasGroup  a pre-existing group of texture atlases that will be used.
@@ -453,14 +610,25 @@ public class MeshStore {
 		public ReplaceTexturesWithAtlas(@Nullable TextureAtlasGroup textureAtlasGroup) {
 			this.textureAtlasGroup = textureAtlasGroup;
 			this.excludeFromAtlas = x -> false;
+			this.registry = null;
 		}
 
 		/**
 		 * @param excludeFromAtlas  identifies texture layers which should never be included in a texture atlas
+		 * @param registry  registry for reusing atlases built for the same textures, can be null
 		 */
-		public ReplaceTexturesWithAtlas(Predicate<TextureData> excludeFromAtlas) {
+		public ReplaceTexturesWithAtlas(Predicate<TextureData> excludeFromAtlas,
+				@Nullable TextureAtlasRegistry registry) {
 			this.textureAtlasGroup = null;
 			this.excludeFromAtlas = excludeFromAtlas;
+			this.registry = registry;
+		}
+
+		/**
+		 * @param excludeFromAtlas  identifies texture layers which should never be included in a texture atlas
+		 */
+		public ReplaceTexturesWithAtlas(Predicate<TextureData> excludeFromAtlas) {
+			this(excludeFromAtlas, null);
 		}
 
 		public ReplaceTexturesWithAtlas() {
@@ -472,7 +640,7 @@ public class MeshStore {
 
 			TextureAtlasGroup atlasGroup = textureAtlasGroup != null
 					? textureAtlasGroup
-					: generateTextureAtlasGroup(List.of(meshStore), excludeFromAtlas);
+					: generateTextureAtlasGroup(List.of(meshStore), excludeFromAtlas, registry);
 
 			if (atlasGroup == null) {
 				return meshStore;
@@ -485,10 +653,11 @@ public class MeshStore {
 		/**
 		 * finds suitable textures in one or more {@link MeshStore}s and creates a {@link TextureAtlasGroup} for them.
 		 * @param excludeFromAtlas  identifies texture layers which should never be included in a texture atlas
+		 * @param registry  if not null, an existing group for the same textures will be reused from this registry
 		 * @return  the {@link TextureAtlasGroup} with all suitable textures, or null if no suitable textures exist
 		 */
-		public static @Nullable TextureAtlasGroup generateTextureAtlasGroup(
-				Iterable<MeshStore> meshStores, Predicate<TextureData> excludeFromAtlas) {
+		public static @Nullable TextureAtlasGroup generateTextureAtlasGroup(Iterable<MeshStore> meshStores,
+				Predicate<TextureData> excludeFromAtlas, @Nullable TextureAtlasRegistry registry) {
 
 			Set<TextureLayer> textureLayersForAtlas = new HashSet<>();
 			for (MeshStore meshStore : meshStores) {
@@ -515,12 +684,20 @@ public class MeshStore {
 
 			if (textureLayersForAtlas.isEmpty()) {
 				return null;
+			} else if (registry != null) {
+				return registry.getAtlasGroup(textureLayersForAtlas);
 			} else {
 				return new TextureAtlasGroup(textureLayersForAtlas);
 			}
 
 		}
 
+		/** variant of {@link #generateTextureAtlasGroup(Iterable, Predicate, TextureAtlasRegistry)} without registry */
+		public static @Nullable TextureAtlasGroup generateTextureAtlasGroup(
+				Iterable<MeshStore> meshStores, Predicate<TextureData> excludeFromAtlas) {
+			return generateTextureAtlasGroup(meshStores, excludeFromAtlas, null);
+		}
+
 		/** replaces textures with the atlas texture and translate texture coordinates */
 		private static MeshStore replaceTexturesWithAtlas(MeshStore meshStore, TextureAtlasGroup atlasGroup) {
 
@@ -573,146 +750,228 @@ public class MeshStore {
 
 	}
 
-	/** removes all geometry outside a bounding shape */
-	public record ClipToBounds(SimpleClosedShapeXZ bounds, boolean splitTriangles) implements MeshProcessingStep {
+	/**
+	 * removes all geometry outside a bounding shape.
+	 * If triangles are split, the bounds need to be convex.
+	 *
+	 * Meshes and triangles are first compared with the bounds using their bounding boxes or vertices.
+	 * Only triangles crossing the boundary need to be clipped.
+	 */
+	public static class ClipToBounds implements PerMeshProcessingStep {
+
+		/** location of a triangle or other geometry relative to the bounds */
+		private enum Location { INSIDE, OUTSIDE, BOUNDARY }
+
+		private final SimpleClosedShapeXZ bounds;
+		private final boolean splitTriangles;
+
+		/** the bounds' segments in counterclockwise order, empty if triangles aren't split */
+		private final List<LineSegmentXZ> boundingSegments;
+		private final AxisAlignedRectangleXZ boundsBbox;
+
+		public ClipToBounds(SimpleClosedShapeXZ bounds, boolean splitTriangles) {
+			this.bounds = bounds;
+			this.splitTriangles = splitTriangles;
+			this.boundingSegments = splitTriangles ? getSegmentsCCW(bounds) : List.of();
+			this.boundsBbox = bounds.boundingBox();
+		}
+
+		public SimpleClosedShapeXZ bounds() {
+			return bounds;
+		}
+
+		public boolean splitTriangles() {
+			return splitTriangles;
+		}
 
 		@Override
-		public MeshStore apply(MeshStore meshStore) {
+		public boolean equals(Object obj) {
+			return obj instanceof ClipToBounds other
+					&& bounds.equals(other.bounds) && splitTriangles == other.splitTriangles;
+		}
 
-			List<MeshWithMetadata> result = new ArrayList<>();
+		@Override
+		public int hashCode() {
+			return java.util.Objects.hash(bounds, splitTriangles);
+		}
 
-			for (MeshWithMetadata meshWithMetadata : meshStore.meshesWithMetadata()) {
+		@Override
+		public List<MeshWithMetadata> applyToMesh(MeshWithMetadata mesh) {
+			MeshWithMetadata result = clipMesh(mesh);
+			return result == null ? List.of() : List.of(result);
+		}
 
-				Mesh mesh = meshWithMetadata.mesh();
-				TriangleGeometry tg = mesh.geometry.asTriangles();
+		/**
+		 * clips a single mesh
+		 *
+		 * @return  the clipped mesh, the original mesh if it is entirely inside the bounds,
+		 *          or null if nothing remains
+		 */
+		private @Nullable MeshWithMetadata clipMesh(MeshWithMetadata meshWithMetadata) {
 
-				Map<TriangleXYZ, Collection<TriangleXYZ>> trianglesToReplace = new HashMap<>();
+			Mesh mesh = meshWithMetadata.mesh();
+			TriangleGeometry tg = mesh.geometry.asTriangles();
 
-				if (!splitTriangles) {
+			if (tg.triangles.isEmpty()) return meshWithMetadata;
 
-					/* mark triangles outside the bounds for removal */
+			/* check the entire mesh first */
 
-					for (TriangleXYZ t : tg.triangles) {
-						if (!bounds.contains(t.getCenter().xz())) {
-							trianglesToReplace.put(t, emptyList());
-						}
-					}
+			double minX = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
 
-				} else {
+			for (TriangleXYZ t : tg.triangles) {
+				minX = min(minX, min(t.v1.x, min(t.v2.x, t.v3.x)));
+				minZ = min(minZ, min(t.v1.z, min(t.v2.z, t.v3.z)));
+				maxX = max(maxX, max(t.v1.x, max(t.v2.x, t.v3.x)));
+				maxZ = max(maxZ, max(t.v1.z, max(t.v2.z, t.v3.z)));
+			}
 
-					List<LineSegmentXZ> boundingSegments = getSegmentsCCW(bounds);
+			if (maxX < boundsBbox.minX || minX > boundsBbox.maxX
+					|| maxZ < boundsBbox.minZ || minZ > boundsBbox.maxZ) {
+				return null;
+			}
 
-					// TODO: speed up by calculating an inner box for bounds
-					// -> if it contains tBbox, the triangle is safely inside the bounds
-					// var tBbox = AxisAlignedRectangleXZ.bbox(t.vertices());
+			if (splitTriangles) {
+				Location meshLocation = locate(boundingSegments,
+						new double[] {minX, maxX, maxX, minX},
+						new double[] {minZ, minZ, maxZ, maxZ});
+				if (meshLocation == Location.INSIDE) {
+					return meshWithMetadata;
+				} else if (meshLocation == Location.OUTSIDE) {
+					return null;
+				}
+			}
 
-					for (TriangleXYZ originalTriangle : tg.triangles) {
-						Collection<TriangleXYZ> splitTriangles = clipToBounds(originalTriangle, boundingSegments);
-						if (splitTriangles.size() != 1 || !splitTriangles.contains(originalTriangle)) {
-							trianglesToReplace.put(originalTriangle, splitTriangles);
-						}
+			/* check the individual triangles */
+
+			Map<TriangleXYZ, Collection<TriangleXYZ>> trianglesToReplace = new HashMap<>();
+
+			if (!splitTriangles) {
+
+				/* mark triangles outside the bounds for removal */
+
+				for (TriangleXYZ t : tg.triangles) {
+					VectorXZ center = t.getCenter().xz();
+					if (!boundsBbox.contains(center) || !bounds.contains(center)) {
+						trianglesToReplace.put(t, emptyList());
 					}
+				}
+
+			} else {
 
+				for (TriangleXYZ originalTriangle : tg.triangles) {
+					switch (locate(boundingSegments,
+							new double[] {originalTriangle.v1.x, originalTriangle.v2.x, originalTriangle.v3.x},
+							new double[] {originalTriangle.v1.z, originalTriangle.v2.z, originalTriangle.v3.z})) {
+						case INSIDE -> { /* keep the triangle */ }
+						case OUTSIDE -> trianglesToReplace.put(originalTriangle, emptyList());
+						case BOUNDARY -> {
+							Collection<TriangleXYZ> splitTriangles = clipToBounds(originalTriangle, boundingSegments);
+							if (splitTriangles.size() != 1 || !splitTriangles.contains(originalTriangle)) {
+								trianglesToReplace.put(originalTriangle, splitTriangles);
+							}
+						}
+					}
 				}
 
-				/* build a new mesh without the triangles outside the bounds */
+			}
 
-				if (trianglesToReplace.isEmpty()) {
-					result.add(meshWithMetadata);
-				} else {
+			/* build a new mesh without the triangles outside the bounds */
 
-					List<VectorXYZ> normals = tg.normalData.normals();
+			if (trianglesToReplace.isEmpty()) {
+				return meshWithMetadata;
+			} else {
 
-					List<TriangleXYZ> newTriangles = new ArrayList<>();
-					List<Color> newColors = tg.colors == null ? null : new ArrayList<>();
-					List<VectorXYZ> newNormals = new ArrayList<>();
-					List<List<VectorXZ>> newTexCoords = new ArrayList<>(tg.texCoords.size());
+				List<VectorXYZ> normals = tg.normalData.normals();
 
-					for (int layer = 0; layer < tg.texCoords.size(); layer++) {
-						newTexCoords.add(new ArrayList<>());
-					}
+				List<TriangleXYZ> newTriangles = new ArrayList<>();
+				List<Color> newColors = tg.colors == null ? null : new ArrayList<>();
+				List<VectorXYZ> newNormals = new ArrayList<>();
+				List<List<VectorXZ>> newTexCoords = new ArrayList<>(tg.texCoords.size());
 
-					for (int i = 0; i < tg.triangles.size(); i++) {
+				for (int layer = 0; layer < tg.texCoords.size(); layer++) {
+					newTexCoords.add(new ArrayList<>());
+				}
 
-						TriangleXYZ triangle = tg.triangles.get(i);
+				for (int i = 0; i < tg.triangles.size(); i++) {
 
-						if (!trianglesToReplace.containsKey(triangle)) {
+					TriangleXYZ triangle = tg.triangles.get(i);
 
-							newTriangles.add(triangle);
+					if (!trianglesToReplace.containsKey(triangle)) {
 
-							for (int j = 0; j <= 2; j++) {
+						newTriangles.add(triangle);
 
-								if (newColors != null) {
-									newColors.add(tg.colors.get(3 * i + j));
-								}
+						for (int j = 0; j <= 2; j++) {
 
-								newNormals.add(normals.get(3 * i + j));
+							if (newColors != null) {
+								newColors.add(tg.colors.get(3 * i + j));
+							}
 
-								for (int layer = 0; layer < tg.texCoords.size(); layer ++) {
-									newTexCoords.get(layer).add(tg.texCoords.get(layer).get(3 * i + j));
-								}
+							newNormals.add(normals.get(3 * i + j));
 
+							for (int layer = 0; layer < tg.texCoords.size(); layer ++) {
+								newTexCoords.get(layer).add(tg.texCoords.get(layer).get(3 * i + j));
 							}
 
-						} else if (!trianglesToReplace.get(triangle).isEmpty()) {
+						}
 
-							/* get the triangle's original vertex attributes */
+					} else if (!trianglesToReplace.get(triangle).isEmpty()) {
 
-							LColor[] origColors = newColors == null ? null : new LColor[3];
-							VectorXYZ[] origNormals = new VectorXYZ[3];
-							List<VectorXZ[]> origTexCoords = new ArrayList<>(tg.texCoords.size());
+						/* get the triangle's original vertex attributes */
 
-							for (int layer = 0; layer < tg.texCoords.size(); layer++) {
-								origTexCoords.add(new VectorXZ[3]);
-							}
+						LColor[] origColors = newColors == null ? null : new LColor[3];
+						VectorXYZ[] origNormals = new VectorXYZ[3];
+						List<VectorXZ[]> origTexCoords = new ArrayList<>(tg.texCoords.size());
 
-							for (int j = 0; j <= 2; j++) {
+						for (int layer = 0; layer < tg.texCoords.size(); layer++) {
+							origTexCoords.add(new VectorXZ[3]);
+						}
 
-								if (origColors != null) {
-									origColors[j] = LColor.fromRGB(tg.colors.get(3 * i + j));
-								}
+						for (int j = 0; j <= 2; j++) {
 
-								origNormals[j] = normals.get(3 * i + j);
+							if (origColors != null) {
+								origColors[j] = LColor.fromRGB(tg.colors.get(3 * i + j));
+							}
 
-								for (int layer = 0; layer < tg.texCoords.size(); layer ++) {
-									origTexCoords.get(layer)[j] = tg.texCoords.get(layer).get(3 * i + j);
-								}
+							origNormals[j] = normals.get(3 * i + j);
 
+							for (int layer = 0; layer < tg.texCoords.size(); layer ++) {
+								origTexCoords.get(layer)[j] = tg.texCoords.get(layer).get(3 * i + j);
 							}
 
-							/* determine the new triangles' vertex attributes by interpolating on the original triangle */
+						}
 
-							TriangleXZ projectedTriangle = new TriangleXZ(
-									triangle.toFacePlane(triangle.v1),
-									triangle.toFacePlane(triangle.v2),
-									triangle.toFacePlane(triangle.v3)
-							);
+						/* determine the new triangles' vertex attributes by interpolating on the original triangle */
 
-							for (TriangleXYZ newTriangle : trianglesToReplace.get(triangle)) {
+						TriangleXZ projectedTriangle = new TriangleXZ(
+								triangle.toFacePlane(triangle.v1),
+								triangle.toFacePlane(triangle.v2),
+								triangle.toFacePlane(triangle.v3)
+						);
 
-								newTriangles.add(newTriangle);
+						for (TriangleXYZ newTriangle : trianglesToReplace.get(triangle)) {
 
-								for (int j = 0; j <= 2; j++) {
+							newTriangles.add(newTriangle);
 
-									VectorXZ projectedV = triangle.toFacePlane(newTriangle.vertices().get(j));
+							for (int j = 0; j <= 2; j++) {
 
-									if (origColors != null) {
-										newColors.add(GeometryUtil.interpolateOnTriangle(projectedV, projectedTriangle,
-												origColors[0], origColors[1], origColors[2]).toRGB());
-									}
+								VectorXZ projectedV = triangle.toFacePlane(newTriangle.vertices().get(j));
 
-									newNormals.add(GeometryUtil.interpolateOnTriangle(projectedV, projectedTriangle,
-											origNormals[0], origNormals[1], origNormals[2]));
+								if (origColors != null) {
+									newColors.add(GeometryUtil.interpolateOnTriangle(projectedV, projectedTriangle,
+											origColors[0], origColors[1], origColors[2]).toRGB());
+								}
 
-									for (int layer = 0; layer < tg.texCoords.size(); layer ++) {
-										newTexCoords.get(layer).add(
-												GeometryUtil.interpolateOnTriangle(projectedV, projectedTriangle,
-														origTexCoords.get(layer)[0],
-														origTexCoords.get(layer)[1],
-														origTexCoords.get(layer)[2])
-										);
-									}
+								newNormals.add(GeometryUtil.interpolateOnTriangle(projectedV, projectedTriangle,
+										origNormals[0], origNormals[1], origNormals[2]));
 
+								for (int layer = 0; layer < tg.texCoords.size(); layer ++) {
+									newTexCoords.get(layer).add(
+											GeometryUtil.interpolateOnTriangle(projectedV, projectedTriangle,
+													origTexCoords.get(layer)[0],
+													origTexCoords.get(layer)[1],
+													origTexCoords.get(layer)[2])
+									);
 								}
 
 							}
@@ -721,17 +980,52 @@ public class MeshStore {
 
 					}
 
-					if (!newTriangles.isEmpty()) {
-						TriangleGeometry.Builder builder = new TriangleGeometry.Builder(newTexCoords.size(), null, null);
-						builder.addTriangles(newTriangles, newTexCoords, newColors, newNormals);
-						result.add(new MeshWithMetadata(new Mesh(builder.build(), mesh.material), meshWithMetadata.metadata()));
+				}
+
+				if (!newTriangles.isEmpty()) {
+					TriangleGeometry.Builder builder = new TriangleGeometry.Builder(newTexCoords.size(), null, null);
+					builder.addTriangles(newTriangles, newTexCoords, newColors, newNormals);
+					return new MeshWithMetadata(new Mesh(builder.build(), mesh.material), meshWithMetadata.metadata());
+				} else {
+					return null;
+				}
+
+			}
+
+		}
+
+		/**
+		 * determines the location of a set of points relative to convex bounds.
+		 * Points on the boundary count as inside.
+		 *
+		 * @param boundingSegments  the segments of the bounds, in counterclockwise order
+		 * @return  {@link Location#INSIDE} if all points are inside the bounds,
+		 *          {@link Location#OUTSIDE} if all points are on the outer side of the same bounding segment,
+		 *          {@link Location#BOUNDARY} otherwise
+		 */
+		private static Location locate(List<LineSegmentXZ> boundingSegments, double[] xs, double[] zs) {
+
+			boolean allInside = true;
+
+			for (LineSegmentXZ s : boundingSegments) {
+
+				int pointsOutside = 0;
+
+				for (int i = 0; i < xs.length; i++) {
+					if (0 > (zs[i] - s.p1.z) * (s.p2.x - s.p1.x) - (xs[i] - s.p1.x) * (s.p2.z - s.p1.z)) {
+						pointsOutside++;
 					}
+				}
 
+				if (pointsOutside == xs.length) {
+					return Location.OUTSIDE;
+				} else if (pointsOutside > 0) {
+					allInside = false;
 				}
 
 			}
 
-			return new MeshStore(result);
+			return allInside ? Location.INSIDE : Location.BOUNDARY;
 
 		}
 
@@ -768,7 +1062,8 @@ public class MeshStore {
 	}
 
 	/** replaces meshes' {@link Material}s with equivalents that omit certain texture types */
-	public record RemoveTextures(EnumSet<TextureLayer.TextureType> textureTypesToRemove) implements MeshProcessingStep {
+	public record RemoveTextures(EnumSet<TextureLayer.TextureType> textureTypesToRemove)
+			implements PerMeshProcessingStep {
 
 		public RemoveTextures {
 			if (textureTypesToRemove.contains(TextureLayer.TextureType.BASE_COLOR)) {
@@ -777,29 +1072,21 @@ public class MeshStore {
 		}
 
 		@Override
-		public MeshStore apply(MeshStore meshStore) {
+		public List<MeshWithMetadata> applyToMesh(MeshWithMetadata m) {
 
-			List<MeshWithMetadata> result = new ArrayList<>();
-
-			for (MeshWithMetadata m : meshStore.meshesWithMetadata()) {
-
-				Material oldMaterial = m.mesh().material;
-
-				Material newMaterial = oldMaterial.withLayers(oldMaterial.textureLayers().stream().map(
-						l -> new TextureLayer(
-								l.baseColorTexture,
-								textureTypesToRemove.contains(TextureLayer.TextureType.NORMAL) ? null : l.normalTexture,
-								textureTypesToRemove.contains(TextureLayer.TextureType.ORM) ? null : l.ormTexture,
-								textureTypesToRemove.contains(TextureLayer.TextureType.DISPLACEMENT) ? null : l.displacementTexture,
-								l.colorable
-						)
-				).toList());
+			Material oldMaterial = m.mesh().material;
 
-				result.add(new MeshWithMetadata(new Mesh(m.mesh().geometry, newMaterial), m.metadata()));
+			Material newMaterial = oldMaterial.withLayers(oldMaterial.textureLayers().stream().map(
+					l -> new TextureLayer(
+							l.baseColorTexture,
+							textureTypesToRemove.contains(TextureLayer.TextureType.NORMAL) ? null : l.normalTexture,
+							textureTypesToRemove.contains(TextureLayer.TextureType.ORM) ? null : l.ormTexture,
+							textureTypesToRemove.contains(TextureLayer.TextureType.DISPLACEMENT) ? null : l.displacementTexture,
+							l.colorable
+					)
+			).toList());
 
-			}
-
-			return new MeshStore(result);
+			return List.of(new MeshWithMetadata(new Mesh(m.mesh().geometry, newMaterial), m.metadata()));
 
 		}
 
@@ -810,61 +1097,54 @@ public class MeshStore {
 	 * This is achieved by duplicating the geometry and flipping the normals for back-facing triangles,
 	 * then using single-sided material on each of the two copies.
 	 */
-	public record EmulateDoubleSidedMaterials() implements MeshProcessingStep {
+	public record EmulateDoubleSidedMaterials() implements PerMeshProcessingStep {
 
 		@Override
-		public MeshStore apply(MeshStore meshStore) {
-
-			List<MeshWithMetadata> result = new ArrayList<>();
-
-			for (MeshWithMetadata m : meshStore.meshesWithMetadata()) {
+		public List<MeshWithMetadata> applyToMesh(MeshWithMetadata m) {
 
-				Material origMaterial = m.mesh().material;
-				Geometry origGeometry = m.mesh().geometry;
+			Material origMaterial = m.mesh().material;
+			Geometry origGeometry = m.mesh().geometry;
 
-				if (!origMaterial.doubleSided()) {
-					result.add(m);
-				} else {
+			if (!origMaterial.doubleSided()) {
+				return List.of(m);
+			} else {
 
-					Material newMaterial = origMaterial.withDoubleSided(false);
+				Material newMaterial = origMaterial.withDoubleSided(false);
 
-					var origTG = origGeometry.asTriangles();
+				var origTG = origGeometry.asTriangles();
 
-					int numTriangles = origTG.triangles.size();
+				int numTriangles = origTG.triangles.size();
 
-					List<TriangleXYZ> flippedTriangles = new ArrayList<>(numTriangles);
-					List<Color> flippedColors = origTG.colors == null ? null : new ArrayList<>(numTriangles * 3);
-					List<List<VectorXZ>> flippedTexCoords = IntStream.range(0, origTG.texCoords.size())
-							.mapToObj(i -> (List<VectorXZ>) new ArrayList<VectorXZ>(numTriangles * 3))
-							.toList();
+				List<TriangleXYZ> flippedTriangles = new ArrayList<>(numTriangles);
+				List<Color> flippedColors = origTG.colors == null ? null : new ArrayList<>(numTriangles * 3);
+				List<List<VectorXZ>> flippedTexCoords = IntStream.range(0, origTG.texCoords.size())
+						.mapToObj(i -> (List<VectorXZ>) new ArrayList<VectorXZ>(numTriangles * 3))
+						.toList();
 
-					for (int i = 0; i < numTriangles; i++) {
-						TriangleXYZ t = origTG.triangles.get(i);
-						flippedTriangles.add(new TriangleXYZ(t.v1, t.v3, t.v2));
-						if (origTG.colors != null) {
-							flippedColors.add(origTG.colors.get(i * 3));
-							flippedColors.add(origTG.colors.get(i * 3 + 2));
-							flippedColors.add(origTG.colors.get(i * 3 + 1));
-						}
-						for (int layer = 0; layer < origTG.texCoords.size(); layer++) {
-							flippedTexCoords.get(layer).add(origTG.texCoords.get(layer).get(i * 3));
-							flippedTexCoords.get(layer).add(origTG.texCoords.get(layer).get(i * 3 + 2));
-							flippedTexCoords.get(layer).add(origTG.texCoords.get(layer).get(i * 3 + 1));
-						}
+				for (int i = 0; i < numTriangles; i++) {
+					TriangleXYZ t = origTG.triangles.get(i);
+					flippedTriangles.add(new TriangleXYZ(t.v1, t.v3, t.v2));
+					if (origTG.colors != null) {
+						flippedColors.add(origTG.colors.get(i * 3));
+						flippedColors.add(origTG.colors.get(i * 3 + 2));
+						flippedColors.add(origTG.colors.get(i * 3 + 1));
+					}
+					for (int layer = 0; layer < origTG.texCoords.size(); layer++) {
+						flippedTexCoords.get(layer).add(origTG.texCoords.get(layer).get(i * 3));
+						flippedTexCoords.get(layer).add(origTG.texCoords.get(layer).get(i * 3 + 2));
+						flippedTexCoords.get(layer).add(origTG.texCoords.get(layer).get(i * 3 + 1));
 					}
+				}
 
-					var flippedGeometry = new TriangleGeometry(flippedTriangles,
-							newMaterial.interpolation(), flippedTexCoords, flippedColors);
+				var flippedGeometry = new TriangleGeometry(flippedTriangles,
+						newMaterial.interpolation(), flippedTexCoords, flippedColors);
 
-					result.add(new MeshWithMetadata(new Mesh(origGeometry, newMaterial), m.metadata()));
-					result.add(new MeshWithMetadata(new Mesh(flippedGeometry, newMaterial), m.metadata()));
-
-				}
+				return List.of(
+						new MeshWithMetadata(new Mesh(origGeometry, newMaterial), m.metadata()),
+						new MeshWithMetadata(new Mesh(flippedGeometry, newMaterial), m.metadata()));
 
 			}
 
-			return new MeshStore(result);
-
 		}
 
 	}
@@ -0,0 +1,92 @@
+package org.osm2world.scene.mesh;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.osm2world.scene.material.TextureAtlas;
+import org.osm2world.scene.material.TextureLayer;
+import org.osm2world.scene.mesh.MeshStore.ReplaceTexturesWithAtlas.TextureAtlasGroup;
+
+/**
+ * a registry of {@link TextureAtlasGroup}s, so that outputs which use the same set of textures
+ * (such as the tiles of a tileset) share the same atlases instead of building new ones for each output file.
+ * Because the atlases are identical, images composed or encoded for one output are then available
+ * from the image caches and the {@link org.osm2world.output.common.TextureStore} for all others.
+ * Can be shared by multiple threads.
+ *
+ * Groups are identified by the names of their layers' textures, which do not change between runs.
+ * A group is only used for exactly the set of layers it has been created for.
+ * This way, the atlases of an output do not depend on which other outputs have been written before.
+ *
+ * The number of atlas groups is limited, the least recently used groups are removed from the registry first.
+ */
+public class TextureAtlasRegistry {
+
+	/** the default maximum number of atlas groups in a registry */
+	public static final int DEFAULT_MAX_GROUPS = 64;
+
+	private static final TextureAtlasRegistry SHARED_INSTANCE = new TextureAtlasRegistry(DEFAULT_MAX_GROUPS);
+
+	private final int maxGroups;
+
+	private final Map<List<String>, TextureAtlasGroup> groups;
+
+	/**
+	 * @param maxGroups  the maximum number of atlas groups kept in the registry
+	 */
+	public TextureAtlasRegistry(int maxGroups) {
+
+		if (maxGroups < 1) throw new IllegalArgumentException("invalid registry size: " + maxGroups);
+
+		this.maxGroups = maxGroups;
+
+		this.groups = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<String>, TextureAtlasGroup> eldest) {
+				return size() > TextureAtlasRegistry.this.maxGroups;
+			}
+		};
+
+	}
+
+	/**
+	 * returns the registry which is shared by all outputs unless they are given a different registry
+	 */
+	public static TextureAtlasRegistry getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * returns the atlas group for a set of texture layers, creating it if it isn't in the registry yet.
+	 * Each layer of the set will be available in the {@link TextureAtlas}es of the group.
+	 */
+	public synchronized TextureAtlasGroup getAtlasGroup(Set<TextureLayer> textureLayers) {
+
+		List<String> key = textureLayers.stream().map(TextureAtlasGroup::layerName).sorted().toList();
+
+		TextureAtlasGroup group = groups.get(key);
+
+		if (group != null && group.canReplaceLayers(textureLayers)) {
+			return group;
+		}
+
+		group = new TextureAtlasGroup(textureLayers);
+		groups.put(key, group);
+
+		return group;
+
+	}
+
+	/** returns the number of atlas groups currently in the registry */
+	public synchronized int size() {
+		return groups.size();
+	}
+
+	/** removes all atlas groups from the registry */
+	public synchronized void clear() {
+		groups.clear();
+	}
+
+}
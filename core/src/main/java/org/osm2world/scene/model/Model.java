@@ -23,4 +23,24 @@ public interface Model {
 	 */
 	List<Mesh> buildMeshes(InstanceParameters params);
 
+	/**
+	 * whether instances of this model can share their geometry.
+	 * This is the case if the meshes of an instance are identical to the meshes built at the origin
+	 * with a direction of 0, moved according to the instance's position and – unless the model
+	 * {@link #ignoresDirection()} – rotated according to the instance's direction.
+	 * Outputs may then write the model's geometry once and reference it for each instance.
+	 */
+	default boolean supportsInstancing() {
+		return false;
+	}
+
+	/**
+	 * whether this model's meshes do not depend on {@link InstanceParameters#direction()}.
+	 * Outputs which share geometry between instances (see {@link #supportsInstancing()})
+	 * must not rotate the instances of such models.
+	 */
+	default boolean ignoresDirection() {
+		return false;
+	}
+
 }
\ No newline at end of file
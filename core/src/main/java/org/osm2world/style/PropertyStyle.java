@@ -16,7 +16,7 @@ import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 
 import org.osm2world.conversion.O2WConfig;
-import org.osm2world.output.gltf.GltfModel;
+import org.osm2world.output.gltf.GltfModelCache;
 import org.osm2world.scene.color.Color;
 import org.osm2world.scene.material.*;
 import org.osm2world.scene.model.Model;
@@ -44,6 +44,8 @@ public class PropertyStyle implements Style {
 	private static final Pattern CONF_KEY_PATTERN = Pattern.compile(
 			"material_(.+)_(interpolation|color|doubleSided|shadow|ssao|transparency|texture\\d*_.+)");
 
+	private static final Pattern MODEL_KEY_PATTERN = Pattern.compile("model_(.+)");
+
 	/**
 	 * @param config  a configuration object which provides access to the properties
 	 */
@@ -476,7 +478,7 @@ public class PropertyStyle implements Style {
 
 		for (String key : config.getKeys()) {
 
-			Matcher matcher = Pattern.compile("model_(.+)").matcher(key);
+			Matcher matcher = MODEL_KEY_PATTERN.matcher(key);
 
 			if (matcher.matches()) {
 
@@ -490,7 +492,7 @@ public class PropertyStyle implements Style {
 						if (modelUri == null) {
 							System.err.println("Can't read model file " + fileName);
 						} else {
-							ms.add(GltfModel.loadFromUri(modelUri, null, null));
+							ms.add(GltfModelCache.getSharedInstance().get(modelUri, null, null));
 						}
 					}
 					models.put(modelName.toUpperCase(Locale.ROOT), ms);
@@ -0,0 +1,192 @@
+package org.osm2world.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.Nullable;
+
+import org.osm2world.util.functions.CheckedSupplier;
+
+/**
+ * a thread-safe cache for values which are expensive to create, such as loaded files.
+ * If several threads request the same value at the same time, it is only created once
+ * and the other threads wait for the result.
+ *
+ * The total weight of the cached values is limited, the least recently used values are removed first.
+ * By default, each value has a weight of 1, which limits the number of values.
+ * Values which are still being created do not count towards the limit.
+ * Failures and null results are not cached.
+ *
+ * @param <K>  the key type, must implement {@link Object#equals(Object)} and {@link Object#hashCode()}
+ */
+public class BoundedCache<K, V> {
+
+	private final long maxWeight;
+	private final ToLongFunction<? super V> weigher;
+
+	private final Map<K, CompletableFuture<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/* guarded by this cache's lock */
+	private long totalWeight = 0;
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long evictionCount = 0;
+
+	/**
+	 * @param maxWeight  the maximum total weight of the values kept in the cache
+	 * @param weigher    calculates the weight of a value, e.g. its size in bytes. Must return the same result
+	 *                   each time it is called for a value.
+	 */
+	public BoundedCache(long maxWeight, ToLongFunction<? super V> weigher) {
+		if (maxWeight < 0) throw new IllegalArgumentException("invalid cache size: " + maxWeight);
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+	}
+
+	/**
+	 * creates a cache which holds up to a maximum number of values
+	 */
+	public BoundedCache(long maxSize) {
+		this(maxSize, v -> 1);
+	}
+
+	/**
+	 * returns a value from the cache, or creates it if it isn't in the cache yet.
+	 * Exceptions thrown by createValue are passed on to all threads waiting for the value.
+	 *
+	 * @param createValue  creates the value if necessary. Can return null if there is no value for the key,
+	 *                     which will then not be cached.
+	 */
+	public @Nullable <E extends Exception> V get(K key, CheckedSupplier<? extends V, E> createValue) throws E {
+
+		CompletableFuture<V> future;
+		boolean createEntry = false;
+
+		synchronized (this) {
+			future = entries.get(key);
+			if (future == null) {
+				future = new CompletableFuture<>();
+				entries.put(key, future);
+				createEntry = true;
+				missCount += 1;
+			} else {
+				hitCount += 1;
+			}
+		}
+
+		if (createEntry) {
+			try {
+				completeEntry(key, future, createValue.get());
+			} catch (Exception | Error e) {
+				removeEntry(key, future);
+				future.completeExceptionally(e);
+			}
+		}
+
+		return join(future);
+
+	}
+
+	/**
+	 * returns a value if it is in the cache and has been completely created, null otherwise.
+	 * Does not affect the statistics.
+	 */
+	public synchronized @Nullable V getIfPresent(K key) {
+		CompletableFuture<V> future = entries.get(key);
+		if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+			return future.join();
+		} else {
+			return null;
+		}
+	}
+
+	/** returns the number of values in the cache, including those which are still being created */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/** returns the total weight of the values in the cache */
+	public synchronized long totalWeight() {
+		return totalWeight;
+	}
+
+	/** returns the number of requests which found their value in the cache */
+	public synchronized long hitCount() {
+		return hitCount;
+	}
+
+	/** returns the number of requests which needed to create their value */
+	public synchronized long missCount() {
+		return missCount;
+	}
+
+	/** returns the number of values which have been removed to keep the cache within its size limit */
+	public synchronized long evictionCount() {
+		return evictionCount;
+	}
+
+	/** removes all values from the cache. Values which are still being created will not be cached. */
+	public synchronized void clear() {
+		entries.clear();
+		totalWeight = 0;
+	}
+
+	/**
+	 * completes a cache entry with a newly created value,
+	 * and evicts the least recently used values if the cache has become too large
+	 */
+	private synchronized void completeEntry(K key, CompletableFuture<V> future, @Nullable V value) {
+
+		future.complete(value);
+
+		if (entries.get(key) != future) return; // already removed by clear()
+
+		if (value == null) {
+			entries.remove(key);
+			return;
+		}
+
+		totalWeight += weigher.applyAsLong(value);
+
+		for (Iterator<CompletableFuture<V>> it = entries.values().iterator();
+				it.hasNext() && totalWeight > maxWeight; ) {
+			CompletableFuture<V> entry = it.next();
+			if (entry.isDone() && !entry.isCompletedExceptionally()) {
+				totalWeight -= weigher.applyAsLong(entry.join());
+				evictionCount += 1;
+				it.remove();
+			}
+		}
+
+	}
+
+	private synchronized void removeEntry(K key, CompletableFuture<V> future) {
+		entries.remove(key, future);
+	}
+
+	/**
+	 * waits for a value and rethrows the exception which occurred while creating it, if any
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V, E extends Exception> V join(CompletableFuture<V> future) throws E {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			} else if (e.getCause() instanceof Error error) {
+				throw error;
+			} else if (e.getCause() instanceof Exception exception) {
+				// can only be an exception thrown by createValue, which is an E
+				throw (E) exception;
+			} else {
+				throw e;
+			}
+		}
+	}
+
+}
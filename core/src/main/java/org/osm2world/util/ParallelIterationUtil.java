@@ -0,0 +1,104 @@
+package org.osm2world.util;
+
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.osm2world.conversion.ConversionLog;
+
+/**
+ * utility class that allows iterations where the elements are processed in parallel by an {@link Executor}.
+ * Entries written to the {@link ConversionLog} while processing an element
+ * end up in the log of the calling thread, in the same order as for a sequential iteration.
+ */
+final public class ParallelIterationUtil {
+
+	/** the default number of elements which are processed together as a single task */
+	public static final int DEFAULT_CHUNK_SIZE = 64;
+
+	private ParallelIterationUtil() { }
+
+	/**
+	 * applies an action to each element of a collection.
+	 * The collection is split into chunks of consecutive elements, which are submitted to the executor as tasks.
+	 * Returns only after all elements have been processed.
+	 *
+	 * @param executor  the executor running the tasks; null to process all elements on the calling thread
+	 * @throws RuntimeException  the first exception (in iteration order) thrown by the action, if any.
+	 *                           Elements in other chunks are still processed in that case.
+	 */
+	public static <T> void forEach(Collection<? extends T> collection, @Nullable Executor executor, int chunkSize,
+			Consumer<? super T> action) {
+
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("invalid chunk size: " + chunkSize);
+		}
+
+		if (executor == null || collection.size() <= chunkSize) {
+			collection.forEach(action);
+			return;
+		}
+
+		List<? extends T> list = (collection instanceof List<? extends T> l) ? l : new ArrayList<>(collection);
+
+		List<CompletableFuture<ChunkResult>> futures = new ArrayList<>();
+
+		for (int start = 0; start < list.size(); start += chunkSize) {
+			List<? extends T> chunk = list.subList(start, min(start + chunkSize, list.size()));
+			futures.add(CompletableFuture.supplyAsync(() -> processChunk(chunk, action), executor));
+		}
+
+		Throwable firstException = null;
+
+		for (CompletableFuture<ChunkResult> future : futures) {
+			ChunkResult result = future.join();
+			result.log().forEach(ConversionLog::log);
+			if (firstException == null) {
+				firstException = result.exception();
+			}
+		}
+
+		if (firstException instanceof RuntimeException e) {
+			throw e;
+		} else if (firstException instanceof Error e) {
+			throw e;
+		} else if (firstException != null) {
+			throw new RuntimeException(firstException);
+		}
+
+	}
+
+	/**
+	 * version of {@link #forEach(Collection, Executor, int, Consumer)} that uses {@link #DEFAULT_CHUNK_SIZE}
+	 */
+	public static <T> void forEach(Collection<? extends T> collection, @Nullable Executor executor,
+			Consumer<? super T> action) {
+		forEach(collection, executor, DEFAULT_CHUNK_SIZE, action);
+	}
+
+	private static <T> ChunkResult processChunk(List<? extends T> chunk, Consumer<? super T> action) {
+
+		Throwable[] exception = {null};
+
+		List<ConversionLog.Entry> log = ConversionLog.collectEntries(() -> {
+			try {
+				chunk.forEach(action);
+			} catch (RuntimeException | Error e) {
+				exception[0] = e;
+			}
+		});
+
+		return new ChunkResult(log, exception[0]);
+
+	}
+
+	private record ChunkResult(List<ConversionLog.Entry> log, @Nullable Throwable exception) {}
+
+}
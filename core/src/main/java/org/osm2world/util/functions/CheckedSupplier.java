@@ -0,0 +1,7 @@
+package org.osm2world.util.functions;
+
+/** equivalent to a  {@link java.util.function.Supplier} that throws checked exceptions */
+@FunctionalInterface
+public interface CheckedSupplier<T, E extends Exception> {
+	T get() throws E;
+}
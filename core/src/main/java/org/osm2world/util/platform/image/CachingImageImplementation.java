@@ -1,45 +1,109 @@
 package org.osm2world.util.platform.image;
 
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.osm2world.scene.material.TextureData;
+import org.osm2world.util.BoundedCache;
 import org.osm2world.util.Resolution;
 
 /**
  * An {@link ImageImplementation} which caches previously loaded texture images.
+ * Can be used by multiple threads. If several threads request the same image at the same time,
+ * it is only loaded once.
+ *
+ * The total size of the cached images' pixel data is limited,
+ * the least recently used images are removed from the cache first.
  */
 abstract class CachingImageImplementation implements ImageImplementation {
 
-	/** Cached results of {@link #loadTextureImage(TextureData)} ()} */
-	private final Map<TextureData, BufferedImage> cachedImages = new HashMap<>();
+	/** the default maximum total size of the images in the cache, in bytes */
+	static final long DEFAULT_MAX_CACHED_BYTES = 512 * 1024 * 1024;
+
+	/**
+	 * @param resolution  the requested resolution,
+	 *   null for results of {@link #loadTextureImage(TextureData)} (the image's own resolution)
+	 * @param fileLastModified  see {@link TextureData#getFileLastModified()}
+	 */
+	private record ImageKey(TextureData texture, @Nullable Resolution resolution, long fileLastModified) {
+
+		ImageKey(TextureData texture, @Nullable Resolution resolution) {
+			this(texture, resolution, texture.getFileLastModified());
+		}
+
+	}
+
+	private record CachedImage(BufferedImage image, long bytes) {}
+
+	/** cached results of both {@link #loadTextureImage(TextureData)} and {@link #loadTextureImage(TextureData, Resolution)} */
+	private final BoundedCache<ImageKey, CachedImage> cache;
+
+	/**
+	 * @param maxCachedBytes  the maximum total size of the images kept in memory
+	 */
+	protected CachingImageImplementation(long maxCachedBytes) {
+		this.cache = new BoundedCache<>(maxCachedBytes, CachedImage::bytes);
+	}
 
-	/** Cached results of {@link #loadTextureImage(TextureData, Resolution)} */
-	private final Map<Pair<TextureData, Resolution>, BufferedImage> cachedImagesByResolution = new HashMap<>();
+	protected CachingImageImplementation() {
+		this(DEFAULT_MAX_CACHED_BYTES);
+	}
 
 	@Override
 	public BufferedImage loadTextureImage(TextureData texture, Resolution resolution) {
-		var key = Pair.of(texture, resolution);
-		if (!cachedImagesByResolution.containsKey(key)) {
-			cachedImagesByResolution.put(key, createBufferedImage(texture, resolution));
+
+		/* the image at its own resolution may already match the requested resolution */
+
+		CachedImage cachedImage = cache.getIfPresent(new ImageKey(texture, null));
+
+		if (cachedImage != null && Resolution.of(cachedImage.image()).equals(resolution)) {
+			return cachedImage.image();
 		}
-		return cachedImagesByResolution.get(key);
+
+		return load(new ImageKey(texture, resolution), () -> createBufferedImage(texture, resolution));
+
 	}
 
 	@Override
 	public BufferedImage loadTextureImage(TextureData texture) {
-		if (!cachedImages.containsKey(texture)) {
-			BufferedImage image = createBufferedImage(texture);
-			cachedImages.put(texture, image);
-			cachedImagesByResolution.put(Pair.of(texture, Resolution.of(image)), image);
+		return load(new ImageKey(texture, null), () -> createBufferedImage(texture));
+	}
+
+	/** returns statistics about this cache */
+	ImageCacheStats getCacheStats() {
+		synchronized (cache) {
+			return new ImageCacheStats(cache.hitCount(), cache.missCount(), cache.evictionCount(),
+					cache.size(), cache.totalWeight());
 		}
-		return cachedImages.get(texture);
+	}
+
+	/** removes all images from the cache */
+	void clearCache() {
+		cache.clear();
 	}
 
 	protected abstract BufferedImage createBufferedImage(TextureData texture, Resolution resolution);
 
 	protected abstract BufferedImage createBufferedImage(TextureData texture);
 
+	/**
+	 * returns an image from the cache, or creates it if it isn't in the cache yet.
+	 * Other threads requesting the same image in the meantime wait for the result.
+	 */
+	private BufferedImage load(ImageKey key, Supplier<BufferedImage> createImage) {
+		return cache.get(key, () -> {
+			BufferedImage image = createImage.get();
+			return new CachedImage(image, estimateBytes(image));
+		}).image();
+	}
+
+	/** estimates the memory used by an image's pixel data */
+	static long estimateBytes(BufferedImage image) {
+		int bitsPerPixel = image.getColorModel() != null ? image.getColorModel().getPixelSize() : 32;
+		long bytesPerPixel = Math.max(1, (bitsPerPixel + 7) / 8);
+		return (long) image.getWidth() * image.getHeight() * bytesPerPixel;
+	}
+
 }
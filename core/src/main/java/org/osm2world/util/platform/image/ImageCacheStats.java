@@ -0,0 +1,27 @@
+package org.osm2world.util.platform.image;
+
+/**
+ * statistics about the cache of texture images, see {@link ImageUtil#getCacheStats()}
+ *
+ * @param hitCount  number of requests which were answered with a cached image (or an image being loaded)
+ * @param missCount  number of requests which required an image to be loaded
+ * @param evictionCount  number of images which have been removed from the cache to stay within the size limit
+ * @param cachedImages  number of images currently in the cache
+ * @param cachedBytes  estimated size of the pixel data of the images currently in the cache
+ */
+public record ImageCacheStats(long hitCount, long missCount, long evictionCount,
+		int cachedImages, long cachedBytes) {
+
+	/** returns the ratio of hits to all requests, or 1 if there have been no requests yet */
+	public double hitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 1.0 : hitCount / (double) requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d images (%d MB), hit rate %.1f%%, %d evictions",
+				cachedImages, cachedBytes / (1024 * 1024), 100 * hitRate(), evictionCount);
+	}
+
+}
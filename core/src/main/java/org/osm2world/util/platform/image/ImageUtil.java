@@ -3,6 +3,8 @@ package org.osm2world.util.platform.image;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
+import javax.annotation.Nullable;
+
 import org.osm2world.scene.material.TextureData;
 import org.osm2world.util.Resolution;
 
@@ -71,6 +73,25 @@ public class ImageUtil {
 
 	}
 
+	/**
+	 * returns statistics about the cache of texture images,
+	 * or null if the current implementation doesn't cache images
+	 */
+	public static @Nullable ImageCacheStats getCacheStats() {
+		if (implementation instanceof CachingImageImplementation cachingImplementation) {
+			return cachingImplementation.getCacheStats();
+		} else {
+			return null;
+		}
+	}
+
+	/** removes all images from the cache of texture images (if any) */
+	public static void clearCache() {
+		if (implementation instanceof CachingImageImplementation cachingImplementation) {
+			cachingImplementation.clearCache();
+		}
+	}
+
 	public static BufferedImage getScaledImage(BufferedImage originalImage, Resolution newResolution) {
 		Image tmp = originalImage.getScaledInstance(newResolution.width, newResolution.height, Image.SCALE_SMOOTH);
 		BufferedImage result = new BufferedImage(newResolution.width, newResolution.height, originalImage.getType());
@@ -2,6 +2,7 @@ package org.osm2world.world.creation;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nullable;
 
@@ -13,6 +14,8 @@ public class WorldCreator {
 
 	private List<? extends WorldModule> modules;
 
+	private @Nullable Executor executor = null;
+
 	public WorldCreator(@Nullable O2WConfig config, WorldModule... modules) {
 		this(config, Arrays.asList(modules));
 	}
@@ -31,14 +34,28 @@ public class WorldCreator {
 
 	}
 
+	/**
+	 * sets an executor which modules can use to process map elements in parallel.
+	 * Modules are still applied one after another, in the order they were passed to the constructor.
+	 *
+	 * @param executor  the executor to use; null (the default) to do all work on the calling thread
+	 */
+	public void setExecutor(@Nullable Executor executor) {
+		this.executor = executor;
+	}
+
 	public void addRepresentationsTo(MapData mapData) {
 
 		for (WorldModule module : modules) {
-			module.applyTo(mapData);
+			module.applyTo(mapData, executor);
 		}
 
 		NetworkCalculator.calculateNetworkInformationInMapData(mapData);
 
+		for (WorldModule module : modules) {
+			module.finishApplication(mapData, executor);
+		}
+
 	}
 
 }
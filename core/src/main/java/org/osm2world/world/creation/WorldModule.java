@@ -1,5 +1,9 @@
 package org.osm2world.world.creation;
 
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
 import org.osm2world.conversion.O2WConfig;
 import org.osm2world.map_data.data.MapData;
 import org.osm2world.map_data.data.MapElement;
@@ -22,4 +26,24 @@ public interface WorldModule {
 	 */
 	public void applyTo(MapData mapData);
 
+	/**
+	 * variant of {@link #applyTo(MapData)} which may distribute the work across an {@link Executor}.
+	 * Modules which cannot process elements independently of each other can ignore the executor,
+	 * this is what the default implementation does.
+	 *
+	 * @param executor  executor for processing elements in parallel; null to process them on the calling thread
+	 */
+	public default void applyTo(MapData mapData, @Nullable Executor executor) {
+		applyTo(mapData);
+	}
+
+	/**
+	 * called after all modules have been applied to the data and network information has been calculated.
+	 * Modules can use this for work which depends on the representations created by other modules,
+	 * and which would otherwise be done lazily later on. The default implementation does nothing.
+	 *
+	 * @param executor  executor for processing elements in parallel; null to process them on the calling thread
+	 */
+	public default void finishApplication(MapData mapData, @Nullable Executor executor) {}
+
 }
@@ -1,6 +1,8 @@
 package org.osm2world.world.data;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -9,31 +11,60 @@ import org.osm2world.scene.mesh.Mesh;
 import org.osm2world.scene.model.ModelInstance;
 
 /**
- * subtype of {@link ProceduralWorldObject} which caches internal results to avoid repeated calculations
+ * subtype of {@link ProceduralWorldObject} which caches internal results to avoid repeated calculations.
+ * If results depend on LOD, results for each LOD are cached separately.
  */
 abstract public class CachingProceduralWorldObject implements ProceduralWorldObject {
 
-	private ProceduralWorldObject.Target target = null;
-	private @Nullable LevelOfDetail lod;
+	/** the cached result if results don't depend on LOD */
+	private @Nullable ProceduralWorldObject.Target target = null;
 
-	private void fillTargetIfNecessary() {
-		if (target == null || (lod != null && getConfiguredLod() != null && lod != getConfiguredLod())) {
-			lod = getConfiguredLod();
-			target = new ProceduralWorldObject.Target();
-			buildMeshesAndModels(target);
+	/** the cached results for each LOD if results depend on LOD */
+	private final Map<LevelOfDetail, ProceduralWorldObject.Target> targetsByLod = new EnumMap<>(LevelOfDetail.class);
+
+	/**
+	 * returns the filled target for a LOD
+	 *
+	 * @param lod  the requested LOD; null for the {@link #getConfiguredLod()}
+	 */
+	private ProceduralWorldObject.Target getTarget(@Nullable LevelOfDetail lod) {
+
+		LevelOfDetail configuredLod = getConfiguredLod();
+
+		if (configuredLod == null) {
+			if (target == null) {
+				target = new ProceduralWorldObject.Target();
+				buildMeshesAndModels(target);
+			}
+			return target;
+		} else {
+			return targetsByLod.computeIfAbsent(lod != null ? lod : configuredLod, l -> {
+				var lodTarget = new ProceduralWorldObject.Target();
+				buildMeshesAndModels(lodTarget, l);
+				return lodTarget;
+			});
 		}
+
 	}
 
 	@Override
 	public List<Mesh> buildMeshes() {
-		fillTargetIfNecessary();
-		return target.meshes;
+		return getTarget(null).meshes;
 	}
 
 	@Override
 	public List<ModelInstance> getSubModels() {
-		fillTargetIfNecessary();
-		return target.subModels;
+		return getTarget(null).subModels;
+	}
+
+	@Override
+	public List<Mesh> buildMeshes(LevelOfDetail lod) {
+		return getTarget(lod).meshes;
+	}
+
+	@Override
+	public List<ModelInstance> getSubModels(LevelOfDetail lod) {
+		return getTarget(lod).subModels;
 	}
 
 	/**
@@ -44,4 +75,13 @@ abstract public class CachingProceduralWorldObject implements ProceduralWorldObj
 		return null;
 	}
 
+	/**
+	 * variant of {@link #buildMeshesAndModels(Target)} which produces geometry for a specific LOD.
+	 * Only used if {@link #getConfiguredLod()} is not null.
+	 * Implementations whose results depend on LOD need to override this.
+	 */
+	protected void buildMeshesAndModels(Target target, LevelOfDetail lod) {
+		buildMeshesAndModels(target);
+	}
+
 }
@@ -18,6 +18,7 @@ import org.osm2world.util.exception.InvalidGeometryException;
 import org.osm2world.math.algorithms.CAGUtil;
 import org.osm2world.math.shapes.PolygonShapeXZ;
 import org.osm2world.math.shapes.SimplePolygonShapeXZ;
+import org.osm2world.scene.mesh.LevelOfDetail;
 import org.osm2world.scene.mesh.Mesh;
 import org.osm2world.scene.model.Model;
 import org.osm2world.scene.model.ModelInstance;
@@ -60,6 +61,21 @@ public interface WorldObject {
 	 */
 	public default List<ModelInstance> getSubModels() { return emptyList(); }
 
+	/**
+	 * variant of {@link #buildMeshes()} for a specific {@link LevelOfDetail}.
+	 * This allows outputs at different LOD to be created from the same scene
+	 * even if some objects create different geometry depending on the configured LOD.
+	 * The result may still contain meshes for other LOD as well.
+	 * By default, this returns the same meshes as {@link #buildMeshes()}.
+	 */
+	public default List<Mesh> buildMeshes(LevelOfDetail lod) { return buildMeshes(); }
+
+	/**
+	 * variant of {@link #getSubModels()} for a specific {@link LevelOfDetail}.
+	 * @see #buildMeshes(LevelOfDetail)
+	 */
+	public default List<ModelInstance> getSubModels(LevelOfDetail lod) { return getSubModels(); }
+
 	/**
 	 * returns whether this feature is on, above or below the ground.
 	 * This is relevant for elevation calculations,
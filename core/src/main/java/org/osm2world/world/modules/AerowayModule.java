@@ -44,7 +44,7 @@ public class AerowayModule extends ConfigurableWorldModule {
 	@Override
 	public void applyTo(MapData mapData) {
 
-		for (MapWaySegment segment : mapData.getMapWaySegments()) {
+		for (MapWaySegment segment : mapData.getTagIndex().getWaySegments(List.of("aeroway"))) {
 			if (segment.getTags().contains("aeroway", "runway")) {
 				segment.addRepresentation(new Runway(segment));
 			} else if (segment.getTags().contains("aeroway", "taxiway")) {
@@ -52,7 +52,7 @@ public class AerowayModule extends ConfigurableWorldModule {
 			}
 		}
 
-		for (MapArea area : mapData.getMapAreas()) {
+		for (MapArea area : mapData.getTagIndex().getAreas(List.of("aeroway"))) {
 			if (area.getTags().contains("aeroway", "helipad")) {
 				area.addRepresentation(new Helipad(area));
 			} else if (area.getTags().contains("aeroway", "apron")) {
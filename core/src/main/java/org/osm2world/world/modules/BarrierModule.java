@@ -60,6 +60,11 @@ import org.osm2world.world.network.AbstractNetworkWaySegmentWorldObject;
  */
 public class BarrierModule extends AbstractModule {
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("barrier", "natural");
+	}
+
 	@Override
 	protected void applyToWaySegment(MapWaySegment line) {
 
@@ -1019,6 +1024,16 @@ public class BarrierModule extends AbstractModule {
 					material.textureDimensions()), material, LOD2, LOD4));
 		}
 
+		@Override
+		public boolean supportsInstancing() {
+			return true;
+		}
+
+		@Override
+		public boolean ignoresDirection() {
+			return true;
+		}
+
 	}
 
 	public record RoundtopBollard(Material material, double height, double width) implements Model {
@@ -1064,6 +1079,16 @@ public class BarrierModule extends AbstractModule {
 
 		}
 
+		@Override
+		public boolean supportsInstancing() {
+			return true;
+		}
+
+		@Override
+		public boolean ignoresDirection() {
+			return true;
+		}
+
 	}
 
 	public class Chain extends NoOutlineNodeWorldObject implements ProceduralWorldObject {
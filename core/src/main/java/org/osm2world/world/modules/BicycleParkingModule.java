@@ -56,6 +56,11 @@ public class BicycleParkingModule extends AbstractModule {
 	private static final List<Color> BIKE_COLORS = List.of(
 			BLACK, BLACK, BLUE, RED, LIGHT_GRAY, WHITE, GREEN, YELLOW, ORANGE, PINK);
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("amenity");
+	}
+
 	@Override
 	protected void applyToElement(MapElement element) {
 		if (element.getTags().contains("amenity", "bicycle_parking")) {
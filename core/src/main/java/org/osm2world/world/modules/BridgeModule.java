@@ -59,6 +59,11 @@ public class BridgeModule extends AbstractModule {
 		return isBridge(segment.getTags());
 	}
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("bridge");
+	}
+
 	@Override
 	protected void applyToWaySegment(MapWaySegment segment) {
 
@@ -32,7 +32,7 @@ public class CliffModule extends ConfigurableWorldModule {
 	@Override
 	public void applyTo(MapData mapData) {
 
-		for (MapWaySegment segment : mapData.getMapWaySegments()) {
+		for (MapWaySegment segment : mapData.getTagIndex().getWaySegments(List.of("natural", "barrier"))) {
 
 			if (segment.getTags().contains("natural", "cliff")) {
 				segment.addRepresentation(new Cliff(segment));
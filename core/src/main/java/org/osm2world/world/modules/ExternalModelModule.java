@@ -4,10 +4,12 @@ import static java.lang.Math.PI;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URL;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
@@ -22,6 +24,7 @@ import org.osm2world.math.VectorXZ;
 import org.osm2world.math.shapes.PolylineXZ;
 import org.osm2world.output.gltf.GltfFlavor;
 import org.osm2world.output.gltf.GltfModel;
+import org.osm2world.output.gltf.GltfModelCache;
 import org.osm2world.scene.mesh.Mesh;
 import org.osm2world.scene.model.ExternalModelSource;
 import org.osm2world.scene.model.InstanceParameters;
@@ -92,20 +95,11 @@ public class ExternalModelModule extends ConfigurableWorldModule {
 
 		if (modelDir != null) {
 
-			File modelFile = new File(modelDir, id + ".glb");
+			File modelFile = LocalModelDirectory.get(modelDir).filesById().get(id);
 
-			if (!modelFile.exists()) {
-				Pattern filenamePattern = Pattern.compile("^" + id + "(_[0-9]+)\\.glb$");
-				File[] files = modelDir.listFiles((dir, name) -> filenamePattern.matcher(name).matches());
-				if (files != null && files.length > 0) {
-					Arrays.sort(files, Comparator.comparingLong(f -> Long.parseLong(filenamePattern.matcher(f.getName()).group(1))));
-					modelFile = files[files.length - 1];
-				}
-			}
-
-			if (modelFile.exists()) {
+			if (modelFile != null) {
 				try {
-					return GltfModel.loadFromFile(modelFile);
+					return GltfModelCache.getSharedInstance().get(modelFile);
 				} catch (IOException e) {
 					ConversionLog.error("Error loading 3DMR model from local file: " + modelFile, element);
 				}
@@ -120,12 +114,12 @@ public class ExternalModelModule extends ConfigurableWorldModule {
 		if (urlPrefix != null) {
 			try {
 
-				URL url = new URL(urlPrefix + id);
+				URI uri = new URI(urlPrefix + id);
 				var source = new ExternalModelSource.External3DMRSource(id);
 
-				return GltfModel.loadFromHttpUrl(url, GltfFlavor.GLB, source);
+				return GltfModelCache.getSharedInstance().get(uri, GltfFlavor.GLB, source);
 
-			} catch (IOException e) {
+			} catch (IOException | URISyntaxException | RuntimeException e) {
 				ConversionLog.error("Error loading 3DMR model '"  + id + "' from " + urlPrefix, element);
 			}
 		}
@@ -136,6 +130,61 @@ public class ExternalModelModule extends ConfigurableWorldModule {
 
 	}
 
+	/**
+	 * the 3DMR model files in a local directory.
+	 * Each directory is only listed again if it has been modified since it was last listed.
+	 *
+	 * @param filesById  the file to use for each 3DMR id. This is either a file named after the id (such as 42.glb)
+	 *                   or, if that doesn't exist, the file with the highest revision (such as 42_3.glb).
+	 */
+	private record LocalModelDirectory(long lastModified, Map<Long, File> filesById) {
+
+		private static final Pattern FILENAME_PATTERN = Pattern.compile("^([0-9]+)(?:_([0-9]+))?\\.glb$");
+
+		private static final Map<File, LocalModelDirectory> directories = new HashMap<>();
+
+		static synchronized LocalModelDirectory get(File modelDir) {
+
+			long lastModified = modelDir.lastModified();
+
+			LocalModelDirectory result = directories.get(modelDir);
+
+			if (result == null || result.lastModified != lastModified) {
+
+				Map<Long, File> filesById = new HashMap<>();
+				Map<Long, Long> revisionsById = new HashMap<>();
+
+				File[] files = modelDir.listFiles();
+
+				if (files != null) {
+					for (File file : files) {
+						Matcher matcher = FILENAME_PATTERN.matcher(file.getName());
+						if (matcher.matches()) {
+							try {
+								long id = Long.parseLong(matcher.group(1));
+								long revision = matcher.group(2) == null ? Long.MAX_VALUE : Long.parseLong(matcher.group(2));
+								if (revision >= revisionsById.getOrDefault(id, Long.MIN_VALUE)) {
+									filesById.put(id, file);
+									revisionsById.put(id, revision);
+								}
+							} catch (NumberFormatException ignored) {
+								// number too large, cannot be a valid id
+							}
+						}
+					}
+				}
+
+				result = new LocalModelDirectory(lastModified, filesById);
+				directories.put(modelDir, result);
+
+			}
+
+			return result;
+
+		}
+
+	}
+
 	private static abstract class ExternalModelWorldObject<E extends MapElement> implements WorldObject {
 
 		private final E element;
@@ -52,6 +52,11 @@ public class GolfModule extends AbstractModule {
 	private static final double HOLE_RADIUS = 0.108 / 2;
 	private static final double HOLE_DEPTH = 0.102;
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("golf");
+	}
+
 	@Override
 	public void applyToArea(MapArea area) {
 
@@ -2,6 +2,7 @@ package org.osm2world.world.modules;
 
 import static java.util.Collections.emptyList;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.osm2world.map_data.data.*;
@@ -18,6 +19,11 @@ import org.osm2world.world.modules.common.AbstractModule;
  */
 public class InvisibleModule extends AbstractModule {
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("ele");
+	}
+
 	@Override
 	protected void applyToNode(MapNode node) {
 		if (node.getTags().containsKey("ele")
@@ -7,6 +7,7 @@ import static org.osm2world.math.VectorXYZ.Y_UNIT;
 import static org.osm2world.output.common.ExtrudeOption.END_CAP;
 import static org.osm2world.scene.material.DefaultMaterials.*;
 
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -31,6 +32,11 @@ import org.osm2world.world.modules.common.AbstractModule;
 /** places various towers and masts (currently only freestanding mobile phone communication masts) */
 public class MastModule extends AbstractModule {
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("man_made");
+	}
+
 	@Override
 	protected void applyToNode(MapNode node) {
 
@@ -42,6 +42,11 @@ public class ParkingModule extends AbstractModule {
 			LIGHT_GRAY, LIGHT_GRAY, // silver
 			RED, GREEN, BLUE, YELLOW, CYAN);
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("amenity");
+	}
+
 	@Override
 	protected void applyToArea(MapArea area) {
 		if (area.getTags().contains("amenity","parking")) {
@@ -36,6 +36,11 @@ import org.osm2world.world.modules.common.AbstractModule;
  */
 public class PoolModule extends AbstractModule {
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("leisure", "attraction");
+	}
+
 	@Override
 	protected void applyToArea(MapArea area) {
 		if (area.getTags().contains("leisure", "swimming_pool")) {
@@ -98,6 +98,11 @@ public final class PowerModule extends AbstractModule {
 		return new TowerConfig(node, cables, voltage, dir);
 	}
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("power");
+	}
+
 	@Override
 	protected void applyToNode(MapNode node) {
 
@@ -43,6 +43,11 @@ import org.osm2world.world.modules.common.AbstractModule;
  */
 public class SportsModule extends AbstractModule {
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("leisure");
+	}
+
 	@Override
 	public void applyToArea(MapArea area) {
 
@@ -72,6 +72,12 @@ import org.osm2world.world.modules.common.AbstractModule;
  */
 public class StreetFurnitureModule extends AbstractModule {
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		return List.of("playground", "man_made", "advertising", "amenity", "leisure", "highway",
+				"public_transport", "summit:cross", "historic", "emergency", "tourism");
+	}
+
 	@Override
 	protected void applyToNode(MapNode node) {
 		if (node.getTags().contains("playground", "swing")) {
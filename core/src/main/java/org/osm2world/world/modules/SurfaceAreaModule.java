@@ -60,6 +60,14 @@ public class SurfaceAreaModule extends AbstractModule {
 		defaultSurfaceMap.put(new Tag("natural", "scrub"), "scrub");
 	}
 
+	@Override
+	protected Collection<String> getRelevantKeys() {
+		Set<String> keys = new HashSet<>();
+		keys.add("surface");
+		defaultSurfaceMap.keySet().forEach(t -> keys.add(t.key));
+		return keys;
+	}
+
 	@Override
 	protected void applyToArea(MapArea area) {
 
@@ -6,9 +6,12 @@ import static java.util.Objects.requireNonNullElse;
 import static org.osm2world.scene.material.DefaultMaterials.*;
 import static org.osm2world.util.ValueParseUtil.parseMeasure;
 import static org.osm2world.util.ValueParseUtil.parseMeasureWithSpecialDefaultUnit;
-import static org.osm2world.world.modules.common.WorldModuleGeometryUtil.filterWorldObjectCollisions;
+import static org.osm2world.world.modules.common.WorldModuleGeometryUtil.filterPolygonCollisions;
+import static org.osm2world.world.modules.common.WorldModuleGeometryUtil.getOutlinePolygons;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -22,6 +25,7 @@ import org.osm2world.math.Vector3D;
 import org.osm2world.math.VectorXYZ;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.algorithms.GeometryUtil;
+import org.osm2world.math.shapes.PolygonShapeXZ;
 import org.osm2world.scene.material.*;
 import org.osm2world.scene.mesh.ExtrusionGeometry;
 import org.osm2world.scene.mesh.Mesh;
@@ -29,6 +33,7 @@ import org.osm2world.scene.model.InstanceParameters;
 import org.osm2world.scene.model.Model;
 import org.osm2world.scene.model.ModelInstance;
 import org.osm2world.style.Style;
+import org.osm2world.util.ParallelIterationUtil;
 import org.osm2world.util.platform.image.ImageUtil;
 import org.osm2world.world.data.*;
 import org.osm2world.world.modules.common.ConfigurableWorldModule;
@@ -198,6 +203,8 @@ public class TreeModule extends ConfigurableWorldModule {
 	@Override
 	public final void applyTo(MapData mapData) {
 
+		forests.clear();
+
 		for (MapNode node : mapData.getMapNodes()) {
 
 			if (node.getTags().contains("natural", "tree")) {
@@ -219,7 +226,9 @@ public class TreeModule extends ConfigurableWorldModule {
 					|| area.getTags().contains("landcover", "trees")
 					|| area.getTags().containsKey("wood")
 					|| area.getTags().contains("landuse", "orchard")) {
-				area.addRepresentation(new Forest(area, mapData));
+				Forest forest = new Forest(area, mapData);
+				area.addRepresentation(forest);
+				forests.add(forest);
 			}
 
 		}
@@ -227,7 +236,24 @@ public class TreeModule extends ConfigurableWorldModule {
 	}
 
 	/**
-	 * retrieves a suitable {@link TreeModel} from {@link #existingModels}, or creates it if necessary
+	 * places the trees of all forests.
+	 * This needs to happen after all other modules have been applied, as trees avoid some of their objects.
+	 * Without an executor, it is left to happen on demand.
+	 *
+	 * The outlines of the objects avoided by the trees are obtained on the calling thread first,
+	 * because they are shared between forests and some of them are calculated on first access.
+	 */
+	@Override
+	public void finishApplication(MapData mapData, @Nullable Executor executor) {
+		if (executor != null) {
+			forests.forEach(Forest::collectAvoidedOutlines);
+			ParallelIterationUtil.forEach(forests, executor, 1, Forest::getEleConnectors);
+		}
+	}
+
+	/**
+	 * retrieves a suitable {@link TreeModel} from {@link #existingModels}, or creates it if necessary.
+	 * Can be called from multiple threads.
 	 *
 	 * @param seed       an object to be used as the seed for random decisions
 	 */
@@ -244,28 +270,12 @@ public class TreeModule extends ConfigurableWorldModule {
 			leafType = r.nextBoolean() ? LeafType.NEEDLELEAVED : LeafType.BROADLEAVED;
 		}
 
-		TreeModel model = null;
-
-		for (TreeModel existingModel : existingModels) {
-			if (existingModel.leafType() == leafType
-					&& existingModel.leafCycle() == leafCycle
-					&& existingModel.species() == species
-					&& existingModel.mirrored() == mirrored
-					&& Objects.equals(existingModel.dimensions(), dimensions)
-					&& (existingModel instanceof TreeBillboardModel) == useBillboards) {
-				model = existingModel;
-				break;
-			}
-		}
-
-		if (model == null) {
-			model = useBillboards
-					? new TreeBillboardModel(leafType, leafCycle, species, mirrored, dimensions, config.mapStyle())
-					: new TreeGeometryModel(leafType, leafCycle, species, dimensions, config.mapStyle());
-			existingModels.add(model);
-		}
+		var key = new TreeModelKey(leafType, leafCycle, species, useBillboards && mirrored, dimensions, useBillboards);
 
-		return model;
+		return existingModels.computeIfAbsent(key, k -> k.billboard()
+				? new TreeBillboardModel(k.leafType(), k.leafCycle(), k.species(), k.mirrored(), k.dimensions(),
+						config.mapStyle())
+				: new TreeGeometryModel(k.leafType(), k.leafCycle(), k.species(), k.dimensions(), config.mapStyle()));
 
 	}
 
@@ -278,6 +288,16 @@ public class TreeModule extends ConfigurableWorldModule {
 		double defaultHeightToWidth();
 		@Nullable TreeDimensions dimensions();
 
+		@Override
+		default boolean supportsInstancing() {
+			return true;
+		}
+
+		@Override
+		default boolean ignoresDirection() {
+			return true;
+		}
+
 	}
 
 	private record TreeBillboardModel(
@@ -375,7 +395,20 @@ public class TreeModule extends ConfigurableWorldModule {
 		}
 	}
 
-	private final List<TreeModel> existingModels = new ArrayList<>();
+	/** the properties which distinguish {@link TreeModel}s, used to look up existing models */
+	private record TreeModelKey(
+			LeafType leafType,
+			LeafCycle leafCycle,
+			@Nullable TreeSpecies species,
+			boolean mirrored,
+			@Nullable TreeDimensions dimensions,
+			boolean billboard
+	) {}
+
+	private final Map<TreeModelKey, TreeModel> existingModels = new ConcurrentHashMap<>();
+
+	/** all forests created by the most recent {@link #applyTo(MapData)} call */
+	private final List<Forest> forests = new ArrayList<>();
 
 	public class Tree extends NoOutlineNodeWorldObject implements ProceduralWorldObject {
 
@@ -509,6 +542,9 @@ public class TreeModule extends ConfigurableWorldModule {
 
 		private Collection<EleConnector> treeConnectors = null;
 
+		/** outlines of other objects that the trees should not be placed on */
+		private List<PolygonShapeXZ> avoidedOutlines = null;
+
 		private final LeafType leafType;
 		private final LeafCycle leafCycle;
 		private final TreeSpecies species;
@@ -524,9 +560,8 @@ public class TreeModule extends ConfigurableWorldModule {
 
 		}
 
-		private void createTreeConnectors(double density) {
-
-			/* collect other objects that the trees should not be placed on */
+		/** collects the outlines of other objects that the trees should not be placed on */
+		private void collectAvoidedOutlines() {
 
 			Collection<WorldObject> avoidedObjects = new ArrayList<>();
 
@@ -539,6 +574,16 @@ public class TreeModule extends ConfigurableWorldModule {
 				}
 			}
 
+			avoidedOutlines = getOutlinePolygons(avoidedObjects);
+
+		}
+
+		private void createTreeConnectors(double density) {
+
+			if (avoidedOutlines == null) {
+				collectAvoidedOutlines();
+			}
+
 			/* place the trees */
 
 			List<VectorXZ> treePositions =
@@ -546,7 +591,7 @@ public class TreeModule extends ConfigurableWorldModule {
 						area.getPolygon(), mapData.getBoundary(),
 						density, 0.3f);
 
-			filterWorldObjectCollisions(treePositions, avoidedObjects);
+			filterPolygonCollisions(treePositions, avoidedOutlines);
 
 			/* create a terrain connector for each tree */
 
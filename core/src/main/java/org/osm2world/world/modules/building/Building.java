@@ -193,12 +193,17 @@ public class Building extends CachingProceduralWorldObject implements AreaWorldO
 
 	@Override
 	protected @Nullable LevelOfDetail getConfiguredLod() {
-		return config.lod();
+		return config.containsKey("lod") ? config.lod() : null;
 	}
 
 	@Override
 	public void buildMeshesAndModels(Target target) {
-		forEach(parts, part -> part.buildMeshesAndModels(target));
+		buildMeshesAndModels(target, getConfiguredLod());
+	}
+
+	@Override
+	protected void buildMeshesAndModels(Target target, @Nullable LevelOfDetail lod) {
+		forEach(parts, part -> part.buildMeshesAndModels(target, lod));
 		IndoorWall.renderNodePolygons(target, wallNodePolygonSegments, config);
 	}
 
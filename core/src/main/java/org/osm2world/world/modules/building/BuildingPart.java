@@ -446,6 +446,15 @@ public class BuildingPart implements AreaWorldObject, ProceduralWorldObject {
 
 	@Override
 	public void buildMeshesAndModels(Target target) {
+		buildMeshesAndModels(target, config.containsKey("lod") ? config.lod() : null);
+	}
+
+	/**
+	 * variant of {@link #buildMeshesAndModels(Target)} which builds geometry for a specific LOD
+	 *
+	 * @param lod  the LOD to build geometry for, or null to build geometry for all LOD
+	 */
+	void buildMeshesAndModels(Target target, @Nullable LevelOfDetail lod) {
 
 		if (walls == null) {
 			// the reason why this is called here rather than the constructor is tunnel=building_passage:
@@ -454,7 +463,7 @@ public class BuildingPart implements AreaWorldObject, ProceduralWorldObject {
 		}
 
 		if (!config.getBoolean("noOuterWalls", false)){
-			walls.forEach(w -> w.renderTo(target, config));
+			walls.forEach(w -> w.renderTo(target, config, lod));
 		}
 
 		if (!config.getBoolean("noRoofs", false)) {
@@ -32,6 +32,7 @@ import org.osm2world.math.shapes.PolylineXZ;
 import org.osm2world.math.shapes.SimplePolygonXZ;
 import org.osm2world.scene.material.Material;
 import org.osm2world.scene.mesh.LODRange;
+import org.osm2world.scene.mesh.LevelOfDetail;
 import org.osm2world.util.exception.InvalidGeometryException;
 import org.osm2world.world.data.ProceduralWorldObject;
 import org.osm2world.world.data.WorldObject;
@@ -98,7 +99,10 @@ public class ExteriorBuildingWall {
 				buildingPart == null ? 0 : buildingPart.levelStructure.bottomHeight());
 	}
 
-	public void renderTo(ProceduralWorldObject.Target target, O2WConfig config) {
+	/**
+	 * @param lod  the LOD to build the wall for, or null to build the wall for all LOD
+	 */
+	public void renderTo(ProceduralWorldObject.Target target, O2WConfig config, @Nullable LevelOfDetail lod) {
 
 		BuildingDefaults defaults = BuildingDefaults.getDefaultsFor(tags);
 
@@ -211,8 +215,7 @@ public class ExteriorBuildingWall {
 		for (WindowImplementation windowImplementation : windowImplementations.keySet()) {
 
 			LODRange lodRange = windowImplementations.get(windowImplementation);
-			if (buildingPart.config.containsKey("lod") &&
-					!lodRange.contains(buildingPart.config.lod())) continue;
+			if (lod != null && !lodRange.contains(lod)) continue;
 			target.setCurrentLodRange(lodRange);
 
 			/* construct the surface(s) */
@@ -337,7 +340,7 @@ public class ExteriorBuildingWall {
 
 								DoorParameters params = DoorParameters.fromTags(node.getTags(), this.tags);
 								if (lodRange.max().ordinal() < 3
-										|| buildingPart.config.lod().ordinal() < 3) {
+										|| (lod != null && lod.ordinal() < 3)) {
 									params = params.withInset(0.0);
 								}
 								surface.addElementIfSpaceFree(new Door(pos, params));
@@ -372,7 +375,7 @@ public class ExteriorBuildingWall {
 							int lowestLevel = levelsWithoutRoof.get(0).level;
 							if (surfacesByLevelNumber.containsKey(lowestLevel)) {
 								WallSurface lowestSurface = surfacesByLevelNumber.get(lowestLevel);
-								placeDefaultGarageDoors(lowestSurface);
+								placeDefaultGarageDoors(lowestSurface, lod);
 							}
 						}
 					}
@@ -521,12 +524,12 @@ public class ExteriorBuildingWall {
 	}
 
 	/** places default (i.e. not explicitly mapped) doors onto garage walls */
-	private void placeDefaultGarageDoors(WallSurface surface) {
+	private void placeDefaultGarageDoors(WallSurface surface, @Nullable LevelOfDetail lod) {
 
 		TagSet doorTags = TagSet.of("door", "overhead");
 		DoorParameters params = DoorParameters.fromTags(doorTags, this.tags);
 
-		if (buildingPart.config.lod().ordinal() < 3) {
+		if (lod != null && lod.ordinal() < 3) {
 			params = params.withInset(0.0);
 		}
 
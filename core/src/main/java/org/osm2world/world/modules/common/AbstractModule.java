@@ -1,6 +1,12 @@
 package org.osm2world.world.modules.common;
 
+import java.util.Collection;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
 import org.osm2world.map_data.data.*;
+import org.osm2world.util.ParallelIterationUtil;
 import org.osm2world.world.creation.WorldModule;
 import org.osm2world.world.data.WorldObject;
 
@@ -9,35 +15,66 @@ import org.osm2world.world.data.WorldObject;
  *
  * Subclasses need to be able to create {@link WorldObject}s
  * for each {@link MapElement} in isolation.
- * This can make parallel application of the module possible.
+ * This makes parallel application of the module possible, see {@link #applyTo(MapData, Executor)}.
  */
 public abstract class AbstractModule extends ConfigurableWorldModule {
 
 	@Override
 	public final void applyTo(MapData mapData) {
+		applyTo(mapData, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Nodes, ways, way segments and areas are still processed one after another,
+	 * only the elements of each type are processed in parallel.
+	 * If the module declares {@link #getRelevantKeys()}, only elements with at least one of these keys are processed.
+	 */
+	@Override
+	public final void applyTo(MapData mapData, @Nullable Executor executor) {
 
-		for (MapNode node : mapData.getMapNodes()) {
+		Collection<String> relevantKeys = getRelevantKeys();
+		TagIndex tagIndex = relevantKeys != null ? mapData.getTagIndex() : null;
+
+		Collection<MapNode> nodes = tagIndex != null ? tagIndex.getNodes(relevantKeys) : mapData.getMapNodes();
+		Collection<MapWay> ways = tagIndex != null ? tagIndex.getWays(relevantKeys) : mapData.getMapWays();
+		Collection<MapWaySegment> waySegments = tagIndex != null
+				? tagIndex.getWaySegments(relevantKeys) : mapData.getMapWaySegments();
+		Collection<MapArea> areas = tagIndex != null ? tagIndex.getAreas(relevantKeys) : mapData.getMapAreas();
+
+		ParallelIterationUtil.forEach(nodes, executor, node -> {
 			if (node.getRepresentations().isEmpty()) {
 				applyToNode(node);
 			}
-		}
+		});
 
-		for (MapWay way : mapData.getMapWays()) {
-			applyToWay(way);
-		}
+		ParallelIterationUtil.forEach(ways, executor, this::applyToWay);
 
-		for (MapWaySegment waySegment : mapData.getMapWaySegments()) {
+		ParallelIterationUtil.forEach(waySegments, executor, waySegment -> {
 			if (waySegment.getRepresentations().isEmpty()) {
 				applyToWaySegment(waySegment);
 			}
-		}
+		});
 
-		for (MapArea area : mapData.getMapAreas()) {
+		ParallelIterationUtil.forEach(areas, executor, area -> {
 			if (area.getRepresentations().isEmpty()) {
 				applyToArea(area);
 			}
-		}
+		});
+
+	}
 
+	/**
+	 * returns the keys of the tags this module looks for.
+	 * Elements without any of these keys will not be passed to the module's applyTo... methods.
+	 * Subclasses should only override this if they never create {@link WorldObject}s for such elements,
+	 * e.g. because they don't depend on the tags of neighboring elements.
+	 *
+	 * @return  the relevant keys, or null if all elements need to be processed (which is the default)
+	 */
+	protected @Nullable Collection<String> getRelevantKeys() {
+		return null;
 	}
 
 	/**
@@ -1,18 +1,19 @@
 package org.osm2world.world.modules.common;
 
-import static java.lang.Math.toRadians;
+import static java.lang.Math.*;
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
+import static org.osm2world.math.shapes.AxisAlignedRectangleXZ.bbox;
 import static org.osm2world.math.algorithms.TriangulationUtil.triangulate;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
 import org.osm2world.math.VectorXYZ;
 import org.osm2world.math.VectorXZ;
 import org.osm2world.math.algorithms.GeometryUtil;
+import org.osm2world.math.datastructures.PolygonCoverageGrid;
 import org.osm2world.math.shapes.AxisAlignedRectangleXZ;
 import org.osm2world.math.shapes.PolygonShapeXZ;
 import org.osm2world.math.shapes.SimplePolygonShapeXZ;
@@ -181,47 +182,68 @@ public final class WorldModuleGeometryUtil {
 		//TODO: add support for avoiding a radius around the position, too.
 		//this is easily possible once "inflating"/"shrinking" polygons is supported [would also be useful for water bodies etc.]
 
-		/*
-		 * prepare filter polygons.
-		 * It improves performance to construct the outline polygons only once
-		 * instead of doing this within the loop iterating over positions.
-		 */
+		filterPolygonCollisions(positions, getOutlinePolygons(avoidedObjects));
+
+	}
+
+	/**
+	 * returns the outline polygons of {@link WorldObject}s, skipping objects without a valid outline.
+	 * It improves performance to construct the outline polygons only once
+	 * instead of doing this within the loop iterating over positions.
+	 */
+	public static final List<PolygonShapeXZ> getOutlinePolygons(Collection<WorldObject> objects) {
 
-		List<PolygonShapeXZ> filterPolygons = new ArrayList<>();
+		List<PolygonShapeXZ> result = new ArrayList<>();
 
-		for (WorldObject avoidedObject : avoidedObjects) {
+		for (WorldObject object : objects) {
 			try {
-				PolygonShapeXZ outlinePolygonXZ = avoidedObject.getOutlinePolygonXZ();
+				PolygonShapeXZ outlinePolygonXZ = object.getOutlinePolygonXZ();
 				if (outlinePolygonXZ != null) {
-					filterPolygons.add(outlinePolygonXZ);
+					result.add(outlinePolygonXZ);
 				}
 			} catch (InvalidGeometryException e) {
 				//ignore this outline
 			}
 		}
 
-		/* perform filtering of positions */
+		return result;
 
-		List<AxisAlignedRectangleXZ> filterPolygonBbox = filterPolygons.stream().map(p -> p.boundingBox()).collect(toList());
+	}
 
-		Iterator<VectorXZ> positionIterator = positions.iterator();
+	/**
+	 * removes positions from a collection if they are on one of the filter polygons.
+	 * Variant of {@link #filterWorldObjectCollisions(Collection, Collection)}
+	 * for outlines which have already been obtained using {@link #getOutlinePolygons(Collection)}.
+	 */
+	public static final void filterPolygonCollisions(
+			Collection<VectorXZ> positions,
+			List<PolygonShapeXZ> filterPolygons) {
 
-		while (positionIterator.hasNext()) {
+		if (positions.isEmpty() || filterPolygons.isEmpty()) return;
 
-			VectorXZ pos = positionIterator.next();
+		/*
+		 * perform filtering of positions.
+		 * A coverage grid across the positions' bounding box means that most positions
+		 * can be tested without inspecting the polygons' outlines.
+		 */
 
-			for (int i = 0; i < filterPolygons.size(); i++) {
-				if (filterPolygonBbox.get(i).contains(pos)
-						&& filterPolygons.get(i).contains(pos)) {
-					positionIterator.remove();
-					break;
-				}
-			}
+		AxisAlignedRectangleXZ positionBbox = bbox(positions);
 
+		int cellsPerAxis = max(1, min(MAX_COLLISION_GRID_CELLS_PER_AXIS, (int) ceil(sqrt(positions.size()))));
+		double cellSize = max(positionBbox.sizeX(), positionBbox.sizeZ()) / cellsPerAxis;
+		if (cellSize <= 0) {
+			cellSize = 1;
 		}
 
+		PolygonCoverageGrid coverageGrid = new PolygonCoverageGrid(filterPolygons, positionBbox, cellSize);
+
+		positions.removeIf(coverageGrid::contains);
+
 	}
 
+	/** limits the size of the grid used by {@link #filterWorldObjectCollisions(Collection, Collection)} */
+	private static final int MAX_COLLISION_GRID_CELLS_PER_AXIS = 256;
+
 	public static final Collection<TriangleXZ> triangulateAreaBetween(PolygonShapeXZ large, List<? extends PolygonShapeXZ> small) {
 
 		List<TriangleXZ> result = new ArrayList<>();
@@ -0,0 +1,478 @@
+package org.osm2world.console.commands;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Arrays.sort;
+import static org.osm2world.conversion.ConversionLog.LogLevel.FATAL;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.osm2world.console.OSM2World;
+import org.osm2world.conversion.ConversionLog;
+import org.osm2world.util.platform.json.JsonUtil;
+
+/**
+ * processes parameter files from a directory, see {@link ParamsCommand}.
+ * Each line of a parameter file becomes a job, and jobs are run by several worker threads.
+ *
+ * The directory is observed with a {@link WatchService}, so new files are noticed without polling.
+ * Jobs are prioritized by the names of their files: Jobs from files whose names sort first are run first,
+ * even if other files have been added to the directory earlier. Jobs from the same file are run in order.
+ *
+ * When a worker thread starts a job, it also takes all other waiting jobs which can share the same scene
+ * (see {@link ParamsCommand#compatibilityKey(String[])}), so the input only needs to be converted once.
+ *
+ * If processed files are deleted, each file is first moved to the {@link #CLAIMED_FILE_DIR_NAME} subdirectory.
+ * Because this directory is on the same file system, the move is atomic and each file is claimed by only one process.
+ */
+public class ParamFileDirWorker {
+
+	/** maximum number of enqueued parameter files. Making it larger means waiting longer for new, high-prio files. */
+	private static final int MAX_QUEUE_LENGTH = 2;
+
+	/** name of the subdirectory where files are moved while they are being read if processed files are deleted */
+	static final String CLAIMED_FILE_DIR_NAME = ".claimed";
+
+	/**
+	 * statistics about the jobs, e.g. for use by an external scheduler. Times are in seconds.
+	 *
+	 * @param queuedJobs               number of jobs waiting to be started
+	 * @param runningJobs              number of jobs taken by a worker thread which have not been completed yet
+	 * @param completedJobs            number of jobs which have been completed, including failed jobs
+	 * @param failedJobs               number of jobs which did not complete successfully
+	 * @param oldestQueuedJobWaitTime  how long the job which has been waiting the longest has been waiting so far
+	 * @param averageWaitTime          average time between claiming a job's file and starting the job
+	 * @param maxWaitTime              maximum time between claiming a job's file and starting the job
+	 * @param averageRunTime           average time needed for running a job
+	 */
+	public record Metrics(int queuedJobs, int runningJobs, long completedJobs, long failedJobs,
+			double oldestQueuedJobWaitTime, double averageWaitTime, double maxWaitTime, double averageRunTime) {}
+
+	/**
+	 * a parameter file whose jobs have been added to the queue
+	 */
+	private static class ClaimedFile {
+
+		/** number of this file's jobs which have not been completed yet, guarded by the worker */
+		int remainingJobs;
+
+		ClaimedFile(int remainingJobs) {
+			this.remainingJobs = remainingJobs;
+		}
+
+	}
+
+	/**
+	 * one line from a parameter file
+	 *
+	 * @param sequenceNumber  increases with each job, keeps jobs with the same file name in the order they were added
+	 * @param enqueueTime     time when the job was added to the queue, from {@link System#nanoTime()}
+	 */
+	private record Job(String[] args, String fileName, ClaimedFile file, long sequenceNumber,
+			List<String> compatibilityKey, long enqueueTime) {}
+
+	/** runs jobs, returning their exit codes. A new instance is used for each group of compatible jobs. */
+	@FunctionalInterface
+	interface JobRunner {
+		int run(String[] args);
+	}
+
+	private static final Comparator<Job> PRIORITY_ORDER =
+			Comparator.comparing(Job::fileName).thenComparingLong(Job::sequenceNumber);
+
+	private final File paramFileDir;
+	private final boolean deleteProcessedFiles;
+	private final boolean watch;
+	private final @Nullable File metricsFile;
+	private final int threadCount;
+	private final Supplier<JobRunner> jobRunnerFactory;
+
+	/** files which have been read, but not deleted. Only used by the thread calling {@link #run()}. */
+	private final Set<File> handledFiles = new HashSet<>();
+
+	/* the following fields are guarded by this */
+
+	private final PriorityQueue<Job> queue = new PriorityQueue<>(PRIORITY_ORDER);
+	private long nextSequenceNumber = 0;
+	private int runningJobs = 0;
+	/** number of claimed files with jobs which have not been completed yet */
+	private int pendingFiles = 0;
+	private boolean scanRequested = true;
+	private boolean stopped = false;
+
+	private long completedJobs = 0;
+	private long failedJobs = 0;
+	private long totalWaitNanos = 0;
+	private long maxWaitNanos = 0;
+	private long totalRunNanos = 0;
+
+	private final Object metricsFileLock = new Object();
+
+	/**
+	 * @param deleteProcessedFiles  whether files are deleted after they have been read.
+	 *                              This also allows several processes to work on the same directory.
+	 *                              Uses the {@link #CLAIMED_FILE_DIR_NAME} subdirectory while running.
+	 * @param watch                 whether to keep running and wait for new files
+	 *                              when all jobs have been completed
+	 * @param metricsFile           a file where the current {@link Metrics} are written as JSON, or null
+	 */
+	public ParamFileDirWorker(File paramFileDir, boolean deleteProcessedFiles, boolean watch,
+			@Nullable File metricsFile) {
+		this(paramFileDir, deleteProcessedFiles, watch, metricsFile, Runtime.getRuntime().availableProcessors(),
+				() -> OSM2World.buildCommandLine(new ConvertCommand())::execute);
+	}
+
+	/**
+	 * @param threadCount       number of worker threads
+	 * @param jobRunnerFactory  creates the {@link JobRunner} for each group of compatible jobs
+	 */
+	ParamFileDirWorker(File paramFileDir, boolean deleteProcessedFiles, boolean watch,
+			@Nullable File metricsFile, int threadCount, Supplier<JobRunner> jobRunnerFactory) {
+
+		if (!paramFileDir.isDirectory()) throw new IllegalArgumentException("Not a directory: " + paramFileDir);
+
+		this.paramFileDir = paramFileDir;
+		this.deleteProcessedFiles = deleteProcessedFiles;
+		this.watch = watch;
+		this.metricsFile = metricsFile;
+		this.threadCount = threadCount;
+		this.jobRunnerFactory = jobRunnerFactory;
+
+	}
+
+	/**
+	 * processes the files in the directory.
+	 * Unless in watch mode, this returns once all files (including those added in the meantime) have been processed.
+	 */
+	public void run() throws IOException, InterruptedException {
+
+		try (WatchService watchService = paramFileDir.toPath().getFileSystem().newWatchService()) {
+
+			paramFileDir.toPath().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+			Thread watcherThread = new Thread(() -> watchDirectory(watchService), "osm2world-param-file-watcher");
+			watcherThread.setDaemon(true);
+			watcherThread.start();
+
+			ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+			try {
+				for (int i = 0; i < threadCount; i++) {
+					executor.submit(this::processJobs);
+				}
+				manageQueue();
+			} finally {
+				synchronized (this) {
+					stopped = true;
+					notifyAll();
+				}
+				executor.shutdown();
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			}
+
+		} finally {
+			if (deleteProcessedFiles) {
+				try {
+					Files.deleteIfExists(getClaimedFileDir());
+				} catch (DirectoryNotEmptyException e) {
+					// still in use by another process
+				}
+			}
+		}
+
+	}
+
+	private Path getClaimedFileDir() {
+		return paramFileDir.toPath().resolve(CLAIMED_FILE_DIR_NAME);
+	}
+
+	/** returns the current statistics */
+	public synchronized Metrics getMetrics() {
+
+		long now = System.nanoTime();
+		long oldestWaitNanos = queue.stream().mapToLong(job -> now - job.enqueueTime()).max().orElse(0);
+
+		return new Metrics(queue.size(), runningJobs, completedJobs, failedJobs,
+				oldestWaitNanos / 1e9,
+				completedJobs > 0 ? totalWaitNanos / 1e9 / completedJobs : 0,
+				maxWaitNanos / 1e9,
+				completedJobs > 0 ? totalRunNanos / 1e9 / completedJobs : 0);
+
+	}
+
+	/** requests a new scan of the directory whenever the watch service reports changes */
+	private void watchDirectory(WatchService watchService) {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				key.pollEvents(); // the directory is scanned as a whole, which also handles overflow events
+				key.reset();
+				requestScan();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// the worker is shutting down
+		}
+	}
+
+	private synchronized void requestScan() {
+		scanRequested = true;
+		notifyAll();
+	}
+
+	private synchronized boolean isIdle() {
+		return queue.isEmpty() && runningJobs == 0;
+	}
+
+	/** claims new files whenever necessary, until all work has been done (or forever in watch mode) */
+	private void manageQueue() throws InterruptedException {
+
+		while (true) {
+
+			synchronized (this) {
+				while (!scanRequested && (watch || !isIdle())) {
+					wait();
+				}
+				scanRequested = false;
+			}
+
+			int claimedFiles = scanDirectory();
+
+			if (!watch && claimedFiles == 0) {
+				synchronized (this) {
+					if (isIdle() && !scanRequested) return;
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * claims new parameter files in the directory and adds their lines to the queue,
+	 * as long as the queue isn't full.
+	 *
+	 * @return  the number of claimed files
+	 */
+	private int scanDirectory() {
+
+		File[] files = paramFileDir.listFiles(it -> it.isFile() && !handledFiles.contains(it));
+
+		if (files == null) return 0;
+
+		sort(files);
+
+		int claimedFiles = 0;
+
+		for (File file : files) {
+
+			synchronized (this) {
+				if (pendingFiles - threadCount >= MAX_QUEUE_LENGTH) break;
+			}
+
+			try {
+
+				List<String[]> argGroups;
+
+				if (deleteProcessedFiles) {
+					// move the file away first, so it cannot be claimed by another process as well
+					Files.createDirectories(getClaimedFileDir());
+					Path claimedFilePath = Files.createTempFile(getClaimedFileDir(), "osm2world-", "-" + file.getName());
+					try {
+						Files.move(file.toPath(), claimedFilePath,
+								StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+						argGroups = ParamsCommand.getUnparsedParameterGroups(claimedFilePath.toFile());
+					} finally {
+						Files.deleteIfExists(claimedFilePath);
+					}
+				} else {
+					handledFiles.add(file);
+					argGroups = ParamsCommand.getUnparsedParameterGroups(file);
+				}
+
+				System.out.println("Queued " + argGroups.size() + " jobs from " + file.getName());
+
+				enqueue(file.getName(), argGroups);
+				claimedFiles += 1;
+
+			} catch (NoSuchFileException e) {
+				// the file has been claimed by another process in the meantime
+			} catch (IOException e) {
+				System.err.println("Could not read parameter file, skipping it: " + file + "\n" + e);
+				handledFiles.add(file);
+			}
+
+		}
+
+		return claimedFiles;
+
+	}
+
+	private void enqueue(String fileName, List<String[]> argGroups) {
+
+		List<List<String>> compatibilityKeys = argGroups.stream().map(ParamsCommand::compatibilityKey).toList();
+
+		synchronized (this) {
+			var claimedFile = new ClaimedFile(argGroups.size());
+			if (!argGroups.isEmpty()) {
+				pendingFiles += 1;
+			}
+			long now = System.nanoTime();
+			for (int i = 0; i < argGroups.size(); i++) {
+				queue.add(new Job(argGroups.get(i), fileName, claimedFile, nextSequenceNumber++,
+						compatibilityKeys.get(i), now));
+			}
+			notifyAll();
+		}
+
+		writeMetrics();
+
+	}
+
+	/** runs jobs until the worker is stopped. Executed by each of the worker threads. */
+	private void processJobs() {
+		List<Job> group;
+		while ((group = takeJobGroup()) != null) {
+			runJobGroup(group);
+		}
+	}
+
+	/**
+	 * waits for a job and removes it from the queue, along with all other waiting jobs compatible with it.
+	 *
+	 * @return  the jobs in priority order, or null if the worker has been stopped
+	 */
+	private @Nullable List<Job> takeJobGroup() {
+
+		List<Job> group = new ArrayList<>();
+
+		synchronized (this) {
+
+			while (queue.isEmpty() && !stopped) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					return null;
+				}
+			}
+
+			if (stopped) return null;
+
+			Job firstJob = queue.poll();
+			group.add(firstJob);
+
+			for (Iterator<Job> it = queue.iterator(); it.hasNext(); ) {
+				Job job = it.next();
+				if (job.compatibilityKey().equals(firstJob.compatibilityKey())) {
+					group.add(job);
+					it.remove();
+				}
+			}
+
+			group.sort(PRIORITY_ORDER);
+
+			runningJobs += group.size();
+
+		}
+
+		writeMetrics();
+
+		return group;
+
+	}
+
+	/** runs a group of compatible jobs, sharing the scene between them */
+	private void runJobGroup(List<Job> group) {
+
+		/* the command caches scenes, so a single instance is used for the entire group */
+
+		JobRunner jobRunner = jobRunnerFactory.get();
+
+		for (Job job : group) {
+
+			long startTime = System.nanoTime();
+			boolean failed;
+
+			try {
+				failed = jobRunner.run(job.args()) != 0;
+			} catch (Exception e) {
+				ConversionLog.log(FATAL, "Run failed for " + job.fileName(), e, null);
+				failed = true;
+			}
+
+			jobCompleted(job, startTime, System.nanoTime(), failed);
+
+		}
+
+	}
+
+	private void jobCompleted(Job job, long startTime, long endTime, boolean failed) {
+
+		synchronized (this) {
+
+			runningJobs -= 1;
+			completedJobs += 1;
+			if (failed) {
+				failedJobs += 1;
+			}
+
+			job.file().remainingJobs -= 1;
+			if (job.file().remainingJobs == 0) {
+				// there is room for another file now
+				pendingFiles -= 1;
+				scanRequested = true;
+			}
+
+			long waitNanos = startTime - job.enqueueTime();
+			totalWaitNanos += waitNanos;
+			maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+			totalRunNanos += endTime - startTime;
+
+			notifyAll();
+
+		}
+
+		writeMetrics();
+
+	}
+
+	/** writes the current metrics to the {@link #metricsFile} (if any), replacing the previous content atomically */
+	private void writeMetrics() {
+
+		if (metricsFile == null) return;
+
+		synchronized (metricsFileLock) {
+
+			File tempFile = new File(metricsFile.getAbsoluteFile().getParentFile(), metricsFile.getName() + ".tmp");
+
+			try {
+
+				try (FileWriter writer = new FileWriter(tempFile)) {
+					JsonUtil.toJson(getMetrics(), writer, true);
+				}
+
+				try {
+					Files.move(tempFile.toPath(), metricsFile.toPath(),
+							StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempFile.toPath(), metricsFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+
+			} catch (IOException e) {
+				System.err.println("Warning: Could not write metrics file " + metricsFile + ": " + e);
+			}
+
+		}
+
+	}
+
+}
@@ -1,28 +1,17 @@
 package org.osm2world.console.commands;
 
-import static java.util.Arrays.sort;
-import static org.osm2world.conversion.ConversionLog.LogLevel.FATAL;
-
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
+
 import org.osm2world.console.OSM2World;
-import org.osm2world.conversion.ConversionLog;
 
 import picocli.CommandLine;
 
@@ -33,8 +22,8 @@ import picocli.CommandLine;
 @CommandLine.Command(name = "params", description = "Run 'convert' with parameters from a text file or directory.")
 public class ParamsCommand implements Callable<Integer> {
 
-	/** maximum number of enqueued parameter files. Making it larger means waiting longer for new, high-prio files. */
-	private static final int MAX_QUEUE_LENGTH = 2;
+	/** options of {@link ConvertCommand} which only affect the output, not the scene */
+	private static final Set<String> OUTPUT_OPTIONS = Set.of("--output", "--resolution");
 
 	@CommandLine.Parameters(arity = "1..*", description = "files containing one set of parameters per line, " +
 			"or a directory containing an arbitrary amount of such files. " +
@@ -45,15 +34,28 @@ public class ParamsCommand implements Callable<Integer> {
 			description = "delete parameter files after they have been executed")
 	boolean deleteProcessedFiles = false;
 
+	@CommandLine.Option(names = "--watch",
+			description = "keep running and wait for new parameter files when processing a directory")
+	boolean watch = false;
+
+	@CommandLine.Option(names = "--metricsFile", paramLabel = "<path>",
+			description = "JSON file (outside the directory) where statistics about the queue of parameter files " +
+					"are written when processing a directory")
+	@Nullable File metricsFile = null;
+
 	@Override
 	public Integer call() throws Exception {
 
 		if (paths.size() == 1 && paths.get(0).isDirectory()) {
 
-			handleParamFileDir(paths.get(0), deleteProcessedFiles);
+			handleParamFileDir(paths.get(0), deleteProcessedFiles, watch, metricsFile);
 
 		} else {
 
+			if (watch || metricsFile != null) {
+				System.err.println("--watch and --metricsFile are only supported for a single directory");
+			}
+
 			for (File paramFile : paths) {
 				if (paramFile.isFile()) {
 					handleParamFile(paramFile);
@@ -78,99 +80,77 @@ public class ParamsCommand implements Callable<Integer> {
 
 		List<String[]> argGroups = getUnparsedParameterGroups(paramFile);
 
-		/* TODO: collect parameter groups into compatible groups
+		/* collect parameter groups into compatible groups
 		 * (groups of parameter groups that use the same input and config files) */
 
-		/* execute conversions */
-
-		CommandLine commandLine = OSM2World.buildCommandLine(new ConvertCommand());
+		Map<List<String>, List<String[]>> compatibleGroups = new LinkedHashMap<>();
 
 		for (String[] args : argGroups) {
-			commandLine.execute(args);
+			compatibleGroups.computeIfAbsent(compatibilityKey(args), k -> new ArrayList<>()).add(args);
 		}
 
-	}
+		/* execute conversions, using one command instance per group to share the scene within the group */
 
-	public static void handleParamFileDir(File paramFileDir, boolean deleteProcessedFiles) {
+		for (List<String[]> compatibleGroup : compatibleGroups.values()) {
 
-		if (!paramFileDir.isDirectory()) throw new IllegalArgumentException("Not a directory: " + paramFileDir);
+			CommandLine commandLine = OSM2World.buildCommandLine(new ConvertCommand());
 
-		int numCores = Runtime.getRuntime().availableProcessors();
-		ExecutorService executor = Executors.newFixedThreadPool(numCores);
-		AtomicInteger queueLength = new AtomicInteger();
-
-		HashSet<File> handledFiles = new HashSet<>();
-
-		boolean containsFiles;
-
-		do {
-
-			File[] files = paramFileDir.listFiles(it -> !handledFiles.contains(it));
-
-			if (files == null) {
-				containsFiles = false;
-			} else {
-				containsFiles = files.length > 0;
-				sort(files);
+			for (String[] args : compatibleGroup) {
+				commandLine.execute(args);
 			}
 
-			if (containsFiles) {
-
-				while (queueLength.get() - numCores > MAX_QUEUE_LENGTH) {
-					try {
-						Thread.sleep(500);
-					} catch (InterruptedException ignored) {}
-				}
-
-				try {
+		}
 
-					// create a temporary file (only to get unique names, it's immediately overwritten)
-					Path tempFilePath = File.createTempFile("osm2world-", "-" + files[0].getName()).toPath();
+	}
 
-					// move or copy the parameter file to the temporary location
-					if (deleteProcessedFiles) {
-						Files.move(files[0].toPath(), tempFilePath, StandardCopyOption.REPLACE_EXISTING);
-					} else {
-						Files.copy(files[0].toPath(), tempFilePath, StandardCopyOption.REPLACE_EXISTING);
-						handledFiles.add(files[0]);
-					}
+	/**
+	 * processes the parameter files in a directory until there are no more files left,
+	 * see {@link ParamFileDirWorker}
+	 */
+	public static void handleParamFileDir(File paramFileDir, boolean deleteProcessedFiles) {
+		handleParamFileDir(paramFileDir, deleteProcessedFiles, false, null);
+	}
 
-					queueLength.incrementAndGet();
+	private static void handleParamFileDir(File paramFileDir, boolean deleteProcessedFiles, boolean watch,
+			@Nullable File metricsFile) {
 
-					executor.submit(() -> {
+		try {
+			new ParamFileDirWorker(paramFileDir, deleteProcessedFiles, watch, metricsFile).run();
+		} catch (IOException e) {
+			System.err.println("IO issue encountered in parameter file directory mode, exiting.\n" + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 
-						System.out.println(tempFilePath);
+	}
 
-						try {
-							CommandLine commandLine = OSM2World.buildCommandLine(new ParamsCommand());
-							commandLine.execute(tempFilePath.toString());
-						} catch (Exception e) {
-							ConversionLog.log(FATAL, "Run failed for " + tempFilePath, e, null);
-						}
+	/**
+	 * returns a key which is the same for parameters of conversions that can share a scene,
+	 * i.e. that only differ in their outputs and camera views.
+	 * Parameters which cannot be parsed are only compatible with identical parameters.
+	 */
+	static List<String> compatibilityKey(String[] args) {
 
-						try {
-							Files.delete(tempFilePath);
-						} catch (IOException e) {
-							System.err.println("Warning: Could not delete temporary file " + tempFilePath);
-						}
+		try {
 
-						queueLength.decrementAndGet();
+			CommandLine.ParseResult parseResult = OSM2World.buildCommandLine(new ConvertCommand()).parseArgs(args);
 
-					});
+			List<String> result = new ArrayList<>();
 
-				} catch (IOException e) {
-					System.err.println("IO issue encountered in parameter file directory mode, exiting.\n" + e);
+			for (CommandLine.Model.OptionSpec option : parseResult.matchedOptions()) {
+				String name = option.longestName();
+				if (!OUTPUT_OPTIONS.contains(name) && !name.startsWith("--oview.") && !name.startsWith("--pview.")) {
+					result.add(name + "=" + option.stringValues());
 				}
-
 			}
 
-		} while (containsFiles);
+			result.sort(null);
 
-		executor.shutdown();
+			return result;
 
-		try {
-			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-		} catch (InterruptedException ignored) {}
+		} catch (CommandLine.PicocliException e) {
+			return List.of(args);
+		}
 
 	}
 
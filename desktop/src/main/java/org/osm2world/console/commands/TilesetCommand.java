@@ -21,6 +21,7 @@ import org.osm2world.console.commands.mixins.LoggingOptions;
 import org.osm2world.console.commands.mixins.MetadataOptions;
 import org.osm2world.conversion.O2WConfig;
 import org.osm2world.math.geo.*;
+import org.osm2world.osm.creation.GeodeskLibraryPool;
 import org.osm2world.osm.creation.OSMDataReaderView;
 import org.osm2world.output.Output;
 import org.osm2world.output.common.compression.Compression;
@@ -29,6 +30,7 @@ import org.osm2world.output.tileset.TilesetOutput;
 import org.osm2world.scene.Scene;
 import org.osm2world.scene.mesh.LevelOfDetail;
 import org.osm2world.util.exception.InvalidGeometryException;
+import org.osm2world.util.platform.image.ImageUtil;
 
 import me.tongfei.progressbar.ProgressBar;
 import picocli.CommandLine;
@@ -73,6 +75,10 @@ public class TilesetCommand implements Callable<Integer> {
 	@CommandLine.Option(names = {"--noJson"}, description = "skip creation of tileset.json files")
 	boolean noJson = false;
 
+	@CommandLine.Option(names = {"--reuseScene"},
+			description = "convert each tile only once and create the outputs for all LOD from the same scene")
+	boolean reuseScene = false;
+
 	@CommandLine.Option(names = {"--precompressedTiles"},
 			description = "store tiles with .gz compression, but reference their uncompressed names in tilesets")
 	boolean precompressedTiles = false;
@@ -159,77 +165,160 @@ public class TilesetCommand implements Callable<Integer> {
 
 		if (tileNumbers.isEmpty()) { return; }
 
+		GeodeskLibraryPool.resetStatistics();
+
 		var completedTiles = new AtomicInteger(0);
 		try (var pb = new ProgressBar("Generate tiles", tileNumbers.size())) {
 
 			tileNumbers.parallelStream().forEach(tile -> {
 
-				for (LevelOfDetail lod : this.lod) {
+				/* the outputs are written during the conversion so that their times become part of its log */
+
+				if (reuseScene) {
 
 					try {
 
-						/* construct config - TODO: deduplicate with ConvertCommand */
+						List<Output> outputs = new ArrayList<>();
+						for (LevelOfDetail lod : this.lod) {
+							outputs.add(new TileOutput(tile, lod, buildConfig(tile, lod)));
+						}
 
-						var extraProperties = new HashMap<>(metadataOptions.configOptionsFromMetadata(tile));
+						convertTile(tile, outputs.get(0).getConfiguration(), outputs);
+
+					} catch (IOException | InvalidGeometryException e) {
+						System.err.println("Failed to create tile " + tile + " at " + this.lod + ": " + e.getMessage());
+					}
 
-						extraProperties.put("lod", lod.ordinal());
+				} else {
 
-						if (loggingOptions.logDir != null) {
-							extraProperties.put("logDir", loggingOptions.logDir.toString());
+					for (LevelOfDetail lod : this.lod) {
+
+						try {
+							O2WConfig config = buildConfig(tile, lod);
+							convertTile(tile, config, List.of(new TileOutput(tile, lod, config)));
+						} catch (IOException | InvalidGeometryException e) {
+							System.err.println("Failed to create tile " + tile + " at " + lod + ": " + e.getMessage());
 						}
 
-						O2WConfig config = configOptions.getO2WConfig(extraProperties);
+					}
 
-						/* Set some default values specific to the tileset command */
+				}
 
-						if (!config.containsKey("keepOsmElements")) {
-							config = config.withProperty("keepOsmElements", "false");
-						}
-						if (!config.containsKey("clipToBounds")) {
-							config = config.withProperty("clipToBounds", "true");
-						}
+				pb.stepTo(completedTiles.incrementAndGet());
 
-						/* render the scene */
+			});
 
-						OSMDataReaderView readerView = inputOptions.buildInput(tile);
+		}
 
-						var o2w = new O2WConverter();
-						o2w.setConfig(config);
-						Scene scene = o2w.convert(readerView, null, null);
+		GeodeskLibraryPool.closeAll();
 
-						MapProjection mapProjection = scene.getMapProjection();
-						assert mapProjection != null;
+		var geodeskStatistics = GeodeskLibraryPool.getStatistics();
+		if (geodeskStatistics.reads() > 0) {
+			System.out.println("Geodesk: " + geodeskStatistics);
+		}
 
-						/* create glb and tileset files */
+		var imageCacheStats = ImageUtil.getCacheStats();
+		if (imageCacheStats != null && imageCacheStats.hitCount() + imageCacheStats.missCount() > 0) {
+			System.out.println("Texture images: " + imageCacheStats);
+		}
+	}
 
-						Output output;
+	/** constructs the config for a tile at a LOD - TODO: deduplicate with ConvertCommand */
+	private O2WConfig buildConfig(TileNumber tile, LevelOfDetail lod) throws IOException {
 
-						if (noJson) {
+		var extraProperties = new HashMap<>(metadataOptions.configOptionsFromMetadata(tile));
 
-							File glbFile = getTileFilename(tile, lod, ".glb" + getCompression().extension());
-							output = new GltfOutput(glbFile, GLB, null);
+		extraProperties.put("lod", lod.ordinal());
 
-						} else {
+		if (loggingOptions.logDir != null) {
+			extraProperties.put("logDir", loggingOptions.logDir.toString());
+		}
 
-							File tilesetJsonFile = getTileFilename(tile, lod, ".tileset.json");
-							output = new TilesetOutput(tilesetJsonFile, GLB, getCompression(), mapProjection, scene.getBoundary());
+		O2WConfig config = configOptions.getO2WConfig(extraProperties);
 
-						}
+		/* Set some default values specific to the tileset command */
 
-						output.setConfiguration(config);
-						output.outputScene(scene);
+		if (!config.containsKey("keepOsmElements")) {
+			config = config.withProperty("keepOsmElements", "false");
+		}
+		if (!config.containsKey("clipToBounds")) {
+			config = config.withProperty("clipToBounds", "true");
+		}
 
-					} catch (IOException | InvalidGeometryException e) {
-						System.err.println("Failed to create tile " + tile + " at " + lod + ": " + e.getMessage());
-					}
+		return config;
 
-				}
+	}
 
-				pb.stepTo(completedTiles.incrementAndGet());
+	/** renders the scene for a tile and writes it to the outputs */
+	private Scene convertTile(TileNumber tile, O2WConfig config, List<Output> outputs) throws IOException {
 
-			});
+		OSMDataReaderView readerView = inputOptions.buildInput(tile);
+
+		var o2w = new O2WConverter();
+		o2w.setConfig(config);
+		return o2w.convert(readerView, null, null, outputs.toArray(new Output[0]));
+
+	}
+
+	/**
+	 * writes the glb and tileset files for a tile at a LOD.
+	 * Keeps the config for its own LOD even if the scene is converted with a config for another LOD.
+	 */
+	private class TileOutput implements Output {
+
+		private final TileNumber tile;
+		private final LevelOfDetail lod;
+		private final O2WConfig config;
+
+		TileOutput(TileNumber tile, LevelOfDetail lod, O2WConfig config) {
+			this.tile = tile;
+			this.lod = lod;
+			this.config = config;
+		}
+
+		@Override
+		public void setConfiguration(O2WConfig config) {
+			// the LOD's own config is used instead of the conversion's config
+		}
+
+		@Override
+		public O2WConfig getConfiguration() {
+			return config;
+		}
 
+		@Override
+		public void outputScene(Scene scene) {
+			writeTile(tile, lod, scene, config);
 		}
+
+	}
+
+	/**
+	 * creates glb and tileset files for a tile at a LOD.
+	 * The scene can have been converted with a config for another LOD.
+	 */
+	private void writeTile(TileNumber tile, LevelOfDetail lod, Scene scene, O2WConfig config) {
+
+		MapProjection mapProjection = scene.getMapProjection();
+		assert mapProjection != null;
+
+		Output output;
+
+		if (noJson) {
+
+			File glbFile = getTileFilename(tile, lod, ".glb" + getCompression().extension());
+			output = new GltfOutput(glbFile, GLB, null);
+
+		} else {
+
+			File tilesetJsonFile = getTileFilename(tile, lod, ".tileset.json");
+			output = new TilesetOutput(tilesetJsonFile, GLB, getCompression(), mapProjection, scene.getBoundary());
+
+		}
+
+		output.setConfiguration(config);
+		output.outputScene(scene);
+
 	}
 
 	private Compression getCompression() {
@@ -1,6 +1,8 @@
 package org.osm2world.console.commands.mixins;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +17,25 @@ public class ConfigOptions {
 
 	public static final File STANDARD_PROPERTIES_FILE = new File("standard.properties");
 
+	/** maximum number of configs kept by {@link #getO2WConfig(Map)} */
+	private static final int MAX_CACHED_CONFIGS = 16;
+
+	/**
+	 * @param lastModified  modification times of the config files, so that changed files are read again
+	 */
+	private record ConfigKey(List<File> configFiles, List<Long> lastModified, Map<String, ?> extraProperties) {}
+
+	/**
+	 * recently used configs. Reusing them avoids reading the config files again and keeps the
+	 * {@link O2WConfig#mapStyle()} warm for repeated conversions in the same process, e.g. with the params command.
+	 */
+	private static final Map<ConfigKey, O2WConfig> CACHED_CONFIGS = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ConfigKey, O2WConfig> eldest) {
+			return size() > MAX_CACHED_CONFIGS;
+		}
+	};
+
 	public List<File> getConfigFiles() {
 
 		if (config.isEmpty() && STANDARD_PROPERTIES_FILE.isFile()) {
@@ -28,10 +49,26 @@ public class ConfigOptions {
 
 	public O2WConfig getO2WConfig(Map<String, ?> extraProperties) {
 
-		File[] configFiles = getConfigFiles().toArray(new File[0]);
+		List<File> configFiles = getConfigFiles();
+
+		var key = new ConfigKey(
+				configFiles.stream().map(File::getAbsoluteFile).toList(),
+				configFiles.stream().map(File::lastModified).toList(),
+				new HashMap<>(extraProperties));
+
+		synchronized (CACHED_CONFIGS) {
+			O2WConfig cachedConfig = CACHED_CONFIGS.get(key);
+			if (cachedConfig != null) {
+				return cachedConfig;
+			}
+		}
 
 		try {
-			return new O2WConfig(extraProperties, configFiles);
+			O2WConfig config = new O2WConfig(extraProperties, configFiles.toArray(new File[0]));
+			synchronized (CACHED_CONFIGS) {
+				CACHED_CONFIGS.put(key, config);
+			}
+			return config;
 		} catch (Exception e) {
 			System.err.println("could not read config, ignoring it:\n" + e);
 			return new O2WConfig();
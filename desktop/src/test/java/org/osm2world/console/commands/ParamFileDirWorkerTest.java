@@ -0,0 +1,152 @@
+package org.osm2world.console.commands;
+
+import static org.junit.Assert.*;
+import static org.osm2world.util.test.TestFileUtil.createTempDirectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+public class ParamFileDirWorkerTest {
+
+	/**
+	 * records the output names of the jobs in the order they were run.
+	 * The first job is blocked until {@link #releaseFirstJob()} is called.
+	 */
+	private static class RecordingJobRunner implements ParamFileDirWorker.JobRunner {
+
+		final List<String> runJobs = new ArrayList<>();
+		private final CountDownLatch firstJobLatch = new CountDownLatch(1);
+
+		@Override
+		public int run(String[] args) {
+			boolean first;
+			synchronized (this) {
+				first = runJobs.isEmpty();
+				runJobs.add(args[List.of(args).indexOf("-o") + 1]);
+			}
+			if (first) {
+				try {
+					firstJobLatch.await();
+				} catch (InterruptedException e) {
+					return 1;
+				}
+			}
+			return 0;
+		}
+
+		void releaseFirstJob() {
+			firstJobLatch.countDown();
+		}
+
+		synchronized List<String> getRunJobs() {
+			return List.copyOf(runJobs);
+		}
+
+	}
+
+	@Test
+	public void testPriorityAndGrouping() throws Exception {
+
+		File dir = createTempDirectory();
+		writeParamFile(dir, "a.txt", "-i 3.osm -o a1", "-i 1.osm -o a2");
+		writeParamFile(dir, "b.txt", "-i 1.osm -o b1", "-i 2.osm -o b2");
+		writeParamFile(dir, "c.txt", "-i 1.osm -o c1");
+
+		var jobRunner = new RecordingJobRunner();
+		var worker = new ParamFileDirWorker(dir, false, false, null, 1, () -> jobRunner);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+
+			Future<?> result = executor.submit(() -> { worker.run(); return null; });
+
+			/* wait until all files have been queued while the first job is still running */
+
+			waitFor(() -> worker.getMetrics().queuedJobs() == 4);
+			assertEquals(List.of("a1"), jobRunner.getRunJobs());
+
+			jobRunner.releaseFirstJob();
+			result.get(10, TimeUnit.SECONDS);
+
+			/* jobs for 1.osm are run together, the remaining job from b.txt has to wait for them */
+
+			assertEquals(List.of("a1", "a2", "b1", "c1", "b2"), jobRunner.getRunJobs());
+			assertEquals(5, worker.getMetrics().completedJobs());
+			assertEquals(0, worker.getMetrics().failedJobs());
+
+			/* the files are kept */
+
+			assertEquals(3, dir.listFiles(File::isFile).length);
+
+		} finally {
+			jobRunner.releaseFirstJob();
+			executor.shutdownNow();
+		}
+
+	}
+
+	@Test
+	public void testFileLimitAndDeletion() throws Exception {
+
+		File dir = createTempDirectory();
+		for (int i = 0; i < 6; i++) {
+			writeParamFile(dir, "f" + i + ".txt", "-i " + i + ".osm -o f" + i);
+		}
+
+		var jobRunner = new RecordingJobRunner();
+		var worker = new ParamFileDirWorker(dir, true, false, null, 1, () -> jobRunner);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+
+			Future<?> result = executor.submit(() -> { worker.run(); return null; });
+
+			/* with one thread, only the running file and two queued files are claimed */
+
+			waitFor(() -> dir.listFiles(File::isFile).length == 3);
+			Thread.sleep(200);
+			assertEquals(3, dir.listFiles(File::isFile).length);
+			assertTrue(new File(dir, "f3.txt").exists());
+			assertEquals(List.of("f0"), jobRunner.getRunJobs());
+
+			jobRunner.releaseFirstJob();
+			result.get(10, TimeUnit.SECONDS);
+
+			/* all files have been processed in order and deleted, along with the directory for claimed files */
+
+			assertEquals(List.of("f0", "f1", "f2", "f3", "f4", "f5"), jobRunner.getRunJobs());
+			assertEquals(0, dir.listFiles().length);
+
+		} finally {
+			jobRunner.releaseFirstJob();
+			executor.shutdownNow();
+		}
+
+	}
+
+	private static void writeParamFile(File dir, String name, String... lines) throws IOException {
+		Files.write(new File(dir, name).toPath(), List.of(lines));
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > timeout) fail("timed out");
+			Thread.sleep(10);
+		}
+	}
+
+}
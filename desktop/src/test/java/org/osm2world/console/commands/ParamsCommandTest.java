@@ -0,0 +1,30 @@
+package org.osm2world.console.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.osm2world.console.commands.ParamsCommand.compatibilityKey;
+
+import org.junit.Test;
+
+public class ParamsCommandTest {
+
+	@Test
+	public void testCompatibilityKey() {
+
+		String[] args1 = {"-i", "input.osm", "--config", "style.properties", "-o", "a.png", "--oview.angle", "45"};
+		String[] args2 = {"--config", "style.properties", "--input", "input.osm", "-o", "b.glb"};
+		String[] args3 = {"-i", "input.osm", "--config", "style.properties", "--lod", "1", "-o", "a.png"};
+		String[] args4 = {"-i", "other.osm", "--config", "style.properties", "-o", "a.png"};
+
+		assertEquals(compatibilityKey(args1), compatibilityKey(args2));
+		assertNotEquals(compatibilityKey(args1), compatibilityKey(args3));
+		assertNotEquals(compatibilityKey(args1), compatibilityKey(args4));
+
+		String[] invalidArgs = {"--noSuchOption", "-o", "a.png"};
+
+		assertEquals(compatibilityKey(invalidArgs), compatibilityKey(invalidArgs.clone()));
+		assertNotEquals(compatibilityKey(args1), compatibilityKey(invalidArgs));
+
+	}
+
+}